@@ -0,0 +1,113 @@
+package cl.camodev.wosbot.bench;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import cl.camodev.utiles.UtilOCR;
+import cl.camodev.utiles.image.ScreenFrame;
+import cl.camodev.utiles.ocr.DigitRecognizer;
+import cl.camodev.wosbot.bench.OcrCorpus.Category;
+import cl.camodev.wosbot.bench.OcrCorpus.Sample;
+
+/**
+ * Reads every corpus crop with every {@link OcrPreset} and prints, per preset, how many crops were
+ * read exactly, how many parsed to the expected value, and the median read time.
+ * <p>
+ * Run from the repository root (Tesseract data is loaded from {@code lib/tesseract}):
+ * {@code java -cp wos-bench/target/benchmarks.jar cl.camodev.wosbot.bench.OcrAccuracyReport [reads per crop]}
+ */
+public final class OcrAccuracyReport {
+
+	private record Read(Sample sample, OcrPreset preset, String text, boolean exact, boolean parsed, double medianMs) {
+	}
+
+	private OcrAccuracyReport() {
+	}
+
+	public static void main(String[] args) throws IOException {
+		int reads = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+		nu.pattern.OpenCV.loadLocally();
+
+		List<Sample> samples = new ArrayList<>();
+		for (Sample sample : OcrCorpus.load()) {
+			if (sample.isLanguageAvailable()) {
+				samples.add(sample);
+			} else {
+				System.out.printf("Skipping %s: traineddata for %s not found in lib/tesseract%n", sample.id(),
+						sample.language());
+			}
+		}
+
+		DigitRecognizer recognizer = OcrPreset.newRecognizer();
+		List<Read> results = new ArrayList<>();
+		for (OcrPreset preset : OcrPreset.values()) {
+			for (Sample sample : samples) {
+				results.add(read(sample, preset, recognizer, reads));
+			}
+		}
+
+		System.out.printf("%n%-22s %-18s %-6s %-6s %9s  %s%n", "crop", "preset", "exact", "parsed", "median ms", "text");
+		for (Read read : results) {
+			System.out.printf("%-22s %-18s %-6s %-6s %9.2f  %s%n", read.sample().id(), read.preset(),
+					read.exact() ? "yes" : "no", read.parsed() ? "yes" : "no", read.medianMs(), read.text());
+		}
+
+		System.out.printf("%n%-18s %8s %8s %10s", "preset", "exact", "parsed", "median ms");
+		for (Category category : Category.values()) {
+			System.out.printf(" %9s", category);
+		}
+		System.out.println();
+		for (OcrPreset preset : OcrPreset.values()) {
+			List<Read> presetReads = results.stream().filter(read -> read.preset() == preset).toList();
+			System.out.printf("%-18s %8s %8s %10.2f", preset, ratio(presetReads, Read::exact),
+					ratio(presetReads, Read::parsed), median(presetReads.stream().mapToDouble(Read::medianMs).toArray()));
+			for (Category category : Category.values()) {
+				System.out.printf(" %9s", ratio(presetReads.stream().filter(read -> read.sample().category() == category)
+						.toList(), Read::parsed));
+			}
+			System.out.println();
+		}
+		System.out.println();
+		System.out.println(recognizer.getStats());
+	}
+
+	private static Read read(Sample sample, OcrPreset preset, DigitRecognizer recognizer, int reads) {
+		ScreenFrame frame = sample.loadFrame();
+		try {
+			String text = null;
+			double[] times = new double[reads];
+			for (int i = 0; i < reads; i++) {
+				UtilOCR.getResultCache().clear();
+				long start = System.nanoTime();
+				text = preset.read(sample, frame, recognizer);
+				times[i] = (System.nanoTime() - start) / 1_000_000.0;
+			}
+			text = text == null ? "" : text.trim();
+			boolean exact = normalize(text).equals(normalize(sample.expected()));
+			Object value = sample.category().parse(text);
+			boolean parsed = value != null && Objects.equals(value, sample.category().parse(sample.expected()));
+			return new Read(sample, preset, text, exact, parsed, median(times));
+		} catch (Exception e) {
+			return new Read(sample, preset, "error: " + e.getMessage(), false, false, Double.NaN);
+		} finally {
+			frame.release();
+		}
+	}
+
+	private static String normalize(String text) {
+		return text.replaceAll("\\s", "");
+	}
+
+	private static String ratio(List<Read> reads, Predicate<Read> ok) {
+		return reads.isEmpty() ? "-" : reads.stream().filter(ok).count() + "/" + reads.size();
+	}
+
+	private static double median(double[] values) {
+		double[] sorted = Arrays.stream(values).filter(v -> !Double.isNaN(v)).sorted().toArray();
+		return sorted.length == 0 ? Double.NaN : sorted[sorted.length / 2];
+	}
+}
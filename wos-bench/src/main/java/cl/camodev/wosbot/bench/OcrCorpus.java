@@ -0,0 +1,157 @@
+package cl.camodev.wosbot.bench;
+
+import java.awt.Color;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import cl.camodev.utiles.image.ScreenFrame;
+import cl.camodev.utiles.number.NumberConverters;
+import cl.camodev.utiles.ocr.TesseractEnginePool;
+import cl.camodev.utiles.time.TimeConverters;
+import cl.camodev.wosbot.ot.DTOPoint;
+
+/**
+ * Labelled OCR crops checked in under {@code ocr-corpus/}, described by {@code corpus.tsv}.
+ */
+public final class OcrCorpus {
+
+	private static final String ROOT = "/ocr-corpus/";
+
+	/**
+	 * Kind of value a crop holds, with the parser the tasks use for it.
+	 */
+	public enum Category {
+		STAMINA("0123456789,./"),
+		TIMER("0123456789:"),
+		COUNTER("0123456789"),
+		POWER("0123456789,.");
+
+		private static final Pattern STAMINA_PATTERN = Pattern.compile("([\\d,\\.]+)\\s*/\\s*([\\d,\\.]+)");
+		private static final Pattern COUNTER_PATTERN = Pattern.compile(".*?(\\d+).*");
+		private static final Pattern POWER_PATTERN = Pattern.compile("[\\d,\\.\\s]+");
+
+		private final String allowedChars;
+
+		Category(String allowedChars) {
+			this.allowedChars = allowedChars;
+		}
+
+		public String getAllowedChars() {
+			return allowedChars;
+		}
+
+		/**
+		 * @return the parsed value, or {@code null} when the text cannot be parsed
+		 */
+		public Object parse(String text) {
+			if (text == null) {
+				return null;
+			}
+			switch (this) {
+				case STAMINA -> {
+					Matcher matcher = STAMINA_PATTERN.matcher(text);
+					return matcher.find() ? parseDigits(matcher.group(1)) : null;
+				}
+				case TIMER -> {
+					try {
+						Duration duration = TimeConverters.hhmmssToDuration(text);
+						return duration.getSeconds();
+					} catch (DateTimeParseException e) {
+						return null;
+					}
+				}
+				case COUNTER -> {
+					return NumberConverters.regexToInt(text, COUNTER_PATTERN);
+				}
+				case POWER -> {
+					return POWER_PATTERN.matcher(text.trim()).matches() ? parseDigits(text) : null;
+				}
+			}
+			return null;
+		}
+
+		private static Long parseDigits(String text) {
+			String digits = text.replaceAll("\\D", "");
+			try {
+				return digits.isEmpty() ? null : Long.parseLong(digits);
+			} catch (NumberFormatException e) {
+				return null;
+			}
+		}
+	}
+
+	public record Sample(String id, String file, Category category, String language, Color textColor, String expected) {
+
+		/**
+		 * Decodes the crop into a frame; the caller releases it.
+		 */
+		public ScreenFrame loadFrame() {
+			try (InputStream in = OcrCorpus.class.getResourceAsStream(ROOT + file)) {
+				if (in == null) {
+					throw new IllegalStateException("Corpus crop not found: " + file);
+				}
+				return ScreenFrame.fromPng(in.readAllBytes());
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		/**
+		 * @return true if every traineddata file the sample's language needs is bundled
+		 */
+		public boolean isLanguageAvailable() {
+			return Arrays.stream(language.split("\\+"))
+					.allMatch(lang -> Files.exists(Path.of(TesseractEnginePool.DATA_PATH, lang + ".traineddata")));
+		}
+	}
+
+	private OcrCorpus() {
+	}
+
+	public static List<Sample> load() {
+		try (InputStream in = OcrCorpus.class.getResourceAsStream(ROOT + "corpus.tsv")) {
+			if (in == null) {
+				throw new IllegalStateException("Corpus manifest not found");
+			}
+			List<Sample> samples = new ArrayList<>();
+			BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isBlank() || line.startsWith("#")) {
+					continue;
+				}
+				String[] columns = line.split("\t");
+				samples.add(new Sample(columns[0], columns[1], Category.valueOf(columns[2]), columns[3],
+						new Color(Integer.parseInt(columns[4], 16)), columns[5]));
+			}
+			return samples;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public static Sample get(String id) {
+		return load().stream().filter(sample -> sample.id().equals(id)).findFirst()
+				.orElseThrow(() -> new IllegalArgumentException("Unknown corpus sample: " + id));
+	}
+
+	/**
+	 * Bottom-right corner of a whole crop, for the region based OCR calls.
+	 */
+	public static DTOPoint bottomRight(ScreenFrame frame) {
+		return new DTOPoint(frame.getWidth(), frame.getHeight());
+	}
+}
@@ -0,0 +1,74 @@
+package cl.camodev.wosbot.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cl.camodev.utiles.UtilOCR;
+import cl.camodev.utiles.image.ScreenFrame;
+import cl.camodev.utiles.ocr.DigitRecognizer;
+import cl.camodev.wosbot.bench.OcrCorpus.Sample;
+import net.sourceforge.tess4j.TesseractException;
+
+/**
+ * Latency of reading each corpus crop with each {@link OcrPreset}. The result cache is cleared
+ * before every read, so each invocation runs the full preprocessing and recognition. Each trial
+ * starts from a recognizer without glyph samples.
+ * <p>
+ * Tesseract loads its data from {@code lib/tesseract}, so run from the repository root.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OcrLatencyBenchmark {
+
+	@Param({ "stamina_120_120", "stamina_1050_120", "stamina_37_120", "timer_012345", "timer_000409", "timer_235907",
+			"counter_7", "counter_25", "counter_140", "power_987654", "power_12345678", "power_45210033" })
+	public String sample;
+
+	@Param({ "LINE", "REMOVE_BACKGROUND", "DIGITS", "OTSU", "SCALED_OTSU", "GLYPHS" })
+	public OcrPreset preset;
+
+	private Sample corpusSample;
+	private ScreenFrame frame;
+	private DigitRecognizer recognizer;
+
+	@Setup
+	public void setup() throws IOException {
+		nu.pattern.OpenCV.loadLocally();
+		corpusSample = OcrCorpus.get(sample);
+		frame = corpusSample.loadFrame();
+		recognizer = OcrPreset.newRecognizer();
+	}
+
+	@Setup(Level.Invocation)
+	public void clearCache() {
+		UtilOCR.getResultCache().clear();
+	}
+
+	@TearDown
+	public void tearDown() {
+		frame.release();
+	}
+
+	@Benchmark
+	public String read() throws TesseractException {
+		return preset.read(corpusSample, frame, recognizer);
+	}
+}
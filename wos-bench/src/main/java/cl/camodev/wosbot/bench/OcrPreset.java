@@ -0,0 +1,94 @@
+package cl.camodev.wosbot.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import cl.camodev.utiles.UtilOCR;
+import cl.camodev.utiles.image.ScreenFrame;
+import cl.camodev.utiles.ocr.DigitRecognizer;
+import cl.camodev.wosbot.bench.OcrCorpus.Sample;
+import cl.camodev.wosbot.ot.DTOPoint;
+import cl.camodev.wosbot.ot.DTOTesseractSettings;
+import cl.camodev.wosbot.ot.DTOTesseractSettings.OcrEngineMode;
+import cl.camodev.wosbot.ot.DTOTesseractSettings.PageSegMode;
+import net.sourceforge.tess4j.TesseractException;
+
+/**
+ * OCR configurations compared by the benchmarks, each mirroring a way the tasks read a region.
+ */
+public enum OcrPreset {
+
+	/**
+	 * Language only (single line, LSTM), as {@code ocrRegionText(emulator, p1, p2)}. The only preset
+	 * that reads with the sample's language; settings based reads always use {@code eng}.
+	 */
+	LINE,
+	/**
+	 * Background removal on the text color.
+	 */
+	REMOVE_BACKGROUND,
+	/**
+	 * Background removal plus a whitelist of the category's characters.
+	 */
+	DIGITS,
+	/**
+	 * Otsu binarization, no background removal.
+	 */
+	OTSU,
+	/**
+	 * x2 cubic upscale, then Otsu binarization.
+	 */
+	SCALED_OTSU,
+	/**
+	 * The {@link #DIGITS} settings through the learned glyph recognizer, Tesseract as fallback.
+	 */
+	GLYPHS;
+
+	/**
+	 * @param recognizer Glyph recognizer used by {@link #GLYPHS}, kept apart from the shared one
+	 *                   so runs neither read nor alter the samples the bot learned
+	 */
+	public String read(Sample sample, ScreenFrame frame, DigitRecognizer recognizer) throws TesseractException {
+		DTOPoint topLeft = new DTOPoint(0, 0);
+		DTOPoint bottomRight = OcrCorpus.bottomRight(frame);
+		return switch (this) {
+			case LINE -> UtilOCR.ocrFromRegion(frame, topLeft, bottomRight, sample.language());
+			case GLYPHS -> UtilOCR.ocrDigitsFromRegion(recognizer, frame, topLeft, bottomRight, settings(sample),
+					sample.language());
+			default -> UtilOCR.ocrFromRegion(frame, topLeft, bottomRight, settings(sample));
+		};
+	}
+
+	/**
+	 * Creates a glyph recognizer without samples, stored in a temporary directory removed on exit.
+	 */
+	public static DigitRecognizer newRecognizer() throws IOException {
+		Path dir = Files.createTempDirectory("wos-bench-glyphs");
+		Path file = dir.resolve("glyphs.bin");
+		// Deleted in reverse order of registration: the file, then its directory
+		dir.toFile().deleteOnExit();
+		file.toFile().deleteOnExit();
+		return DigitRecognizer.create(file);
+	}
+
+	/**
+	 * @return the settings of this preset for a sample, {@code null} for {@link #LINE}
+	 */
+	public DTOTesseractSettings settings(Sample sample) {
+		DTOTesseractSettings.Builder builder = DTOTesseractSettings.builder()
+				.setPageSegMode(PageSegMode.SINGLE_LINE)
+				.setOcrEngineMode(OcrEngineMode.LSTM);
+		switch (this) {
+			case LINE -> {
+				return null;
+			}
+			case REMOVE_BACKGROUND -> builder.setRemoveBackground(true).setTextColor(sample.textColor());
+			case DIGITS, GLYPHS -> builder.setRemoveBackground(true).setTextColor(sample.textColor())
+					.setAllowedChars(sample.category().getAllowedChars());
+			case OTSU -> builder.addBinarize(0);
+			case SCALED_OTSU -> builder.addScale(2).addBinarize(0);
+		}
+		return builder.build();
+	}
+}
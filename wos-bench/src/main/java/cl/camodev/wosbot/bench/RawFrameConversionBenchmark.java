@@ -0,0 +1,100 @@
+package cl.camodev.wosbot.bench;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cl.camodev.utiles.image.RawFrameConverter;
+
+/**
+ * Raw framebuffer conversion of a 720x1280 frame: the former per-pixel conversion into a
+ * BufferedImage, the per-pixel conversion into a BGR buffer, and {@link RawFrameConverter}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RawFrameConversionBenchmark {
+
+	private static final int WIDTH = 720;
+	private static final int HEIGHT = 1280;
+
+	@Param({ "RGBA_8888", "RGB_565" })
+	public String format;
+
+	private RawFrameConverter.Layout layout;
+	private byte[] data;
+	private byte[] bgr;
+	private BufferedImage image;
+
+	@Setup
+	public void setup() {
+		layout = "RGB_565".equals(format) ? RawFrameConverter.Layout.RGB_565 : RawFrameConverter.Layout.RGBA_8888;
+		data = new byte[WIDTH * HEIGHT * layout.bpp() / 8];
+		new Random(42).nextBytes(data);
+		bgr = new byte[WIDTH * HEIGHT * 3];
+		image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+	}
+
+	/**
+	 * Former conversion: three bounds checked reads per pixel, then BufferedImage.setRGB.
+	 */
+	@Benchmark
+	public BufferedImage legacyBufferedImage() {
+		int[] pixels = new int[WIDTH * HEIGHT];
+		int index = 0;
+		for (int y = 0; y < HEIGHT; y++) {
+			for (int x = 0; x < WIDTH; x++) {
+				int offset = index * layout.bpp() / 8;
+				int r = colorComponent(offset, layout.redOffset());
+				int g = colorComponent(offset, layout.greenOffset());
+				int b = colorComponent(offset, layout.blueOffset());
+				pixels[index] = (r << 16) | (g << 8) | b;
+				index++;
+			}
+		}
+		image.setRGB(0, 0, WIDTH, HEIGHT, pixels, 0, WIDTH);
+		return image;
+	}
+
+	/**
+	 * Per-pixel conversion straight into a BGR buffer.
+	 */
+	@Benchmark
+	public byte[] perPixelBgr() {
+		int bytesPerPixel = layout.bpp() / 8;
+		for (int index = 0, out = 0; index < WIDTH * HEIGHT; index++, out += 3) {
+			int offset = index * bytesPerPixel;
+			bgr[out] = (byte) colorComponent(offset, layout.blueOffset());
+			bgr[out + 1] = (byte) colorComponent(offset, layout.greenOffset());
+			bgr[out + 2] = (byte) colorComponent(offset, layout.redOffset());
+		}
+		return bgr;
+	}
+
+	@Benchmark
+	public byte[] bulkConverter() {
+		RawFrameConverter.toBgr(data, WIDTH, HEIGHT, layout, bgr);
+		return bgr;
+	}
+
+	private int colorComponent(int baseOffset, int bitOffset) {
+		if (bitOffset == -1)
+			return 0;
+		return data[baseOffset + bitOffset / 8] & 0xFF;
+	}
+}
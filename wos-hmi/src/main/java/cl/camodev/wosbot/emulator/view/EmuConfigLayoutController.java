@@ -66,6 +66,9 @@ public class EmuConfigLayoutController {
 		String currentEmulator = globalConfig.get(EnumConfigurationKey.CURRENT_EMULATOR_STRING.name());
 
 		for (EmulatorType type : EmulatorType.values()) {
+			if (!type.isUserVisible()) {
+				continue;
+			}
 			String defaultPath = globalConfig.getOrDefault(type.getConfigKey(), "");
 			EmulatorAux emulator = new EmulatorAux(type, defaultPath);
 			emulator.setActive(type.name().equals(currentEmulator));
@@ -163,7 +163,7 @@ public class LauncherLayoutController implements IProfileLoadListener, IStaminaC
         // Validar el otro emulador si el activo no es válido
         List<EmulatorType> foundEmulators = new ArrayList<>();
         for (EmulatorType emulator : EmulatorType.values()) {
-            if (activeEmulator == emulator)
+            if (activeEmulator == emulator || !emulator.isUserVisible())
                 continue;
 
             String emulatorPath = globalConfig.get(emulator.getConfigKey());
@@ -228,7 +228,7 @@ public class LauncherLayoutController implements IProfileLoadListener, IStaminaC
 
         if (selectedFile != null) {
             for (EmulatorType emulator : EmulatorType.values()) {
-                if (selectedFile.getName().equals(new File(emulator.getDefaultPath()).getName())) {
+                if (emulator.isUserVisible() && selectedFile.getName().equals(new File(emulator.getDefaultPath()).getName())) {
                     ServScheduler.getServices().saveEmulatorPath(emulator.getConfigKey(), selectedFile.getParent());
                     ServScheduler.getServices().saveEmulatorPath(EnumConfigurationKey.CURRENT_EMULATOR_STRING.name(), emulator.name());
                     return;
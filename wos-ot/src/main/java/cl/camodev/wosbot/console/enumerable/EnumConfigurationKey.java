@@ -18,8 +18,25 @@ public enum EnumConfigurationKey {
 	MUMU_PATH_STRING("", String.class),
 	MEMU_PATH_STRING("", String.class),
 	LDPLAYER_PATH_STRING("", String.class),
+	// Directory of the session.tsv script served by the simulated emulator
+	SIMULATED_PATH_STRING("", String.class),
 	CURRENT_EMULATOR_STRING("", String.class),
 	DISCORD_TOKEN_STRING("", String.class),
+	// Max age in milliseconds of a cached screen frame that has not been invalidated by input (0 disables caching)
+	FRAME_CACHE_MAX_AGE_INT("150", Integer.class),
+	// Template matching strategy used by default: FULL_RESOLUTION or PYRAMID (coarse-to-fine)
+	TEMPLATE_MATCH_STRATEGY_STRING("FULL_RESOLUTION", String.class),
+	// Input backend: PERSISTENT_SHELL (long-lived adb shell per device) or SHELL_COMMAND (one input command per gesture)
+	INPUT_BACKEND_STRING("PERSISTENT_SHELL", String.class),
+	// Continuous screencap stream per emulator; frames are read from memory instead of one screenshot per capture
+	SCREEN_STREAMING_BOOL("false", Boolean.class),
+	// Interval in milliseconds between bulk refreshes of the running state of the emulator instances
+	EMULATOR_STATUS_REFRESH_INT("5000", Integer.class),
+	// Time in milliseconds a foreground app check is reused before querying the device again (0 disables caching)
+	FOREGROUND_APP_CACHE_TTL_INT("2000", Integer.class),
+	// Latency in milliseconds the simulated emulator adds to every capture and to every gesture
+	SIMULATED_CAPTURE_LATENCY_INT("50", Integer.class),
+	SIMULATED_INPUT_LATENCY_INT("20", Integer.class),
 	
     // ========================================================================
     // CITY AND BUILDING MANAGEMENT
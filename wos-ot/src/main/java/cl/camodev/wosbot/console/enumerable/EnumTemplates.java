@@ -38,9 +38,9 @@ public enum EnumTemplates {
     // SHORTCUTS AND BUILDING ACCESS
     // ========================================================================
 	GAME_HOME_SHORTCUTS_INFANTRY("/templates/shortcuts/infantry.png"),
-	GAME_HOME_SHORTCUTS_LANCER("/templates/shortcuts/lancer.png"),
+	GAME_HOME_SHORTCUTS_LANCER("/templates/shortcuts/lancer.png", false),
 	GAME_HOME_SHORTCUTS_MARKSMAN("/templates/shortcuts/marksman.png"),
-	GAME_HOME_SHORTCUTS_RESEARCH_CENTER("/templates/shortcuts/researchCenter.png"),
+	GAME_HOME_SHORTCUTS_RESEARCH_CENTER("/templates/shortcuts/researchCenter.png", false),
 	GAME_HOME_SHORTCUTS_HELP_REQUEST("/templates/shortcuts/helpRequest.png"),
 	GAME_HOME_SHORTCUTS_HELP_REQUEST2("/templates/shortcuts/helpRequest2.png"),
 	GAME_HOME_SHORTCUTS_UPGRADE("/templates/shortcuts/upgrade.png"),
@@ -62,7 +62,7 @@ public enum EnumTemplates {
 	GAME_HOME_SHORTCUTS_FARM_COAL("/templates/shortcuts/farmCoal.png"),
 	GAME_HOME_SHORTCUTS_FARM_IRON("/templates/shortcuts/farmIron.png"),
 	
-	GAME_HOME_SHORTCUTS_FARM_TICK("/templates/shortcuts/farmTick.png"),
+	GAME_HOME_SHORTCUTS_FARM_TICK("/templates/shortcuts/farmTick.png", false),
 	GAME_HOME_SHORTCUTS_FARM_GATHER("/templates/shortcuts/farmGather.png"),
 	
 	GATHER_DEPLOY_BUTTON("/templates/shortcuts/gatherDeploy.png"),
@@ -239,7 +239,7 @@ public enum EnumTemplates {
     // ========================================================================
 	PETS_BEAST_CAGE("/templates/pets/beastCage.png"),
 	PETS_BEAST_ALLIANCE_CLAIM("/templates/pets/claimButton.png"),
-	PETS_INFO_SKILLS("/templates/pets/infoSkill.png"),
+	PETS_INFO_SKILLS("/templates/pets/infoSkill.png", false),
 	PETS_SKILL_USE("/templates/pets/useSkill.png"),
 	PETS_UNLOCK_TEXT("/templates/pets/unlockSkillText.png"),
 	
@@ -255,7 +255,7 @@ public enum EnumTemplates {
     // ========================================================================
     // ISLAND
     // ========================================================================
-	LIFE_ESSENCE_MENU("/templates/island/threeMenu.png"),
+	LIFE_ESSENCE_MENU("/templates/island/threeMenu.png", false),
 	LIFE_ESSENCE_CLAIM("/templates/island/claim.png"),
 	LIFE_ESSENCE_DAILY_CARING_AVAILABLE("/templates/island/dailyCaringAvailable.png"),
 	LIFE_ESSENCE_DAILY_CARING_GOTO_ISLAND("/templates/island/dailyCaringGotoIsland.png"),
@@ -326,7 +326,7 @@ public enum EnumTemplates {
 	TUNDRA_TRUCK_YELLOW_RAID("/templates/tundratruck/tundraTruckLegendaryRaid.png"),
 	TUNDRA_TRUCK_ESCORT("/templates/tundratruck/tundraTruckEscort.png"),
 	TUNDRA_TRUCK_DEPARTED("/templates/tundratruck/tundraTruckDeparted.png"),
-	TUNDRA_TRUCK_ENDED("/templates/tundratruck/tundraTruckEnded.png"),
+	TUNDRA_TRUCK_ENDED("/templates/tundratruck/tundraTruckEnded.png", false),
 	
 	TUNDRA_TREK_SUPPLIES("/templates/tundratrek/trekSupplies.png"),
 	TUNDRA_TREK_CLAIM_BUTTON("/templates/tundratrek/trekClaimButton.png"),
@@ -335,21 +335,21 @@ public enum EnumTemplates {
 	TUNDRA_TREK_SKIP_BUTTON("/templates/tundratrek/skipTrek.png"),
 	TUNDRA_TREK_BLUE_BUTTON("/templates/tundratrek/bluebuttonTrek.png"),
 	TUNDRA_TREK_CHECK_ACTIVE("/templates/tundratrek/checkactiveTrek.png"),
-	TUNDRA_TREK_CHECK_INACTIVE("/templates/tundratrek/checkinactiveTrek.png"),
+	TUNDRA_TREK_CHECK_INACTIVE("/templates/tundratrek/checkinactiveTrek.png", false),
 	
     // ========================================================================
     // TUNDRA TRUCK AND TREK EVENTS
     // ========================================================================
     JOURNEY_OF_LIGHT_TAB("/templates/events/journeyoflight/journeyOfLightTab.png"),
     JOURNEY_OF_LIGHT_UNSELECTED_TAB("/templates/events/journeyoflight/journeyOfLightUnselected.png"),
-    JOURNEY_OF_LIGHT_FREE_WATCHES("/templates/events/journeyoflight/freeWatch.png"),
+    JOURNEY_OF_LIGHT_FREE_WATCHES("/templates/events/journeyoflight/freeWatch.png", false),
     JOURNEY_OF_LIGHT_CLAIM_WATCHES("/templates/events/journeyoflight/freeWatchAvailable.png"),
 
     // ========================================================================
     // EXPERTS AND MERCENARY EVENT
     // ========================================================================
 	ROMULUS_CLAIM_TROOPS_BUTTON("/templates/experts/romulusClaimTroopsButton.png"),
-	ROMULUS_CLAIM_TAG_BUTTON("/templates/experts/romulusClaimTagButton.png"),
+	ROMULUS_CLAIM_TAG_BUTTON("/templates/experts/romulusClaimTagButton.png", false),
 	AGNES_CLAIM_INTEL("/templates/experts/intelAgnes.png"),
 
     EXPERT_TRAINING_SPEEDUP_ICON("/templates/experts/expertTrainingSpeedupIcon.png"),
@@ -406,12 +406,27 @@ public enum EnumTemplates {
 
 	// @formatter:on
 	private String template;
+	private boolean pyramidMatching;
 
 	private EnumTemplates(String template) {
+		this(template, true);
+	}
+
+	/**
+	 * @param pyramidMatching false to always match this template at full resolution, for
+	 *                        icons barely above the pyramid size limit and low-texture
+	 *                        templates whose details are lost when downscaled
+	 */
+	private EnumTemplates(String template, boolean pyramidMatching) {
 		this.template = template;
+		this.pyramidMatching = pyramidMatching;
 	}
 
 	public String getTemplate() {
 		return template;
 	}
+
+	public boolean isPyramidMatching() {
+		return pyramidMatching;
+	}
 }
@@ -1,15 +1,17 @@
 package cl.camodev.wosbot.console.enumerable;
 
 public enum GameVersion {
-    GLOBAL("Global", "com.gof.global"),
-    CHINA("China", "com.gof.china");
+    GLOBAL("Global", "com.gof.global", "eng"),
+    CHINA("China", "com.gof.china", "eng+chi_sim");
 
     private final String displayName;
     private final String packageName;
+    private final String ocrLanguage;
 
-    GameVersion(String displayName, String packageName) {
+    GameVersion(String displayName, String packageName, String ocrLanguage) {
         this.displayName = displayName;
         this.packageName = packageName;
+        this.ocrLanguage = ocrLanguage;
     }
 
     public String getDisplayName() {
@@ -20,6 +22,13 @@ public enum GameVersion {
         return packageName;
     }
 
+    /**
+     * Tesseract language(s) the game's texts are read with.
+     */
+    public String getOcrLanguage() {
+        return ocrLanguage;
+    }
+
     @Override
     public String toString() {
         return displayName;
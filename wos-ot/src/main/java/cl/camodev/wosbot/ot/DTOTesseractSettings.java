@@ -1,6 +1,9 @@
 package cl.camodev.wosbot.ot;
 
 import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * DTO for Tesseract OCR configuration settings.
@@ -58,12 +61,49 @@ public class DTOTesseractSettings {
 		}
 	}
 	
+	/**
+	 * Image preprocessing stages
+	 */
+	public enum PreprocessType {
+		BINARIZE,                       // Grayscale and threshold; value is the threshold, 0 picks it automatically (Otsu)
+		INVERT,                         // Swap dark and light pixels
+		DILATE,                         // Grow light areas; value is the kernel size in pixels
+		SCALE;                          // Resize; value is the scale factor
+	}
+
+	/**
+	 * One stage of the preprocessing chain.
+	 */
+	public static final class PreprocessStep {
+		private final PreprocessType type;
+		private final double value;
+
+		public PreprocessStep(PreprocessType type, double value) {
+			this.type = type;
+			this.value = value;
+		}
+
+		public PreprocessType getType() {
+			return type;
+		}
+
+		public double getValue() {
+			return value;
+		}
+
+		@Override
+		public String toString() {
+			return type == PreprocessType.INVERT ? type.name() : type.name() + "(" + value + ")";
+		}
+	}
+
 	private PageSegMode pageSegMode;
 	private OcrEngineMode ocrEngineMode;
 	private boolean removeBackground;
 	private Color textColor;
 	private boolean debug;
 	private String allowedChars;
+	private List<PreprocessStep> preprocessSteps;
 
 	private DTOTesseractSettings(Builder builder) {
 		this.pageSegMode = builder.pageSegMode;
@@ -72,6 +112,7 @@ public class DTOTesseractSettings {
 		this.textColor = builder.textColor;
 		this.debug = builder.debug;
 		this.allowedChars = builder.allowedChars;
+		this.preprocessSteps = Collections.unmodifiableList(new ArrayList<>(builder.preprocessSteps));
 	}
 
 	public Integer getPageSegMode() {
@@ -110,11 +151,18 @@ public class DTOTesseractSettings {
 		return allowedChars != null && !allowedChars.isEmpty();
 	}
 
+	/**
+	 * Preprocessing stages applied, in order, after the x2 upscale and background removal.
+	 */
+	public List<PreprocessStep> getPreprocessSteps() {
+		return preprocessSteps;
+	}
+
 	@Override
 	public String toString() {
 		return "DTOTesseractSettings [pageSegMode=" + pageSegMode + ", ocrEngineMode=" + ocrEngineMode
 				+ ", removeBackground=" + removeBackground + ", textColor=" + textColor + ", debug=" + debug 
-				+ ", allowedChars=" + allowedChars + "]";
+				+ ", allowedChars=" + allowedChars + ", preprocessSteps=" + preprocessSteps + "]";
 	}
 
 	public static Builder builder() {
@@ -128,6 +176,7 @@ public class DTOTesseractSettings {
 		private Color textColor;
 		private boolean debug;
 		private String allowedChars;
+		private final List<PreprocessStep> preprocessSteps = new ArrayList<>();
 
 		public Builder setPageSegMode(PageSegMode pageSegMode) {
 			this.pageSegMode = pageSegMode;
@@ -159,6 +208,29 @@ public class DTOTesseractSettings {
 			return this;
 		}
 
+		/**
+		 * Adds a threshold stage; 0 picks the threshold automatically.
+		 */
+		public Builder addBinarize(int threshold) {
+			preprocessSteps.add(new PreprocessStep(PreprocessType.BINARIZE, threshold));
+			return this;
+		}
+
+		public Builder addInvert() {
+			preprocessSteps.add(new PreprocessStep(PreprocessType.INVERT, 0));
+			return this;
+		}
+
+		public Builder addDilate(int kernelSize) {
+			preprocessSteps.add(new PreprocessStep(PreprocessType.DILATE, kernelSize));
+			return this;
+		}
+
+		public Builder addScale(double factor) {
+			preprocessSteps.add(new PreprocessStep(PreprocessType.SCALE, factor));
+			return this;
+		}
+
 		public DTOTesseractSettings build() {
 			return new DTOTesseractSettings(this);
 		}
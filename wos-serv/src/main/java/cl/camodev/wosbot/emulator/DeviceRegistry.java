@@ -0,0 +1,156 @@
+package cl.camodev.wosbot.emulator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.android.ddmlib.AndroidDebugBridge;
+import com.android.ddmlib.IDevice;
+
+/**
+ * Devices known to ADB, indexed by serial.
+ * <p>
+ * The registry listens to the ddmlib device change callbacks, so looking a device up is a map
+ * read instead of a scan of {@code bridge.getDevices()}, and callers waiting for a device to
+ * appear or come online are woken up by the callback instead of polling.
+ * <p>
+ * ddmlib change listeners are process wide: the registry keeps receiving devices when the bridge
+ * is recreated, and {@link #attach(AndroidDebugBridge)} adds the devices a bridge already knows.
+ */
+public class DeviceRegistry implements AndroidDebugBridge.IDeviceChangeListener {
+
+	private static final Logger logger = LoggerFactory.getLogger(DeviceRegistry.class);
+
+	private static DeviceRegistry instance;
+
+	private final Map<String, IDevice> devices = new ConcurrentHashMap<>();
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition changed = lock.newCondition();
+
+	private DeviceRegistry() {
+		AndroidDebugBridge.addDeviceChangeListener(this);
+	}
+
+	public static synchronized DeviceRegistry getInstance() {
+		if (instance == null) {
+			instance = new DeviceRegistry();
+		}
+		return instance;
+	}
+
+	/**
+	 * Adds the devices the bridge already lists. Devices connected later arrive through the callbacks.
+	 */
+	public void attach(AndroidDebugBridge bridge) {
+		if (bridge == null) {
+			return;
+		}
+		for (IDevice device : bridge.getDevices()) {
+			devices.putIfAbsent(device.getSerialNumber(), device);
+		}
+		signal();
+	}
+
+	/**
+	 * Forgets every device, e.g. before the bridge they belong to is terminated.
+	 */
+	public void clear() {
+		devices.clear();
+		signal();
+	}
+
+	/**
+	 * @return the device with this serial, online or not, or null if ADB does not list it
+	 */
+	public IDevice get(String serial) {
+		return devices.get(serial);
+	}
+
+	public boolean isOnline(String serial) {
+		IDevice device = devices.get(serial);
+		return device != null && device.isOnline();
+	}
+
+	/**
+	 * Waits until ADB lists a device with this serial.
+	 *
+	 * @return the device, or null on timeout
+	 */
+	public IDevice awaitDevice(String serial, long timeoutMs) throws InterruptedException {
+		return await(serial, device -> true, timeoutMs);
+	}
+
+	/**
+	 * Waits until the device with this serial is listed and online.
+	 *
+	 * @return the device, or null on timeout
+	 */
+	public IDevice awaitOnline(String serial, long timeoutMs) throws InterruptedException {
+		return await(serial, IDevice::isOnline, timeoutMs);
+	}
+
+	public int size() {
+		return devices.size();
+	}
+
+	@Override
+	public void deviceConnected(IDevice device) {
+		IDevice previous = devices.put(device.getSerialNumber(), device);
+		if (previous == null) {
+			logger.debug("Device connected: {} ({})", device.getSerialNumber(), device.getState());
+		}
+		signal();
+	}
+
+	@Override
+	public void deviceDisconnected(IDevice device) {
+		// A reconnection may already have replaced the instance
+		if (devices.remove(device.getSerialNumber(), device)) {
+			logger.debug("Device disconnected: {}", device.getSerialNumber());
+		}
+		signal();
+	}
+
+	@Override
+	public void deviceChanged(IDevice device, int changeMask) {
+		if ((changeMask & IDevice.CHANGE_STATE) != 0) {
+			devices.put(device.getSerialNumber(), device);
+			logger.debug("Device {} is now {}", device.getSerialNumber(), device.getState());
+			signal();
+		}
+	}
+
+	private IDevice await(String serial, Predicate<IDevice> ready, long timeoutMs) throws InterruptedException {
+		long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+		lock.lock();
+		try {
+			while (true) {
+				IDevice device = devices.get(serial);
+				if (device != null && ready.test(device)) {
+					return device;
+				}
+				if (remaining <= 0) {
+					return null;
+				}
+				remaining = changed.awaitNanos(remaining);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void signal() {
+		lock.lock();
+		try {
+			changed.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+}
@@ -1,28 +1,25 @@
 package cl.camodev.wosbot.emulator;
 
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.BufferedReader;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
-import javax.imageio.ImageIO;
-
-import cl.camodev.utiles.UtilOCR;
-import cl.camodev.wosbot.console.enumerable.GameVersion;
+import cl.camodev.utiles.image.RawFrameConverter;
+import cl.camodev.utiles.image.ScreenFrame;
 import cl.camodev.wosbot.ex.ADBConnectionException;
 import com.android.ddmlib.*;
 
 import cl.camodev.wosbot.ot.DTOPoint;
-import cl.camodev.wosbot.ot.DTOTesseractSettings;
-import net.sourceforge.tess4j.TesseractException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,11 +42,28 @@ public abstract class Emulator {
 	protected static final int RETRY_DELAY_MS = 3000;
 	protected static final int INIT_LOOPS = 10;
 	protected static final int INIT_DELAY_MS = 500;
+	protected static final long DEVICE_CONNECT_TIMEOUT_MS = 5000;
+	protected static final long DEVICE_ONLINE_TIMEOUT_MS = 2000;
+	private static final long INPUT_SHELL_RETRY_MS = 60000;
+	private static final long SCREEN_STREAM_RETRY_MS = 60000;
+	private static final long SCREEN_STREAM_FRAME_TIMEOUT_MS = 2000;
 	private static final Logger logger = LoggerFactory.getLogger(Emulator.class);
 	protected String consolePath;
 	protected AndroidDebugBridge bridge = null;
 
-	private final ThreadLocal<BufferedImage> reusableImage = new ThreadLocal<>();
+	private final ThreadLocal<byte[]> reusableBgrBuffer = new ThreadLocal<>();
+
+	private final ConcurrentHashMap<String, InputShell> inputShells = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, Long> inputShellFailures = new ConcurrentHashMap<>();
+	private volatile InputBackend inputBackend = InputBackend.PERSISTENT_SHELL;
+
+	private final ConcurrentHashMap<String, ScreenStream> screenStreams = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, Long> screenStreamFailures = new ConcurrentHashMap<>();
+	private volatile boolean screenStreaming;
+
+	private final EmulatorStatusMonitor statusMonitor = new EmulatorStatusMonitor(this);
+	protected final DeviceRegistry deviceRegistry = DeviceRegistry.getInstance();
+	private final ForegroundAppDetector foregroundApps = new ForegroundAppDetector();
 
 	public Emulator(String consolePath) {
 		this.consolePath = consolePath;
@@ -93,6 +107,7 @@ public abstract class Emulator {
 			String adbPath = getProjectAdbPath();
 			logger.info("Initializing ADB bridge with path: {}", adbPath);
 			bridge = AndroidDebugBridge.createBridge(adbPath, true, 5000, TimeUnit.MILLISECONDS);
+			deviceRegistry.attach(bridge);
 		}
 	}
 
@@ -126,6 +141,52 @@ public abstract class Emulator {
 	 */
 	public abstract boolean isRunning(String emulatorNumber);
 
+	/**
+	 * Queries the running state of every instance with a single console call.
+	 * Subclasses whose console can list all instances override this.
+	 * @return Running state by emulator number, or null if not supported or the query failed
+	 */
+	protected Map<String, Boolean> queryRunningStates() {
+		return null;
+	}
+
+	/**
+	 * Gets the cached running states, refreshed in bulk on a schedule.
+	 * Prefer it over {@link #isRunning(String)}, which spawns a console process per call.
+	 * @return Status monitor of this emulator
+	 */
+	public EmulatorStatusMonitor getStatusMonitor() {
+		return statusMonitor;
+	}
+
+	/**
+	 * Runs a console command and collects its output lines.
+	 * @param command Command and arguments
+	 * @return Output lines, or null if the command could not be run
+	 */
+	protected List<String> readCommandOutput(String... command) {
+		try {
+			ProcessBuilder pb = new ProcessBuilder(command);
+			pb.directory(new File(consolePath).getParentFile());
+			pb.redirectErrorStream(true);
+			Process process = pb.start();
+			List<String> lines = new ArrayList<>();
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					lines.add(line);
+				}
+			}
+			process.waitFor();
+			return lines;
+		} catch (IOException e) {
+			logger.error("Error executing console command {}", command[0], e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return null;
+	}
+
 	/**
 	 * Waits for the ddmlib bridge to be ready.
 	 * @throws InterruptedException if interrupted while waiting
@@ -149,28 +210,20 @@ public abstract class Emulator {
 		String serial = getDeviceSerial(emulatorNumber);
 
 		// 1. First search in already connected devices (quick search)
-		for (IDevice device : bridge.getDevices()) {
-			if (serial.equals(device.getSerialNumber())) {
-				logger.debug("Device found in cache: {}", serial);
-				return device;
-			}
+		IDevice device = deviceRegistry.get(serial);
+		if (device != null) {
+			logger.debug("Device found in cache: {}", serial);
+			return device;
 		}
 
 		// 2. If not found, try direct connection
 		logger.info("Device not found in cache, connecting directly: " + serial);
 		if (connectToDeviceBySerial(serial)) {
-			// 3. Force bridge update and search again
-			//forceDeviceDiscovery();
-
-			// 4. Search for the newly connected device
-			for (int i = 0; i < 5; i++) {
-				for (IDevice device : bridge.getDevices()) {
-					if (serial.equals(device.getSerialNumber())) {
-                        logger.info("Device connected and found: {}", serial);
-						return device;
-					}
-				}
-				Thread.sleep(1000); // Wait 1 second between attempts
+			// 3. Wait for the bridge to report the newly connected device
+			device = deviceRegistry.awaitDevice(serial, DEVICE_CONNECT_TIMEOUT_MS);
+			if (device != null) {
+				logger.info("Device connected and found: {}", serial);
+				return device;
 			}
 		}
 
@@ -222,7 +275,7 @@ public abstract class Emulator {
 	 * @return Result of the action
 	 */
 	protected <T> T withRetries(String emulatorNumber, Function<IDevice, T> action, String actionName) {
-		if (!isRunning(emulatorNumber)) {
+		if (!statusMonitor.isRunning(emulatorNumber)) {
 			logger.error("Emulator {} is not running, cannot perform action {}", emulatorNumber, actionName);
 			throw new ADBConnectionException(
 					"Emulator " + emulatorNumber + " is not running, cannot perform action " + actionName);
@@ -238,17 +291,21 @@ public abstract class Emulator {
 						logger.info("Attempting ADB restart as last resort (attempt {})", attempt);
 						restartAdb();
 					}
-					Thread.sleep(RETRY_DELAY_MS / 2);
+					deviceRegistry.awaitDevice(getDeviceSerial(emulatorNumber), RETRY_DELAY_MS / 2);
 					continue;
 				}
 
 				if (!device.isOnline()) {
 					logger.warn("Device found but not online, waiting... (attempt {})", attempt);
-					Thread.sleep(2000);
+					deviceRegistry.awaitOnline(device.getSerialNumber(), DEVICE_ONLINE_TIMEOUT_MS);
 					continue;
 				}
 				return action.apply(device);
 			} catch (Exception e) {
+				if (isUnknownInputOutcome(e)) {
+					throw new ADBConnectionException("Input " + actionName + " on " + emulatorNumber
+							+ " may have run without answering, not sending it again", e);
+				}
 				logger.warn("Attempt {} of {} failed: {}", attempt, actionName, e.getMessage());
 				if (attempt >= MAX_RETRIES - 2) {
 					logger.warn("Multiple failures, attempting ADB restart (attempt {})", attempt);
@@ -275,8 +332,10 @@ public abstract class Emulator {
 		try {
 			logger.info("Attempting to restart the emulator for {} on {}", actionName, emulatorNumber);
 			closeEmulator(emulatorNumber);
+			statusMonitor.invalidate(emulatorNumber);
 			Thread.sleep(5000); // Wait for emulator to close
 			launchEmulator(emulatorNumber);
+			statusMonitor.invalidate(emulatorNumber);
 			Thread.sleep(15000); // Wait for emulator to launch and stabilize
 		} catch (Exception e) {
 			logger.error("Failed to restart emulator for {} on {}: {}", actionName, emulatorNumber, e.getMessage());
@@ -294,17 +353,21 @@ public abstract class Emulator {
 								attempt);
 						restartAdb();
 					}
-					Thread.sleep(RETRY_DELAY_MS / 2);
+					deviceRegistry.awaitDevice(getDeviceSerial(emulatorNumber), RETRY_DELAY_MS / 2);
 					continue;
 				}
 
 				if (!device.isOnline()) {
 					logger.warn("Device found but not online after emulator restart, waiting... (attempt {})", attempt);
-					Thread.sleep(2000);
+					deviceRegistry.awaitOnline(device.getSerialNumber(), DEVICE_ONLINE_TIMEOUT_MS);
 					continue;
 				}
 				return action.apply(device);
 			} catch (Exception e) {
+				if (isUnknownInputOutcome(e)) {
+					throw new ADBConnectionException("Input " + actionName + " on " + emulatorNumber
+							+ " may have run without answering, not sending it again", e);
+				}
 				logger.warn("Attempt {} of {} failed after emulator restart: {}", attempt, actionName, e.getMessage());
 				if (attempt >= MAX_RETRIES - 2) {
 					logger.warn("Multiple failures after emulator restart, attempting ADB restart (attempt {})",
@@ -333,50 +396,24 @@ public abstract class Emulator {
 	}
 
 	/**
-	 * Converts a RawImage to BufferedImage.
+	 * Converts a RawImage to a tightly packed BGR buffer.
 	 * @param rawImage RawImage from ddmlib
-	 * @param image BufferedImage to fill
+	 * @param bgr Buffer to fill, at least width * height * 3 bytes
 	 */
-	protected void convertRawImageToBufferedImage(RawImage rawImage, BufferedImage image) {
-		int[] pixels = new int[rawImage.width * rawImage.height];
-		int index = 0;
-
-		for (int y = 0; y < rawImage.height; y++) {
-			for (int x = 0; x < rawImage.width; x++) {
-				int offset = index * rawImage.bpp / 8;
-
-				int r = getColorComponent(rawImage, offset, rawImage.red_offset);
-				int g = getColorComponent(rawImage, offset, rawImage.green_offset);
-				int b = getColorComponent(rawImage, offset, rawImage.blue_offset);
-
-				pixels[index] = (r << 16) | (g << 8) | b; // No alpha channel
-				index++;
-			}
-		}
-
-		image.setRGB(0, 0, rawImage.width, rawImage.height, pixels, 0, rawImage.width);
-	}
-
-	/**
-	 * Gets a color component from a RawImage.
-	 * @param rawImage RawImage from ddmlib
-	 * @param baseOffset Base offset in image data
-	 * @param bitOffset Bit offset for the color
-	 * @return Color component value
-	 */
-	protected int getColorComponent(RawImage rawImage, int baseOffset, int bitOffset) {
-		if (bitOffset == -1)
-			return 0;
-		int byteOffset = bitOffset / 8;
-		return rawImage.data[baseOffset + byteOffset] & 0xFF;
+	protected void convertRawImageToBgr(RawImage rawImage, byte[] bgr) {
+		RawFrameConverter.Layout layout = new RawFrameConverter.Layout(rawImage.bpp,
+				rawImage.red_offset, rawImage.red_length,
+				rawImage.green_offset, rawImage.green_length,
+				rawImage.blue_offset, rawImage.blue_length);
+		RawFrameConverter.toBgr(rawImage.data, rawImage.width, rawImage.height, layout, bgr);
 	}
 
 	/**
-	 * Captures a screenshot using ddmlib.
+	 * Captures a frame using ddmlib, converting the raw framebuffer straight into a BGR frame.
 	 * @param emulatorNumber Emulator identifier
-	 * @return PNG image bytes
+	 * @return Captured frame
 	 */
-	protected byte[] captureScreenshotWithDdmlib(String emulatorNumber) {
+	protected ScreenFrame captureFrameWithDdmlib(String emulatorNumber) {
 		return withRetries(emulatorNumber, device -> {
 			try {
 				RawImage rawImage = device.getScreenshot();
@@ -384,24 +421,35 @@ public abstract class Emulator {
 					throw new RuntimeException("RawImage is null");
 				}
 
-				BufferedImage image = reusableImage.get();
-				if (image == null ||
-						image.getWidth() != rawImage.width ||
-						image.getHeight() != rawImage.height) {
-						image = new BufferedImage(rawImage.width, rawImage.height, BufferedImage.TYPE_INT_RGB);
-					reusableImage.set(image);
+				int required = rawImage.width * rawImage.height * 3;
+				byte[] bgr = reusableBgrBuffer.get();
+				if (bgr == null || bgr.length != required) {
+					bgr = new byte[required];
+					reusableBgrBuffer.set(bgr);
 				}
-				convertRawImageToBufferedImage(rawImage, image);
-				ByteArrayOutputStream baos = new ByteArrayOutputStream();
-				ImageIO.write(image, "png", baos);
-				// java.nio.file.Files.write(java.nio.file.Files.createTempFile("img_full-", ".png"), baos.toByteArray());
-				return baos.toByteArray();
+				convertRawImageToBgr(rawImage, bgr);
+				return ScreenFrame.fromBgr(bgr, rawImage.width, rawImage.height);
 			} catch (Exception e) {
 				throw new RuntimeException("Error capturing screenshot", e);
 			}
 		}, "captureScreenshot");
 	}
 
+	/**
+	 * Captures a screenshot using ddmlib.
+	 * Kept as a compatibility/debug adapter, prefer {@link #captureFrame(String)}.
+	 * @param emulatorNumber Emulator identifier
+	 * @return PNG image bytes
+	 */
+	protected byte[] captureScreenshotWithDdmlib(String emulatorNumber) {
+		ScreenFrame frame = captureFrameWithDdmlib(emulatorNumber);
+		try {
+			return frame.toPng();
+		} finally {
+			frame.release();
+		}
+	}
+
 	/**
 	 * Simulates a tap event at a random point within the given area.
 	 * @param emulatorNumber Emulator identifier
@@ -424,7 +472,7 @@ public abstract class Emulator {
 				int y = minY + random.nextInt(maxY - minY + 1);
 
 				try {
-					device.executeShellCommand("input tap " + x + " " + y, new NullOutputReceiver());
+					sendInput(device, shell -> shell.tap(x, y), "input tap " + x + " " + y);
                     // Detailed log with coordinates and tap count
                     logger.debug("Tap {}/{} executed at ({},{}) on emulator {}", i, tapCount, x, y, emulatorNumber);
 					Thread.sleep(delayMs);
@@ -436,10 +484,137 @@ public abstract class Emulator {
 		}, "tapAtRandomPoint x" + tapCount);
 	}
 
+	/**
+	 * Executes a gesture batch in a single ADB round trip.
+	 * <p>
+	 * Steps are not idempotent (e.g. purchase taps), so no step is ever sent twice: if a step
+	 * of the persistent shell fails, it and the steps after it (which the shell skipped) are sent
+	 * as a one-off command; if a step does not answer in time, it may have run, so the batch stops
+	 * there with an error. A failure of the one-off command is thrown instead of retried.
+	 * @param emulatorNumber Emulator identifier
+	 * @param batch Steps to execute
+	 * @return Executed steps with their duration on the device
+	 */
+	public GestureBatch.Result executeGestureBatch(String emulatorNumber, GestureBatch batch) {
+		// Only finding the device is retried: steps such as purchase taps must not run twice
+		IDevice device = withRetries(emulatorNumber, found -> found, "gestureBatch x" + batch.getSteps().size());
+		Random random = new Random();
+		List<GestureBatch.Step> steps = batch.getSteps();
+		List<String> executed = new ArrayList<>(steps.size());
+		List<String> fallback = new ArrayList<>(steps.size());
+		List<Function<InputShell, String>> persistent = new ArrayList<>(steps.size());
+		long[] expectedMs = new long[steps.size()];
+		for (int i = 0; i < steps.size(); i++) {
+			GestureBatch.Step step = steps.get(i);
+			expectedMs[i] = step.waitMs();
+			switch (step.type()) {
+				case TAP -> {
+					int x = step.x1() + random.nextInt(step.x2() - step.x1() + 1);
+					int y = step.y1() + random.nextInt(step.y2() - step.y1() + 1);
+					executed.add("tap(" + x + "," + y + ")");
+					fallback.add("input tap " + x + " " + y);
+					persistent.add(shell -> shell.tap(x, y));
+				}
+				case SWIPE -> {
+					executed.add(step.toString());
+					fallback.add(String.format("input swipe %d %d %d %d", step.x1(), step.y1(), step.x2(), step.y2()));
+					persistent.add(shell -> shell.swipe(step.x1(), step.y1(), step.x2(), step.y2()));
+				}
+				case KEY -> {
+					executed.add(step.toString());
+					fallback.add("input keyevent " + step.keyCode());
+					persistent.add(shell -> shell.key(step.keyCode()));
+				}
+				case WAIT -> {
+					executed.add(step.toString());
+					fallback.add(InputShell.sleep(step.waitMs()));
+					persistent.add(shell -> InputShell.sleep(step.waitMs()));
+				}
+			}
+		}
+
+		InputShell shell = inputShell(device);
+		try {
+			long[] completedAt = InputShell.runWithFallback(shell,
+					shell != null ? persistent.stream().map(command -> command.apply(shell)).toList() : List.of(),
+					fallback, expectedMs, (rest, restExpectedMs) -> runStepsOneOff(device, rest, restExpectedMs));
+
+			List<GestureBatch.StepTiming> timings = new ArrayList<>(steps.size());
+			long previous = 0;
+			for (int i = 0; i < steps.size(); i++) {
+				timings.add(new GestureBatch.StepTiming(steps.get(i), executed.get(i),
+						TimeUnit.NANOSECONDS.toMillis(completedAt[i] - previous)));
+				previous = completedAt[i];
+			}
+			return new GestureBatch.Result(timings, TimeUnit.NANOSECONDS.toMillis(previous));
+		} catch (InputShell.IncompleteStepsException e) {
+			throw new ADBConnectionException("Gesture batch on " + emulatorNumber + " stopped after " + e.getCompletedSteps()
+					+ " of " + steps.size() + " steps; the next one may have run and was not sent again", e);
+		} catch (Exception e) {
+			throw new ADBConnectionException("Error executing gesture batch on " + emulatorNumber, e);
+		} finally {
+			discardIfBroken(device, shell);
+			markInput(device);
+		}
+	}
+
+	/**
+	 * Runs command lines as one shell command, timing each step by the arrival of its marker.
+	 * @param expectedMs Time each step is expected to take on the device
+	 * @return for each step, the nanoseconds elapsed between the request and its completion
+	 * @throws IOException if a step failed; the steps after it were not run
+	 */
+	private long[] runStepsOneOff(IDevice device, List<String> steps, long[] expectedMs) throws Exception {
+		String prefix = "__wos_step_";
+		long[] completedAt = new long[steps.size()];
+		int[] failedStep = { -1 };
+		long start = System.nanoTime();
+		MultiLineReceiver receiver = new MultiLineReceiver() {
+			private int next;
+
+			@Override
+			public void processNewLines(String[] lines) {
+				for (String line : lines) {
+					if (next >= completedAt.length || failedStep[0] >= 0) {
+						return;
+					}
+					if (line.trim().equals(prefix + next + InputShell.FAILED_SUFFIX)) {
+						failedStep[0] = next;
+					} else if (line.trim().equals(prefix + next)) {
+						completedAt[next++] = System.nanoTime() - start;
+					}
+				}
+			}
+
+			@Override
+			public boolean isCancelled() {
+				return false;
+			}
+		};
+		// The timeout bounds the silence between two markers, i.e. the longest step
+		long longestStepMs = Arrays.stream(expectedMs).max().orElse(0);
+		device.executeShellCommand(InputShell.script(steps, prefix), receiver, 5000 + longestStepMs, TimeUnit.MILLISECONDS);
+		if (failedStep[0] >= 0) {
+			throw new IOException("Gesture step " + failedStep[0] + " failed on " + device.getSerialNumber() + ": "
+					+ steps.get(failedStep[0]));
+		}
+		long end = System.nanoTime() - start;
+		// Steps whose marker was not seen are reported as completed with the command
+		for (int i = 0; i < completedAt.length; i++) {
+			if (completedAt[i] == 0) {
+				completedAt[i] = end;
+			}
+		}
+		return completedAt;
+	}
+
 	/**
 	 * Restarts the ADB bridge using the project's ADB executable.
 	 */
 	public void restartAdb() {
+		closeInputShells();
+		closeScreenStreams();
+		deviceRegistry.clear();
 		AndroidDebugBridge.disconnectBridge(5000, TimeUnit.MILLISECONDS);
 		AndroidDebugBridge.terminate();
 		AndroidDebugBridge.init(false);
@@ -447,9 +622,116 @@ public abstract class Emulator {
 		String adbPath = getProjectAdbPath();
 		logger.info("Restarting ADB bridge with path: {}", adbPath);
 		bridge = AndroidDebugBridge.createBridge(adbPath, true, 5000, TimeUnit.MILLISECONDS);
+		deviceRegistry.attach(bridge);
 		logger.info("ADB restarted successfully");
 	}
 
+	/**
+	 * Selects how input reaches the devices. Switching away from the persistent shell closes the open shells.
+	 * @param inputBackend Input backend
+	 */
+	public void setInputBackend(InputBackend inputBackend) {
+		this.inputBackend = inputBackend;
+		if (inputBackend != InputBackend.PERSISTENT_SHELL) {
+			closeInputShells();
+		}
+	}
+
+	public InputBackend getInputBackend() {
+		return inputBackend;
+	}
+
+	/**
+	 * Closes the persistent input shells of every device.
+	 */
+	public void closeInputShells() {
+		inputShells.values().forEach(InputShell::close);
+		inputShells.clear();
+		inputShellFailures.clear();
+	}
+
+	/**
+	 * Sends an input command line to the device: over its persistent input shell when that backend
+	 * is selected, otherwise (or when the shell cannot be opened, or reports that the command was not
+	 * run) as a one-off shell command. A command that may have run without answering in time is not
+	 * sent again: the shell is reset and the error is thrown.
+	 * @param device Target device
+	 * @param persistent Builds the command line for the persistent shell
+	 * @param fallback Equivalent one-off shell command
+	 */
+	protected void sendInput(IDevice device, Function<InputShell, String> persistent, String fallback) throws Exception {
+		InputShell shell = inputShell(device);
+		try {
+			InputShell.runWithFallback(shell, shell != null ? List.of(persistent.apply(shell)) : List.of(), List.of(fallback),
+					new long[1], (steps, expectedMs) -> {
+						device.executeShellCommand(steps.get(0), new NullOutputReceiver());
+						return new long[1];
+					});
+		} finally {
+			discardIfBroken(device, shell);
+			markInput(device);
+		}
+	}
+
+	/**
+	 * Forgets the input shell of the device if it broke, so the next inputs use one-off commands
+	 * until it may be reopened.
+	 */
+	private void discardIfBroken(IDevice device, InputShell shell) {
+		if (shell != null && !shell.isOpen()) {
+			inputShells.remove(device.getSerialNumber(), shell);
+			inputShellFailures.put(device.getSerialNumber(), System.currentTimeMillis());
+		}
+	}
+
+	/**
+	 * Tells whether a failure comes from an input that may have run on the device without
+	 * answering, which must not be retried.
+	 */
+	private static boolean isUnknownInputOutcome(Throwable e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof InputShell.IncompleteStepsException incomplete && !incomplete.isRemainderUnsent()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the open input shell of the device, opening it if needed.
+	 * @return the shell, or null if the backend is disabled or the shell failed recently
+	 */
+	private InputShell inputShell(IDevice device) {
+		if (inputBackend != InputBackend.PERSISTENT_SHELL) {
+			return null;
+		}
+		String serial = device.getSerialNumber();
+		InputShell shell = inputShells.get(serial);
+		if (shell != null && shell.isOpen()) {
+			return shell;
+		}
+		Long failedAt = inputShellFailures.get(serial);
+		if (failedAt != null && System.currentTimeMillis() - failedAt < INPUT_SHELL_RETRY_MS) {
+			return null;
+		}
+		synchronized (inputShells) {
+			shell = inputShells.get(serial);
+			if (shell != null && shell.isOpen()) {
+				return shell;
+			}
+			try {
+				shell = InputShell.open(getProjectAdbPath(), device);
+				inputShells.put(serial, shell);
+				inputShellFailures.remove(serial);
+				return shell;
+			} catch (IOException e) {
+				logger.warn("Could not open a persistent input shell on {}: {}", serial, e.getMessage());
+				inputShellFailures.put(serial, System.currentTimeMillis());
+				return null;
+			}
+		}
+	}
+
 	/**
 	 * Executes a swipe gesture from the start point to the end point on the emulator.
 	 * @param emulatorNumber Emulator identifier
@@ -460,7 +742,7 @@ public abstract class Emulator {
 		withRetries(emulatorNumber, device -> {
 			try {
 				String command = String.format("input swipe %d %d %d %d", point.getX(), point.getY(), point2.getX(), point2.getY());
-				device.executeShellCommand(command, new NullOutputReceiver());
+				sendInput(device, shell -> shell.swipe(point.getX(), point.getY(), point2.getX(), point2.getY()), command);
 				logger.debug("Swipe executed from ({},{}) to ({},{}) on emulator {}",
 						point.getX(), point.getY(), point2.getX(), point2.getY(), emulatorNumber);
 				return null;
@@ -477,7 +759,7 @@ public abstract class Emulator {
 	public void pressBackButton(String emulatorNumber) {
 		withRetries(emulatorNumber, device -> {
 			try {
-				device.executeShellCommand("input keyevent KEYCODE_BACK", new NullOutputReceiver());
+				sendInput(device, shell -> shell.key("KEYCODE_BACK"), "input keyevent KEYCODE_BACK");
                 logger.debug("Back button pressed on emulator {}", emulatorNumber);
 				return null;
 			} catch (Exception e) {
@@ -523,43 +805,22 @@ public abstract class Emulator {
 	}
 
 	/**
-	 * Checks if the package is running in the foreground using dumpsys window windows.
+	 * Checks if the package is running in the foreground, see {@link ForegroundAppDetector}.
 	 * @param emulatorNumber Emulator identifier
 	 * @param packageName Package name to check
 	 * @return true if in foreground, false otherwise
 	 */
 	public boolean isPackageRunning(String emulatorNumber, String packageName) {
+		Boolean cached = foregroundApps.getCached(emulatorNumber, packageName);
+		if (cached != null) {
+			return cached;
+		}
 		return withRetries(emulatorNumber, device -> {
 			try {
-				// List of commands to try, in order:
-				List<String> cmds = Arrays.asList(
-						"dumpsys window windows",             // Android ≤ 10
-						"dumpsys window displays",            // Android 11+
-						"dumpsys window",                     // global fallback
-						"dumpsys activity activities"         // search for mResumedActivity
-				);
-				for (String cmd : cmds) {
-					CollectingOutputReceiver recv = new CollectingOutputReceiver();
-					device.executeShellCommand(cmd, recv, 5, TimeUnit.SECONDS);
-					String out = recv.getOutput();
-
-					for (String line : out.split("\\r?\\n")) {
-						line = line.trim();
-						// for the first 3 commands...
-						if ((cmd.contains("window")) &&
-								(line.contains("mCurrentFocus") || line.contains("mFocusedApp")) &&
-								line.contains(packageName + "/")) {
-							logger.trace("✅ Foreground detected with `{}`: {}", cmd, line);
-							return true;
-						}
-						// for dumpsys activity activities...
-						if (cmd.contains("activity") &&
-								line.contains("mResumedActivity") &&
-								line.contains(packageName + "/")) {
-							logger.info("✅ Foreground detected with `{}`: {}", cmd, line);
-							return true;
-						}
-					}
+				Set<String> packages = foregroundApps.detect(emulatorNumber, device);
+				if (packages.contains(packageName)) {
+					logger.trace("Foreground detected: {}", packages);
+					return true;
 				}
 				logger.info("App {} is not in foreground on emulator {}", packageName, emulatorNumber);
 				return false;
@@ -569,6 +830,23 @@ public abstract class Emulator {
 		}, "isAppInForeground");
 	}
 
+	/**
+	 * Gets the foreground app detection, with the strategy selected per device.
+	 * @return Foreground app detector of this emulator
+	 */
+	public ForegroundAppDetector getForegroundAppDetector() {
+		return foregroundApps;
+	}
+
+	/**
+	 * Gets the foreground detection strategy selected for the emulator's device and its latency.
+	 * @param emulatorNumber Emulator identifier
+	 * @return Selected strategy, or null if no detection ran on the device yet
+	 */
+	public ForegroundAppDetector.DeviceStrategy getForegroundStrategy(String emulatorNumber) {
+		return foregroundApps.getStrategy(getDeviceSerial(emulatorNumber));
+	}
+
 	/**
 	 * Launches an app on the emulator using monkey.
 	 * @param emulatorNumber Emulator identifier
@@ -578,6 +856,8 @@ public abstract class Emulator {
 		withRetries(emulatorNumber, device -> {
 			try {
 				device.executeShellCommand("monkey -p " + packageName + " -c android.intent.category.LAUNCHER 1", new NullOutputReceiver());
+				markInput(device);
+				foregroundApps.invalidate(emulatorNumber);
                 logger.info("Application {} launched on emulator {}", packageName, emulatorNumber);
 				return null;
 			} catch (Exception e) {
@@ -594,7 +874,8 @@ public abstract class Emulator {
 	public void sendGameToBackground(String emulatorNumber) {
 		withRetries(emulatorNumber, device -> {
 			try {
-				device.executeShellCommand("input keyevent KEYCODE_HOME", new NullOutputReceiver());
+				sendInput(device, shell -> shell.key("KEYCODE_HOME"), "input keyevent KEYCODE_HOME");
+				foregroundApps.invalidate(emulatorNumber);
                 logger.info("Game sent to background on emulator {}", emulatorNumber);
 				return null;
 			} catch (Exception e) {
@@ -628,43 +909,145 @@ public abstract class Emulator {
 	}
 
 	/**
-	 * Performs OCR on a region of the emulator screen.
+	 * Captures a frame from the emulator without any image encoding.
 	 * @param emulatorNumber Emulator identifier
-	 * @param p1 First corner
-	 * @param p2 Second corner
-	 * @return Recognized text
-	 * @throws IOException if image capture fails
-	 * @throws TesseractException if OCR fails
+	 * @return Captured frame, owned by the caller
 	 */
-	public String ocrRegionText(String emulatorNumber, DTOPoint p1, DTOPoint p2) throws IOException, TesseractException {
-		BufferedImage image = ImageIO.read(new ByteArrayInputStream(captureScreenshot(emulatorNumber)));
-		if (image == null)
-			throw new IOException("Could not capture image.");
+	public ScreenFrame captureFrame(String emulatorNumber) {
+		if (screenStreaming) {
+			ScreenFrame frame = captureFrameFromStream(emulatorNumber);
+			if (frame != null) {
+				return frame;
+			}
+		}
+		return captureFrameWithDdmlib(emulatorNumber);
+	}
+
+	/**
+	 * Enables or disables continuous screen streaming. Disabling it stops the running streams.
+	 * @param screenStreaming true to read frames from a {@link ScreenStream} per device
+	 */
+	public void setScreenStreaming(boolean screenStreaming) {
+		this.screenStreaming = screenStreaming;
+		if (!screenStreaming) {
+			closeScreenStreams();
+		}
+	}
 
-        String language = (EmulatorManager.GAME == GameVersion.CHINA) ? "eng+chi_sim" : "eng";
-		return UtilOCR.ocrFromRegion(image, p1, p2, language);
+	public boolean isScreenStreaming() {
+		return screenStreaming;
 	}
 
 	/**
-	 * Performs OCR on a region of the emulator screen with custom Tesseract settings.
+	 * Uses the given stream as the screen of an emulator, e.g. a recorded session.
+	 * Enables screen streaming.
 	 * @param emulatorNumber Emulator identifier
-	 * @param p1 First corner
-	 * @param p2 Second corner
-	 * @param settings Tesseract OCR configuration settings
-	 * @return Recognized text
-	 * @throws IOException if image capture fails
-	 * @throws TesseractException if OCR fails
+	 * @param stream Stream to read frames from
 	 */
-	public String ocrRegionText(String emulatorNumber, DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings) throws IOException, TesseractException {
-		BufferedImage image = ImageIO.read(new ByteArrayInputStream(captureScreenshot(emulatorNumber)));
-		if (image == null)
-			throw new IOException("Could not capture image.");
+	public void attachScreenStream(String emulatorNumber, ScreenStream stream) {
+		screenStreaming = true;
+		ScreenStream previous = screenStreams.put(getDeviceSerial(emulatorNumber), stream);
+		if (previous != null && previous != stream) {
+			previous.close();
+		}
+	}
 
-		return UtilOCR.ocrFromRegion(image, p1, p2, settings);
+	/**
+	 * Stops the screen streams of every device.
+	 */
+	public void closeScreenStreams() {
+		screenStreams.values().forEach(ScreenStream::close);
+		screenStreams.clear();
+		screenStreamFailures.clear();
+	}
+
+	/**
+	 * Reads the newest streamed frame of the emulator, starting its stream if needed.
+	 * A stream that ends, or sends no frame in time, is closed and not restarted for
+	 * {@code SCREEN_STREAM_RETRY_MS}, so captures do not keep waiting on it.
+	 * @return the frame, or null when streaming is unavailable and the caller must capture on demand
+	 */
+	private ScreenFrame captureFrameFromStream(String emulatorNumber) {
+		String serial = getDeviceSerial(emulatorNumber);
+		ScreenStream stream = screenStreams.get(serial);
+		if (stream != null && !stream.isAlive()) {
+			logger.warn("Screen stream of {} ended after {} frames, capturing on demand", serial, stream.getFramesDecoded());
+			stopScreenStream(serial, stream);
+			return null;
+		}
+		if (stream == null) {
+			stream = startScreenStream(emulatorNumber, serial);
+			if (stream == null) {
+				return null;
+			}
+		}
+		try {
+			ScreenFrame frame = stream.latestFrame(SCREEN_STREAM_FRAME_TIMEOUT_MS);
+			if (frame == null) {
+				logger.warn("No streamed frame for {} in {} ms, capturing on demand", serial, SCREEN_STREAM_FRAME_TIMEOUT_MS);
+				stopScreenStream(serial, stream);
+			}
+			return frame;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	private ScreenStream startScreenStream(String emulatorNumber, String serial) {
+		Long failedAt = screenStreamFailures.get(serial);
+		if (failedAt != null && System.currentTimeMillis() - failedAt < SCREEN_STREAM_RETRY_MS) {
+			return null;
+		}
+		synchronized (screenStreams) {
+			ScreenStream stream = screenStreams.get(serial);
+			if (stream != null && stream.isAlive()) {
+				return stream;
+			}
+			screenStreamFailures.put(serial, System.currentTimeMillis());
+			try {
+				IDevice device = findDevice(emulatorNumber);
+				if (device == null || !device.isOnline()) {
+					return null;
+				}
+				int apiLevel = Integer.parseInt(device.getProperty(IDevice.PROP_BUILD_API_LEVEL).trim());
+				stream = ScreenStream.adb(getProjectAdbPath(), serial, ScreencapDecoder.headerSizeFor(apiLevel));
+				// The failure stays recorded: a stream that dies right away is not restarted on every capture
+				screenStreams.put(serial, stream);
+				logger.info("Screen streaming started on {}", serial);
+				return stream;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			} catch (Exception e) {
+				logger.warn("Could not start screen streaming on {}: {}", serial, e.getMessage());
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Closes a failed stream and records the failure, delaying the next start.
+	 */
+	private void stopScreenStream(String serial, ScreenStream stream) {
+		stream.close();
+		screenStreams.remove(serial, stream);
+		screenStreamFailures.put(serial, System.currentTimeMillis());
+	}
+
+	/**
+	 * Tells the device's screen stream that input was sent, so older frames are not served.
+	 */
+	private void markInput(IDevice device) {
+		ScreenStream stream = screenStreams.get(device.getSerialNumber());
+		if (stream != null) {
+			stream.markInput();
+		}
 	}
 
 	/**
 	 * Captures a screenshot from the emulator.
+	 * Compatibility/debug adapter, prefer {@link #captureFrame(String)}.
 	 * @param emulatorNumber Emulator identifier
 	 * @return PNG image bytes
 	 */
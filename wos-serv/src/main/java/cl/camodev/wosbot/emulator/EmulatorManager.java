@@ -1,27 +1,40 @@
 package cl.camodev.wosbot.emulator;
 
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
-
-import javax.imageio.ImageIO;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import cl.camodev.utiles.ImageSearchUtil;
+import cl.camodev.utiles.UtilOCR;
+import cl.camodev.utiles.image.MatchStrategy;
+import cl.camodev.utiles.image.ScreenFrame;
+import cl.camodev.utiles.ocr.OcrBatch;
+import cl.camodev.utiles.ocr.OcrRegion;
+import cl.camodev.utiles.ocr.OcrResultCache;
+import cl.camodev.utiles.ocr.OcrRegionResult;
 import cl.camodev.wosbot.console.enumerable.EnumConfigurationKey;
 import cl.camodev.wosbot.console.enumerable.EnumTemplates;
 import cl.camodev.wosbot.console.enumerable.GameVersion;
 import cl.camodev.wosbot.emulator.impl.LDPlayerEmulator;
 import cl.camodev.wosbot.emulator.impl.MEmuEmulator;
 import cl.camodev.wosbot.emulator.impl.MuMuEmulator;
+import cl.camodev.wosbot.emulator.impl.SimulatedEmulator;
+import cl.camodev.wosbot.ot.DTOArea;
 import cl.camodev.wosbot.ot.DTOImageSearchResult;
 import cl.camodev.wosbot.ot.DTOPoint;
 import cl.camodev.wosbot.ot.DTOProfiles;
@@ -45,6 +58,9 @@ public class EmulatorManager {
     private Emulator emulator;
     private int MAX_RUNNING_EMULATORS = 3;
     private final Set<Thread> activeSlots = new HashSet<>();
+    private final FrameCache frameCache = new FrameCache(
+            Integer.parseInt(EnumConfigurationKey.FRAME_CACHE_MAX_AGE_INT.getDefaultValue()));
+    private final List<Consumer<String>> screenChangeListeners = new CopyOnWriteArrayList<>();
 
     private EmulatorManager() {
 
@@ -73,6 +89,8 @@ public class EmulatorManager {
             logger.warn("Invalid game version '{}' found in configuration, using default GLOBAL", gameVersionName);
             GAME = GameVersion.GLOBAL;
         }
+        String ocrLanguage = GAME.getOcrLanguage();
+        CompletableFuture.runAsync(() -> UtilOCR.prewarm(ocrLanguage));
 
 
         String savedActiveEmulator = globalConfig.get(EnumConfigurationKey.CURRENT_EMULATOR_STRING.name());
@@ -80,6 +98,16 @@ public class EmulatorManager {
             throw new IllegalStateException("No active emulator set. Ensure an emulator is selected.");
         }
         MAX_RUNNING_EMULATORS = Optional.ofNullable(globalConfig.get(EnumConfigurationKey.MAX_RUNNING_EMULATORS_INT.name())).map(Integer::parseInt).orElse(Integer.parseInt(EnumConfigurationKey.MAX_RUNNING_EMULATORS_INT.getDefaultValue()));
+        frameCache.setMaxAgeMs(Optional.ofNullable(globalConfig.get(EnumConfigurationKey.FRAME_CACHE_MAX_AGE_INT.name())).map(Integer::parseInt).orElse(Integer.parseInt(EnumConfigurationKey.FRAME_CACHE_MAX_AGE_INT.getDefaultValue())));
+        frameCache.invalidateAll();
+
+        String matchStrategyName = globalConfig.getOrDefault(EnumConfigurationKey.TEMPLATE_MATCH_STRATEGY_STRING.name(), EnumConfigurationKey.TEMPLATE_MATCH_STRATEGY_STRING.getDefaultValue());
+        try {
+            ImageSearchUtil.setDefaultMatchStrategy(MatchStrategy.valueOf(matchStrategyName));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid template match strategy '{}' found in configuration, using default FULL_RESOLUTION", matchStrategyName);
+            ImageSearchUtil.setDefaultMatchStrategy(MatchStrategy.FULL_RESOLUTION);
+        }
         try {
             EmulatorType emulatorType = EmulatorType.valueOf(savedActiveEmulator);
             String consolePath = globalConfig.get(emulatorType.getConfigKey());
@@ -88,6 +116,10 @@ public class EmulatorManager {
                 throw new IllegalStateException("No path found for the selected emulator: " + emulatorType.getDisplayName());
             }
 
+            if (this.emulator != null) {
+                this.emulator.getStatusMonitor().stop();
+            }
+
             switch (emulatorType) {
                 case MUMU:
                     this.emulator = new MuMuEmulator(consolePath);
@@ -98,10 +130,28 @@ public class EmulatorManager {
                 case LDPLAYER:
                     this.emulator = new LDPlayerEmulator(consolePath);
                     break;
+                case SIMULATED:
+                    SimulatedEmulator simulated = new SimulatedEmulator(consolePath);
+                    simulated.setCaptureLatencyMs(Long.parseLong(globalConfig.getOrDefault(EnumConfigurationKey.SIMULATED_CAPTURE_LATENCY_INT.name(), EnumConfigurationKey.SIMULATED_CAPTURE_LATENCY_INT.getDefaultValue())));
+                    simulated.setInputLatencyMs(Long.parseLong(globalConfig.getOrDefault(EnumConfigurationKey.SIMULATED_INPUT_LATENCY_INT.name(), EnumConfigurationKey.SIMULATED_INPUT_LATENCY_INT.getDefaultValue())));
+                    this.emulator = simulated;
+                    break;
                 default:
                     throw new IllegalArgumentException("Unsupported emulator type: " + emulatorType);
             }
 
+            String inputBackendName = globalConfig.getOrDefault(EnumConfigurationKey.INPUT_BACKEND_STRING.name(), EnumConfigurationKey.INPUT_BACKEND_STRING.getDefaultValue());
+            try {
+                this.emulator.setInputBackend(InputBackend.valueOf(inputBackendName));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Invalid input backend '{}' found in configuration, using default PERSISTENT_SHELL", inputBackendName);
+                this.emulator.setInputBackend(InputBackend.PERSISTENT_SHELL);
+            }
+
+            this.emulator.getStatusMonitor().setRefreshIntervalMs(Long.parseLong(globalConfig.getOrDefault(EnumConfigurationKey.EMULATOR_STATUS_REFRESH_INT.name(), EnumConfigurationKey.EMULATOR_STATUS_REFRESH_INT.getDefaultValue())));
+            this.emulator.getForegroundAppDetector().setCacheTtlMs(Long.parseLong(globalConfig.getOrDefault(EnumConfigurationKey.FOREGROUND_APP_CACHE_TTL_INT.name(), EnumConfigurationKey.FOREGROUND_APP_CACHE_TTL_INT.getDefaultValue())));
+            this.emulator.setScreenStreaming(Boolean.parseBoolean(globalConfig.getOrDefault(EnumConfigurationKey.SCREEN_STREAMING_BOOL.name(), EnumConfigurationKey.SCREEN_STREAMING_BOOL.getDefaultValue())));
+
             logger.info("Emulator initialized: {}", emulatorType.getDisplayName());
             //restartAdbServer();
 
@@ -120,11 +170,68 @@ public class EmulatorManager {
 	}
 
     /**
-     * Captures a screenshot of the emulator.
+     * Captures a screenshot of the emulator as PNG bytes.
+     * Compatibility/debug adapter, prefer {@link #captureFrame(String)}.
      */
     public byte[] captureScreenshotViaADB(String emulatorNumber) {
+        ScreenFrame frame = captureFrame(emulatorNumber);
+        try {
+            return frame.toPng();
+        } finally {
+            frame.release();
+        }
+    }
+
+    /**
+     * Captures a raw frame of the emulator screen. Reads with no input since the last
+     * capture are served from the per-emulator frame cache. The caller owns the returned
+     * frame and should release it when done.
+     */
+    public ScreenFrame captureFrame(String emulatorNumber) {
         checkEmulatorInitialized();
-        return emulator.captureScreenshot(emulatorNumber);
+        return frameCache.get(emulatorNumber, () -> emulator.captureFrame(emulatorNumber));
+    }
+
+    /**
+     * Captures a new frame of the emulator screen, bypassing the frame cache, e.g. to tell
+     * whether the screen changed since an earlier capture. The frame is cached for the reads
+     * that follow. The caller owns the returned frame and should release it when done.
+     */
+    public ScreenFrame captureFreshFrame(String emulatorNumber) {
+        checkEmulatorInitialized();
+        return frameCache.refresh(emulatorNumber, () -> emulator.captureFrame(emulatorNumber));
+    }
+
+    /**
+     * Drops the cached frame of an emulator so the next read captures the screen again.
+     */
+    public void invalidateFrame(String emulatorNumber) {
+        screenChanged(emulatorNumber);
+    }
+
+    /**
+     * Registers a callback run with the emulator number whenever input is sent to an emulator or
+     * its screen is otherwise known to have changed, e.g. to drop results derived from earlier frames.
+     */
+    public void addScreenChangeListener(Consumer<String> listener) {
+        screenChangeListeners.add(listener);
+    }
+
+    /**
+     * Drops the cached frame of an emulator and notifies the screen change listeners.
+     */
+    private void screenChanged(String emulatorNumber) {
+        frameCache.invalidate(emulatorNumber);
+        for (Consumer<String> listener : screenChangeListeners) {
+            listener.accept(emulatorNumber);
+        }
+    }
+
+    /**
+     * @return the frame cache, exposing hit/miss counters
+     */
+    public FrameCache getFrameCache() {
+        return frameCache;
     }
 
     /**
@@ -139,6 +246,7 @@ public class EmulatorManager {
                 profileName, point.getX(), point.getY(), emulatorNumber);
                 
         emulator.tapAtRandomPoint(emulatorNumber, point, point);
+        screenChanged(emulatorNumber);
     }
 
     /**
@@ -152,7 +260,11 @@ public class EmulatorManager {
         logger.info("{} - Random tapping in area ({},{}) to ({},{}) for emulator {}", 
                 profileName, point1.getX(), point1.getY(), point2.getX(), point2.getY(), emulatorNumber);
                 
-        return emulator.tapAtRandomPoint(emulatorNumber, point1, point2);
+        try {
+            return emulator.tapAtRandomPoint(emulatorNumber, point1, point2);
+        } finally {
+            screenChanged(emulatorNumber);
+        }
     }
 
     /**
@@ -166,7 +278,11 @@ public class EmulatorManager {
         logger.info("{} - Multiple random tapping ({} times) in area ({},{}) to ({},{}) for emulator {}", 
                 profileName, tapCount, point1.getX(), point1.getY(), point2.getX(), point2.getY(), emulatorNumber);
                 
-        return emulator.tapAtRandomPoint(emulatorNumber, point1, point2, tapCount, delayMs);
+        try {
+            return emulator.tapAtRandomPoint(emulatorNumber, point1, point2, tapCount, delayMs);
+        } finally {
+            screenChanged(emulatorNumber);
+        }
     }
 
     /**
@@ -181,6 +297,35 @@ public class EmulatorManager {
                 profileName, start.getX(), start.getY(), end.getX(), end.getY(), emulatorNumber);
                 
         emulator.swipe(emulatorNumber, start, end);
+        screenChanged(emulatorNumber);
+    }
+
+    /**
+     * Starts a batch of gestures that is sent to the emulator as one unit by {@link GestureBatch#execute()}.
+     */
+    public GestureBatch gestureBatch(String emulatorNumber) {
+        return new GestureBatch(this, emulatorNumber);
+    }
+
+    /**
+     * Executes a gesture batch in a single ADB round trip and logs it once.
+     */
+    public GestureBatch.Result executeGestureBatch(String emulatorNumber, GestureBatch batch) {
+        checkEmulatorInitialized();
+        if (batch.isEmpty()) {
+            return new GestureBatch.Result(List.of(), 0);
+        }
+
+        String profileName = getProfileNameForEmulator(emulatorNumber);
+        try {
+            GestureBatch.Result result = emulator.executeGestureBatch(emulatorNumber, batch);
+            logger.info("{} - Gesture batch [{}] executed in {} ms for emulator {}",
+                    profileName, result.steps().stream().map(GestureBatch.StepTiming::executed).collect(Collectors.joining(", ")),
+                    result.totalMs(), emulatorNumber);
+            return result;
+        } finally {
+            screenChanged(emulatorNumber);
+        }
     }
 
     /**
@@ -203,14 +348,22 @@ public class EmulatorManager {
                 profileName, emulatorNumber);
                 
         emulator.pressBackButton(emulatorNumber);
+        screenChanged(emulatorNumber);
     }
 
     /**
      * Executes OCR on a screen region and extracts text.
      */
     public String ocrRegionText(String emulatorNumber, DTOPoint p1, DTOPoint p2) throws IOException, TesseractException {
-        checkEmulatorInitialized();
-        return emulator.ocrRegionText(emulatorNumber, p1, p2);
+        ScreenFrame frame = captureFrame(emulatorNumber);
+        if (frame == null)
+            throw new IOException("Could not capture image.");
+
+        try {
+            return ocrRegionText(frame, p1, p2);
+        } finally {
+            frame.release();
+        }
     }
 
     /**
@@ -224,8 +377,139 @@ public class EmulatorManager {
      * @throws TesseractException if OCR fails
      */
     public String ocrRegionText(String emulatorNumber, DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings) throws IOException, TesseractException {
-        checkEmulatorInitialized();
-        return emulator.ocrRegionText(emulatorNumber, p1, p2, settings);
+        ScreenFrame frame = captureFrame(emulatorNumber);
+        if (frame == null)
+            throw new IOException("Could not capture image.");
+
+        try {
+            return ocrRegionText(frame, p1, p2, settings);
+        } finally {
+            frame.release();
+        }
+    }
+
+    /**
+     * Executes OCR on a region of an already captured frame, so template matching and OCR
+     * can run on the same pixels. The frame stays owned by the caller.
+     */
+    public String ocrRegionText(ScreenFrame frame, DTOPoint p1, DTOPoint p2) throws TesseractException {
+        return UtilOCR.ocrFromRegion(frame, p1, p2, GAME.getOcrLanguage());
+    }
+
+    /**
+     * Executes OCR on a region of an already captured frame with custom Tesseract settings.
+     * The frame stays owned by the caller.
+     */
+    public String ocrRegionText(ScreenFrame frame, DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings) throws TesseractException {
+        if (settings == null) {
+            return ocrRegionText(frame, p1, p2);
+        }
+        return UtilOCR.ocrFromRegion(frame, p1, p2, settings);
+    }
+
+    /**
+     * Content hash of a screen region, to tell whether it changed between two reads.
+     * @param emulatorNumber Emulator identifier
+     * @param p1 First corner of the region
+     * @param p2 Second corner of the region
+     * @return Hash of the region's pixels
+     */
+    public long regionFingerprint(String emulatorNumber, DTOPoint p1, DTOPoint p2) {
+        ScreenFrame frame = captureFrame(emulatorNumber);
+        try {
+            return regionFingerprint(frame, p1, p2);
+        } finally {
+            frame.release();
+        }
+    }
+
+    /**
+     * Content hash of a region of an already captured frame, or of the whole frame. Any pixel
+     * change gives a different hash. The frame stays owned by the caller.
+     * @param frame Captured frame
+     * @param p1 First corner of the region, or null for the whole frame
+     * @param p2 Second corner of the region, or null for the whole frame
+     * @return Hash of the region's pixels
+     */
+    public static long regionFingerprint(ScreenFrame frame, DTOPoint p1, DTOPoint p2) {
+        if (p1 == null || p2 == null) {
+            return OcrResultCache.hash(frame.getRegionBgr(0, 0, frame.getWidth(), frame.getHeight()));
+        }
+        return OcrResultCache.hash(frame.getRegionBgr(Math.min(p1.getX(), p2.getX()), Math.min(p1.getY(), p2.getY()),
+                Math.abs(p1.getX() - p2.getX()), Math.abs(p1.getY() - p2.getY())));
+    }
+
+    /**
+     * Reads several regions of an already captured frame in parallel, each with its own
+     * settings and parser.
+     * @param frame Captured frame, owned by the caller
+     * @param regions Regions to read
+     * @param policy {@link OcrBatch.Policy#FIRST_SUCCESS} to stop once the first region, in list order, parses
+     * @return One result per region, in the order of {@code regions}
+     */
+    public <T> List<OcrRegionResult<T>> ocrRegionsBatch(ScreenFrame frame, List<OcrRegion<T>> regions, OcrBatch.Policy policy) {
+        return OcrBatch.run(frame, regions, policy, this::ocrRegionText);
+    }
+
+    /**
+     * Captures the screen once and reads several regions of it in parallel.
+     * @see #ocrRegionsBatch(ScreenFrame, List, OcrBatch.Policy)
+     */
+    public <T> List<OcrRegionResult<T>> ocrRegionsBatch(String emulatorNumber, List<OcrRegion<T>> regions, OcrBatch.Policy policy) {
+        ScreenFrame frame = captureFrame(emulatorNumber);
+        if (frame == null) {
+            // Every region reports the failed capture, as the single region reads throw it
+            IOException error = new IOException("Could not capture image.");
+            List<OcrRegionResult<T>> failed = new ArrayList<>(regions.size());
+            for (int i = 0; i < regions.size(); i++) {
+                failed.add(new OcrRegionResult<>(null, null, error, true));
+            }
+            return failed;
+        }
+        try {
+            return ocrRegionsBatch(frame, regions, policy);
+        } finally {
+            frame.release();
+        }
+    }
+
+    /**
+     * Reads a numeric string (digits and separators) on a screen region, matching learned
+     * glyphs of the game font before falling back to Tesseract.
+     * @param emulatorNumber Emulator identifier
+     * @param p1 First corner of the region
+     * @param p2 Second corner of the region
+     * @param settings Tesseract OCR configuration settings (may be {@code null})
+     * @return Recognized text
+     * @throws IOException if image capture fails
+     * @throws TesseractException if OCR fails
+     */
+    public String ocrDigitsText(String emulatorNumber, DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings) throws IOException, TesseractException {
+        ScreenFrame frame = captureFrame(emulatorNumber);
+        if (frame == null)
+            throw new IOException("Could not capture image.");
+
+        try {
+            return UtilOCR.ocrDigitsFromRegion(frame, p1, p2, settings, GAME.getOcrLanguage());
+        } finally {
+            frame.release();
+        }
+    }
+
+    /**
+     * Executes OCR on several regions of an already captured frame.
+     * @param frame Captured frame, owned by the caller
+     * @param regions Regions to read
+     * @param settings Tesseract OCR configuration settings applied to every region (may be {@code null})
+     * @return Recognized text of each region, in the order of {@code regions}
+     * @throws TesseractException if OCR fails on any region
+     */
+    public List<String> ocrRegionsText(ScreenFrame frame, List<DTOArea> regions, DTOTesseractSettings settings) throws TesseractException {
+        List<String> texts = new ArrayList<>(regions.size());
+        for (DTOArea region : regions) {
+            texts.add(ocrRegionText(frame, region.topLeft(), region.bottomRight(), settings));
+        }
+        return texts;
     }
 
     /**
@@ -310,157 +594,149 @@ public class EmulatorManager {
     }
 
     /**
-     * Searches for an image on the captured screen of the emulator.
+     * Captures a frame, sets the profile logging context and runs the given search on it.
+     * The frame is released once the search returns.
      */
-    public DTOImageSearchResult searchTemplate(String emulatorNumber, EnumTemplates templatePath, DTOPoint topLeftCorner, DTOPoint bottomRightCorner , double threshold) {
+    private <T> T searchOnFrame(String emulatorNumber, Function<ScreenFrame, T> search) {
         checkEmulatorInitialized();
-        byte[] screenshot = captureScreenshotViaADB(emulatorNumber);
-        String bestTemplatePath = getBestTemplatePath(templatePath.getTemplate());
-        
+        ScreenFrame frame = captureFrame(emulatorNumber);
         try {
             // Set profile name in ImageSearchUtil for logging
             String profileName = getProfileNameForEmulator(emulatorNumber);
             ImageSearchUtil.setProfileName(profileName);
-            
-            return ImageSearchUtil.searchTemplate(screenshot, bestTemplatePath, topLeftCorner, bottomRightCorner, threshold);
+
+            return search.apply(frame);
         } finally {
             // Clear profile name after the search is done
             ImageSearchUtil.clearProfileName();
+            frame.release();
         }
     }
 
     /**
-     * Searches for an image on the entire emulator screen.
+     * Captures the screen once and matches all requested templates against that single
+     * frame in parallel.
+     * @param emulatorNumber Emulator identifier
+     * @param templates Templates to look for
+     * @param threshold Match threshold percentage applied to every template
+     * @return Search result for each requested template
      */
-    public DTOImageSearchResult searchTemplate(String emulatorNumber, EnumTemplates templatePath, double threshold) {
-        checkEmulatorInitialized();
-        byte[] screenshot = captureScreenshotViaADB(emulatorNumber);
-        String bestTemplatePath = getBestTemplatePath(templatePath.getTemplate());
-        
+    public EnumMap<EnumTemplates, DTOImageSearchResult> query(String emulatorNumber, Set<EnumTemplates> templates, double threshold) {
+        return query(emulatorNumber, templates, new DTOPoint(0, 0), new DTOPoint(720, 1280), threshold);
+    }
+
+    /**
+     * Captures the screen once and matches all requested templates inside the given region
+     * of that single frame in parallel.
+     */
+    public EnumMap<EnumTemplates, DTOImageSearchResult> query(String emulatorNumber, Set<EnumTemplates> templates,
+            DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double threshold) {
+        Map<EnumTemplates, String> templatePaths = resolveTemplatePaths(templates);
+        return searchOnFrame(emulatorNumber, frame -> ImageSearchUtil.searchTemplates(frame, templatePaths,
+                topLeftCorner, bottomRightCorner, threshold));
+    }
+
+    /**
+     * Matches all requested templates against an already captured frame of the emulator in parallel.
+     * The frame stays owned by the caller.
+     */
+    public EnumMap<EnumTemplates, DTOImageSearchResult> query(String emulatorNumber, ScreenFrame frame,
+            Set<EnumTemplates> templates, double threshold) {
+        Map<EnumTemplates, String> templatePaths = resolveTemplatePaths(templates);
+        ImageSearchUtil.setProfileName(getProfileNameForEmulator(emulatorNumber));
         try {
-            // Set profile name in ImageSearchUtil for logging
-            String profileName = getProfileNameForEmulator(emulatorNumber);
-            ImageSearchUtil.setProfileName(profileName);
-            
-            return ImageSearchUtil.searchTemplate(screenshot, bestTemplatePath, new DTOPoint(0,0), new DTOPoint(720,1280), threshold);
+            return ImageSearchUtil.searchTemplates(frame, templatePaths, new DTOPoint(0, 0),
+                    new DTOPoint(frame.getWidth(), frame.getHeight()), threshold);
         } finally {
-            // Clear profile name after the search is done
             ImageSearchUtil.clearProfileName();
         }
     }
 
+    private Map<EnumTemplates, String> resolveTemplatePaths(Set<EnumTemplates> templates) {
+        Map<EnumTemplates, String> templatePaths = new EnumMap<>(EnumTemplates.class);
+        for (EnumTemplates template : templates) {
+            templatePaths.put(template, getBestTemplatePath(template.getTemplate()));
+        }
+        return templatePaths;
+    }
+
     /**
-     * Searches for an image on the specified region of the emulator screen using grayscale matching.
+     * Searches for an image on the captured screen of the emulator.
      */
-    public DTOImageSearchResult searchTemplateGrayscale(String emulatorNumber, EnumTemplates templatePath, DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double threshold) {
-        checkEmulatorInitialized();
-        byte[] screenshot = captureScreenshotViaADB(emulatorNumber);
+    public DTOImageSearchResult searchTemplate(String emulatorNumber, EnumTemplates templatePath, DTOPoint topLeftCorner, DTOPoint bottomRightCorner , double threshold) {
         String bestTemplatePath = getBestTemplatePath(templatePath.getTemplate());
-        
+        return searchOnFrame(emulatorNumber, frame -> ImageSearchUtil.searchTemplate(frame, bestTemplatePath, topLeftCorner, bottomRightCorner, threshold));
+    }
+
+    /**
+     * Searches for an image inside the given region of an already captured frame.
+     * The frame stays owned by the caller.
+     */
+    public DTOImageSearchResult searchTemplate(String emulatorNumber, ScreenFrame frame, EnumTemplates templatePath, DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double threshold) {
+        String bestTemplatePath = getBestTemplatePath(templatePath.getTemplate());
+        ImageSearchUtil.setProfileName(getProfileNameForEmulator(emulatorNumber));
         try {
-            // Set profile name in ImageSearchUtil for logging
-            String profileName = getProfileNameForEmulator(emulatorNumber);
-            ImageSearchUtil.setProfileName(profileName);
-            
-            return ImageSearchUtil.searchTemplateGrayscale(screenshot, bestTemplatePath, topLeftCorner, bottomRightCorner, threshold);
+            return ImageSearchUtil.searchTemplate(frame, bestTemplatePath, topLeftCorner, bottomRightCorner, threshold);
         } finally {
-            // Clear profile name after the search is done
             ImageSearchUtil.clearProfileName();
         }
     }
 
+    /**
+     * Searches for an image on an entire, already captured frame. The frame stays owned by the caller.
+     */
+    public DTOImageSearchResult searchTemplate(String emulatorNumber, ScreenFrame frame, EnumTemplates templatePath, double threshold) {
+        return searchTemplate(emulatorNumber, frame, templatePath, new DTOPoint(0, 0), new DTOPoint(frame.getWidth(), frame.getHeight()), threshold);
+    }
+
+    /**
+     * Searches for an image on the entire emulator screen.
+     */
+    public DTOImageSearchResult searchTemplate(String emulatorNumber, EnumTemplates templatePath, double threshold) {
+        String bestTemplatePath = getBestTemplatePath(templatePath.getTemplate());
+        return searchOnFrame(emulatorNumber, frame -> ImageSearchUtil.searchTemplate(frame, bestTemplatePath, new DTOPoint(0,0), new DTOPoint(720,1280), threshold));
+    }
+
+    /**
+     * Searches for an image on the specified region of the emulator screen using grayscale matching.
+     */
+    public DTOImageSearchResult searchTemplateGrayscale(String emulatorNumber, EnumTemplates templatePath, DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double threshold) {
+        String bestTemplatePath = getBestTemplatePath(templatePath.getTemplate());
+        return searchOnFrame(emulatorNumber, frame -> ImageSearchUtil.searchTemplateGrayscale(frame, bestTemplatePath, topLeftCorner, bottomRightCorner, threshold));
+    }
+
     /**
      * Searches for an image on the entire emulator screen using grayscale matching.
      */
     public DTOImageSearchResult searchTemplateGrayscale(String emulatorNumber, EnumTemplates templatePath, double threshold) {
-        checkEmulatorInitialized();
-        byte[] screenshot = captureScreenshotViaADB(emulatorNumber);
         String bestTemplatePath = getBestTemplatePath(templatePath.getTemplate());
-        
-        try {
-            // Set profile name in ImageSearchUtil for logging
-            String profileName = getProfileNameForEmulator(emulatorNumber);
-            ImageSearchUtil.setProfileName(profileName);
-            
-            return ImageSearchUtil.searchTemplateGrayscale(screenshot, bestTemplatePath, new DTOPoint(0,0), new DTOPoint(720,1280), threshold);
-        } finally {
-            // Clear profile name after the search is done
-            ImageSearchUtil.clearProfileName();
-        }
+        return searchOnFrame(emulatorNumber, frame -> ImageSearchUtil.searchTemplateGrayscale(frame, bestTemplatePath, new DTOPoint(0,0), new DTOPoint(720,1280), threshold));
     }
 
     /**
      * Searches for multiple instances of an image on the specified region of the emulator screen using grayscale matching.
      */
     public List<DTOImageSearchResult> searchTemplatesGrayscale(String emulatorNumber, EnumTemplates templatePath, DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double threshold, int maxResults) {
-        checkEmulatorInitialized();
-        byte[] screenshot = captureScreenshotViaADB(emulatorNumber);
         String bestTemplatePath = getBestTemplatePath(templatePath.getTemplate());
-        
-        try {
-            // Set profile name in ImageSearchUtil for logging
-            String profileName = getProfileNameForEmulator(emulatorNumber);
-            ImageSearchUtil.setProfileName(profileName);
-            
-            return ImageSearchUtil.searchTemplateGrayscaleMultiple(screenshot, bestTemplatePath, topLeftCorner, bottomRightCorner, threshold, maxResults);
-        } finally {
-            // Clear profile name after the search is done
-            ImageSearchUtil.clearProfileName();
-        }
+        return searchOnFrame(emulatorNumber, frame -> ImageSearchUtil.searchTemplateGrayscaleMultiple(frame, bestTemplatePath, topLeftCorner, bottomRightCorner, threshold, maxResults));
     }
 
     /**
      * Searches for multiple instances of an image on the entire emulator screen using grayscale matching.
      */
     public List<DTOImageSearchResult> searchTemplatesGrayscale(String emulatorNumber, EnumTemplates templatePath, double threshold, int maxResults) {
-        checkEmulatorInitialized();
-        byte[] screenshot = captureScreenshotViaADB(emulatorNumber);
         String bestTemplatePath = getBestTemplatePath(templatePath.getTemplate());
-        
-        try {
-            // Set profile name in ImageSearchUtil for logging
-            String profileName = getProfileNameForEmulator(emulatorNumber);
-            ImageSearchUtil.setProfileName(profileName);
-            
-            return ImageSearchUtil.searchTemplateGrayscaleMultiple(screenshot, bestTemplatePath, new DTOPoint(0,0), new DTOPoint(720,1280), threshold, maxResults);
-        } finally {
-            // Clear profile name after the search is done
-            ImageSearchUtil.clearProfileName();
-        }
+        return searchOnFrame(emulatorNumber, frame -> ImageSearchUtil.searchTemplateGrayscaleMultiple(frame, bestTemplatePath, new DTOPoint(0,0), new DTOPoint(720,1280), threshold, maxResults));
     }
 
     public List<DTOImageSearchResult> searchTemplates(String emulatorNumber, EnumTemplates templatePath, DTOPoint topLeftCorner, DTOPoint bottomRightCorner , double threshold, int maxResults) {
-        checkEmulatorInitialized();
-        byte[] screenshot = captureScreenshotViaADB(emulatorNumber);
         String bestTemplatePath = getBestTemplatePath(templatePath.getTemplate());
-        
-        try {
-            // Set profile name in ImageSearchUtil for logging
-            String profileName = getProfileNameForEmulator(emulatorNumber);
-            ImageSearchUtil.setProfileName(profileName);
-            
-            return ImageSearchUtil.searchTemplateMultiple(screenshot, bestTemplatePath, topLeftCorner, bottomRightCorner, threshold, maxResults);
-        } finally {
-            // Clear profile name after the search is done
-            ImageSearchUtil.clearProfileName();
-        }
+        return searchOnFrame(emulatorNumber, frame -> ImageSearchUtil.searchTemplateMultiple(frame, bestTemplatePath, topLeftCorner, bottomRightCorner, threshold, maxResults));
     }
 
     public List<DTOImageSearchResult> searchTemplates(String emulatorNumber, EnumTemplates templatePath, double threshold, int maxResults) {
-        checkEmulatorInitialized();
-        byte[] screenshot = captureScreenshotViaADB(emulatorNumber);
         String bestTemplatePath = getBestTemplatePath(templatePath.getTemplate());
-        
-        try {
-            // Set profile name in ImageSearchUtil for logging
-            String profileName = getProfileNameForEmulator(emulatorNumber);
-            ImageSearchUtil.setProfileName(profileName);
-            
-            return ImageSearchUtil.searchTemplateMultiple(screenshot, bestTemplatePath, new DTOPoint(0,0), new DTOPoint(720,1280), threshold, maxResults);
-        } finally {
-            // Clear profile name after the search is done
-            ImageSearchUtil.clearProfileName();
-        }
+        return searchOnFrame(emulatorNumber, frame -> ImageSearchUtil.searchTemplateMultiple(frame, bestTemplatePath, new DTOPoint(0,0), new DTOPoint(720,1280), threshold, maxResults));
     }
 
     /**
@@ -472,46 +748,69 @@ public class EmulatorManager {
      * @return Array with counts for [background, green, red] pixels
      */
     public int[] analyzeRegionColors(String emulatorNumber, DTOPoint topLeft, DTOPoint bottomRight, int stepSize) {
+        ScreenFrame frame = null;
         try {
-            // Take a single screenshot
-            byte[] screenshot = emulator.captureScreenshot(emulatorNumber);
-            BufferedImage image = ImageIO.read(new ByteArrayInputStream(screenshot));
-            
-            int[] counts = new int[3]; // [background, green, red]
-            
-            // Scan the region
-            for (int y = topLeft.getY(); y <= bottomRight.getY(); y += stepSize) {
-                for (int x = topLeft.getX(); x <= bottomRight.getX(); x += stepSize) {
-                    int rgb = image.getRGB(x, y);
-                    int r = (rgb >> 16) & 0xFF;
-                    int g = (rgb >> 8) & 0xFF;
-                    int b = rgb & 0xFF;
-                    
-                    // Check if it's background color (127, 173, 205)
-                    if (Math.abs(r - 127) < 20 && Math.abs(g - 173) < 20 && Math.abs(b - 205) < 20) {
-                        counts[0]++; // background
-                    }
-                    // Check if it's green text
-                    else if (g > Math.max(r, b) * 1.2 && g > 100) {
-                        counts[1]++; // green
-                    }
-                    // Check if it's red text
-                    else if (r > Math.max(g, b) * 1.2 && r > 100) {
-                        counts[2]++; // red
-                    }
-                }
-            }
-            
-            return counts;
+            // Take a single frame and copy only the analyzed region
+            frame = captureFrame(emulatorNumber);
+            return analyzeRegionColors(frame, topLeft, bottomRight, stepSize);
         } catch (Exception e) {
             logger.error("Error analyzing region colors", e);
             return new int[]{0, 0, 0};
+        } finally {
+            if (frame != null) {
+                frame.release();
+            }
+        }
+    }
+
+    /**
+     * Analyzes the colors in a region of an already captured frame.
+     * @param frame Captured frame
+     * @param topLeft Top-left point of the region to analyze
+     * @param bottomRight Bottom-right point of the region to analyze (inclusive)
+     * @param stepSize Step size for scanning (e.g., 2 to check every other pixel)
+     * @return Array with counts for [background, green, red] pixels
+     */
+    public int[] analyzeRegionColors(ScreenFrame frame, DTOPoint topLeft, DTOPoint bottomRight, int stepSize) {
+        int regionWidth = bottomRight.getX() - topLeft.getX() + 1;
+        int regionHeight = bottomRight.getY() - topLeft.getY() + 1;
+        byte[] bgr = frame.getRegionBgr(topLeft.getX(), topLeft.getY(), regionWidth, regionHeight);
+
+        int[] counts = new int[3]; // [background, green, red]
+
+        // Scan the region
+        for (int y = 0; y < regionHeight; y += stepSize) {
+            int rowOffset = y * regionWidth * 3;
+            for (int x = 0; x < regionWidth; x += stepSize) {
+                int offset = rowOffset + x * 3;
+                int b = bgr[offset] & 0xFF;
+                int g = bgr[offset + 1] & 0xFF;
+                int r = bgr[offset + 2] & 0xFF;
+
+                // Check if it's background color (127, 173, 205)
+                if (Math.abs(r - 127) < 20 && Math.abs(g - 173) < 20 && Math.abs(b - 205) < 20) {
+                    counts[0]++; // background
+                }
+                // Check if it's green text
+                else if (g > Math.max(r, b) * 1.2 && g > 100) {
+                    counts[1]++; // green
+                }
+                // Check if it's red text
+                else if (r > Math.max(g, b) * 1.2 && r > 100) {
+                    counts[2]++; // red
+                }
+            }
         }
+
+        return counts;
     }
 
     public void launchEmulator(String emulatorNumber) {
         checkEmulatorInitialized();
         emulator.launchEmulator(emulatorNumber);
+        emulator.getStatusMonitor().invalidate(emulatorNumber);
+        emulator.getForegroundAppDetector().invalidate(emulatorNumber);
+        screenChanged(emulatorNumber);
     }
 
     /**
@@ -520,21 +819,29 @@ public class EmulatorManager {
     public void closeEmulator(String emulatorNumber) {
         checkEmulatorInitialized();
         emulator.closeEmulator(emulatorNumber);
+        emulator.getStatusMonitor().invalidate(emulatorNumber);
+        emulator.getForegroundAppDetector().invalidate(emulatorNumber);
+        screenChanged(emulatorNumber);
     }
 
     public void launchApp(String emulatorNumber, String packageName) {
         checkEmulatorInitialized();
         emulator.launchApp(emulatorNumber, packageName);
+        screenChanged(emulatorNumber);
     }
 
     public void sendGameToBackground(String emulatorNumber) {
         checkEmulatorInitialized();
         emulator.sendGameToBackground(emulatorNumber);
+        screenChanged(emulatorNumber);
     }
     
+    /**
+     * Returns the cached running state of the emulator, see {@link EmulatorStatusMonitor}.
+     */
     public boolean isRunning(String emulatorNumber) {
         checkEmulatorInitialized();
-        return emulator.isRunning(emulatorNumber);
+        return emulator.getStatusMonitor().isRunning(emulatorNumber);
     }
 
     public boolean isPackageRunning(String emulatorNumber, String packageName) {
@@ -542,6 +849,15 @@ public class EmulatorManager {
         return emulator.isPackageRunning(emulatorNumber, packageName);
     }
 
+    /**
+     * Returns the foreground detection strategy selected for the emulator and its latency,
+     * or null before the first detection.
+     */
+    public ForegroundAppDetector.DeviceStrategy getForegroundStrategy(String emulatorNumber) {
+        checkEmulatorInitialized();
+        return emulator.getForegroundStrategy(emulatorNumber);
+    }
+
     public void restartAdbServer() {
         checkEmulatorInitialized();
         emulator.restartAdb();
@@ -0,0 +1,178 @@
+package cl.camodev.wosbot.emulator;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cached running state of every emulator instance.
+ * <p>
+ * Asking the emulator console whether one instance runs spawns an external process, and that
+ * question is asked before every gesture and screenshot. This monitor refreshes the state of all
+ * instances with one bulk console query ({@link Emulator#queryRunningStates()}) on a schedule,
+ * so {@link #isRunning(String)} is a map read. Launching or closing an instance invalidates its
+ * state, and the next read queries the console again right away.
+ */
+public class EmulatorStatusMonitor {
+
+	private static final Logger logger = LoggerFactory.getLogger(EmulatorStatusMonitor.class);
+
+	// A state is trusted for a few refresh periods in case a scheduled refresh is late or fails
+	private static final int MAX_AGE_PERIODS = 3;
+
+	private record State(boolean running, long checkedAt) {
+	}
+
+	private final Emulator emulator;
+	private final Map<String, State> states = new ConcurrentHashMap<>();
+	private final Map<String, Long> invalidatedAt = new ConcurrentHashMap<>();
+	private final Set<String> tracked = ConcurrentHashMap.newKeySet();
+	private final Object refreshLock = new Object();
+	private volatile long refreshIntervalMs = 5000;
+	private ScheduledExecutorService scheduler;
+	private ScheduledFuture<?> refreshTask;
+	private long consoleQueries;
+
+	public EmulatorStatusMonitor(Emulator emulator) {
+		this.emulator = emulator;
+	}
+
+	/**
+	 * Returns whether the instance is running, querying the console only when its state is unknown,
+	 * invalidated or too old.
+	 */
+	public boolean isRunning(String emulatorNumber) {
+		if (tracked.add(emulatorNumber)) {
+			ensureScheduled();
+		}
+		State state = states.get(emulatorNumber);
+		if (isFresh(state)) {
+			return state.running();
+		}
+		synchronized (refreshLock) {
+			// Another caller may have refreshed while this one was waiting
+			state = states.get(emulatorNumber);
+			if (!isFresh(state)) {
+				refresh();
+				state = states.get(emulatorNumber);
+			}
+		}
+		return state != null && state.running();
+	}
+
+	/**
+	 * Forgets the state of the instance, e.g. after launching or closing it.
+	 */
+	public void invalidate(String emulatorNumber) {
+		invalidatedAt.put(emulatorNumber, System.currentTimeMillis());
+		states.remove(emulatorNumber);
+	}
+
+	/**
+	 * Sets the interval between scheduled refreshes.
+	 */
+	public synchronized void setRefreshIntervalMs(long refreshIntervalMs) {
+		this.refreshIntervalMs = Math.max(500, refreshIntervalMs);
+		if (refreshTask != null) {
+			refreshTask.cancel(false);
+			refreshTask = null;
+			ensureScheduled();
+		}
+	}
+
+	public long getRefreshIntervalMs() {
+		return refreshIntervalMs;
+	}
+
+	/**
+	 * Number of console processes spawned so far to refresh states.
+	 */
+	public long getConsoleQueries() {
+		synchronized (refreshLock) {
+			return consoleQueries;
+		}
+	}
+
+	/**
+	 * Stops the scheduled refreshes. States are still read and refreshed on demand.
+	 */
+	public synchronized void stop() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+			refreshTask = null;
+		}
+	}
+
+	private boolean isFresh(State state) {
+		return state != null && System.currentTimeMillis() - state.checkedAt() <= refreshIntervalMs * MAX_AGE_PERIODS;
+	}
+
+	private synchronized void ensureScheduled() {
+		if (refreshTask != null) {
+			return;
+		}
+		if (scheduler == null) {
+			scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, "EmulatorStatusMonitor");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		refreshTask = scheduler.scheduleWithFixedDelay(() -> {
+			try {
+				synchronized (refreshLock) {
+					refresh();
+				}
+			} catch (Exception e) {
+				logger.warn("Error refreshing emulator states: {}", e.getMessage());
+			}
+		}, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Refreshes the tracked instances, and every instance a bulk query reports. Called holding
+	 * {@link #refreshLock}.
+	 */
+	private void refresh() {
+		if (tracked.isEmpty()) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		consoleQueries++;
+		Map<String, Boolean> bulk = emulator.queryRunningStates();
+		if (bulk != null) {
+			bulk.forEach((emulatorNumber, running) -> update(emulatorNumber, running, now));
+			for (String emulatorNumber : tracked) {
+				if (!bulk.containsKey(emulatorNumber)) {
+					update(emulatorNumber, false, now);
+				}
+			}
+			return;
+		}
+
+		// No bulk query available, one console call per instance
+		consoleQueries += tracked.size() - 1;
+		for (String emulatorNumber : tracked) {
+			update(emulatorNumber, emulator.isRunning(emulatorNumber), now);
+		}
+	}
+
+	private void update(String emulatorNumber, boolean running, long checkedAt) {
+		// A query started before the last invalidation may predate a launch or close
+		if (checkedAt < invalidatedAt.getOrDefault(emulatorNumber, 0L)) {
+			return;
+		}
+		State previous = states.put(emulatorNumber, new State(running, checkedAt));
+		if (previous != null && previous.running() != running) {
+			logger.info("Emulator {} is now {}", emulatorNumber, running ? "running" : "stopped");
+		}
+	}
+}
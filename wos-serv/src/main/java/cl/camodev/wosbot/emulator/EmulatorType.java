@@ -1,24 +1,37 @@
 package cl.camodev.wosbot.emulator;
 
+import java.io.File;
+
 import cl.camodev.wosbot.console.enumerable.EnumConfigurationKey;
 
 public enum EmulatorType {
 	// @formatter:off
     MUMU("MuMuPlayer", EnumConfigurationKey.MUMU_PATH_STRING.name(), "MuMuManager.exe","C:\\Program Files\\Netease\\MuMuPlayerGlobal-12.0\\shell\\"),
     MEMU("MEmu Player", EnumConfigurationKey.MEMU_PATH_STRING.name(), "memuc.exe","C:\\Program Files\\Microvirt\\MEmu\\"),
-    LDPLAYER("LDPlayer", EnumConfigurationKey.LDPLAYER_PATH_STRING.name(), "ldconsole.exe","C:\\LDPlayer\\LDPlayer9\\");
+    LDPLAYER("LDPlayer", EnumConfigurationKey.LDPLAYER_PATH_STRING.name(), "ldconsole.exe","C:\\LDPlayer\\LDPlayer9\\"),
+    SIMULATED("Simulated session", EnumConfigurationKey.SIMULATED_PATH_STRING.name(), "session.tsv", "simulated" + File.separator, false);
 	    // @formatter:on
 
 	private final String displayName;
 	private final String configKey;
 	private final String executableName;
 	private final String defaultPath;
+	private final boolean userVisible;
 
 	EmulatorType(String displayName, String configKey, String executableName, String defaultPath) {
+		this(displayName, configKey, executableName, defaultPath, true);
+	}
+
+	/**
+	 * @param userVisible false for types that are only configured by hand, which the emulator
+	 *                    settings and the auto-detection at launch must not offer
+	 */
+	EmulatorType(String displayName, String configKey, String executableName, String defaultPath, boolean userVisible) {
 		this.displayName = displayName;
 		this.configKey = configKey;
 		this.executableName = executableName;
 		this.defaultPath = defaultPath;
+		this.userVisible = userVisible;
 	}
 
 	public String getDisplayName() {
@@ -36,4 +49,8 @@ public enum EmulatorType {
 	public String getDefaultPath() {
 		return defaultPath + executableName;
 	}
+
+	public boolean isUserVisible() {
+		return userVisible;
+	}
 }
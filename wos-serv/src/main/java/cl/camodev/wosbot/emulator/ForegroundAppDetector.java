@@ -0,0 +1,197 @@
+package cl.camodev.wosbot.emulator;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.android.ddmlib.CollectingOutputReceiver;
+import com.android.ddmlib.IDevice;
+
+/**
+ * Finds the apps in the foreground of a device.
+ * <p>
+ * The full {@code dumpsys} outputs are tens of kilobytes each. The first detection on a device
+ * probes the strategies in order and keeps the first one whose output has a focus line, so later
+ * detections run a single command filtered on the device by {@code grep}. Results are cached
+ * for a short time per emulator; launching the game or sending it to the background invalidates
+ * them.
+ */
+public class ForegroundAppDetector {
+
+	private static final Logger logger = LoggerFactory.getLogger(ForegroundAppDetector.class);
+
+	private static final long COMMAND_TIMEOUT_SECONDS = 5;
+	private static final Pattern FOCUS_LINE = Pattern.compile("mCurrentFocus|mFocusedApp|mResumedActivity|topResumedActivity");
+	// Component of a window or activity record, e.g. "u0 com.gof.global/com.unity3d.player.UnityPlayerActivity}"
+	private static final Pattern COMPONENT = Pattern.compile("([A-Za-z][\\w.]*)/[.\\w$]+");
+
+	public enum Strategy {
+		/** Focused window and app from the window manager, filtered on the device. */
+		WINDOW_FOCUS("dumpsys window | grep -E 'mCurrentFocus|mFocusedApp'"),
+		/** Resumed activity from the activity manager, filtered on the device. */
+		RESUMED_ACTIVITY("dumpsys activity activities | grep -E 'mResumedActivity|topResumedActivity'"),
+		/** Full dumps scanned on this side, for devices without {@code grep}. */
+		FULL_DUMPSYS("dumpsys window windows", "dumpsys window displays", "dumpsys window", "dumpsys activity activities");
+
+		private final List<String> commands;
+
+		Strategy(String... commands) {
+			this.commands = List.of(commands);
+		}
+
+		public List<String> getCommands() {
+			return commands;
+		}
+	}
+
+	/**
+	 * Strategy selected for a device and how long its detections take.
+	 */
+	public record DeviceStrategy(Strategy strategy, String apiLevel, long probeMs, long lastMs, long averageMs,
+			long detections) {
+	}
+
+	private record Foreground(Set<String> packages, long detectedAt) {
+	}
+
+	private final Map<String, DeviceStrategy> strategies = new ConcurrentHashMap<>();
+	private final Map<String, Foreground> cache = new ConcurrentHashMap<>();
+	private volatile long cacheTtlMs = 2000;
+
+	/**
+	 * Returns the cached answer for the emulator, or {@code null} if there is none or it expired.
+	 */
+	public Boolean getCached(String emulatorNumber, String packageName) {
+		Foreground foreground = cache.get(emulatorNumber);
+		if (foreground == null || System.currentTimeMillis() - foreground.detectedAt() >= cacheTtlMs) {
+			return null;
+		}
+		return foreground.packages().contains(packageName);
+	}
+
+	/**
+	 * Detects the foreground apps of the device and caches them for the emulator.
+	 *
+	 * @return the packages of the focused window, app and resumed activity
+	 */
+	public Set<String> detect(String emulatorNumber, IDevice device) throws Exception {
+		String serial = device.getSerialNumber();
+		DeviceStrategy selected = strategies.get(serial);
+		Set<String> packages;
+		if (selected == null) {
+			packages = probe(device);
+		} else {
+			long start = System.nanoTime();
+			packages = run(device, selected.strategy());
+			record(device, selected.strategy(), start);
+		}
+		cache.put(emulatorNumber, new Foreground(packages, System.currentTimeMillis()));
+		return packages;
+	}
+
+	public void invalidate(String emulatorNumber) {
+		cache.remove(emulatorNumber);
+	}
+
+	/**
+	 * Forgets the strategy of a device so the next detection probes again.
+	 */
+	public void resetStrategy(String serial) {
+		strategies.remove(serial);
+	}
+
+	public DeviceStrategy getStrategy(String serial) {
+		return strategies.get(serial);
+	}
+
+	public Map<String, DeviceStrategy> getStrategies() {
+		return Collections.unmodifiableMap(strategies);
+	}
+
+	public void setCacheTtlMs(long cacheTtlMs) {
+		this.cacheTtlMs = Math.max(0, cacheTtlMs);
+	}
+
+	public long getCacheTtlMs() {
+		return cacheTtlMs;
+	}
+
+	private Set<String> probe(IDevice device) throws Exception {
+		String serial = device.getSerialNumber();
+		for (Strategy strategy : Strategy.values()) {
+			long start = System.nanoTime();
+			Set<String> packages;
+			if (strategy == Strategy.FULL_DUMPSYS) {
+				packages = run(device, strategy);
+			} else {
+				String output = execute(device, strategy.getCommands().get(0));
+				// Without grep, or without such lines on this Android version, the output has no focus line
+				if (!FOCUS_LINE.matcher(output).find()) {
+					logger.debug("Foreground strategy {} does not work on {}", strategy, serial);
+					continue;
+				}
+				packages = parse(output);
+			}
+			DeviceStrategy selected = record(device, strategy, start);
+			logger.info("Foreground app detection on {} (API {}) uses {} ({} ms)", serial, selected.apiLevel(),
+					strategy, selected.probeMs());
+			return packages;
+		}
+		throw new IllegalStateException("No foreground detection strategy available on " + serial);
+	}
+
+	private Set<String> run(IDevice device, Strategy strategy) throws Exception {
+		for (String command : strategy.getCommands()) {
+			Set<String> packages = parse(execute(device, command));
+			if (!packages.isEmpty()) {
+				return packages;
+			}
+		}
+		return Set.of();
+	}
+
+	private DeviceStrategy record(IDevice device, Strategy strategy, long startNanos) {
+		long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+		return strategies.compute(device.getSerialNumber(), (key, previous) -> {
+			if (previous == null) {
+				return new DeviceStrategy(strategy, device.getProperty(IDevice.PROP_BUILD_API_LEVEL), elapsedMs, elapsedMs,
+						elapsedMs, 1);
+			}
+			long detections = previous.detections() + 1;
+			long average = (previous.averageMs() * previous.detections() + elapsedMs) / detections;
+			return new DeviceStrategy(strategy, previous.apiLevel(), previous.probeMs(), elapsedMs, average, detections);
+		});
+	}
+
+	private static String execute(IDevice device, String command) throws Exception {
+		CollectingOutputReceiver receiver = new CollectingOutputReceiver();
+		device.executeShellCommand(command, receiver, COMMAND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		return receiver.getOutput();
+	}
+
+	/**
+	 * Packages named on the focus lines of a {@code dumpsys} output.
+	 */
+	static Set<String> parse(String output) {
+		Set<String> packages = new LinkedHashSet<>();
+		for (String line : output.split("\\r?\\n")) {
+			if (!FOCUS_LINE.matcher(line).find()) {
+				continue;
+			}
+			Matcher component = COMPONENT.matcher(line);
+			if (component.find()) {
+				packages.add(component.group(1));
+			}
+		}
+		return packages;
+	}
+}
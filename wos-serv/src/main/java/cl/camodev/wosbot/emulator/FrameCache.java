@@ -0,0 +1,152 @@
+package cl.camodev.wosbot.emulator;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import cl.camodev.utiles.image.ScreenFrame;
+
+/**
+ * Keeps the latest captured frame of each emulator so back-to-back reads without any input
+ * in between are served from memory instead of a new ADB screenshot.
+ * <p>
+ * A cached frame is dropped as soon as an input event (tap, swipe, back, app launch...) is
+ * sent to its emulator, or once it is older than the configured max age. Frames handed out
+ * are retained for the caller, who releases them as usual.
+ */
+public class FrameCache {
+
+	private final ConcurrentHashMap<String, Slot> slots = new ConcurrentHashMap<>();
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private volatile long maxAgeMs;
+
+	public FrameCache(long maxAgeMs) {
+		this.maxAgeMs = maxAgeMs;
+	}
+
+	/**
+	 * Returns the cached frame for the emulator if it is still valid, otherwise captures a
+	 * new one with the given supplier and caches it.
+	 *
+	 * @param emulatorNumber Emulator identifier
+	 * @param capture Supplier performing the real capture
+	 * @return A frame owned by the caller (must be released)
+	 */
+	public ScreenFrame get(String emulatorNumber, Supplier<ScreenFrame> capture) {
+		if (maxAgeMs <= 0) {
+			misses.incrementAndGet();
+			return capture.get();
+		}
+
+		Slot slot = slots.computeIfAbsent(emulatorNumber, key -> new Slot());
+		long generation;
+		synchronized (slot) {
+			if (slot.frame != null && System.currentTimeMillis() - slot.frame.getCapturedAt() < maxAgeMs) {
+				hits.incrementAndGet();
+				return slot.frame.retain();
+			}
+			generation = slot.generation;
+		}
+		return capture(slot, generation, capture);
+	}
+
+	/**
+	 * Captures a new frame whatever the age of the cached one, and caches it for later reads.
+	 *
+	 * @return A frame owned by the caller (must be released)
+	 */
+	public ScreenFrame refresh(String emulatorNumber, Supplier<ScreenFrame> capture) {
+		if (maxAgeMs <= 0) {
+			misses.incrementAndGet();
+			return capture.get();
+		}
+
+		Slot slot = slots.computeIfAbsent(emulatorNumber, key -> new Slot());
+		long generation;
+		synchronized (slot) {
+			generation = slot.generation;
+		}
+		return capture(slot, generation, capture);
+	}
+
+	/**
+	 * Drops the cached frame of an emulator. Called whenever input changes the screen.
+	 */
+	public void invalidate(String emulatorNumber) {
+		Slot slot = slots.get(emulatorNumber);
+		if (slot == null) {
+			return;
+		}
+		synchronized (slot) {
+			slot.generation++;
+			slot.replace(null);
+		}
+	}
+
+	/**
+	 * Drops every cached frame.
+	 */
+	public void invalidateAll() {
+		slots.keySet().forEach(this::invalidate);
+	}
+
+	public void setMaxAgeMs(long maxAgeMs) {
+		this.maxAgeMs = maxAgeMs;
+		if (maxAgeMs <= 0) {
+			invalidateAll();
+		}
+	}
+
+	public long getMaxAgeMs() {
+		return maxAgeMs;
+	}
+
+	/**
+	 * @return number of reads served from the cache (ADB round trips saved)
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return number of reads that needed a new capture
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	private ScreenFrame capture(Slot slot, long generation, Supplier<ScreenFrame> capture) {
+		// Capture outside the lock so input on this emulator is never blocked by a screenshot
+		misses.incrementAndGet();
+		ScreenFrame frame = capture.get();
+		if (frame != null) {
+			synchronized (slot) {
+				// Input sent while capturing makes the new frame unreliable for later readers
+				if (generation == slot.generation) {
+					slot.replace(frame.retain());
+				}
+			}
+		}
+		return frame;
+	}
+
+	public String getStats() {
+		long h = hits.get();
+		long total = h + misses.get();
+		return String.format("Frame cache hits: %d/%d (%.1f%%), max age: %d ms", h, total,
+				total == 0 ? 0.0 : h * 100.0 / total, maxAgeMs);
+	}
+
+	private static class Slot {
+		private ScreenFrame frame;
+		private long generation;
+
+		private void replace(ScreenFrame newFrame) {
+			if (frame != null) {
+				frame.release();
+			}
+			frame = newFrame;
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package cl.camodev.wosbot.emulator;
+
+import java.util.ArrayDeque;
+
+import cl.camodev.utiles.image.ScreenFrame;
+
+/**
+ * Keeps the newest frames of a screen stream. Frames handed out are retained for the caller,
+ * who releases them as usual.
+ */
+public class FrameRingBuffer {
+
+	private record Entry(ScreenFrame frame, long grabbedAfter) {
+	}
+
+	private final int capacity;
+	private final ArrayDeque<Entry> entries;
+	private boolean closed;
+
+	public FrameRingBuffer(int capacity) {
+		this.capacity = Math.max(1, capacity);
+		this.entries = new ArrayDeque<>(this.capacity);
+	}
+
+	/**
+	 * Adds a frame, dropping the oldest one when full. The buffer takes ownership of the frame.
+	 *
+	 * @param grabbedAfter Instant the frame is known to have been grabbed after
+	 */
+	public synchronized void push(ScreenFrame frame, long grabbedAfter) {
+		if (closed) {
+			frame.release();
+			return;
+		}
+		if (entries.size() == capacity) {
+			entries.removeFirst().frame().release();
+		}
+		entries.addLast(new Entry(frame, grabbedAfter));
+		notifyAll();
+	}
+
+	/**
+	 * Returns the newest frame grabbed after {@code notBefore}, waiting for one if needed.
+	 *
+	 * @return a retained frame, or {@code null} on timeout or once the buffer is closed
+	 */
+	public synchronized ScreenFrame await(long notBefore, long timeoutMs) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeoutMs;
+		while (!closed) {
+			Entry newest = entries.peekLast();
+			if (newest != null && newest.grabbedAfter() >= notBefore) {
+				return newest.frame().retain();
+			}
+			long remaining = deadline - System.currentTimeMillis();
+			if (remaining <= 0) {
+				return null;
+			}
+			wait(remaining);
+		}
+		return null;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Releases every frame and wakes up waiting readers. Frames pushed afterwards are dropped.
+	 */
+	public synchronized void close() {
+		closed = true;
+		entries.forEach(entry -> entry.frame().release());
+		entries.clear();
+		notifyAll();
+	}
+}
@@ -0,0 +1,140 @@
+package cl.camodev.wosbot.emulator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import cl.camodev.wosbot.ot.DTOPoint;
+
+/**
+ * Fixed sequence of taps, swipes, key events and waits sent to an emulator as one unit.
+ * <p>
+ * The whole sequence is written to the device in a single ADB round trip and logged once.
+ * Random taps keep the jitter of {@link EmulatorManager#tapAtRandomPoint}: the point is drawn
+ * inside the area each time the batch is executed.
+ *
+ * <pre>
+ * emuManager.gestureBatch(EMULATOR_NUMBER)
+ *         .tap(new DTOPoint(24, 24), new DTOPoint(61, 61)).waitMs(500)
+ *         .back()
+ *         .execute();
+ * </pre>
+ */
+public class GestureBatch {
+
+	public enum StepType {
+		TAP, SWIPE, KEY, WAIT
+	}
+
+	/**
+	 * One step. Taps use the area (x1, y1)-(x2, y2), swipes go from (x1, y1) to (x2, y2).
+	 */
+	public record Step(StepType type, int x1, int y1, int x2, int y2, String keyCode, long waitMs) {
+
+		@Override
+		public String toString() {
+			return switch (type) {
+				case TAP -> x1 == x2 && y1 == y2 ? "tap(" + x1 + "," + y1 + ")"
+						: "tap(" + x1 + "," + y1 + ")-(" + x2 + "," + y2 + ")";
+				case SWIPE -> "swipe(" + x1 + "," + y1 + ")->(" + x2 + "," + y2 + ")";
+				case KEY -> "key(" + keyCode + ")";
+				case WAIT -> "wait(" + waitMs + "ms)";
+			};
+		}
+	}
+
+	/**
+	 * A step as it was executed: the resolved gesture (e.g. the tapped point) and how long it took
+	 * on the device.
+	 */
+	public record StepTiming(Step step, String executed, long durationMs) {
+	}
+
+	public record Result(List<StepTiming> steps, long totalMs) {
+	}
+
+	private final EmulatorManager manager;
+	private final String emulatorNumber;
+	private final List<Step> steps = new ArrayList<>();
+
+	GestureBatch(EmulatorManager manager, String emulatorNumber) {
+		this.manager = manager;
+		this.emulatorNumber = emulatorNumber;
+	}
+
+	public GestureBatch tap(DTOPoint point) {
+		return tap(point, point);
+	}
+
+	/**
+	 * Taps a random point within the area.
+	 */
+	public GestureBatch tap(DTOPoint point1, DTOPoint point2) {
+		steps.add(new Step(StepType.TAP, Math.min(point1.getX(), point2.getX()), Math.min(point1.getY(), point2.getY()),
+				Math.max(point1.getX(), point2.getX()), Math.max(point1.getY(), point2.getY()), null, 0));
+		return this;
+	}
+
+	/**
+	 * Taps random points within the area {@code tapCount} times, waiting {@code delayMs} after each tap.
+	 */
+	public GestureBatch tap(DTOPoint point1, DTOPoint point2, int tapCount, int delayMs) {
+		for (int i = 0; i < tapCount; i++) {
+			tap(point1, point2);
+			waitMs(delayMs);
+		}
+		return this;
+	}
+
+	public GestureBatch swipe(DTOPoint start, DTOPoint end) {
+		steps.add(new Step(StepType.SWIPE, start.getX(), start.getY(), end.getX(), end.getY(), null, 0));
+		return this;
+	}
+
+	/**
+	 * Presses a key, e.g. {@code KEYCODE_BACK}.
+	 */
+	public GestureBatch key(String keyCode) {
+		steps.add(new Step(StepType.KEY, 0, 0, 0, 0, keyCode, 0));
+		return this;
+	}
+
+	public GestureBatch back() {
+		return key("KEYCODE_BACK");
+	}
+
+	public GestureBatch waitMs(long millis) {
+		if (millis > 0) {
+			steps.add(new Step(StepType.WAIT, 0, 0, 0, 0, null, millis));
+		}
+		return this;
+	}
+
+	public List<Step> getSteps() {
+		return Collections.unmodifiableList(steps);
+	}
+
+	/**
+	 * Sum of the waits of the batch.
+	 */
+	public long getTotalWaitMs() {
+		return steps.stream().mapToLong(Step::waitMs).sum();
+	}
+
+	public boolean isEmpty() {
+		return steps.isEmpty();
+	}
+
+	/**
+	 * Sends the batch to the emulator and waits until the device has run every step.
+	 */
+	public Result execute() {
+		return manager.executeGestureBatch(emulatorNumber, this);
+	}
+
+	@Override
+	public String toString() {
+		return steps.stream().map(Step::toString).collect(Collectors.joining(", "));
+	}
+}
@@ -0,0 +1,16 @@
+package cl.camodev.wosbot.emulator;
+
+/**
+ * How taps, swipes and key events reach the device.
+ */
+public enum InputBackend {
+	/**
+	 * A long-lived {@link InputShell} per device, falling back to {@link #SHELL_COMMAND} when it
+	 * cannot be opened or breaks.
+	 */
+	PERSISTENT_SHELL,
+	/**
+	 * One {@code input} shell command per gesture through ddmlib.
+	 */
+	SHELL_COMMAND
+}
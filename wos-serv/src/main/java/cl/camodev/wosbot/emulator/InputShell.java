@@ -0,0 +1,418 @@
+package cl.camodev.wosbot.emulator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.android.ddmlib.CollectingOutputReceiver;
+import com.android.ddmlib.IDevice;
+
+/**
+ * Long-lived {@code adb shell} of one device used to send input.
+ * <p>
+ * Every {@code input tap} run through {@code IDevice.executeShellCommand} opens a new ADB
+ * connection and starts the Android {@code input} tool, a Java process that takes hundreds of
+ * milliseconds to boot. This shell stays open and, when the touchscreen input device could be
+ * identified, turns taps into raw {@code sendevent} writes, which are small native binaries.
+ * Swipes and key events still use {@code input}, but over the open shell.
+ * <p>
+ * Each command line is followed by an {@code echo} of a marker, so a write is only reported as
+ * done once the device has run it; a failed command, a timeout or a closed stream marks the
+ * shell as broken and the caller falls back to one-off {@code input} commands.
+ */
+public class InputShell {
+
+	private static final Logger logger = LoggerFactory.getLogger(InputShell.class);
+
+	private static final long RESPONSE_TIMEOUT_MS = 3000;
+	private static final String MARKER = "__wos_input_";
+	// Appended to the marker of a step whose command exited with an error
+	public static final String FAILED_SUFFIX = "_failed";
+	// Queued by the reader thread when the shell output ends, compared by identity
+	private static final String CLOSED = new String("closed");
+
+	private static final Pattern DEVICE_PATTERN = Pattern.compile("add device \\d+: (\\S+)");
+	private static final Pattern AXIS_MAX_PATTERN = Pattern.compile("(ABS_MT_POSITION_[XY])\\s*:.*max (\\d+)");
+	private static final Pattern SIZE_PATTERN = Pattern.compile("(Physical|Override) size: (\\d+)x(\\d+)");
+
+	// Linux input event codes used by the multi-touch (type B) protocol
+	private static final int EV_SYN = 0;
+	private static final int EV_KEY = 1;
+	private static final int EV_ABS = 3;
+	private static final int BTN_TOUCH = 330;
+	private static final int ABS_MT_POSITION_X = 53;
+	private static final int ABS_MT_POSITION_Y = 54;
+	private static final int ABS_MT_TRACKING_ID = 57;
+
+	private final String serial;
+	private final Process process;
+	private final OutputStream stdin;
+	private final BlockingQueue<String> output = new LinkedBlockingQueue<>();
+	private final Touchscreen touchscreen;
+	private long sequence;
+	private volatile boolean broken;
+
+	/**
+	 * Touchscreen device node and its axis ranges, in display pixels.
+	 */
+	record Touchscreen(String device, int maxX, int maxY, int displayWidth, int displayHeight) {
+
+		int scaleX(int x) {
+			return (int) ((long) x * (maxX + 1) / displayWidth);
+		}
+
+		int scaleY(int y) {
+			return (int) ((long) y * (maxY + 1) / displayHeight);
+		}
+	}
+
+	InputShell(String serial, Process process, Touchscreen touchscreen) {
+		this.serial = serial;
+		this.process = process;
+		this.stdin = process.getOutputStream();
+		this.touchscreen = touchscreen;
+
+		Thread reader = new Thread(() -> {
+			try (BufferedReader in = new BufferedReader(
+					new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = in.readLine()) != null) {
+					output.offer(line);
+				}
+			} catch (IOException e) {
+				logger.debug("Input shell of {} closed: {}", serial, e.getMessage());
+			}
+			broken = true;
+			output.offer(CLOSED);
+		}, "adb-input-" + serial);
+		reader.setDaemon(true);
+		reader.start();
+	}
+
+	/**
+	 * Opens a shell on the device and probes its touchscreen.
+	 *
+	 * @param adbPath ADB executable the bridge uses
+	 * @param device  Online device
+	 */
+	public static InputShell open(String adbPath, IDevice device) throws IOException {
+		Touchscreen touchscreen = null;
+		try {
+			touchscreen = probeTouchscreen(device);
+		} catch (Exception e) {
+			logger.debug("Could not probe the touchscreen of {}: {}", device.getSerialNumber(), e.getMessage());
+		}
+
+		ProcessBuilder pb = new ProcessBuilder(adbPath, "-s", device.getSerialNumber(), "shell");
+		pb.redirectErrorStream(true);
+		InputShell shell = new InputShell(device.getSerialNumber(), pb.start(), touchscreen);
+		shell.run("true");
+		logger.info("Persistent input shell opened on {} ({})", device.getSerialNumber(),
+				touchscreen != null ? "sendevent on " + touchscreen.device() : "input tool");
+		return shell;
+	}
+
+	/**
+	 * Command line performing a tap at display coordinates.
+	 */
+	public String tap(int x, int y) {
+		if (touchscreen == null) {
+			return "input tap " + x + " " + y;
+		}
+		String device = touchscreen.device();
+		// Chained so that a failed write fails the step instead of being followed by its marker
+		return String.join(" && ",
+				sendevent(device, EV_ABS, ABS_MT_TRACKING_ID, 0),
+				sendevent(device, EV_KEY, BTN_TOUCH, 1),
+				sendevent(device, EV_ABS, ABS_MT_POSITION_X, touchscreen.scaleX(x)),
+				sendevent(device, EV_ABS, ABS_MT_POSITION_Y, touchscreen.scaleY(y)),
+				sendevent(device, EV_SYN, 0, 0),
+				sendevent(device, EV_ABS, ABS_MT_TRACKING_ID, -1),
+				sendevent(device, EV_KEY, BTN_TOUCH, 0),
+				sendevent(device, EV_SYN, 0, 0));
+	}
+
+	public String swipe(int x1, int y1, int x2, int y2) {
+		return String.format("input swipe %d %d %d %d", x1, y1, x2, y2);
+	}
+
+	public String key(String keyCode) {
+		return "input keyevent " + keyCode;
+	}
+
+	/**
+	 * Command line pausing the shell, which accepts fractional seconds.
+	 */
+	public static String sleep(long millis) {
+		return String.format(Locale.ROOT, "sleep %.3f", millis / 1000.0);
+	}
+
+	/**
+	 * Raised when the shell breaks or stops answering partway through a write. The steps before
+	 * {@link #getCompletedSteps()} were executed by the device, the others may not have been.
+	 */
+	public static class IncompleteStepsException extends IOException {
+		private final long[] completedAt;
+		private final boolean remainderUnsent;
+
+		IncompleteStepsException(String message, long[] completedAt, boolean remainderUnsent, Throwable cause) {
+			super(message, cause);
+			this.completedAt = completedAt;
+			this.remainderUnsent = remainderUnsent;
+		}
+
+		public int getCompletedSteps() {
+			return completedAt.length;
+		}
+
+		/**
+		 * Tells whether the steps from {@link #getCompletedSteps()} on are known not to have run:
+		 * nothing was written, or that step failed and the ones after it were skipped. Otherwise
+		 * the step in flight may have run without answering in time, and must not be sent again.
+		 */
+		public boolean isRemainderUnsent() {
+			return remainderUnsent;
+		}
+
+		/**
+		 * @return for each completed step, the nanoseconds elapsed between the write and its completion
+		 */
+		public long[] getCompletedAt() {
+			return completedAt.clone();
+		}
+	}
+
+	/**
+	 * Runs a command line and waits until the device has executed it.
+	 *
+	 * @throws IOException if the shell is broken or does not answer in time; it is then unusable
+	 */
+	public void run(String commandLine) throws IOException {
+		runSteps(List.of(commandLine), new long[1]);
+	}
+
+	/**
+	 * Runs several command lines in one write and waits until the device has executed all of them.
+	 * Each step gets {@code RESPONSE_TIMEOUT_MS} plus its expected duration from the completion of
+	 * the previous one, so long batches do not time out partway.
+	 *
+	 * @param steps      Command lines, run in order
+	 * @param expectedMs Time each step is expected to take on the device (e.g. sleeps)
+	 * @return for each step, the nanoseconds elapsed between the write and its completion
+	 * @throws IncompleteStepsException if the shell breaks or does not answer in time; it is then unusable
+	 */
+	public synchronized long[] runSteps(List<String> steps, long[] expectedMs) throws IOException {
+		if (broken || !process.isAlive()) {
+			throw new IncompleteStepsException("Input shell of " + serial + " is closed", new long[0], true, null);
+		}
+		String prefix = MARKER + (++sequence) + "_";
+		long[] completedAt = new long[steps.size()];
+		int next = 0;
+		boolean failed = false;
+		output.clear();
+		try {
+			long start = System.nanoTime();
+			stdin.write((script(steps, prefix) + "\n").getBytes(StandardCharsets.UTF_8));
+			stdin.flush();
+
+			long deadline = System.currentTimeMillis() + RESPONSE_TIMEOUT_MS + expectedMs[0];
+			while (next < steps.size()) {
+				long remaining = deadline - System.currentTimeMillis();
+				String line = remaining > 0 ? output.poll(remaining, TimeUnit.MILLISECONDS) : null;
+				if (line == null) {
+					throw new IOException("Input shell of " + serial + " did not answer in time (step " + next + ")");
+				}
+				if (line == CLOSED) {
+					throw new IOException("Input shell of " + serial + " was closed (step " + next + ")");
+				}
+				if (line.trim().equals(prefix + next + FAILED_SUFFIX)) {
+					failed = true;
+					throw new IOException("Step " + next + " failed in the input shell of " + serial);
+				}
+				if (line.trim().equals(prefix + next)) {
+					completedAt[next++] = System.nanoTime() - start;
+					if (next < steps.size()) {
+						deadline = System.currentTimeMillis() + RESPONSE_TIMEOUT_MS + expectedMs[next];
+					}
+				} else {
+					logger.trace("Input shell of {}: {}", serial, line);
+				}
+			}
+			return completedAt;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			close();
+			throw new IncompleteStepsException("Interrupted while waiting for the input shell of " + serial,
+					Arrays.copyOf(completedAt, next), false, e);
+		} catch (IOException e) {
+			close();
+			throw new IncompleteStepsException(e.getMessage(), Arrays.copyOf(completedAt, next), failed, e);
+		}
+	}
+
+	/**
+	 * Joins command lines into one, each followed by the echo of {@code markerPrefix} and its index,
+	 * with {@link #FAILED_SUFFIX} appended when the command exited with an error. A failed command
+	 * exits the shell, so the steps after it never run.
+	 */
+	public static String script(List<String> steps, String markerPrefix) {
+		StringBuilder script = new StringBuilder();
+		for (int i = 0; i < steps.size(); i++) {
+			if (i > 0) {
+				script.append("; ");
+			}
+			script.append(steps.get(i))
+					.append(" && echo ").append(markerPrefix).append(i)
+					.append(" || { echo ").append(markerPrefix).append(i).append(FAILED_SUFFIX).append("; exit 1; }");
+		}
+		return script.toString();
+	}
+
+	/**
+	 * Runs one-off command lines, e.g. as a single shell command of the device.
+	 */
+	@FunctionalInterface
+	interface StepRunner {
+		/**
+		 * @return for each step, the nanoseconds elapsed between the request and its completion
+		 */
+		long[] run(List<String> steps, long[] expectedMs) throws Exception;
+	}
+
+	/**
+	 * Runs steps over a persistent shell, and the steps it is known not to have run through
+	 * {@code oneOff}. A step that may have run without answering is never sent again: the
+	 * {@link IncompleteStepsException} is thrown instead.
+	 *
+	 * @param shell      Persistent shell, or {@code null} to run every step through {@code oneOff}
+	 * @param steps      Command lines for the shell (ignored without one)
+	 * @param fallback   Equivalent one-off command lines
+	 * @param expectedMs Time each step is expected to take on the device
+	 * @return for each step, the nanoseconds elapsed between the request and its completion
+	 */
+	static long[] runWithFallback(InputShell shell, List<String> steps, List<String> fallback, long[] expectedMs,
+			StepRunner oneOff) throws Exception {
+		long start = System.nanoTime();
+		long[] completedAt = new long[fallback.size()];
+		int completed = 0;
+		if (shell != null) {
+			try {
+				return shell.runSteps(steps, expectedMs);
+			} catch (IncompleteStepsException e) {
+				if (!e.isRemainderUnsent()) {
+					logger.warn("Input shell of {} stopped answering after {} of {} steps, not sending them again: {}",
+							shell.serial, e.getCompletedSteps(), steps.size(), e.getMessage());
+					throw e;
+				}
+				completed = e.getCompletedSteps();
+				System.arraycopy(e.getCompletedAt(), 0, completedAt, 0, completed);
+				logger.warn("Input shell of {} failed after {} of {} steps, running the rest as one-off commands: {}",
+						shell.serial, completed, steps.size(), e.getMessage());
+			}
+		}
+		long offset = System.nanoTime() - start;
+		long[] rest = oneOff.run(fallback.subList(completed, fallback.size()),
+				Arrays.copyOfRange(expectedMs, completed, fallback.size()));
+		for (int i = 0; i < rest.length; i++) {
+			completedAt[completed + i] = offset + rest[i];
+		}
+		return completedAt;
+	}
+
+	public boolean isOpen() {
+		return !broken && process.isAlive();
+	}
+
+	public boolean usesSendevent() {
+		return touchscreen != null;
+	}
+
+	public void close() {
+		broken = true;
+		process.destroy();
+	}
+
+	private static String sendevent(String device, int type, int code, int value) {
+		return "sendevent " + device + " " + type + " " + code + " " + value;
+	}
+
+	/**
+	 * Finds the multi-touch device and the display size. Returns {@code null} when there is no
+	 * such device or its axes do not follow the display orientation, in which case taps go
+	 * through the {@code input} tool.
+	 */
+	static Touchscreen probeTouchscreen(IDevice device) throws Exception {
+		CollectingOutputReceiver events = new CollectingOutputReceiver();
+		device.executeShellCommand("getevent -pl", events, 5, TimeUnit.SECONDS);
+		CollectingOutputReceiver size = new CollectingOutputReceiver();
+		device.executeShellCommand("wm size", size, 5, TimeUnit.SECONDS);
+		Touchscreen touchscreen = parseTouchscreen(events.getOutput(), size.getOutput());
+		if (touchscreen == null) {
+			return null;
+		}
+		// The shell user may list the device without being allowed to write to it; an empty sync report is harmless
+		CollectingOutputReceiver write = new CollectingOutputReceiver();
+		device.executeShellCommand(sendevent(touchscreen.device(), EV_SYN, 0, 0) + " && echo OK", write, 5, TimeUnit.SECONDS);
+		if (!write.getOutput().contains("OK")) {
+			logger.debug("Cannot write to {} on {}, taps use the input tool", touchscreen.device(), device.getSerialNumber());
+			return null;
+		}
+		return touchscreen;
+	}
+
+	static Touchscreen parseTouchscreen(String geteventOutput, String wmSizeOutput) {
+		int width = -1;
+		int height = -1;
+		Matcher sizeMatcher = SIZE_PATTERN.matcher(wmSizeOutput);
+		// An override size, listed after the physical one, wins
+		while (sizeMatcher.find()) {
+			width = Integer.parseInt(sizeMatcher.group(2));
+			height = Integer.parseInt(sizeMatcher.group(3));
+		}
+		if (width <= 0 || height <= 0) {
+			return null;
+		}
+
+		String current = null;
+		int maxX = -1;
+		int maxY = -1;
+		for (String line : geteventOutput.split("\\r?\\n")) {
+			Matcher deviceMatcher = DEVICE_PATTERN.matcher(line);
+			if (deviceMatcher.find()) {
+				if (maxX > 0 && maxY > 0) {
+					break;
+				}
+				current = deviceMatcher.group(1);
+				maxX = -1;
+				maxY = -1;
+				continue;
+			}
+			Matcher axisMatcher = AXIS_MAX_PATTERN.matcher(line);
+			if (axisMatcher.find()) {
+				int max = Integer.parseInt(axisMatcher.group(2));
+				if (axisMatcher.group(1).endsWith("X")) {
+					maxX = max;
+				} else {
+					maxY = max;
+				}
+			}
+		}
+		if (current == null || maxX <= 0 || maxY <= 0 || (maxX < maxY) != (width < height)) {
+			return null;
+		}
+		return new Touchscreen(current, maxX, maxY, width, height);
+	}
+}
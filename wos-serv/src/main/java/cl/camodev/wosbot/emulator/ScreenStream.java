@@ -0,0 +1,176 @@
+package cl.camodev.wosbot.emulator;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import cl.camodev.utiles.image.ScreenFrame;
+
+/**
+ * Continuous capture of one device's screen.
+ * <p>
+ * A long-lived {@code adb exec-out} runs {@code screencap} in a loop and a background thread
+ * decodes every frame into a {@link FrameRingBuffer}, so reading the screen becomes a memory
+ * read instead of a {@code getScreenshot()} round trip. Reads made after an input only accept
+ * frames grabbed after it (see {@link #markInput()}).
+ * <p>
+ * {@link #recorded(Path, int, long)} replays a file of concatenated {@code screencap} outputs
+ * (e.g. {@code adb exec-out "screencap; screencap; screencap" > session.raw}) in place of a device.
+ */
+public class ScreenStream {
+
+	private static final Logger logger = LoggerFactory.getLogger(ScreenStream.class);
+
+	private static final int RING_CAPACITY = 3;
+	private static final String SCREENCAP_LOOP = "while true; do screencap; done";
+
+	/**
+	 * Provides the raw stream; opened again when a looping stream reaches its end.
+	 */
+	public interface Source extends AutoCloseable {
+		InputStream open() throws IOException;
+
+		@Override
+		void close();
+	}
+
+	private final String name;
+	private final Source source;
+	private final int headerSize;
+	private final long frameIntervalMs;
+	private final boolean loop;
+	private final FrameRingBuffer frames = new FrameRingBuffer(RING_CAPACITY);
+	private final AtomicLong decoded = new AtomicLong();
+	private volatile long lastInputAt;
+	private volatile boolean alive = true;
+	private Thread reader;
+
+	private ScreenStream(String name, Source source, int headerSize, long frameIntervalMs, boolean loop) {
+		this.name = name;
+		this.source = source;
+		this.headerSize = headerSize;
+		this.frameIntervalMs = frameIntervalMs;
+		this.loop = loop;
+	}
+
+	/**
+	 * Streams a device through ADB.
+	 *
+	 * @param headerSize {@code screencap} header size, see {@link ScreencapDecoder#headerSizeFor(int)}
+	 */
+	public static ScreenStream adb(String adbPath, String serial, int headerSize) {
+		Source source = new Source() {
+			private Process process;
+
+			@Override
+			public InputStream open() throws IOException {
+				ProcessBuilder pb = new ProcessBuilder(adbPath, "-s", serial, "exec-out", SCREENCAP_LOOP);
+				pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+				process = pb.start();
+				return new BufferedInputStream(process.getInputStream(), 1 << 16);
+			}
+
+			@Override
+			public void close() {
+				if (process != null) {
+					process.destroy();
+				}
+			}
+		};
+		return new ScreenStream(serial, source, headerSize, 0, false).start();
+	}
+
+	/**
+	 * Replays a recorded session in a loop, one frame every {@code frameIntervalMs}.
+	 */
+	public static ScreenStream recorded(Path recording, int headerSize, long frameIntervalMs) {
+		Source source = new Source() {
+			@Override
+			public InputStream open() throws IOException {
+				return new BufferedInputStream(Files.newInputStream(recording), 1 << 16);
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		return new ScreenStream(recording.getFileName().toString(), source, headerSize, frameIntervalMs, true).start();
+	}
+
+	private ScreenStream start() {
+		reader = new Thread(this::readLoop, "screen-stream-" + name);
+		reader.setDaemon(true);
+		reader.start();
+		return this;
+	}
+
+	private void readLoop() {
+		try {
+			do {
+				long grabbedAfter = System.currentTimeMillis();
+				try (InputStream in = source.open()) {
+					ScreencapDecoder decoder = new ScreencapDecoder(in, headerSize);
+					while (alive) {
+						ScreenFrame frame = decoder.next();
+						frames.push(frame, grabbedAfter);
+						decoded.incrementAndGet();
+						grabbedAfter = decoder.getTransferStartedAt();
+						if (frameIntervalMs > 0) {
+							Thread.sleep(frameIntervalMs);
+						}
+					}
+				} catch (EOFException e) {
+					logger.debug("Screen stream {} reached its end", name);
+				}
+			} while (alive && loop);
+		} catch (IOException e) {
+			if (alive) {
+				logger.warn("Screen stream {} failed: {}", name, e.getMessage());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			close();
+		}
+	}
+
+	/**
+	 * Returns the newest frame grabbed after the last input, waiting for one if needed.
+	 *
+	 * @return a frame owned by the caller, or {@code null} if none arrived in time or the stream stopped
+	 */
+	public ScreenFrame latestFrame(long timeoutMs) throws InterruptedException {
+		return frames.await(lastInputAt, timeoutMs);
+	}
+
+	/**
+	 * Records that input was sent: frames grabbed before now are no longer served.
+	 */
+	public void markInput() {
+		lastInputAt = System.currentTimeMillis();
+	}
+
+	public boolean isAlive() {
+		return alive;
+	}
+
+	public long getFramesDecoded() {
+		return decoded.get();
+	}
+
+	public void close() {
+		alive = false;
+		source.close();
+		frames.close();
+		if (reader != null && reader != Thread.currentThread()) {
+			reader.interrupt();
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package cl.camodev.wosbot.emulator;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+import cl.camodev.utiles.image.RawFrameConverter;
+import cl.camodev.utiles.image.ScreenFrame;
+
+/**
+ * Decodes a stream of concatenated raw {@code screencap} outputs into frames.
+ * <p>
+ * Each output is a little endian header (width, height, pixel format, plus the data space on
+ * Android 9 and later) followed by the pixels. RGBA_8888, RGBX_8888 and RGB_565 are supported.
+ */
+public class ScreencapDecoder {
+
+	/**
+	 * Header size of {@code screencap} before Android 9 (API 28).
+	 */
+	public static final int LEGACY_HEADER_SIZE = 12;
+	public static final int HEADER_SIZE = 16;
+
+	private static final int MAX_DIMENSION = 8192;
+
+	// android.graphics.PixelFormat values
+	private static final int RGBA_8888 = 1;
+	private static final int RGBX_8888 = 2;
+	private static final int RGB_565 = 4;
+
+	private final DataInputStream in;
+	private final int headerSize;
+	private final byte[] header;
+	private byte[] data;
+	private byte[] bgr;
+	private long transferStartedAt;
+
+	public ScreencapDecoder(InputStream in, int headerSize) {
+		this.in = new DataInputStream(in);
+		this.headerSize = headerSize;
+		this.header = new byte[headerSize];
+	}
+
+	/**
+	 * Header size used by {@code screencap} on the given API level.
+	 */
+	public static int headerSizeFor(int apiLevel) {
+		return apiLevel >= 28 ? HEADER_SIZE : LEGACY_HEADER_SIZE;
+	}
+
+	/**
+	 * Reads and decodes the next frame, blocking until it has been fully received.
+	 *
+	 * @return the frame, owned by the caller
+	 * @throws EOFException when the stream ends
+	 * @throws IOException  when the data is not a screencap stream
+	 */
+	public ScreenFrame next() throws IOException {
+		in.readFully(header, 0, 1);
+		transferStartedAt = System.currentTimeMillis();
+		in.readFully(header, 1, headerSize - 1);
+
+		int width = readIntLE(0);
+		int height = readIntLE(4);
+		int format = readIntLE(8);
+		if (width <= 0 || height <= 0 || width > MAX_DIMENSION || height > MAX_DIMENSION) {
+			throw new IOException("Invalid screencap header: " + width + "x" + height);
+		}
+		RawFrameConverter.Layout layout = switch (format) {
+			case RGBA_8888, RGBX_8888 -> RawFrameConverter.Layout.RGBA_8888;
+			case RGB_565 -> RawFrameConverter.Layout.RGB_565;
+			default -> throw new IOException("Unsupported screencap pixel format: " + format);
+		};
+
+		int size = width * height * layout.bpp() / 8;
+		if (data == null || data.length != size) {
+			data = new byte[size];
+		}
+		in.readFully(data);
+
+		if (bgr == null || bgr.length != width * height * 3) {
+			bgr = new byte[width * height * 3];
+		}
+		RawFrameConverter.toBgr(data, width, height, layout, bgr);
+		return ScreenFrame.fromBgr(bgr, width, height);
+	}
+
+	/**
+	 * Time at which the first byte of the last frame was received.
+	 * <p>
+	 * The device grabs a frame only after it has written the previous one, and a frame is larger
+	 * than the ADB buffers, so the frame after this one was grabbed after this instant.
+	 */
+	public long getTransferStartedAt() {
+		return transferStartedAt;
+	}
+
+	private int readIntLE(int offset) {
+		return (header[offset] & 0xFF) | (header[offset + 1] & 0xFF) << 8 | (header[offset + 2] & 0xFF) << 16
+				| (header[offset + 3] & 0xFF) << 24;
+	}
+}
@@ -4,6 +4,9 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import cl.camodev.wosbot.emulator.Emulator;
 import org.slf4j.Logger;
@@ -58,6 +61,29 @@ public class LDPlayerEmulator extends Emulator {
         return false;
     }
 
+    /**
+     * Reads every instance from {@code ldconsole list2}, whose lines are
+     * index,title,top window,bind window,android started,pid,vbox pid,...
+     */
+    @Override
+    protected Map<String, Boolean> queryRunningStates() {
+        List<String> lines = readCommandOutput(consolePath + File.separator + "ldconsole.exe", "list2");
+        if (lines == null) {
+            return null;
+        }
+        Map<String, Boolean> states = new HashMap<>();
+        for (String line : lines) {
+            String[] fields = line.trim().split(",");
+            if (fields.length < 6 || !fields[0].matches("\\d+")) {
+                continue;
+            }
+            boolean started = "1".equals(fields[4]);
+            boolean processAlive = fields[5].matches("\\d+") && Long.parseLong(fields[5]) > 0;
+            states.put(fields[0], started || processAlive);
+        }
+        return states;
+    }
+
     private void executeCommand(String[] command) {
         try {
             ProcessBuilder pb = new ProcessBuilder(command);
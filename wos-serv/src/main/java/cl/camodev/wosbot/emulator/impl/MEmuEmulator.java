@@ -4,6 +4,9 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import cl.camodev.wosbot.emulator.Emulator;
 import org.slf4j.Logger;
@@ -61,6 +64,25 @@ public class MEmuEmulator extends Emulator {
 		return false;
 	}
 
+	/**
+	 * Reads the running instances from {@code memuc listvms --running}, whose lines start with the index.
+	 */
+	@Override
+	protected Map<String, Boolean> queryRunningStates() {
+		List<String> lines = readCommandOutput(consolePath + File.separator + "memuc", "listvms", "--running");
+		if (lines == null) {
+			return null;
+		}
+		Map<String, Boolean> states = new HashMap<>();
+		for (String line : lines) {
+			String index = line.trim().split(",")[0];
+			if (index.matches("\\d+")) {
+				states.put(index, true);
+			}
+		}
+		return states;
+	}
+
 	private void executeCommand(String[] command) {
 		try {
 			ProcessBuilder pb = new ProcessBuilder(command);
@@ -4,6 +4,11 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import cl.camodev.wosbot.emulator.Emulator;
 import org.slf4j.Logger;
@@ -11,6 +16,9 @@ import org.slf4j.LoggerFactory;
 
 public class MuMuEmulator extends Emulator {
 	private static final Logger logger = LoggerFactory.getLogger(MuMuEmulator.class);
+	private static final Pattern INSTANCE_PATTERN = Pattern.compile("\\{[^{}]*\\}");
+	private static final Pattern INDEX_PATTERN = Pattern.compile("\"index\"\\s*:\\s*\"?(\\d+)");
+	private static final Pattern ANDROID_STARTED_PATTERN = Pattern.compile("\"is_android_started\"\\s*:\\s*true");
 
 	public MuMuEmulator(String consolePath) {
 		super(consolePath);
@@ -61,6 +69,26 @@ public class MuMuEmulator extends Emulator {
 		return false;
 	}
 
+	/**
+	 * Reads every instance from {@code MuMuManager info -v all}, a JSON object per instance.
+	 */
+	@Override
+	protected Map<String, Boolean> queryRunningStates() {
+		List<String> lines = readCommandOutput(consolePath + File.separator + "MuMuManager.exe", "info", "-v", "all");
+		if (lines == null) {
+			return null;
+		}
+		Map<String, Boolean> states = new HashMap<>();
+		Matcher instance = INSTANCE_PATTERN.matcher(String.join("\n", lines));
+		while (instance.find()) {
+			Matcher index = INDEX_PATTERN.matcher(instance.group());
+			if (index.find()) {
+				states.put(index.group(1), ANDROID_STARTED_PATTERN.matcher(instance.group()).find());
+			}
+		}
+		return states;
+	}
+
 	private void executeCommand(String[] command) {
 		try {
 			ProcessBuilder pb = new ProcessBuilder(command);
@@ -0,0 +1,246 @@
+package cl.camodev.wosbot.emulator.impl;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import cl.camodev.utiles.image.ScreenFrame;
+import cl.camodev.wosbot.emulator.Emulator;
+import cl.camodev.wosbot.emulator.GestureBatch;
+import cl.camodev.wosbot.ex.ADBConnectionException;
+import cl.camodev.wosbot.ot.DTOPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Emulator backed by a scripted session instead of a device, for load and regression runs
+ * without emulator binaries or the game.
+ * <p>
+ * Every emulator number gets its own {@link SimulatedSession} over the shared
+ * {@link SimulatedScript}: captures serve the frames of the current screen state, taps, swipes
+ * and keys move the state machine and are recorded, and each capture and gesture waits the
+ * configured latency to approximate a real device. No ADB bridge is used.
+ */
+public class SimulatedEmulator extends Emulator {
+	private static final Logger logger = LoggerFactory.getLogger(SimulatedEmulator.class);
+
+	private final SimulatedScript script;
+	private final ConcurrentHashMap<String, SimulatedSession> sessions = new ConcurrentHashMap<>();
+	private final Random random = new Random();
+	private volatile long captureLatencyMs;
+	private volatile long inputLatencyMs;
+
+	/**
+	 * @param consolePath Directory holding the {@code session.tsv} script, or the script itself
+	 */
+	public SimulatedEmulator(String consolePath) {
+		super(consolePath);
+		try {
+			this.script = SimulatedScript.load(Path.of(consolePath));
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not load simulated session: " + e.getMessage(), e);
+		}
+		logger.info("Simulated session loaded from {} ({} transitions)", consolePath, script.getTransitions().size());
+	}
+
+	@Override
+	protected void initializeBridge() {
+		// Simulated instances do not use ADB
+	}
+
+	@Override
+	public void restartAdb() {
+	}
+
+	@Override
+	protected String getDeviceSerial(String emulatorNumber) {
+		return "simulated-" + emulatorNumber;
+	}
+
+	@Override
+	public void launchEmulator(String emulatorNumber) {
+		session(emulatorNumber).launch();
+		logger.info("Simulated emulator launched at index {}", emulatorNumber);
+	}
+
+	@Override
+	public void closeEmulator(String emulatorNumber) {
+		session(emulatorNumber).close();
+		logger.info("Simulated emulator closed at index {}", emulatorNumber);
+	}
+
+	@Override
+	public boolean isRunning(String emulatorNumber) {
+		return session(emulatorNumber).isRunning();
+	}
+
+	@Override
+	protected Map<String, Boolean> queryRunningStates() {
+		Map<String, Boolean> states = new HashMap<>();
+		sessions.forEach((emulatorNumber, session) -> states.put(emulatorNumber, session.isRunning()));
+		return states;
+	}
+
+	@Override
+	public ScreenFrame captureFrame(String emulatorNumber) {
+		SimulatedSession session = runningSession(emulatorNumber, "captureScreenshot");
+		pause(captureLatencyMs);
+		return session.capture();
+	}
+
+	@Override
+	public byte[] captureScreenshot(String emulatorNumber) {
+		ScreenFrame frame = captureFrame(emulatorNumber);
+		try {
+			return frame.toPng();
+		} finally {
+			frame.release();
+		}
+	}
+
+	@Override
+	public boolean tapAtRandomPoint(String emulatorNumber, DTOPoint point1, DTOPoint point2) {
+		return tapAtRandomPoint(emulatorNumber, point1, point2, 1, 0);
+	}
+
+	@Override
+	public boolean tapAtRandomPoint(String emulatorNumber, DTOPoint point1, DTOPoint point2, int tapCount, int delayMs) {
+		SimulatedSession session = runningSession(emulatorNumber, "tapAtRandomPoint x" + tapCount);
+		for (int i = 0; i < tapCount; i++) {
+			pause(inputLatencyMs);
+			session.tap(randomBetween(point1.getX(), point2.getX()), randomBetween(point1.getY(), point2.getY()));
+			pause(delayMs);
+		}
+		return true;
+	}
+
+	@Override
+	public void swipe(String emulatorNumber, DTOPoint point, DTOPoint point2) {
+		SimulatedSession session = runningSession(emulatorNumber, "swipe");
+		pause(inputLatencyMs);
+		session.swipe(point.getX(), point.getY(), point2.getX(), point2.getY());
+	}
+
+	@Override
+	public void pressBackButton(String emulatorNumber) {
+		SimulatedSession session = runningSession(emulatorNumber, "pressBackButton");
+		pause(inputLatencyMs);
+		session.key("KEYCODE_BACK");
+	}
+
+	@Override
+	public GestureBatch.Result executeGestureBatch(String emulatorNumber, GestureBatch batch) {
+		SimulatedSession session = runningSession(emulatorNumber, "gestureBatch x" + batch.getSteps().size());
+		List<GestureBatch.StepTiming> timings = new ArrayList<>();
+		long batchStart = System.nanoTime();
+		pause(inputLatencyMs);
+		for (GestureBatch.Step step : batch.getSteps()) {
+			long start = System.nanoTime();
+			String executed = step.toString();
+			switch (step.type()) {
+				case TAP -> {
+					int x = randomBetween(step.x1(), step.x2());
+					int y = randomBetween(step.y1(), step.y2());
+					session.tap(x, y);
+					executed = "tap(" + x + "," + y + ")";
+				}
+				case SWIPE -> session.swipe(step.x1(), step.y1(), step.x2(), step.y2());
+				case KEY -> session.key(step.keyCode());
+				case WAIT -> pause(step.waitMs());
+			}
+			timings.add(new GestureBatch.StepTiming(step, executed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+		}
+		return new GestureBatch.Result(timings, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batchStart));
+	}
+
+	@Override
+	public boolean isAppInstalled(String emulatorNumber, String packageName) {
+		runningSession(emulatorNumber, "isAppInstalled");
+		return true;
+	}
+
+	@Override
+	public boolean isPackageRunning(String emulatorNumber, String packageName) {
+		return packageName.equals(runningSession(emulatorNumber, "isAppInForeground").getForegroundPackage());
+	}
+
+	@Override
+	public void launchApp(String emulatorNumber, String packageName) {
+		SimulatedSession session = runningSession(emulatorNumber, "launchApp");
+		pause(inputLatencyMs);
+		session.launchApp(packageName);
+		logger.info("Application {} launched on simulated emulator {}", packageName, emulatorNumber);
+	}
+
+	@Override
+	public void sendGameToBackground(String emulatorNumber) {
+		SimulatedSession session = runningSession(emulatorNumber, "sendGameToBackground");
+		pause(inputLatencyMs);
+		session.home();
+	}
+
+	/**
+	 * Gets the session of the emulator, e.g. to read its recorded gestures.
+	 * @param emulatorNumber Emulator identifier
+	 * @return Session, created on first use
+	 */
+	public SimulatedSession getSession(String emulatorNumber) {
+		return session(emulatorNumber);
+	}
+
+	public SimulatedScript getScript() {
+		return script;
+	}
+
+	public void setCaptureLatencyMs(long captureLatencyMs) {
+		this.captureLatencyMs = Math.max(0, captureLatencyMs);
+	}
+
+	public long getCaptureLatencyMs() {
+		return captureLatencyMs;
+	}
+
+	public void setInputLatencyMs(long inputLatencyMs) {
+		this.inputLatencyMs = Math.max(0, inputLatencyMs);
+	}
+
+	public long getInputLatencyMs() {
+		return inputLatencyMs;
+	}
+
+	private SimulatedSession session(String emulatorNumber) {
+		return sessions.computeIfAbsent(emulatorNumber, key -> new SimulatedSession(script));
+	}
+
+	private SimulatedSession runningSession(String emulatorNumber, String actionName) {
+		SimulatedSession session = session(emulatorNumber);
+		if (!session.isRunning()) {
+			throw new ADBConnectionException(
+					"Emulator " + emulatorNumber + " is not running, cannot perform action " + actionName);
+		}
+		return session;
+	}
+
+	private int randomBetween(int a, int b) {
+		int min = Math.min(a, b);
+		return min + random.nextInt(Math.abs(b - a) + 1);
+	}
+
+	private static void pause(long millis) {
+		if (millis <= 0) {
+			return;
+		}
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+	}
+}
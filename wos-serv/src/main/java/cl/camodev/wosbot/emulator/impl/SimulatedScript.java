@@ -0,0 +1,196 @@
+package cl.camodev.wosbot.emulator.impl;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import cl.camodev.utiles.image.ScreenFrame;
+import cl.camodev.wosbot.emulator.ScreencapDecoder;
+
+/**
+ * Screen-state machine of a simulated session, read from a {@code session.tsv} file.
+ * <p>
+ * Each line is a tab separated directive, {@code #} starts a comment:
+ *
+ * <pre>
+ * state   &lt;name&gt;  &lt;frame&gt;[,&lt;frame&gt;...]          frames served in turn while in the state
+ * start   &lt;state&gt;                             state shown when the game is launched
+ * tap     &lt;from&gt;  &lt;x1&gt; &lt;y1&gt; &lt;x2&gt; &lt;y2&gt; &lt;to&gt;     tap inside the area
+ * swipe   &lt;from&gt;  &lt;x1&gt; &lt;y1&gt; &lt;x2&gt; &lt;y2&gt; &lt;to&gt;     swipe starting inside the area
+ * key     &lt;from&gt;  &lt;keycode&gt; &lt;to&gt;                e.g. KEYCODE_BACK
+ * after   &lt;from&gt;  &lt;millis&gt; &lt;to&gt;                 once the state has been shown that long
+ * </pre>
+ *
+ * {@code *} as the source state matches every state. Frames are PNG files, or {@code .raw} files
+ * of concatenated {@code screencap} outputs (Android 9+ header) recorded with
+ * {@code adb exec-out "screencap; screencap" > frames.raw}. Paths are relative to the script.
+ * Frames are loaded once and shared by every simulated instance.
+ */
+public class SimulatedScript {
+
+	public static final String FILE_NAME = "session.tsv";
+	public static final String ANY_STATE = "*";
+
+	public enum Gesture {
+		TAP, SWIPE, KEY, AFTER
+	}
+
+	/**
+	 * A transition. Taps and swipes use the area (x1, y1)-(x2, y2), keys the key code and timed
+	 * transitions the delay.
+	 */
+	public record Transition(String from, Gesture gesture, int x1, int y1, int x2, int y2, String keyCode,
+			long afterMs, String to) {
+
+		boolean matches(String state, Gesture gesture, int x, int y, String keyCode) {
+			if (this.gesture != gesture || !(from.equals(ANY_STATE) || from.equals(state))) {
+				return false;
+			}
+			return switch (gesture) {
+				case TAP, SWIPE -> x >= x1 && x <= x2 && y >= y1 && y <= y2;
+				case KEY -> this.keyCode.equals(keyCode);
+				case AFTER -> true;
+			};
+		}
+	}
+
+	private final Map<String, List<ScreenFrame>> states;
+	private final List<Transition> transitions;
+	private final String startState;
+
+	private SimulatedScript(Map<String, List<ScreenFrame>> states, List<Transition> transitions, String startState) {
+		this.states = states;
+		this.transitions = transitions;
+		this.startState = startState;
+	}
+
+	/**
+	 * Reads a script and loads its frames.
+	 *
+	 * @param script {@code session.tsv} file, or the directory holding it
+	 */
+	public static SimulatedScript load(Path script) throws IOException {
+		if (Files.isDirectory(script)) {
+			script = script.resolve(FILE_NAME);
+		}
+		Path baseDir = script.toAbsolutePath().getParent();
+		Map<String, List<ScreenFrame>> states = new LinkedHashMap<>();
+		List<Transition> transitions = new ArrayList<>();
+		String startState = null;
+
+		int lineNumber = 0;
+		for (String line : Files.readAllLines(script, StandardCharsets.UTF_8)) {
+			lineNumber++;
+			int comment = line.indexOf('#');
+			if (comment >= 0) {
+				line = line.substring(0, comment);
+			}
+			if (line.isBlank()) {
+				continue;
+			}
+			String[] fields = line.trim().split("\\s*\\t\\s*");
+			try {
+				switch (fields[0]) {
+					case "state" -> {
+						List<ScreenFrame> frames = new ArrayList<>();
+						for (String file : fields[2].split(",")) {
+							frames.addAll(loadFrames(baseDir.resolve(file.trim())));
+						}
+						states.put(fields[1], Collections.unmodifiableList(frames));
+					}
+					case "start" -> startState = fields[1];
+					case "tap", "swipe" -> transitions.add(new Transition(fields[1],
+							fields[0].equals("tap") ? Gesture.TAP : Gesture.SWIPE,
+							Integer.parseInt(fields[2]), Integer.parseInt(fields[3]), Integer.parseInt(fields[4]),
+							Integer.parseInt(fields[5]), null, 0, fields[6]));
+					case "key" -> transitions.add(new Transition(fields[1], Gesture.KEY, 0, 0, 0, 0, fields[2], 0, fields[3]));
+					case "after" -> {
+						long afterMs = Long.parseLong(fields[2]);
+						if (afterMs <= 0) {
+							throw new IllegalArgumentException("delay must be positive");
+						}
+						transitions.add(new Transition(fields[1], Gesture.AFTER, 0, 0, 0, 0, null, afterMs, fields[3]));
+					}
+					default -> throw new IllegalArgumentException("unknown directive " + fields[0]);
+				}
+			} catch (IOException e) {
+				throw e;
+			} catch (RuntimeException e) {
+				throw new IOException(script + ":" + lineNumber + ": " + e.getMessage(), e);
+			}
+		}
+
+		if (states.isEmpty()) {
+			throw new IOException(script + " declares no state");
+		}
+		if (startState == null) {
+			startState = states.keySet().iterator().next();
+		}
+		for (Transition transition : transitions) {
+			if (!states.containsKey(transition.to())
+					|| !(transition.from().equals(ANY_STATE) || states.containsKey(transition.from()))) {
+				throw new IOException(script + ": transition to or from an undeclared state: " + transition);
+			}
+		}
+		return new SimulatedScript(Collections.unmodifiableMap(states), List.copyOf(transitions), startState);
+	}
+
+	private static List<ScreenFrame> loadFrames(Path file) throws IOException {
+		if (file.getFileName().toString().endsWith(".raw")) {
+			List<ScreenFrame> frames = new ArrayList<>();
+			try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+				ScreencapDecoder decoder = new ScreencapDecoder(in, ScreencapDecoder.HEADER_SIZE);
+				while (true) {
+					frames.add(decoder.next());
+				}
+			} catch (EOFException e) {
+				if (frames.isEmpty()) {
+					throw new IOException("No frame in " + file);
+				}
+				return frames;
+			}
+		}
+		ScreenFrame frame = ScreenFrame.fromPng(Files.readAllBytes(file));
+		if (frame == null) {
+			throw new IOException("Could not decode " + file);
+		}
+		return List.of(frame);
+	}
+
+	/**
+	 * First transition leaving {@code state} for the gesture, or {@code null}.
+	 */
+	public Transition find(String state, Gesture gesture, int x, int y, String keyCode) {
+		for (Transition transition : transitions) {
+			if (transition.matches(state, gesture, x, y, keyCode)) {
+				return transition;
+			}
+		}
+		return null;
+	}
+
+	public List<ScreenFrame> getFrames(String state) {
+		return states.getOrDefault(state, List.of());
+	}
+
+	public boolean hasState(String state) {
+		return states.containsKey(state);
+	}
+
+	public String getStartState() {
+		return startState;
+	}
+
+	public List<Transition> getTransitions() {
+		return transitions;
+	}
+}
@@ -0,0 +1,187 @@
+package cl.camodev.wosbot.emulator.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import cl.camodev.utiles.image.ScreenFrame;
+import cl.camodev.wosbot.emulator.impl.SimulatedScript.Gesture;
+import cl.camodev.wosbot.emulator.impl.SimulatedScript.Transition;
+
+/**
+ * One simulated emulator instance: its place in the script, the app in the foreground and
+ * the gestures it received.
+ */
+public class SimulatedSession {
+
+	// Oldest events are dropped beyond this, so long runs with many instances stay bounded
+	private static final int MAX_EVENTS = 10000;
+	private static final String LAUNCHER_PACKAGE = "com.android.launcher3";
+	private static final String BACKGROUND_STATE = "background";
+
+	/**
+	 * A gesture received by the instance and the states before and after it.
+	 */
+	public record Event(long timestamp, String gesture, String fromState, String toState) {
+	}
+
+	private final SimulatedScript script;
+	private final ArrayDeque<Event> events = new ArrayDeque<>();
+	private boolean running;
+	private String state;
+	private long stateSince;
+	private int frameIndex;
+	private String foregroundPackage = LAUNCHER_PACKAGE;
+	private String appPackage;
+	private String appState;
+	private long captures;
+	private long inputs;
+
+	public SimulatedSession(SimulatedScript script) {
+		this.script = script;
+		enter(script.hasState(BACKGROUND_STATE) ? BACKGROUND_STATE : script.getStartState());
+	}
+
+	public synchronized boolean isRunning() {
+		return running;
+	}
+
+	public synchronized void launch() {
+		running = true;
+	}
+
+	/**
+	 * Powers the instance off, which also stops the app.
+	 */
+	public synchronized void close() {
+		running = false;
+		appPackage = null;
+		appState = null;
+		foregroundPackage = LAUNCHER_PACKAGE;
+		if (script.hasState(BACKGROUND_STATE)) {
+			enter(BACKGROUND_STATE);
+		}
+	}
+
+	/**
+	 * Brings the app to the foreground, starting it from the start state unless it was already running.
+	 */
+	public synchronized void launchApp(String packageName) {
+		String from = state;
+		if (packageName.equals(appPackage) && appState != null) {
+			enter(appState);
+		} else if (!packageName.equals(appPackage)) {
+			appPackage = packageName;
+			enter(script.getStartState());
+		}
+		appState = null;
+		foregroundPackage = packageName;
+		record("launch(" + packageName + ")", from);
+	}
+
+	/**
+	 * Sends the app to the background, showing the {@code background} state if the script has one.
+	 */
+	public synchronized void home() {
+		String from = state;
+		if (!LAUNCHER_PACKAGE.equals(foregroundPackage)) {
+			appState = state;
+			foregroundPackage = LAUNCHER_PACKAGE;
+			if (script.hasState(BACKGROUND_STATE)) {
+				enter(BACKGROUND_STATE);
+			}
+		}
+		recordInput("key(KEYCODE_HOME)", from);
+	}
+
+	public synchronized String getForegroundPackage() {
+		return foregroundPackage;
+	}
+
+	/**
+	 * Returns a copy of the current frame; consecutive captures cycle through the state's frames.
+	 */
+	public synchronized ScreenFrame capture() {
+		advanceTimed();
+		List<ScreenFrame> frames = script.getFrames(state);
+		ScreenFrame frame = frames.get(frameIndex++ % frames.size());
+		captures++;
+		return ScreenFrame.wrap(frame.getMat().clone());
+	}
+
+	public synchronized void tap(int x, int y) {
+		gesture(Gesture.TAP, x, y, null, "tap(" + x + "," + y + ")");
+	}
+
+	public synchronized void swipe(int x1, int y1, int x2, int y2) {
+		gesture(Gesture.SWIPE, x1, y1, null, "swipe(" + x1 + "," + y1 + ")->(" + x2 + "," + y2 + ")");
+	}
+
+	public synchronized void key(String keyCode) {
+		if ("KEYCODE_HOME".equals(keyCode)) {
+			home();
+			return;
+		}
+		gesture(Gesture.KEY, 0, 0, keyCode, "key(" + keyCode + ")");
+	}
+
+	public synchronized String getState() {
+		advanceTimed();
+		return state;
+	}
+
+	public synchronized List<Event> getEvents() {
+		return new ArrayList<>(events);
+	}
+
+	public synchronized long getCaptures() {
+		return captures;
+	}
+
+	public synchronized long getInputs() {
+		return inputs;
+	}
+
+	private void gesture(Gesture gesture, int x, int y, String keyCode, String description) {
+		advanceTimed();
+		String from = state;
+		Transition transition = script.find(state, gesture, x, y, keyCode);
+		if (transition != null) {
+			enter(transition.to());
+		}
+		recordInput(description, from);
+	}
+
+	private void recordInput(String gesture, String from) {
+		inputs++;
+		record(gesture, from);
+	}
+
+	private void record(String gesture, String from) {
+		if (events.size() == MAX_EVENTS) {
+			events.removeFirst();
+		}
+		events.addLast(new Event(System.currentTimeMillis(), gesture, from, state));
+	}
+
+	/**
+	 * Follows the timed transitions whose delay has elapsed.
+	 */
+	private void advanceTimed() {
+		Transition after;
+		while ((after = script.find(state, Gesture.AFTER, 0, 0, null)) != null
+				&& System.currentTimeMillis() - stateSince >= after.afterMs()) {
+			long enteredAt = stateSince + after.afterMs();
+			enter(after.to());
+			stateSince = enteredAt;
+		}
+	}
+
+	private void enter(String newState) {
+		if (!newState.equals(state)) {
+			frameIndex = 0;
+		}
+		state = newState;
+		stateSince = System.currentTimeMillis();
+	}
+}
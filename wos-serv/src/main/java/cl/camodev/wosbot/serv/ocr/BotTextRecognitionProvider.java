@@ -1,10 +1,13 @@
 package cl.camodev.wosbot.serv.ocr;
 
+import cl.camodev.utiles.image.ScreenFrame;
+import cl.camodev.wosbot.ot.DTOArea;
 import cl.camodev.wosbot.ot.DTOPoint;
 import cl.camodev.wosbot.ot.DTOTesseractSettings;
 import cl.camodev.wosbot.emulator.EmulatorManager;
 import cl.camodev.utiles.ocr.TextRecognitionProvider;
 import java.io.IOException;
+import java.util.List;
 import net.sourceforge.tess4j.TesseractException;
 
 /**
@@ -40,4 +43,43 @@ public class BotTextRecognitionProvider implements TextRecognitionProvider {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Performs OCR on a region of an already captured frame instead of a fresh screenshot.
+     *
+     * @param frame    captured frame, owned by the caller
+     * @param p1       the first corner (top-left) of the region
+     * @param p2       the second corner (bottom-right) of the region
+     * @param settings optional Tesseract configuration (may be {@code null})
+     * @return the recognized text
+     * @throws TesseractException if the underlying OCR engine fails
+     */
+    public String ocrRegion(ScreenFrame frame, DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings) throws TesseractException {
+        return emulatorManager.ocrRegionText(frame, p1, p2, settings);
+    }
+
+    /**
+     * Performs OCR on several regions of an already captured frame.
+     *
+     * @param frame    captured frame, owned by the caller
+     * @param regions  regions to read
+     * @param settings optional Tesseract configuration applied to every region (may be {@code null})
+     * @return the recognized text of each region, in the order of {@code regions}
+     * @throws TesseractException if the underlying OCR engine fails
+     */
+    public List<String> ocrRegions(ScreenFrame frame, List<DTOArea> regions, DTOTesseractSettings settings) throws TesseractException {
+        return emulatorManager.ocrRegionsText(frame, regions, settings);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object regionFingerprint(DTOPoint p1, DTOPoint p2) {
+        try {
+            return emulatorManager.regionFingerprint(emulatorNumber, p1, p2);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+package cl.camodev.wosbot.serv.ocr;
+
+import cl.camodev.wosbot.ot.DTOPoint;
+import cl.camodev.wosbot.ot.DTOTesseractSettings;
+import cl.camodev.wosbot.emulator.EmulatorManager;
+import cl.camodev.utiles.ocr.DigitRecognizer;
+import cl.camodev.utiles.ocr.TextRecognitionProvider;
+import java.io.IOException;
+import net.sourceforge.tess4j.TesseractException;
+
+/**
+ * Implementation of {@link TextRecognitionProvider} for numeric regions (counters, stamina,
+ * timers). Glyphs are matched against the learned game font by {@link DigitRecognizer} and
+ * Tesseract is only used when that read is not confident.
+ */
+public class DigitTextRecognitionProvider implements TextRecognitionProvider {
+
+    private final EmulatorManager emulatorManager;
+    private final String emulatorNumber;
+
+    /**
+     * Creates a new provider wrapping the given {@link EmulatorManager}.
+     *
+     * @param emulatorManager  the emulator manager to delegate calls to
+     * @param emulatorNumber   identifier of the emulator instance
+     */
+    public DigitTextRecognitionProvider(EmulatorManager emulatorManager, String emulatorNumber) {
+        this.emulatorManager = emulatorManager;
+        this.emulatorNumber = emulatorNumber;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String ocrRegion(DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings) throws IOException, TesseractException {
+        return emulatorManager.ocrDigitsText(emulatorNumber, p1, p2, settings);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object regionFingerprint(DTOPoint p1, DTOPoint p2) {
+        try {
+            return emulatorManager.regionFingerprint(emulatorNumber, p1, p2);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+}
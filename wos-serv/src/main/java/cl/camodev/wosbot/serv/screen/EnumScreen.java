@@ -0,0 +1,37 @@
+package cl.camodev.wosbot.serv.screen;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import cl.camodev.wosbot.console.enumerable.EnumTemplates;
+
+/**
+ * Screens the {@link ScreenRecognizer} can tell apart, in priority order: the first screen with
+ * a matching signature template wins.
+ */
+public enum EnumScreen {
+
+    // @formatter:off
+    RECONNECT(EnumTemplates.GAME_HOME_RECONNECT),
+    INTEL(EnumTemplates.INTEL_SCREEN_1, EnumTemplates.INTEL_SCREEN_2),
+    HOME(EnumTemplates.GAME_HOME_FURNACE),
+    WORLD(EnumTemplates.GAME_HOME_WORLD),
+    LEFT_MENU(EnumTemplates.LEFT_MENU_CITY_TAB),
+    UNKNOWN();
+    // @formatter:on
+
+    private final Set<EnumTemplates> signature;
+
+    EnumScreen(EnumTemplates... signature) {
+        this.signature = signature.length == 0 ? Collections.emptySet()
+                : Collections.unmodifiableSet(EnumSet.of(signature[0], signature));
+    }
+
+    /**
+     * @return templates any of which identifies this screen
+     */
+    public Set<EnumTemplates> getSignature() {
+        return signature;
+    }
+}
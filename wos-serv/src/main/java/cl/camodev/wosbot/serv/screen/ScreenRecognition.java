@@ -0,0 +1,58 @@
+package cl.camodev.wosbot.serv.screen;
+
+import java.util.Map;
+
+import cl.camodev.utiles.image.PerceptualHash;
+import cl.camodev.wosbot.console.enumerable.EnumTemplates;
+import cl.camodev.wosbot.ot.DTOImageSearchResult;
+
+/**
+ * Result of classifying a frame: the detected screen plus the match of every signature template,
+ * so callers can tap a found button without searching again.
+ */
+public class ScreenRecognition {
+
+    private static final DTOImageSearchResult NOT_FOUND = new DTOImageSearchResult(false, null, 0.0);
+
+    private final EnumScreen screen;
+    private final Map<EnumTemplates, DTOImageSearchResult> matches;
+    private final PerceptualHash hash;
+    private final long recognizedAt;
+
+    public ScreenRecognition(EnumScreen screen, Map<EnumTemplates, DTOImageSearchResult> matches, PerceptualHash hash) {
+        this.screen = screen;
+        this.matches = matches;
+        this.hash = hash;
+        this.recognizedAt = System.currentTimeMillis();
+    }
+
+    public EnumScreen getScreen() {
+        return screen;
+    }
+
+    public boolean is(EnumScreen screen) {
+        return this.screen == screen;
+    }
+
+    /**
+     * Whether any signature template of the given screen was found, regardless of priority.
+     */
+    public boolean matches(EnumScreen screen) {
+        return screen.getSignature().stream().anyMatch(template -> getMatch(template).isFound());
+    }
+
+    /**
+     * @return the match of a signature template, or a not found result for other templates
+     */
+    public DTOImageSearchResult getMatch(EnumTemplates template) {
+        return matches.getOrDefault(template, NOT_FOUND);
+    }
+
+    public PerceptualHash getHash() {
+        return hash;
+    }
+
+    public long getRecognizedAt() {
+        return recognizedAt;
+    }
+}
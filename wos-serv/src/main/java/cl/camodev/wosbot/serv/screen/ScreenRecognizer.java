@@ -0,0 +1,138 @@
+package cl.camodev.wosbot.serv.screen;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import cl.camodev.utiles.image.PerceptualHash;
+import cl.camodev.utiles.image.ScreenFrame;
+import cl.camodev.wosbot.console.enumerable.EnumTemplates;
+import cl.camodev.wosbot.emulator.EmulatorManager;
+import cl.camodev.wosbot.ot.DTOImageSearchResult;
+
+/**
+ * Singleton service that classifies the current frame of an emulator into an {@link EnumScreen}.
+ * <p>
+ * All screen signatures are matched on one frame in a single parallel query. Results are
+ * memoized per emulator by the perceptual hash of the frame: asking again while the screen has
+ * not visibly changed returns the previous recognition without any template matching. A small
+ * change (e.g. a button state) may not change the hash, so the memo is dropped whenever input is
+ * sent to the emulator and is only kept for about a second.
+ */
+public class ScreenRecognizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScreenRecognizer.class);
+
+    private static ScreenRecognizer instance;
+
+    // Match threshold used for every signature template
+    private static final double THRESHOLD = 90;
+
+    // Max differing hash bits (of 256) for two frames to count as the same screen. A button sized
+    // change can flip a single bit, so only identical hashes are treated as the same screen
+    private static final int MAX_HASH_DISTANCE = 0;
+
+    // A memoized recognition is never reused past this age, which bounds how long a change
+    // without input (a popup, a timer) can go unnoticed
+    private static final long MAX_MEMO_AGE_MS = 1_000;
+
+    private static final Set<EnumTemplates> ALL_SIGNATURES = EnumSet.noneOf(EnumTemplates.class);
+
+    static {
+        for (EnumScreen screen : EnumScreen.values()) {
+            ALL_SIGNATURES.addAll(screen.getSignature());
+        }
+    }
+
+    private final EmulatorManager emuManager = EmulatorManager.getInstance();
+    private final Map<String, ScreenRecognition> memo = new ConcurrentHashMap<>();
+    private final AtomicLong memoHits = new AtomicLong();
+    private final AtomicLong memoMisses = new AtomicLong();
+
+    private ScreenRecognizer() {
+        emuManager.addScreenChangeListener(this::invalidate);
+    }
+
+    public static synchronized ScreenRecognizer getInstance() {
+        if (instance == null) {
+            instance = new ScreenRecognizer();
+        }
+        return instance;
+    }
+
+    /**
+     * Classifies the current screen of the emulator.
+     */
+    public ScreenRecognition recognize(String emulatorNumber) {
+        ScreenFrame frame = emuManager.captureFrame(emulatorNumber);
+        try {
+            return recognize(emulatorNumber, frame);
+        } finally {
+            frame.release();
+        }
+    }
+
+    /**
+     * Classifies an already captured frame of the emulator. The frame stays owned by the caller.
+     */
+    public ScreenRecognition recognize(String emulatorNumber, ScreenFrame frame) {
+        PerceptualHash hash = frame.getPerceptualHash();
+        ScreenRecognition previous = memo.get(emulatorNumber);
+        if (previous != null && frame.getCapturedAt() - previous.getRecognizedAt() < MAX_MEMO_AGE_MS
+                && hash.distance(previous.getHash()) <= MAX_HASH_DISTANCE) {
+            memoHits.incrementAndGet();
+            return previous;
+        }
+
+        memoMisses.incrementAndGet();
+        EnumMap<EnumTemplates, DTOImageSearchResult> matches = emuManager.query(emulatorNumber, frame, ALL_SIGNATURES,
+                THRESHOLD);
+
+        EnumScreen screen = EnumScreen.UNKNOWN;
+        for (EnumScreen candidate : EnumScreen.values()) {
+            if (candidate.getSignature().stream().anyMatch(template -> matches.get(template).isFound())) {
+                screen = candidate;
+                break;
+            }
+        }
+
+        ScreenRecognition recognition = new ScreenRecognition(screen, matches, hash);
+        memo.put(emulatorNumber, recognition);
+        logger.debug("Emulator {} recognized as {}", emulatorNumber, screen);
+        return recognition;
+    }
+
+    /**
+     * @return the current screen of the emulator
+     */
+    public EnumScreen getCurrentScreen(String emulatorNumber) {
+        return recognize(emulatorNumber).getScreen();
+    }
+
+    /**
+     * Forgets the memoized recognition of an emulator.
+     */
+    public void invalidate(String emulatorNumber) {
+        memo.remove(emulatorNumber);
+    }
+
+    public long getMemoHits() {
+        return memoHits.get();
+    }
+
+    public long getMemoMisses() {
+        return memoMisses.get();
+    }
+
+    public String getStats() {
+        long hits = memoHits.get();
+        long total = hits + memoMisses.get();
+        return String.format("Screen recognitions served from memo: %d/%d", hits, total);
+    }
+}
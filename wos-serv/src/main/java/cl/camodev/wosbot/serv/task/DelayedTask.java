@@ -1,6 +1,11 @@
 package cl.camodev.wosbot.serv.task;
 
 import cl.camodev.utiles.UtilTime;
+import cl.camodev.utiles.image.PerceptualHash;
+import cl.camodev.utiles.retry.RetryExecution;
+import cl.camodev.utiles.retry.RetryMetricsRegistry;
+import cl.camodev.utiles.retry.RetryPolicy;
+import cl.camodev.utiles.image.ScreenFrame;
 import cl.camodev.utiles.number.NumberConverters;
 import cl.camodev.utiles.number.NumberValidators;
 import cl.camodev.utiles.ocr.TextRecognitionRetrier;
@@ -8,6 +13,7 @@ import cl.camodev.wosbot.console.enumerable.EnumTemplates;
 import cl.camodev.wosbot.console.enumerable.EnumTpMessageSeverity;
 import cl.camodev.wosbot.console.enumerable.TpDailyTaskEnum;
 import cl.camodev.wosbot.emulator.EmulatorManager;
+import cl.camodev.wosbot.emulator.GestureBatch;
 import cl.camodev.wosbot.ex.HomeNotFoundException;
 import cl.camodev.wosbot.ex.ProfileInReconnectStateException;
 import cl.camodev.wosbot.logging.ProfileLogger;
@@ -19,6 +25,10 @@ import cl.camodev.wosbot.serv.impl.ServLogs;
 import cl.camodev.wosbot.serv.impl.ServScheduler;
 import cl.camodev.wosbot.serv.impl.StaminaService;
 import cl.camodev.wosbot.serv.ocr.BotTextRecognitionProvider;
+import cl.camodev.wosbot.serv.ocr.DigitTextRecognitionProvider;
+import cl.camodev.wosbot.serv.screen.EnumScreen;
+import cl.camodev.wosbot.serv.screen.ScreenRecognition;
+import cl.camodev.wosbot.serv.screen.ScreenRecognizer;
 import cl.camodev.wosbot.serv.task.impl.InitializeTask;
 import java.awt.Color;
 import java.util.List;
@@ -34,6 +44,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.Delayed;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -49,12 +61,21 @@ public abstract class DelayedTask implements Runnable, Delayed {
     protected EmulatorManager emuManager = EmulatorManager.getInstance();
     protected ServScheduler servScheduler = ServScheduler.getServices();
     protected ServLogs servLogs = ServLogs.getServices();
+    protected ScreenRecognizer screenRecognizer = ScreenRecognizer.getInstance();
     private ProfileLogger logger; // Will be initialized in the constructor
     protected BotTextRecognitionProvider provider;
+    protected DigitTextRecognitionProvider digitProvider;
     protected TextRecognitionRetrier<Integer> integerHelper;
     protected TextRecognitionRetrier<Duration> durationHelper;
 
     private static final int DEFAULT_RETRIES = 5;
+    // First delay of the retried searches and reads, doubled after every retry
+    private static final long RETRY_INITIAL_DELAY_MS = 100;
+    private static final long SCREEN_POLL_INTERVAL_MS = 150;
+    // Frames whose perceptual hashes differ by at most this many bits (of 256) count as unchanged
+    private static final int SCREEN_STABLE_MAX_DISTANCE = 2;
+    // Consecutive unchanged frame pairs required to consider the screen stable
+    private static final int SCREEN_STABLE_FRAMES = 2;
 
     public DelayedTask(DTOProfiles profile, TpDailyTaskEnum tpTask) {
         this.profile = profile;
@@ -64,8 +85,9 @@ public abstract class DelayedTask implements Runnable, Delayed {
         this.tpTask = tpTask;
         this.logger = new ProfileLogger(this.getClass(), profile);
         this.provider = new BotTextRecognitionProvider(emuManager, EMULATOR_NUMBER);
-        this.integerHelper = new TextRecognitionRetrier<>(provider);
-        this.durationHelper = new TextRecognitionRetrier<>(provider);
+        this.digitProvider = new DigitTextRecognitionProvider(emuManager, EMULATOR_NUMBER);
+        this.integerHelper = new TextRecognitionRetrier<>(digitProvider);
+        this.durationHelper = new TextRecognitionRetrier<>(digitProvider);
     }
 
     protected Object getDistinctKey() {
@@ -132,12 +154,12 @@ public abstract class DelayedTask implements Runnable, Delayed {
         logDebug("Verifying screen location. Required: " + requiredLocation);
 
         for (int attempt = 1; attempt <= 10; attempt++) {
-            DTOImageSearchResult home = emuManager.searchTemplate(EMULATOR_NUMBER, EnumTemplates.GAME_HOME_FURNACE, 90);
-            DTOImageSearchResult world = emuManager.searchTemplate(EMULATOR_NUMBER, EnumTemplates.GAME_HOME_WORLD, 90);
-            DTOImageSearchResult reconnect = emuManager.searchTemplate(EMULATOR_NUMBER,
-                    EnumTemplates.GAME_HOME_RECONNECT, 90);
+            // One recognition answers all three questions
+            ScreenRecognition screen = screenRecognizer.recognize(EMULATOR_NUMBER);
+            DTOImageSearchResult home = screen.getMatch(EnumTemplates.GAME_HOME_FURNACE);
+            DTOImageSearchResult world = screen.getMatch(EnumTemplates.GAME_HOME_WORLD);
 
-            if (reconnect.isFound()) {
+            if (screen.matches(EnumScreen.RECONNECT)) {
                 throw new ProfileInReconnectStateException(
                         "Profile " + profile.getName() + " is in reconnect state, cannot execute task: " + taskName);
             }
@@ -148,12 +170,9 @@ public abstract class DelayedTask implements Runnable, Delayed {
                     // We need HOME but we are in WORLD, navigate to HOME
                     logInfo("Navigating from WORLD to HOME...");
                     emuManager.tapAtPoint(EMULATOR_NUMBER, world.getPoint());
-                    sleepTask(2000); // Wait for navigation
 
-                    // Validate that we actually moved to HOME
-                    DTOImageSearchResult homeAfterNav = emuManager.searchTemplate(EMULATOR_NUMBER,
-                            EnumTemplates.GAME_HOME_FURNACE, 90);
-                    if (!homeAfterNav.isFound()) {
+                    // Wait for navigation and validate that we actually moved to HOME
+                    if (!waitForTemplate(EnumTemplates.GAME_HOME_FURNACE, 2000).isFound()) {
                         logWarning("Failed to navigate to HOME, retrying...");
                         continue; // Try again
                     }
@@ -163,12 +182,9 @@ public abstract class DelayedTask implements Runnable, Delayed {
                     // We need WORLD but we are in HOME, navigate to WORLD
                     logInfo("Navigating from HOME to WORLD...");
                     emuManager.tapAtPoint(EMULATOR_NUMBER, home.getPoint());
-                    sleepTask(2000); // Wait for navigation
 
-                    // Validate that we actually moved to WORLD
-                    DTOImageSearchResult worldAfterNav = emuManager.searchTemplate(EMULATOR_NUMBER,
-                            EnumTemplates.GAME_HOME_WORLD, 90);
-                    if (!worldAfterNav.isFound()) {
+                    // Wait for navigation and validate that we actually moved to WORLD
+                    if (!waitForTemplate(EnumTemplates.GAME_HOME_WORLD, 2000).isFound()) {
                         logWarning("Failed to navigate to WORLD, retrying...");
                         continue; // Try again
                     }
@@ -179,7 +195,7 @@ public abstract class DelayedTask implements Runnable, Delayed {
             } else {
                 logWarning("Home/World screen not found. Tapping back button (Attempt " + attempt + "/10)");
                 EmulatorManager.getInstance().tapBackButton(EMULATOR_NUMBER);
-                sleepTask(100);
+                waitForScreenStable(1500);
             }
         }
 
@@ -188,7 +204,7 @@ public abstract class DelayedTask implements Runnable, Delayed {
     }
 
     protected void ensureOnIntelScreen() {
-        sleepTask(500);
+        waitForScreenStable(1000);
         logInfo("Ensuring we are on the intel screen.");
 
         // First, check if we are already on the intel screen.
@@ -209,7 +225,7 @@ public abstract class DelayedTask implements Runnable, Delayed {
             if (intelButton.isFound()) {
                 logInfo("Intel button found. Tapping to open the intel screen.");
                 emuManager.tapAtPoint(EMULATOR_NUMBER, intelButton.getPoint());
-                sleepTask(1000); // Wait for screen transition
+                waitForScreenStable(2000); // Wait for screen transition
 
                 // Check if successfully navigated to intel screen
                 if (isIntelScreenActive()) {
@@ -219,7 +235,7 @@ public abstract class DelayedTask implements Runnable, Delayed {
 
                 logWarning("Tapped intel button, but still not on intel screen. Retrying...");
                 tapBackButton();
-                sleepTask(500);
+                waitForScreenStable(1500);
             } else {
                 logDebug("Intel button not found. Attempt " + (i + 1) + "/3. Retrying...");
                 sleepTask(300);
@@ -240,27 +256,25 @@ public abstract class DelayedTask implements Runnable, Delayed {
     private boolean isIntelScreenActive() {
         // Make two attempts at detection
         for (int attempt = 0; attempt < 2; attempt++) {
-            // Try image recognition first (faster)
-            DTOImageSearchResult intelScreen1 = emuManager.searchTemplate(EMULATOR_NUMBER, EnumTemplates.INTEL_SCREEN_1,
-                    90);
-            DTOImageSearchResult intelScreen2 = emuManager.searchTemplate(EMULATOR_NUMBER, EnumTemplates.INTEL_SCREEN_2,
-                    90);
-
-            if (intelScreen1.isFound() || intelScreen2.isFound()) {
-                logDebug("Intel screen confirmed via image template (attempt " + (attempt + 1) + ")");
-                return true;
-            }
-
-            // Fallback to OCR check
+            // Both checks read the same frame
+            ScreenFrame frame = emuManager.captureFrame(EMULATOR_NUMBER);
             try {
-                String intelText = emuManager.ocrRegionText(EMULATOR_NUMBER, new DTOPoint(85, 15),
-                        new DTOPoint(171, 62));
+                // Try image recognition first (faster), memoized while the screen doesn't change
+                if (screenRecognizer.recognize(EMULATOR_NUMBER, frame).matches(EnumScreen.INTEL)) {
+                    logDebug("Intel screen confirmed via image template (attempt " + (attempt + 1) + ")");
+                    return true;
+                }
+
+                // Fallback to OCR check
+                String intelText = emuManager.ocrRegionText(frame, new DTOPoint(85, 15), new DTOPoint(171, 62));
                 if (intelText != null && intelText.toLowerCase().contains("intel")) {
                     logDebug("Intel screen confirmed via OCR (attempt " + (attempt + 1) + ")");
                     return true;
                 }
-            } catch (IOException | TesseractException e) {
+            } catch (TesseractException e) {
                 logWarning("Could not perform OCR to check for intel screen. Error: " + e.getMessage());
+            } finally {
+                frame.release();
             }
 
             // If this is the first attempt and we didn't find the intel screen, wait
@@ -285,10 +299,11 @@ public abstract class DelayedTask implements Runnable, Delayed {
 
     protected void updateStaminaFromProfile() {
         // i need to update stamina on profile (maybe most reliable than intel screen)
-        // go to profile
-        tapRandomPoint(new DTOPoint(24, 24), new DTOPoint(61, 61), 1, 500);
-        // go to stamina
-        tapRandomPoint(new DTOPoint(223, 1101), new DTOPoint(244, 1123), 1, 500);
+        // go to profile, then to stamina
+        gestureBatch()
+                .tap(new DTOPoint(24, 24), new DTOPoint(61, 61)).waitMs(500)
+                .tap(new DTOPoint(223, 1101), new DTOPoint(244, 1123)).waitMs(500)
+                .execute();
 
         try {
             // read stamina
@@ -319,8 +334,7 @@ public abstract class DelayedTask implements Runnable, Delayed {
         } catch (IOException | TesseractException e) {
             logWarning("Failed to read stamina via OCR: " + e.getMessage());
         }
-        tapBackButton();
-        tapBackButton();
+        gestureBatch().back().back().execute();
     }
 
     protected Integer getSpentStamina() {
@@ -487,40 +501,113 @@ public abstract class DelayedTask implements Runnable, Delayed {
     }
 
     protected DTOImageSearchResult searchTemplateWithRetries(EnumTemplates template, int threshold, int maxRetries) {
-        DTOImageSearchResult result = null;
-        for (int i = 0; i < maxRetries && (result == null || !result.isFound()); i++) {
-            logDebug("Searching template " + template + ", (attempt " + (i + 1) + "/" + maxRetries + ")");
-            result = emuManager.searchTemplate(EMULATOR_NUMBER, template, threshold);
-            sleepTask(200);
-        }
+        return searchTemplateWithRetries(template, threshold, retryPolicy(maxRetries));
+    }
+
+    protected DTOImageSearchResult searchTemplateWithRetries(EnumTemplates template, int threshold, RetryPolicy policy) {
+        DTOImageSearchResult result = retryWithPolicy("template " + template, policy,
+                () -> emuManager.searchTemplate(EMULATOR_NUMBER, template, threshold), DTOImageSearchResult::isFound);
         logDebug(result.isFound() ? "Template " + template + " found." : "Template " + template + " not found.");
         return result;
     }
 
+    /**
+     * Polls fresh frames until consecutive frames stop changing, e.g. once a screen transition
+     * or scroll animation has settled. Call it after the change has started; when the target
+     * screen is known, {@link #waitForTemplate(EnumTemplates, long)} is more precise.
+     *
+     * @param timeoutMs Maximum time to wait
+     * @return true if the screen became stable, false on timeout
+     */
+    protected boolean waitForScreenStable(long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        PerceptualHash previous = null;
+        int stableFrames = 0;
+        while (true) {
+            ScreenFrame frame = emuManager.captureFreshFrame(EMULATOR_NUMBER);
+            PerceptualHash hash = null;
+            if (frame != null) {
+                try {
+                    hash = frame.getPerceptualHash();
+                } finally {
+                    frame.release();
+                }
+            }
+
+            // A failed capture tells nothing, so it restarts the count
+            if (hash != null && previous != null && hash.distance(previous) <= SCREEN_STABLE_MAX_DISTANCE) {
+                if (++stableFrames >= SCREEN_STABLE_FRAMES) {
+                    return true;
+                }
+            } else {
+                stableFrames = 0;
+            }
+            previous = hash;
+
+            if (System.currentTimeMillis() >= deadline) {
+                logDebug("Screen still changing after " + timeoutMs + " ms");
+                return false;
+            }
+            sleepTask(SCREEN_POLL_INTERVAL_MS);
+        }
+    }
+
+    /**
+     * Polls fresh frames until the template appears.
+     *
+     * @param timeoutMs Maximum time to wait
+     * @return the match, or the last not found result on timeout
+     */
+    protected DTOImageSearchResult waitForTemplate(EnumTemplates template, long timeoutMs) {
+        return waitForTemplate(template, 90, timeoutMs);
+    }
+
+    /**
+     * Polls fresh frames until the template appears with at least the given threshold.
+     *
+     * @param timeoutMs Maximum time to wait
+     * @return the match, or the last not found result on timeout
+     */
+    protected DTOImageSearchResult waitForTemplate(EnumTemplates template, int threshold, long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (true) {
+            emuManager.invalidateFrame(EMULATOR_NUMBER);
+            DTOImageSearchResult result = emuManager.searchTemplate(EMULATOR_NUMBER, template, threshold);
+            if (result.isFound() || System.currentTimeMillis() >= deadline) {
+                logDebug(result.isFound() ? "Template " + template + " found." : "Template " + template + " not found after " + timeoutMs + " ms.");
+                return result;
+            }
+            sleepTask(SCREEN_POLL_INTERVAL_MS);
+        }
+    }
+
     protected String OCRWithRetries(String searchStringLower, DTOPoint p1, DTOPoint p2) {
         return OCRWithRetries(searchStringLower, p1, p2, DEFAULT_RETRIES);
     }
 
     protected DTOImageSearchResult searchTemplateWithRetries(EnumTemplates template, DTOPoint topLeft,
             DTOPoint bottomRight, int threshold, int maxRetries) {
-        DTOImageSearchResult result = null;
-        for (int i = 0; i < maxRetries && (result == null || !result.isFound()); i++) {
-            logDebug("Searching template " + template + ", (attempt " + (i + 1) + "/" + maxRetries + ")");
-            result = emuManager.searchTemplate(EMULATOR_NUMBER, template, topLeft, bottomRight, threshold);
-            sleepTask(200);
-        }
+        return searchTemplateWithRetries(template, topLeft, bottomRight, threshold, retryPolicy(maxRetries));
+    }
+
+    protected DTOImageSearchResult searchTemplateWithRetries(EnumTemplates template, DTOPoint topLeft,
+            DTOPoint bottomRight, int threshold, RetryPolicy policy) {
+        DTOImageSearchResult result = retryWithPolicy("template " + template, policy, topLeft, bottomRight,
+                () -> emuManager.searchTemplate(EMULATOR_NUMBER, template, topLeft, bottomRight, threshold),
+                DTOImageSearchResult::isFound);
         logDebug(result.isFound() ? "Template " + template + " found." : "Template " + template + " not found.");
         return result;
     }
 
     protected List<DTOImageSearchResult> searchTemplatesWithRetries(EnumTemplates template, int threshold,
             int maxRetries, int maxResults) {
-        List<DTOImageSearchResult> result = null;
-        for (int i = 0; i < maxRetries && (result == null || result.isEmpty()); i++) {
-            logDebug("Searching template " + template + ", (attempt " + (i + 1) + "/" + maxRetries + ")");
-            result = emuManager.searchTemplates(EMULATOR_NUMBER, template, threshold, maxResults);
-            sleepTask(200);
-        }
+        return searchTemplatesWithRetries(template, threshold, retryPolicy(maxRetries), maxResults);
+    }
+
+    protected List<DTOImageSearchResult> searchTemplatesWithRetries(EnumTemplates template, int threshold,
+            RetryPolicy policy, int maxResults) {
+        List<DTOImageSearchResult> result = retryWithPolicy("templates " + template, policy,
+                () -> emuManager.searchTemplates(EMULATOR_NUMBER, template, threshold, maxResults), r -> !r.isEmpty());
         logDebug(!result.isEmpty() ? "Template " + template + " found " + result.size() + " times."
                 : "Template " + template + " not found.");
         return result;
@@ -528,34 +615,86 @@ public abstract class DelayedTask implements Runnable, Delayed {
 
     protected List<DTOImageSearchResult> searchTemplatesWithRetries(EnumTemplates template, DTOPoint topLeft,
             DTOPoint bottomRight, int threshold, int maxRetries, int maxResults) {
-        List<DTOImageSearchResult> result = null;
-        for (int i = 0; i < maxRetries && (result == null || result.isEmpty()); i++) {
-            logDebug("Searching template " + template + ", (attempt " + (i + 1) + "/" + maxRetries + ")");
-            result = emuManager.searchTemplates(EMULATOR_NUMBER, template, topLeft, bottomRight, threshold, maxResults);
-            sleepTask(200);
-        }
+        return searchTemplatesWithRetries(template, topLeft, bottomRight, threshold, retryPolicy(maxRetries), maxResults);
+    }
+
+    protected List<DTOImageSearchResult> searchTemplatesWithRetries(EnumTemplates template, DTOPoint topLeft,
+            DTOPoint bottomRight, int threshold, RetryPolicy policy, int maxResults) {
+        List<DTOImageSearchResult> result = retryWithPolicy("templates " + template, policy, topLeft, bottomRight,
+                () -> emuManager.searchTemplates(EMULATOR_NUMBER, template, topLeft, bottomRight, threshold, maxResults),
+                r -> !r.isEmpty());
         logDebug(!result.isEmpty() ? "Template " + template + " found " + result.size() + " times."
                 : "Template " + template + " not found.");
         return result;
     }
 
-    protected String OCRWithRetries(String searchString, DTOPoint p1, DTOPoint p2, int maxRetries) {
-        String result = null;
-        for (int attempt = 0; attempt < maxRetries; attempt++) {
-            logDebug(
-                    "Performing OCR to find '" + searchString + "' (attempt " + (attempt + 1) + "/" + maxRetries + ")");
-            try {
-                result = emuManager.ocrRegionText(EMULATOR_NUMBER, p1, p2);
-                if (result != null && result.toLowerCase().contains(searchString.toLowerCase())) {
-                    logDebug("OCRWithRetries result: " + result);
+    /**
+     * Runs an operation on the whole screen until {@code success} accepts its result, as dictated
+     * by {@code policy}. When the policy only retries on change, attempts are skipped while no
+     * pixel of the screen changed. The call is reported to the {@link RetryMetricsRegistry}.
+     *
+     * @return the accepted result, or the last one obtained
+     */
+    protected <T> T retryWithPolicy(String operation, RetryPolicy policy, Supplier<T> attempt, Predicate<T> success) {
+        return retryWithPolicy(operation, policy, null, null, attempt, success);
+    }
+
+    /**
+     * Runs an operation on a region of the screen until {@code success} accepts its result, as
+     * dictated by {@code policy}. When the policy only retries on change, attempts are skipped
+     * while no pixel of the region changed.
+     *
+     * @param topLeft     Top-left corner of the region the operation reads, or null for the whole screen
+     * @param bottomRight Bottom-right corner of the region, or null for the whole screen
+     * @return the accepted result, or the last one obtained
+     */
+    protected <T> T retryWithPolicy(String operation, RetryPolicy policy, DTOPoint topLeft, DTOPoint bottomRight,
+            Supplier<T> attempt, Predicate<T> success) {
+        RetryExecution run = policy.start(operation);
+        T result = null;
+        while (run.nextAttempt()) {
+            logDebug("Running " + run.getOperation() + " (attempt " + run.getAttempts() + "/" + policy.getMaxAttempts() + ")");
+            if (policy.isOnlyOnChange() && run.isUnchanged(screenFingerprint(topLeft, bottomRight))) {
+                logDebug("Screen region unchanged since the previous attempt, skipping");
+            } else {
+                result = attempt.get();
+                if (success.test(result)) {
+                    run.succeeded();
                     return result;
                 }
-            } catch (IOException | TesseractException e) {
-                logWarning("OCR attempt " + (attempt + 1) + " threw an exception: " + e.getMessage());
             }
-            sleepTask(200);
+            if (!run.hasNext()) {
+                break;
+            }
+            sleepTask(run.nextDelayMs());
+        }
+        run.failed();
+        return result;
+    }
+
+    /**
+     * Default policy of the retried searches and reads: exponential backoff with jitter.
+     */
+    protected RetryPolicy retryPolicy(int maxAttempts) {
+        return RetryPolicy.backoff(maxAttempts, RETRY_INITIAL_DELAY_MS);
+    }
+
+    /**
+     * Exact content hash of a region of the screen, or of the whole screen. A perceptual hash
+     * would miss small changes such as a counter or a button state.
+     */
+    private long screenFingerprint(DTOPoint topLeft, DTOPoint bottomRight) {
+        // A cached frame may predate the previous attempt
+        ScreenFrame frame = emuManager.captureFreshFrame(EMULATOR_NUMBER);
+        try {
+            return EmulatorManager.regionFingerprint(frame, topLeft, bottomRight);
+        } finally {
+            frame.release();
         }
-        return null;
+    }
+
+    protected String OCRWithRetries(String searchString, DTOPoint p1, DTOPoint p2, int maxRetries) {
+        return OCRWithRetries(searchString, p1, p2, maxRetries, null);
     }
 
     protected String OCRWithRetries(DTOPoint p1, DTOPoint p2) {
@@ -563,59 +702,52 @@ public abstract class DelayedTask implements Runnable, Delayed {
     }
 
     protected String OCRWithRetries(DTOPoint p1, DTOPoint p2, int maxRetries) {
-        String result = null;
-        for (int attempt = 0; attempt < maxRetries && (result == null || result.isEmpty()); attempt++) {
-            try {
-                result = emuManager.ocrRegionText(EMULATOR_NUMBER, p1, p2);
-            } catch (IOException | TesseractException e) {
-                logWarning("OCR attempt " + attempt + " threw an exception: " + e.getMessage());
-            }
-            sleepTask(200);
-        }
-        logDebug("OCRWithRetries result: " + result);
-        return result;
+        return OCRWithRetries(p1, p2, maxRetries, null);
     }
 
     protected String OCRWithRetries(String searchString, DTOPoint p1, DTOPoint p2, int maxRetries,
             DTOTesseractSettings settings) {
-        String result = null;
-        for (int attempt = 0; attempt < maxRetries; attempt++) {
-            logDebug(
-                    "Performing OCR to find '" + searchString + "' (attempt " + (attempt + 1) + "/" + maxRetries + ")");
-            try {
-                result = emuManager.ocrRegionText(EMULATOR_NUMBER, p1, p2, settings);
-                if (result != null && result.toLowerCase().contains(searchString.toLowerCase())) {
-                    logDebug("OCRWithRetries result: " + result);
-                    return result;
-                }
-            } catch (IOException | TesseractException e) {
-                logWarning("OCR attempt " + (attempt + 1) + " threw an exception: " + e.getMessage());
-            }
-            sleepTask(200);
+        String searchLower = searchString.toLowerCase();
+        Predicate<String> found = text -> text != null && text.toLowerCase().contains(searchLower);
+        String result = retryWithPolicy("ocr '" + searchString + "'", retryPolicy(maxRetries), p1, p2,
+                () -> ocrAttempt(p1, p2, settings), found);
+        if (!found.test(result)) {
+            return null;
         }
-        return null;
+        logDebug("OCRWithRetries result: " + result);
+        return result;
     }
 
     protected String OCRWithRetries(DTOPoint p1, DTOPoint p2, int maxRetries, DTOTesseractSettings settings) {
-        String result = null;
-        for (int attempt = 0; attempt < maxRetries && (result == null || result.isEmpty()); attempt++) {
-            try {
-                result = emuManager.ocrRegionText(EMULATOR_NUMBER, p1, p2, settings);
-            } catch (IOException | TesseractException e) {
-                logWarning("OCR attempt " + attempt + " threw an exception: " + e.getMessage());
-            }
-            sleepTask(200);
-        }
+        String result = retryWithPolicy("ocr " + ocrOperation(p1, p2), retryPolicy(maxRetries), p1, p2,
+                () -> ocrAttempt(p1, p2, settings), text -> text != null && !text.isEmpty());
         logDebug("OCRWithRetries result: " + result);
         return result;
     }
 
+    /**
+     * One OCR read of a region for {@link #retryWithPolicy}, {@code null} if it failed.
+     */
+    private String ocrAttempt(DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings) {
+        try {
+            return settings != null ? emuManager.ocrRegionText(EMULATOR_NUMBER, p1, p2, settings)
+                    : emuManager.ocrRegionText(EMULATOR_NUMBER, p1, p2);
+        } catch (IOException | TesseractException e) {
+            logWarning("OCR attempt threw an exception: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static String ocrOperation(DTOPoint p1, DTOPoint p2) {
+        return "(" + p1.getX() + "," + p1.getY() + ")-(" + p2.getX() + "," + p2.getY() + ")";
+    }
+
     protected boolean checkMarchesAvailable() {
         // Open active marches panel
         emuManager.tapAtPoint(EMULATOR_NUMBER, new DTOPoint(2, 550));
-        sleepTask(500);
+        waitForScreenStable(1500);
         emuManager.tapAtPoint(EMULATOR_NUMBER, new DTOPoint(340, 265));
-        sleepTask(500);
+        waitForScreenStable(1500);
 
         // Define march slot coordinates
         DTOPoint[] marchTopLeft = {
@@ -636,29 +768,13 @@ public abstract class DelayedTask implements Runnable, Delayed {
         };
 
         // Check each march slot for "idle" status
-        try {
-            for (int marchSlot = 0; marchSlot < 6; marchSlot++) {
-                for (int attempt = 0; attempt < 3; attempt++) {
-                    String ocrResult = emuManager.ocrRegionText(EMULATOR_NUMBER,
-                            marchTopLeft[marchSlot],
-                            marchBottomRight[marchSlot]);
-
-                    if (ocrResult.toLowerCase().contains("idle")) {
-                        logInfo("Idle march detected in slot " + (6 - marchSlot));
-                        closeLeftMenu();
-                        return true;
-                    }
-
-                    if (attempt < 2) {
-                        sleepTask(100);
-                    }
-                }
-                logDebug("March slot " + (6 - marchSlot) + " is not idle");
+        for (int marchSlot = 0; marchSlot < 6; marchSlot++) {
+            if (OCRWithRetries("idle", marchTopLeft[marchSlot], marchBottomRight[marchSlot], 3) != null) {
+                logInfo("Idle march detected in slot " + (6 - marchSlot));
+                closeLeftMenu();
+                return true;
             }
-        } catch (IOException | TesseractException e) {
-            logError("OCR attempt failed while checking marches: " + e.getMessage());
-            closeLeftMenu();
-            return false;
+            logDebug("March slot " + (6 - marchSlot) + " is not idle");
         }
 
         logInfo("No idle marches detected in any of the 6 slots.");
@@ -667,10 +783,10 @@ public abstract class DelayedTask implements Runnable, Delayed {
     }
 
     public void closeLeftMenu() {
-        tapPoint(new DTOPoint(110, 270));
-        sleepTask(500);
-        tapPoint(new DTOPoint(463, 548));
-        sleepTask(500);
+        gestureBatch()
+                .tap(new DTOPoint(110, 270)).waitMs(500)
+                .tap(new DTOPoint(463, 548)).waitMs(500)
+                .execute();
     }
 
     public boolean isBearRunning() {
@@ -877,4 +993,12 @@ public abstract class DelayedTask implements Runnable, Delayed {
         emuManager.tapBackButton(EMULATOR_NUMBER);
     }
 
+    /**
+     * Starts a batch of gestures for this task's emulator, sent as one unit by
+     * {@link GestureBatch#execute()}.
+     */
+    protected GestureBatch gestureBatch() {
+        return emuManager.gestureBatch(EMULATOR_NUMBER);
+    }
+
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 import cl.camodev.utiles.UtilTime;
+import cl.camodev.utiles.retry.RetryMetricsRegistry;
 import cl.camodev.wosbot.console.enumerable.EnumConfigurationKey;
 import cl.camodev.wosbot.console.enumerable.EnumTemplates;
 import cl.camodev.wosbot.console.enumerable.EnumTpMessageSeverity;
@@ -25,6 +26,7 @@ import cl.camodev.wosbot.serv.impl.ServLogs;
 import cl.camodev.wosbot.serv.impl.ServProfiles;
 import cl.camodev.wosbot.serv.impl.ServScheduler;
 import cl.camodev.wosbot.serv.impl.ServTaskManager;
+import cl.camodev.wosbot.serv.screen.ScreenRecognizer;
 import cl.camodev.wosbot.serv.task.impl.InitializeTask;
 
 import org.slf4j.Logger;
@@ -329,8 +331,8 @@ public class TaskQueue {
     private void attemptReconnectAndInitialize() {
         try {
             // Click reconnect button if found
-            DTOImageSearchResult reconnect = emuManager.searchTemplate(profile.getEmulatorNumber(),
-                    EnumTemplates.GAME_HOME_RECONNECT, 90);
+            DTOImageSearchResult reconnect = ScreenRecognizer.getInstance().recognize(profile.getEmulatorNumber())
+                    .getMatch(EnumTemplates.GAME_HOME_RECONNECT);
             if (reconnect.isFound()) {
                 emuManager.tapAtPoint(profile.getEmulatorNumber(), reconnect.getPoint());
             }
@@ -656,6 +658,17 @@ public class TaskQueue {
         taskQueue.clear();
         updateProfileStatus("NOT RUNNING");
         logInfo("TaskQueue stopped immediately");
+        logRetryStats();
+    }
+
+    /**
+     * Logs how the retried searches and reads of every profile behaved so far, to tune their policies.
+     */
+    private void logRetryStats() {
+        String stats = RetryMetricsRegistry.getInstance().getStats();
+        if (!stats.isEmpty()) {
+            logger.info("Retry statistics:\n{}", stats.stripTrailing());
+        }
     }
 
     /**
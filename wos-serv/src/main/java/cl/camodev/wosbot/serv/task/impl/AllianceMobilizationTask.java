@@ -1,6 +1,9 @@
 package cl.camodev.wosbot.serv.task.impl;
 
 import cl.camodev.utiles.UtilTime;
+import cl.camodev.utiles.ocr.OcrBatch;
+import cl.camodev.utiles.ocr.OcrRegion;
+import cl.camodev.utiles.ocr.OcrRegionResult;
 import cl.camodev.wosbot.console.enumerable.EnumTemplates;
 import cl.camodev.wosbot.console.enumerable.TpDailyTaskEnum;
 import cl.camodev.wosbot.console.enumerable.EnumConfigurationKey;
@@ -878,8 +881,12 @@ public class AllianceMobilizationTask extends DelayedTask {
         DTOPoint rightTimerTopLeft = new DTOPoint(486, 705);
         DTOPoint rightTimerBottomRight = new DTOPoint(595, 743);
 
-        int leftTimerSeconds = readTimerFromRegion(leftTimerTopLeft, leftTimerBottomRight, "Left");
-        int rightTimerSeconds = readTimerFromRegion(rightTimerTopLeft, rightTimerBottomRight, "Right");
+        // Both timers are on the same screen: read them from one capture, in parallel
+        List<OcrRegionResult<Integer>> timers = emuManager.ocrRegionsBatch(EMULATOR_NUMBER, List.of(
+                timerRegion(leftTimerTopLeft, leftTimerBottomRight),
+                timerRegion(rightTimerTopLeft, rightTimerBottomRight)), OcrBatch.Policy.ALL);
+        int leftTimerSeconds = timerSeconds(timers.get(0), leftTimerTopLeft, leftTimerBottomRight, "Left");
+        int rightTimerSeconds = timerSeconds(timers.get(1), rightTimerTopLeft, rightTimerBottomRight, "Right");
 
         // Return the shorter timer (or 0 if both failed)
         if (leftTimerSeconds > 0 && rightTimerSeconds > 0) {
@@ -898,22 +905,25 @@ public class AllianceMobilizationTask extends DelayedTask {
         }
     }
 
-    private int readTimerFromRegion(DTOPoint topLeft, DTOPoint bottomRight, String timerName) {
-        try {
-            String ocrResult = emuManager.ocrRegionText(EMULATOR_NUMBER, topLeft, bottomRight);
-            debugOCRArea("Task availability timer (" + timerName + ")", topLeft, bottomRight, ocrResult);
+    private OcrRegion<Integer> timerRegion(DTOPoint topLeft, DTOPoint bottomRight) {
+        return new OcrRegion<>(topLeft, bottomRight, null, raw -> {
+            int seconds = raw.trim().isEmpty() ? 0 : parseTimeToSeconds(raw);
+            return seconds > 0 ? seconds : null;
+        });
+    }
 
-            if (ocrResult != null && !ocrResult.trim().isEmpty()) {
-                int seconds = parseTimeToSeconds(ocrResult);
-                if (seconds > 0) {
-                    logInfo("✅ " + timerName + " timer: " + ocrResult + " = " + seconds + " seconds");
-                    return seconds;
-                } else {
-                    logDebug(timerName + " timer OCR failed to parse: '" + ocrResult + "'");
-                }
-            }
-        } catch (Exception e) {
-            logDebug(timerName + " timer OCR failed: " + e.getMessage());
+    private int timerSeconds(OcrRegionResult<Integer> result, DTOPoint topLeft, DTOPoint bottomRight, String timerName) {
+        if (result.error() != null) {
+            logDebug(timerName + " timer OCR failed: " + result.error().getMessage());
+            return 0;
+        }
+        debugOCRArea("Task availability timer (" + timerName + ")", topLeft, bottomRight, result.text());
+        if (result.isParsed()) {
+            logInfo("✅ " + timerName + " timer: " + result.text() + " = " + result.value() + " seconds");
+            return result.value();
+        }
+        if (result.text() != null && !result.text().trim().isEmpty()) {
+            logDebug(timerName + " timer OCR failed to parse: '" + result.text() + "'");
         }
         return 0;
     }
@@ -8,6 +8,7 @@ import cl.camodev.wosbot.ot.*;
 import cl.camodev.wosbot.console.enumerable.EnumConfigurationKey;
 import cl.camodev.wosbot.console.enumerable.EnumTemplates;
 import cl.camodev.wosbot.console.enumerable.TpDailyTaskEnum;
+import cl.camodev.wosbot.emulator.GestureBatch;
 import cl.camodev.wosbot.serv.task.DelayedTask;
 
 import java.awt.*;
@@ -160,19 +161,20 @@ public class AllianceShopTask extends DelayedTask {
             //try to buy the item, if qty = availableQuantity, buy max, else buy qty
             logInfo("Attempting to buy " + qty + " of item: " + shopItem.getDisplayName() + " (Price: " + itemPrice + ", Available: " + availableQuantity + ", Current Coins: " + currentCoins + ")");
 
-            emuManager.tapAtRandomPoint(EMULATOR_NUMBER, priceArea.topLeft(), priceArea.bottomRight(),1,1500);
+            GestureBatch purchase = gestureBatch().tap(priceArea.topLeft(), priceArea.bottomRight(),1,1500);
             if (qty == availableQuantity){
                 //if qty = availableQuantity, tap on max button
-                emuManager.tapAtRandomPoint(EMULATOR_NUMBER, new DTOPoint(596,690), new DTOPoint(626,717),1,300);
+                purchase.tap(new DTOPoint(596,690), new DTOPoint(626,717),1,300);
             }else{
                 //click the plus button qty-1 times
-                emuManager.tapAtRandomPoint(EMULATOR_NUMBER, new DTOPoint(397,691), new DTOPoint(425,716),qty-1,300);
+                purchase.tap(new DTOPoint(397,691), new DTOPoint(425,716),qty-1,300);
             }
-            emuManager.tapAtRandomPoint(EMULATOR_NUMBER, new DTOPoint(330,815), new DTOPoint(420,840),1,1000);
+            purchase.tap(new DTOPoint(330,815), new DTOPoint(420,840),1,1000);
+            //tap on top a few times to exit from buy confirm and item details
+            purchase.tap(new DTOPoint(270,30), new DTOPoint(280,80),3,200);
+            purchase.execute();
             currentCoins -= qty * itemPrice;
             logInfo("Successfully purchased " + qty + " of item: " + shopItem.getDisplayName() + ". Remaining coins: " + currentCoins);
-            //tap on top a few times to exit from buy confirm and item details
-            emuManager.tapAtRandomPoint(EMULATOR_NUMBER, new DTOPoint(270,30), new DTOPoint(280,80),3,200);
         }
         setRecurring(false);
 		logInfo("Alliance Shop task completed.");
@@ -3,8 +3,12 @@ package cl.camodev.wosbot.serv.task.impl;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 import cl.camodev.utiles.UtilTime;
+import cl.camodev.utiles.ocr.OcrBatch;
+import cl.camodev.utiles.ocr.OcrRegion;
+import cl.camodev.utiles.ocr.OcrRegionResult;
 import cl.camodev.wosbot.console.enumerable.EnumConfigurationKey;
 import cl.camodev.wosbot.console.enumerable.EnumTemplates;
 import cl.camodev.wosbot.console.enumerable.TpDailyTaskEnum;
@@ -372,9 +376,14 @@ public class ArenaTask extends DelayedTask {
             DTOPoint defeatTopLeft = new DTOPoint(195, 290);
             DTOPoint defeatBottomRight = new DTOPoint(516, 384);
 
+            // Read both regions of the same frame in parallel
+            List<OcrRegionResult<String>> results = emuManager.ocrRegionsBatch(EMULATOR_NUMBER, List.of(
+                OcrRegion.text(victoryTopLeft, victoryBottomRight, null),
+                OcrRegion.text(defeatTopLeft, defeatBottomRight, null)), OcrBatch.Policy.ALL);
+            String victoryText = results.get(0).text();
+            String defeatText = results.get(1).text();
+
             // Check victory region first
-            String victoryText = emuManager.ocrRegionText(EMULATOR_NUMBER,
-                victoryTopLeft, victoryBottomRight);
             
             // Clean up the victory text
             String cleanVictory = victoryText != null ? victoryText.toLowerCase()
@@ -393,9 +402,6 @@ public class ArenaTask extends DelayedTask {
             }
 
             // If no victory found, check defeat region
-            String defeatText = emuManager.ocrRegionText(EMULATOR_NUMBER,
-                defeatTopLeft, defeatBottomRight);
-            
             // Clean up the defeat text
             String cleanDefeat = defeatText != null ? defeatText.toLowerCase()
                 .replace("—", "")
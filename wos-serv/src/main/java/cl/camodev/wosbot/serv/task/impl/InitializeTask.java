@@ -1,12 +1,12 @@
 package cl.camodev.wosbot.serv.task.impl;
 
-import cl.camodev.wosbot.console.enumerable.EnumTemplates;
 import cl.camodev.wosbot.console.enumerable.TpDailyTaskEnum;
 import cl.camodev.wosbot.emulator.EmulatorManager;
 import cl.camodev.wosbot.ex.ProfileInReconnectStateException;
 import cl.camodev.wosbot.ex.StopExecutionException;
-import cl.camodev.wosbot.ot.DTOImageSearchResult;
 import cl.camodev.wosbot.ot.DTOProfiles;
+import cl.camodev.wosbot.serv.screen.EnumScreen;
+import cl.camodev.wosbot.serv.screen.ScreenRecognition;
 import cl.camodev.wosbot.serv.task.DelayedTask;
 
 public class InitializeTask extends DelayedTask {
@@ -50,17 +50,15 @@ public class InitializeTask extends DelayedTask {
 			boolean homeScreen = false;
 			int attempts = 0;
 			while (attempts <= MAX_ATTEMPTS) {
-				DTOImageSearchResult home = emuManager.searchTemplate(EMULATOR_NUMBER, EnumTemplates.GAME_HOME_FURNACE, 90);
-				DTOImageSearchResult world = emuManager.searchTemplate(EMULATOR_NUMBER, EnumTemplates.GAME_HOME_WORLD, 90);
+				ScreenRecognition screen = screenRecognizer.recognize(EMULATOR_NUMBER);
 
-				if (home.isFound() || world.isFound()) {
+				if (screen.matches(EnumScreen.HOME) || screen.matches(EnumScreen.WORLD)) {
 					homeScreen = true;
 					logInfo("Home screen found.");
 					break;
 				}
 
-				DTOImageSearchResult reconnect = emuManager.searchTemplate(EMULATOR_NUMBER, EnumTemplates.GAME_HOME_RECONNECT, 90);
-				if (reconnect.isFound()) {
+				if (screen.matches(EnumScreen.RECONNECT)) {
 					throw new ProfileInReconnectStateException("Profile " + profile.getName() + " is in a reconnect state and cannot execute the task: " + taskName);
 				}
 
@@ -1,5 +1,8 @@
 package cl.camodev.wosbot.serv.task.impl;
 
+import cl.camodev.utiles.ocr.OcrBatch;
+import cl.camodev.utiles.ocr.OcrRegion;
+import cl.camodev.utiles.ocr.OcrRegionResult;
 import cl.camodev.wosbot.console.enumerable.TpDailyTaskEnum;
 import cl.camodev.wosbot.console.enumerable.EnumTemplates;
 import cl.camodev.wosbot.console.enumerable.EnumConfigurationKey;
@@ -11,6 +14,8 @@ import cl.camodev.wosbot.serv.task.EnumStartLocation;
 
 import java.time.LocalDateTime;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -362,27 +367,32 @@ public class TundraTrekAutoTask extends DelayedTask {
                 Integer remaining = null;
                 int usedDx = 0, usedDy = 0;
 
-                for (int i = 0; i < OCR_REGION_OFFSETS.length; i++) {
+                // All offsets are read in parallel on the same frame; the first one that parses wins
+                List<OcrRegionResult<Integer>> results = emuManager.ocrRegionsBatch(EMULATOR_NUMBER,
+                        trekCounterRegions(fraction, twoNumbersLoose), OcrBatch.Policy.FIRST_SUCCESS);
+                for (int i = 0; i < results.size(); i++) {
+                    OcrRegionResult<Integer> result = results.get(i);
                     int dx = OCR_REGION_OFFSETS[i][0];
                     int dy = OCR_REGION_OFFSETS[i][1];
-                    DTOPoint p1 = new DTOPoint(TREK_COUNTER_TOP_LEFT.getX() + dx, TREK_COUNTER_TOP_LEFT.getY() + dy);
-                    DTOPoint p2 = new DTOPoint(TREK_COUNTER_BOTTOM_RIGHT.getX() + dx, TREK_COUNTER_BOTTOM_RIGHT.getY() + dy);
-                    try {
-                        raw = emuManager.ocrRegionText(EMULATOR_NUMBER, p1, p2);
-                        norm = normalizeOcrText(raw);
-                        remaining = parseRemaining(raw, norm, fraction, twoNumbersLoose);
-                        if (attempts < 5 || attempts % 10 == 0) {
-                            logDebug("OCR attempt " + attempts + ", offset " + i + " (dx=" + dx + ", dy=" + dy + "): region[" + p1.getX() + "," + p1.getY() + " to " + p2.getX() + "," + p2.getY() + "] raw='" + (raw != null ? raw.replace('\n', '\\') : "null") + "' norm='" + (norm != null ? norm : "null") + "' parsed=" + remaining);
-                        }
-                        if (remaining != null) {
-                            outcome.anyParsed = true;
-                            usedDx = dx; usedDy = dy;
-                            break;
-                        }
-                    } catch (Exception inner) {
+                    if (!result.completed()) {
+                        continue;
+                    }
+                    if (result.error() != null) {
                         if (attempts < 5) {
-                            logDebug("OCR exception at offset " + i + " (dx=" + dx + ", dy=" + dy + "): " + inner.getMessage());
+                            logDebug("OCR exception at offset " + i + " (dx=" + dx + ", dy=" + dy + "): " + result.error().getMessage());
                         }
+                        continue;
+                    }
+                    if (attempts < 5 || attempts % 10 == 0) {
+                        String text = result.text();
+                        logDebug("OCR attempt " + attempts + ", offset " + i + " (dx=" + dx + ", dy=" + dy + "): raw='" + (text != null ? text.replace('\n', '\\') : "null") + "' norm='" + normalizeOcrText(text) + "' parsed=" + result.value());
+                    }
+                    if (remaining == null && result.isParsed()) {
+                        raw = result.text();
+                        norm = normalizeOcrText(raw);
+                        remaining = result.value();
+                        outcome.anyParsed = true;
+                        usedDx = dx; usedDy = dy;
                     }
                 }
 
@@ -426,27 +436,31 @@ public class TundraTrekAutoTask extends DelayedTask {
     private Integer readTrekCounterOnce() {
         Pattern fraction = Pattern.compile("(\\d+)\\s*/\\s*(\\d+)");
         Pattern twoNumbersLoose = Pattern.compile("(\\d{1,3})\\D+(\\d{2,3})");
-        String raw = null;
-        String norm = null;
-        for (int[] off : OCR_REGION_OFFSETS) {
-            int dx = off[0];
-            int dy = off[1];
-            DTOPoint p1 = new DTOPoint(TREK_COUNTER_TOP_LEFT.getX() + dx, TREK_COUNTER_TOP_LEFT.getY() + dy);
-            DTOPoint p2 = new DTOPoint(TREK_COUNTER_BOTTOM_RIGHT.getX() + dx, TREK_COUNTER_BOTTOM_RIGHT.getY() + dy);
-            try {
-                raw = emuManager.ocrRegionText(EMULATOR_NUMBER, p1, p2);
-                norm = normalizeOcrText(raw);
-                Integer remaining = parseRemaining(raw, norm, fraction, twoNumbersLoose);
-                if (remaining != null) {
-                    logDebug("Pre-check OCR (dx=" + dx + ", dy=" + dy + "): '" + raw + "' => '" + norm + "' -> remaining=" + remaining);
-                    return remaining;
-                }
-            } catch (Exception ignore) {
+        List<OcrRegionResult<Integer>> results = emuManager.ocrRegionsBatch(EMULATOR_NUMBER,
+                trekCounterRegions(fraction, twoNumbersLoose), OcrBatch.Policy.FIRST_SUCCESS);
+        for (int i = 0; i < results.size(); i++) {
+            OcrRegionResult<Integer> result = results.get(i);
+            if (result.isParsed()) {
+                logDebug("Pre-check OCR (dx=" + OCR_REGION_OFFSETS[i][0] + ", dy=" + OCR_REGION_OFFSETS[i][1] + "): '" + result.text() + "' => '" + normalizeOcrText(result.text()) + "' -> remaining=" + result.value());
+                return result.value();
             }
         }
         return null;
     }
 
+    /**
+     * Trek counter region at every offset of {@link #OCR_REGION_OFFSETS}, parsed to the remaining count.
+     */
+    private List<OcrRegion<Integer>> trekCounterRegions(Pattern fraction, Pattern twoNumbersLoose) {
+        List<OcrRegion<Integer>> regions = new ArrayList<>(OCR_REGION_OFFSETS.length);
+        for (int[] off : OCR_REGION_OFFSETS) {
+            DTOPoint p1 = new DTOPoint(TREK_COUNTER_TOP_LEFT.getX() + off[0], TREK_COUNTER_TOP_LEFT.getY() + off[1]);
+            DTOPoint p2 = new DTOPoint(TREK_COUNTER_BOTTOM_RIGHT.getX() + off[0], TREK_COUNTER_BOTTOM_RIGHT.getY() + off[1]);
+            regions.add(new OcrRegion<>(p1, p2, null, raw -> parseRemaining(raw, normalizeOcrText(raw), fraction, twoNumbersLoose)));
+        }
+        return regions;
+    }
+
     private String normalizeOcrText(String text) {
         if (text == null) return "";
         return text
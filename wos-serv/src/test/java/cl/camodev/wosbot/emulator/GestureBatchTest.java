@@ -0,0 +1,60 @@
+package cl.camodev.wosbot.emulator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import cl.camodev.wosbot.emulator.GestureBatch.Step;
+import cl.camodev.wosbot.emulator.GestureBatch.StepType;
+import cl.camodev.wosbot.ot.DTOPoint;
+
+class GestureBatchTest {
+
+	private final GestureBatch batch = new GestureBatch(null, "0");
+
+	@Test
+	void tapAreaIsNormalized() {
+		batch.tap(new DTOPoint(60, 10), new DTOPoint(20, 50));
+
+		Step step = batch.getSteps().get(0);
+		assertEquals(new Step(StepType.TAP, 20, 10, 60, 50, null, 0), step);
+		assertEquals("tap(20,10)-(60,50)", step.toString());
+	}
+
+	@Test
+	void repeatedTapsWaitAfterEachTap() {
+		batch.tap(new DTOPoint(1, 1), new DTOPoint(2, 2), 3, 150);
+
+		List<StepType> types = batch.getSteps().stream().map(Step::type).toList();
+		assertEquals(List.of(StepType.TAP, StepType.WAIT, StepType.TAP, StepType.WAIT, StepType.TAP, StepType.WAIT),
+				types);
+		assertEquals(450, batch.getTotalWaitMs());
+	}
+
+	@Test
+	void emptyWaitsAreNotSteps() {
+		batch.waitMs(0).waitMs(-5).tap(new DTOPoint(1, 1), new DTOPoint(2, 2), 2, 0);
+
+		assertEquals(2, batch.getSteps().size());
+		assertTrue(batch.getSteps().stream().allMatch(step -> step.type() == StepType.TAP));
+		assertEquals(0, batch.getTotalWaitMs());
+	}
+
+	@Test
+	void stepsAreListedInOrder() {
+		batch.tap(new DTOPoint(5, 6)).waitMs(500).swipe(new DTOPoint(1, 2), new DTOPoint(3, 4)).back();
+
+		assertEquals("tap(5,6), wait(500ms), swipe(1,2)->(3,4), key(KEYCODE_BACK)", batch.toString());
+		assertThrows(UnsupportedOperationException.class, () -> batch.getSteps().clear());
+	}
+
+	@Test
+	void newBatchIsEmpty() {
+		assertTrue(batch.isEmpty());
+		assertEquals("", batch.toString());
+	}
+}
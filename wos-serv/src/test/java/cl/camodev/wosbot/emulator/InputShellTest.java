@@ -0,0 +1,176 @@
+package cl.camodev.wosbot.emulator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Runs the shell protocol against a local {@code sh}, which answers like {@code adb shell}.
+ */
+@DisabledOnOs(OS.WINDOWS)
+class InputShellTest {
+
+	@TempDir
+	Path dir;
+
+	private InputShell shell;
+
+	// Steps sent as one-off commands by runWithFallback
+	private final List<String> sentOneOff = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() throws IOException {
+		Process process = new ProcessBuilder("sh").redirectErrorStream(true).start();
+		shell = new InputShell("test", process, null);
+	}
+
+	@AfterEach
+	void tearDown() {
+		shell.close();
+	}
+
+	@Test
+	void scriptEchoesAMarkerAfterEachStep() {
+		assertEquals("a && echo m_0 || { echo m_0_failed; exit 1; }; b && echo m_1 || { echo m_1_failed; exit 1; }",
+				InputShell.script(List.of("a", "b"), "m_"));
+	}
+
+	@Test
+	void sleepUsesFractionalSeconds() {
+		assertEquals("sleep 1.500", InputShell.sleep(1500));
+		assertEquals("sleep 0.050", InputShell.sleep(50));
+	}
+
+	@Test
+	void stepsCompleteInOrder() throws IOException {
+		long[] completedAt = shell.runSteps(List.of("true", InputShell.sleep(100), "true"), new long[] { 0, 100, 0 });
+
+		assertEquals(3, completedAt.length);
+		assertTrue(completedAt[0] <= completedAt[1] && completedAt[1] <= completedAt[2]);
+		assertTrue(completedAt[1] >= 100_000_000L);
+		assertTrue(shell.isOpen());
+	}
+
+	@Test
+	void failedStepStopsTheBatch() {
+		Path marker = dir.resolve("ran");
+		InputShell.IncompleteStepsException e = assertThrows(InputShell.IncompleteStepsException.class,
+				() -> shell.runSteps(List.of("true", "false", "touch " + marker), new long[3]));
+
+		assertEquals(1, e.getCompletedSteps());
+		assertTrue(e.isRemainderUnsent());
+		assertFalse(Files.exists(marker));
+		assertFalse(shell.isOpen());
+	}
+
+	@Test
+	void timedOutInputIsNotSentAgain() throws IOException {
+		Path log = dir.resolve("taps");
+
+		InputShell.IncompleteStepsException e = assertThrows(InputShell.IncompleteStepsException.class,
+				() -> InputShell.runWithFallback(shell, List.of("echo tap >> " + log + " && sleep 5"), List.of("tap"),
+						new long[1], this::recordOneOff));
+
+		assertFalse(e.isRemainderUnsent());
+		assertTrue(sentOneOff.isEmpty());
+		assertEquals(List.of("tap"), Files.readAllLines(log));
+	}
+
+	@Test
+	void batchStopsAtAStepThatTimesOut() throws IOException {
+		Path log = dir.resolve("steps");
+		List<String> steps = List.of("echo 0 >> " + log, "echo 1 >> " + log + " && sleep 5", "echo 2 >> " + log);
+
+		InputShell.IncompleteStepsException e = assertThrows(InputShell.IncompleteStepsException.class,
+				() -> InputShell.runWithFallback(shell, steps, List.of("f0", "f1", "f2"), new long[3], this::recordOneOff));
+
+		assertEquals(1, e.getCompletedSteps());
+		assertFalse(e.isRemainderUnsent());
+		// The step in flight ran once and nothing was sent again
+		assertTrue(sentOneOff.isEmpty());
+		assertEquals(List.of("0", "1"), Files.readAllLines(log));
+	}
+
+	@Test
+	void batchResumesOneOffFromAFailedStep() throws Exception {
+		Path log = dir.resolve("steps");
+		List<String> steps = List.of("echo 0 >> " + log, "false", "echo 2 >> " + log);
+
+		long[] completedAt = InputShell.runWithFallback(shell, steps, List.of("f0", "f1", "f2"), new long[3],
+				this::recordOneOff);
+
+		assertEquals(3, completedAt.length);
+		assertEquals(List.of("f1", "f2"), sentOneOff);
+		assertEquals(List.of("0"), Files.readAllLines(log));
+	}
+
+	@Test
+	void failedInputIsSentAsAOneOffCommand() throws Exception {
+		InputShell.runWithFallback(shell, List.of("false"), List.of("tap"), new long[1], this::recordOneOff);
+
+		assertEquals(List.of("tap"), sentOneOff);
+	}
+
+	@Test
+	void inputIsSentAsAOneOffCommandWithoutAnOpenShell() throws Exception {
+		shell.close();
+		InputShell.runWithFallback(shell, List.of("true"), List.of("tap"), new long[1], this::recordOneOff);
+		InputShell.runWithFallback(null, List.of(), List.of("key"), new long[1], this::recordOneOff);
+
+		assertEquals(List.of("tap", "key"), sentOneOff);
+	}
+
+	@Test
+	void eachStepGetsItsOwnTimeout() throws IOException {
+		// 4 s in total, longer than the response timeout, but each step answers within it
+		long[] completedAt = shell.runSteps(List.of("sleep 2", "sleep 2"), new long[2]);
+
+		assertEquals(2, completedAt.length);
+	}
+
+	@Test
+	void expectedDurationExtendsTheStepTimeout() throws IOException {
+		shell.runSteps(List.of("sleep 4"), new long[] { 2000 });
+
+		assertTrue(shell.isOpen());
+	}
+
+	@Test
+	void stepSlowerThanItsTimeoutBreaksTheShell() {
+		InputShell.IncompleteStepsException e = assertThrows(InputShell.IncompleteStepsException.class,
+				() -> shell.runSteps(List.of("true", "sleep 5"), new long[2]));
+
+		assertEquals(1, e.getCompletedSteps());
+		assertFalse(e.isRemainderUnsent());
+		assertFalse(shell.isOpen());
+	}
+
+	@Test
+	void closedShellRunsNothing() {
+		shell.close();
+
+		InputShell.IncompleteStepsException e = assertThrows(InputShell.IncompleteStepsException.class,
+				() -> shell.run("true"));
+		assertEquals(0, e.getCompletedSteps());
+		assertTrue(e.isRemainderUnsent());
+	}
+
+	private long[] recordOneOff(List<String> steps, long[] expectedMs) {
+		sentOneOff.addAll(steps);
+		return new long[steps.size()];
+	}
+}
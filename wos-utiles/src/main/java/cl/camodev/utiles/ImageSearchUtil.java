@@ -1,8 +1,13 @@
 package cl.camodev.utiles;
 
 import java.io.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ForkJoinPool;
@@ -10,12 +15,18 @@ import java.util.concurrent.ForkJoinPool;
 import org.opencv.core.Core;
 import org.opencv.core.CvType;
 import org.opencv.core.Mat;
-import org.opencv.core.MatOfByte;
 import org.opencv.core.Point;
 import org.opencv.core.Rect;
-import org.opencv.imgcodecs.Imgcodecs;
 import org.opencv.imgproc.Imgproc;
 
+import cl.camodev.utiles.image.MatchStrategy;
+import cl.camodev.utiles.image.PyramidMatcher;
+import cl.camodev.utiles.image.ScreenFrame;
+import cl.camodev.utiles.image.TemplateEntry;
+import cl.camodev.utiles.image.TemplateLocationIndex;
+import cl.camodev.utiles.image.TemplatePack;
+import cl.camodev.utiles.image.TemplateStore;
+import cl.camodev.wosbot.ot.DTOArea;
 import cl.camodev.wosbot.ot.DTOImageSearchResult;
 import cl.camodev.wosbot.ot.DTOPoint;
 import cl.camodev.wosbot.console.enumerable.EnumTemplates;
@@ -24,19 +35,22 @@ import org.slf4j.*;
 public class ImageSearchUtil {
 	private static final Logger logger = LoggerFactory.getLogger(ImageSearchUtil.class);
 
-	// Cache thread-safe para templates precargados
-	private static final ConcurrentHashMap<String, Mat> templateCache = new ConcurrentHashMap<>();
-	
-	// Cache for grayscale templates
-	private static final ConcurrentHashMap<String, Mat> grayscaleTemplateCache = new ConcurrentHashMap<>();
+	// Shared read-only templates (color, grayscale and half resolution versions)
+	private static final TemplateStore templateStore = TemplateStore.getInstance();
+
+	// Extra score, in percent, a hit in a learned area needs to be returned without a full search
+	private static final double PRIOR_MARGIN_PERCENT = 5.0;
 
 	// Custom thread pool for OpenCV operations
 	private static final ForkJoinPool openCVThreadPool = new ForkJoinPool(
 		Math.min(Runtime.getRuntime().availableProcessors(), 4)
 	);
 
-	// Cache for template byte arrays
-	private static final ConcurrentHashMap<String, byte[]> templateBytesCache = new ConcurrentHashMap<>();
+	// Templates (base paths) that must always be matched at full resolution
+	private static final Set<String> pyramidOptOut = ConcurrentHashMap.newKeySet();
+
+	// Strategy used by the overloads that don't take one
+	private static volatile MatchStrategy defaultMatchStrategy = MatchStrategy.FULL_RESOLUTION;
 
 	// Cache initialization status
 	private static volatile boolean cacheInitialized = false;
@@ -61,6 +75,17 @@ public class ImageSearchUtil {
 		currentProfileName.remove();
 	}
 
+	/**
+	 * Sets the strategy used by the search methods that don't take one explicitly.
+	 */
+	public static void setDefaultMatchStrategy(MatchStrategy strategy) {
+		defaultMatchStrategy = strategy != null ? strategy : MatchStrategy.FULL_RESOLUTION;
+	}
+
+	public static MatchStrategy getDefaultMatchStrategy() {
+		return defaultMatchStrategy;
+	}
+
 	/**
 	 * Get formatted log message with profile name prefix if available
 	 */
@@ -74,49 +99,54 @@ public class ImageSearchUtil {
 
 	static {
 		// Automatic cache initialization in the background
-		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-			openCVThreadPool.shutdown();
-			// Clean cache and release OpenCV memory
-			templateCache.values().forEach(Mat::release);
-			templateCache.clear();
-			grayscaleTemplateCache.values().forEach(Mat::release);
-			grayscaleTemplateCache.clear();
-			templateBytesCache.clear();
-		}));
-
-		// Preload all templates from the enum in the background
+		Runtime.getRuntime().addShutdownHook(new Thread(openCVThreadPool::shutdown));
+
+		for (EnumTemplates enumTemplate : EnumTemplates.values()) {
+			if (!enumTemplate.isPyramidMatching()) {
+				pyramidOptOut.add(enumTemplate.getTemplate());
+			}
+		}
+
+		// Preload all templates from the enum (from the template pack when it is up to date)
 		initializeTemplateCache();
 	}
 
 	/**
 	 * Initializes the template cache by loading all templates from the EnumTemplates enum.
+	 * An up to date template pack is just mapped; otherwise the PNGs are decoded and the pack is
+	 * rebuilt for the next start.
 	 */
 	private static void initializeTemplateCache() {
 		if (cacheInitialized) return;
 
+		Path packFile = Paths.get(TemplatePack.DEFAULT_PACK_FILE);
+		templateStore.setPackFile(packFile);
+
 		openCVThreadPool.submit(() -> {
 			try {
+				if (templateStore.loadPack()) {
+					cacheInitialized = true;
+					return;
+				}
+
 				logger.info("Caching templates...");
 
-				// Preload all templates from the enum (both color and grayscale)
+				// Preload all templates from the enum (color, grayscale and half resolution)
 				for (EnumTemplates enumTemplate : EnumTemplates.values()) {
 					String templatePath = enumTemplate.getTemplate();
 					try {
-						// Load color template
-						loadTemplateOptimized(templatePath);
-						logger.debug(formatLogMessage("Template " + templatePath + " cached successfully"));
-						
-						// Also load grayscale version
-						loadTemplateGrayscale(templatePath);
-						logger.debug(formatLogMessage("Grayscale template " + templatePath + " cached successfully"));
+						if (templateStore.get(templatePath) != null) {
+							logger.debug(formatLogMessage("Template " + templatePath + " cached successfully"));
+						}
 					} catch (Exception e) {
 						logger.warn(formatLogMessage("Error preloading template " + templatePath + ": " + e.getMessage()));
 					}
 				}
 
 				cacheInitialized = true;
-				logger.info(formatLogMessage("Template cache initialized with " + templateCache.size() + " color templates and " + 
-				                             grayscaleTemplateCache.size() + " grayscale templates"));
+				logger.info(formatLogMessage("Template cache initialized with " + templateStore.size() + " templates"));
+
+				TemplatePack.build(packFile, templateStore);
 
 			} catch (Exception e) {
 				logger.error(formatLogMessage("Error initializing template cache: " + e.getMessage()));
@@ -156,173 +186,19 @@ public class ImageSearchUtil {
 		return searchTemplateGrayscaleMultipleOptimized(image, templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, maxResults);
 	}
 
-	/**
-	 * Optimized method for loading and caching templates.
-	 */
-	private static Mat loadTemplateOptimized(String templateResourcePath) {
-		// Try to get from cache first
-		Mat cachedTemplate = templateCache.get(templateResourcePath);
-		if (cachedTemplate != null && !cachedTemplate.empty()) {
-			return cachedTemplate.clone(); // Return a copy for thread safety
-		}
-
-		try {
-			// Load bytes from cache or resource
-			byte[] templateBytes = templateBytesCache.computeIfAbsent(templateResourcePath, path -> {
-				try (InputStream is = ImageSearchUtil.class.getResourceAsStream(path)) {
-					if (is == null) {
-						logger.error(formatLogMessage("Template resource not found: " + path));
-						return null;
-					}
-					return is.readAllBytes();
-				} catch (IOException e) {
-					logger.error(formatLogMessage("Error loading template bytes for: " + path), e);
-					return null;
-				}
-			});
-
-			if (templateBytes == null) {
-				return new Mat(); // Empty Mat
-			}
-
-			// Decode template
-			MatOfByte templateMatOfByte = new MatOfByte(templateBytes);
-			Mat template = Imgcodecs.imdecode(templateMatOfByte, Imgcodecs.IMREAD_COLOR);
-
-			if (!template.empty()) {
-				// Save to cache (clone to avoid modifications)
-				templateCache.put(templateResourcePath, template.clone());
-			}
-
-			return template;
-
-		} catch (Exception e) {
-			logger.error(formatLogMessage("Exception loading template: " + templateResourcePath), e);
-			return new Mat();
-		}
-	}
-	
-	/**
-	 * Optimized method for loading and caching grayscale templates.
-	 */
-	private static Mat loadTemplateGrayscale(String templateResourcePath) {
-		// Try to get from grayscale cache first
-		Mat cachedTemplate = grayscaleTemplateCache.get(templateResourcePath);
-		if (cachedTemplate != null && !cachedTemplate.empty()) {
-			return cachedTemplate.clone(); // Return a copy for thread safety
-		}
-
-		try {
-			// Load the color template first
-			Mat colorTemplate = loadTemplateOptimized(templateResourcePath);
-			if (colorTemplate.empty()) {
-				return new Mat();
-			}
-			
-			// Convert to grayscale
-			Mat grayTemplate = new Mat();
-			Imgproc.cvtColor(colorTemplate, grayTemplate, Imgproc.COLOR_BGR2GRAY);
-			
-			// Save to grayscale cache
-			if (!grayTemplate.empty()) {
-				grayscaleTemplateCache.put(templateResourcePath, grayTemplate.clone());
-			}
-			
-			// Release color template as we don't need it anymore
-			colorTemplate.release();
-			
-			return grayTemplate;
-		} catch (Exception e) {
-			logger.error(formatLogMessage("Exception loading grayscale template: " + templateResourcePath), e);
-			return new Mat();
-		}
-	}
-
 	/**
 	 * Optimized version of the searchTemplate method with cache and better memory management.
 	 */
 	public static DTOImageSearchResult searchTemplateOptimized(byte[] image, String templateResourcePath,
 			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage) {
-
-		Mat imagenPrincipal = null;
-		Mat template = null;
-		Mat imagenROI = null;
-		Mat resultado = null;
-
-		try {
-			// Quick ROI validation
-			int roiX = topLeftCorner.getX();
-			int roiY = topLeftCorner.getY();
-			int roiWidth = bottomRightCorner.getX() - topLeftCorner.getX();
-			int roiHeight = bottomRightCorner.getY() - topLeftCorner.getY();
-
-			if (roiWidth <= 0 || roiHeight <= 0) {
-				logger.error(formatLogMessage("Invalid ROI dimensions"));
-				return new DTOImageSearchResult(false, null, 0.0);
-			}
-
-			// Decoding of main image (reusable)
-			MatOfByte matOfByte = new MatOfByte(image);
-			imagenPrincipal = Imgcodecs.imdecode(matOfByte, Imgcodecs.IMREAD_COLOR);
-
-			if (imagenPrincipal.empty()) {
-				return new DTOImageSearchResult(false, null, 0.0);
-			}
-
-			// Load optimized template with cache
-			template = loadTemplateOptimized(templateResourcePath);
-			if (template.empty()) {
-				return new DTOImageSearchResult(false, null, 0.0);
-			}
-
-			// ROI vs image validation
-			if (roiX + roiWidth > imagenPrincipal.cols() || roiY + roiHeight > imagenPrincipal.rows()) {
-				logger.error(formatLogMessage("ROI exceeds image dimensions"));
-				return new DTOImageSearchResult(false, null, 0.0);
-			}
-
-			// Create ROI
-			Rect roi = new Rect(roiX, roiY, roiWidth, roiHeight);
-			imagenROI = new Mat(imagenPrincipal, roi);
-
-			// Optimized size check
-			int resultCols = imagenROI.cols() - template.cols() + 1;
-			int resultRows = imagenROI.rows() - template.rows() + 1;
-			if (resultCols <= 0 || resultRows <= 0) {
-				return new DTOImageSearchResult(false, null, 0.0);
-			}
-
-			// Template matching
-			resultado = new Mat(resultRows, resultCols, CvType.CV_32FC1);
-			Imgproc.matchTemplate(imagenROI, template, resultado, Imgproc.TM_CCOEFF_NORMED);
-
-			// Search for the best match
-			Core.MinMaxLocResult mmr = Core.minMaxLoc(resultado);
-			double matchPercentage = mmr.maxVal * 100.0;
-
-			if (matchPercentage < thresholdPercentage) {
-				logger.warn(formatLogMessage("Template " + templateResourcePath + " match percentage " + matchPercentage + " below threshold " + thresholdPercentage));
-				return new DTOImageSearchResult(false, null, matchPercentage);
-			}
-
-			logger.info(formatLogMessage("Template " + templateResourcePath + " found with match percentage: " + matchPercentage));
-
-			// Calculate center coordinates
-			Point matchLoc = mmr.maxLoc;
-			double centerX = matchLoc.x + roi.x + (template.cols() / 2.0);
-			double centerY = matchLoc.y + roi.y + (template.rows() / 2.0);
-
-			return new DTOImageSearchResult(true, new DTOPoint((int) centerX, (int) centerY), matchPercentage);
-
-		} catch (Exception e) {
-			logger.error(formatLogMessage("Exception during optimized template search"), e);
+		ScreenFrame frame = decodeFrame(image);
+		if (frame == null) {
 			return new DTOImageSearchResult(false, null, 0.0);
+		}
+		try {
+			return searchTemplate(frame, templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage);
 		} finally {
-			// Explicit release of OpenCV memory
-			if (imagenPrincipal != null) imagenPrincipal.release();
-			if (template != null) template.release();
-			if (imagenROI != null) imagenROI.release();
-			if (resultado != null) resultado.release();
+			frame.release();
 		}
 	}
 
@@ -343,121 +219,215 @@ public class ImageSearchUtil {
 	public static List<DTOImageSearchResult> searchTemplateMultipleOptimized(byte[] image,
 			String templateResourcePath, DTOPoint topLeftCorner, DTOPoint bottomRightCorner,
 			double thresholdPercentage, int maxResults) {
+		ScreenFrame frame = decodeFrame(image);
+		if (frame == null) {
+			return new ArrayList<>();
+		}
+		try {
+			return searchTemplateMultiple(frame, templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, maxResults);
+		} finally {
+			frame.release();
+		}
+	}
 
-		List<DTOImageSearchResult> results = new ArrayList<>();
-		Mat mainImage = null;
-		Mat template = null;
-		Mat imageROI = null;
-		Mat matchResult = null;
-		Mat resultCopy = null;
-
+	/**
+	 * Performs a grayscale search for a template within a main image.
+	 * Both the template and the image are converted to grayscale before matching.
+	 */
+	public static DTOImageSearchResult searchTemplateGrayscaleOptimized(byte[] image, String templateResourcePath,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage) {
+		ScreenFrame frame = decodeFrame(image);
+		if (frame == null) {
+			return new DTOImageSearchResult(false, null, 0.0);
+		}
 		try {
-			// Quick ROI validation
-			int roiX = topLeftCorner.getX();
-			int roiY = topLeftCorner.getY();
-			int roiWidth = bottomRightCorner.getX() - topLeftCorner.getX();
-			int roiHeight = bottomRightCorner.getY() - topLeftCorner.getY();
+			return searchTemplateGrayscale(frame, templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage);
+		} finally {
+			frame.release();
+		}
+	}
 
-			if (roiWidth <= 0 || roiHeight <= 0) {
-				return results;
-			}
+	/**
+	 * Performs a grayscale search for multiple matches of a template within a main image.
+	 * Both the template and the image are converted to grayscale before matching.
+	 */
+	public static List<DTOImageSearchResult> searchTemplateGrayscaleMultipleOptimized(byte[] image,
+			String templateResourcePath, DTOPoint topLeftCorner, DTOPoint bottomRightCorner,
+			double thresholdPercentage, int maxResults) {
+		ScreenFrame frame = decodeFrame(image);
+		if (frame == null) {
+			return new ArrayList<>();
+		}
+		try {
+			return searchTemplateGrayscaleMultiple(frame, templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, maxResults);
+		} finally {
+			frame.release();
+		}
+	}
 
-			// Optimized decoding
-			MatOfByte matOfByte = new MatOfByte(image);
-			mainImage = Imgcodecs.imdecode(matOfByte, Imgcodecs.IMREAD_COLOR);
+	/**
+	 * Searches for a template in an already captured frame.
+	 */
+	public static DTOImageSearchResult searchTemplate(ScreenFrame frame, String templateResourcePath,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage) {
+		return searchTemplate(frame, templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, defaultMatchStrategy);
+	}
 
-			if (mainImage.empty()) {
-				return results;
-			}
+	/**
+	 * Searches for a template in an already captured frame using the given strategy.
+	 */
+	public static DTOImageSearchResult searchTemplate(ScreenFrame frame, String templateResourcePath,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage, MatchStrategy strategy) {
+		return matchWithPrior(frame.getMat(), false, templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, strategy);
+	}
 
-			// Load template with cache
-			template = loadTemplateOptimized(templateResourcePath);
-			if (template.empty()) {
-				return results;
-			}
+	/**
+	 * Searches for multiple matches of a template in an already captured frame.
+	 */
+	public static List<DTOImageSearchResult> searchTemplateMultiple(ScreenFrame frame, String templateResourcePath,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage, int maxResults) {
+		return searchTemplateMultiple(frame, templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, maxResults, defaultMatchStrategy);
+	}
 
-			// Validations
-			if (roiX + roiWidth > mainImage.cols() || roiY + roiHeight > mainImage.rows()) {
-				return results;
-			}
+	/**
+	 * Searches for multiple matches of a template in an already captured frame using the given strategy.
+	 */
+	public static List<DTOImageSearchResult> searchTemplateMultiple(ScreenFrame frame, String templateResourcePath,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage, int maxResults,
+			MatchStrategy strategy) {
+		return matchMultiple(frame.getMat(), false, templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, maxResults, strategy);
+	}
 
-			// Create ROI
-			Rect roi = new Rect(roiX, roiY, roiWidth, roiHeight);
-			imageROI = new Mat(mainImage, roi);
+	/**
+	 * Grayscale search for a template in an already captured frame. The grayscale
+	 * conversion of the frame is done once and shared by every search on it.
+	 */
+	public static DTOImageSearchResult searchTemplateGrayscale(ScreenFrame frame, String templateResourcePath,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage) {
+		return searchTemplateGrayscale(frame, templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, defaultMatchStrategy);
+	}
 
-			int resultCols = imageROI.cols() - template.cols() + 1;
-			int resultRows = imageROI.rows() - template.rows() + 1;
-			if (resultCols <= 0 || resultRows <= 0) {
-				return results;
-			}
+	/**
+	 * Grayscale search for a template in an already captured frame using the given strategy.
+	 */
+	public static DTOImageSearchResult searchTemplateGrayscale(ScreenFrame frame, String templateResourcePath,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage, MatchStrategy strategy) {
+		return matchWithPrior(frame.getGrayMat(), true, templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, strategy);
+	}
 
-			// Template matching
-			matchResult = new Mat(resultRows, resultCols, CvType.CV_32FC1);
-			Imgproc.matchTemplate(imageROI, template, matchResult, Imgproc.TM_CCOEFF_NORMED);
+	/**
+	 * Grayscale search for multiple matches of a template in an already captured frame.
+	 */
+	public static List<DTOImageSearchResult> searchTemplateGrayscaleMultiple(ScreenFrame frame, String templateResourcePath,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage, int maxResults) {
+		return searchTemplateGrayscaleMultiple(frame, templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, maxResults, defaultMatchStrategy);
+	}
 
-			// Optimized search for multiple matches
-			double thresholdDecimal = thresholdPercentage / 100.0;
-			resultCopy = matchResult.clone();
-			int templateWidth = template.cols();
-			int templateHeight = template.rows();
+	/**
+	 * Grayscale search for multiple matches of a template in an already captured frame using the
+	 * given strategy.
+	 */
+	public static List<DTOImageSearchResult> searchTemplateGrayscaleMultiple(ScreenFrame frame, String templateResourcePath,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage, int maxResults,
+			MatchStrategy strategy) {
+		return matchMultiple(frame.getGrayMat(), true, templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, maxResults, strategy);
+	}
 
-			// Pre-calculate for optimization
-			int halfTemplateWidth = templateWidth / 2;
-			int halfTemplateHeight = templateHeight / 2;
+	/**
+	 * Matches several templates against the same frame in parallel on the OpenCV thread pool.
+	 *
+	 * @param frame          Captured frame shared by every search.
+	 * @param templatePaths  Templates to search, mapped to the resource path to use for each one.
+	 * @return One result per requested template.
+	 */
+	public static EnumMap<EnumTemplates, DTOImageSearchResult> searchTemplates(ScreenFrame frame,
+			Map<EnumTemplates, String> templatePaths, DTOPoint topLeftCorner, DTOPoint bottomRightCorner,
+			double thresholdPercentage) {
+		EnumMap<EnumTemplates, DTOImageSearchResult> results = new EnumMap<>(EnumTemplates.class);
+		if (templatePaths.isEmpty()) {
+			return results;
+		}
 
-			while (results.size() < maxResults || maxResults <= 0) {
-				Core.MinMaxLocResult mmr = Core.minMaxLoc(resultCopy);
-				double matchValue = mmr.maxVal;
+		// Workers do not inherit the caller's logging context
+		String profileName = currentProfileName.get();
+		EnumMap<EnumTemplates, CompletableFuture<DTOImageSearchResult>> futures = new EnumMap<>(EnumTemplates.class);
+		templatePaths.forEach((template, path) -> futures.put(template, CompletableFuture.supplyAsync(() -> {
+			setProfileName(profileName);
+			try {
+				return searchTemplate(frame, path, topLeftCorner, bottomRightCorner, thresholdPercentage);
+			} finally {
+				clearProfileName();
+			}
+		}, openCVThreadPool)));
 
-				if (matchValue < thresholdDecimal) {
-					break;
-				}
+		futures.forEach((template, future) -> {
+			try {
+				results.put(template, future.join());
+			} catch (Exception e) {
+				logger.error(formatLogMessage("Exception during parallel search of " + template), e);
+				results.put(template, new DTOImageSearchResult(false, null, 0.0));
+			}
+		});
+		return results;
+	}
 
-				Point matchLoc = mmr.maxLoc;
-				double centerX = matchLoc.x + roi.x + halfTemplateWidth;
-				double centerY = matchLoc.y + roi.y + halfTemplateHeight;
+	/**
+	 * Decodes encoded image bytes (compatibility path for PNG callers).
+	 */
+	private static ScreenFrame decodeFrame(byte[] image) {
+		try {
+			return ScreenFrame.fromPng(image);
+		} catch (Exception e) {
+			logger.error(formatLogMessage("Exception decoding image"), e);
+			return null;
+		}
+	}
 
-				results.add(new DTOImageSearchResult(true,
-					new DTOPoint((int) centerX, (int) centerY), matchValue * 100.0));
+	/**
+	 * Probes the area where the template was found before (see {@link TemplateLocationIndex}) and
+	 * only searches the whole requested region if it is not clearly there. A probe hit must beat the
+	 * threshold by {@code PRIOR_MARGIN_PERCENT}, since a weaker one may be a look-alike while the
+	 * best match is elsewhere, and some hits are verified against the whole region.
+	 */
+	private static DTOImageSearchResult matchWithPrior(Mat source, boolean grayscale, String templateResourcePath,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage, MatchStrategy strategy) {
+		TemplateLocationIndex index = TemplateLocationIndex.getInstance();
+		DTOArea learnedArea = index.getSearchArea(templateResourcePath, topLeftCorner, bottomRightCorner);
+		if (learnedArea == null) {
+			return matchSingle(source, grayscale, templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, strategy, true);
+		}
 
-				// Optimized suppression
-				int suppressX = Math.max(0, (int)matchLoc.x - halfTemplateWidth);
-				int suppressY = Math.max(0, (int)matchLoc.y - halfTemplateHeight);
-				int suppressWidth = Math.min(templateWidth, resultCopy.cols() - suppressX);
-				int suppressHeight = Math.min(templateHeight, resultCopy.rows() - suppressY);
+		double priorThreshold = Math.min(100.0, thresholdPercentage + PRIOR_MARGIN_PERCENT);
+		DTOImageSearchResult prior = matchSingle(source, grayscale, templateResourcePath,
+				learnedArea.topLeft(), learnedArea.bottomRight(), priorThreshold, MatchStrategy.FULL_RESOLUTION, false);
+		boolean verify = index.recordProbe(prior.isFound());
+		if (prior.isFound() && !verify) {
+			return prior;
+		}
 
-				if (suppressWidth > 0 && suppressHeight > 0) {
-					Rect suppressRect = new Rect(suppressX, suppressY, suppressWidth, suppressHeight);
-					Mat suppressArea = new Mat(resultCopy, suppressRect);
-					suppressArea.setTo(new org.opencv.core.Scalar(0));
-					suppressArea.release();
-				}
+		DTOImageSearchResult full = matchSingle(source, grayscale, templateResourcePath, topLeftCorner, bottomRightCorner,
+				thresholdPercentage, strategy, true);
+		if (verify) {
+			boolean mismatch = !full.isFound() || Math.abs(full.getPoint().getX() - prior.getPoint().getX()) > 2
+					|| Math.abs(full.getPoint().getY() - prior.getPoint().getY()) > 2;
+			index.recordVerification(mismatch);
+			if (mismatch) {
+				logger.debug(formatLogMessage("Learned location of " + templateResourcePath + " gave " + prior.getPoint()
+						+ " but the best match is " + full.getPoint()));
 			}
-
-		} catch (Exception e) {
-			logger.error(formatLogMessage("Exception during optimized multiple template search"), e);
-		} finally {
-			// Explicit memory release
-			if (mainImage != null) mainImage.release();
-			if (template != null) template.release();
-			if (imageROI != null) imageROI.release();
-			if (matchResult != null) matchResult.release();
-			if (resultCopy != null) resultCopy.release();
 		}
-
-		return results;
+		return full;
 	}
 
 	/**
-	 * Performs a grayscale search for a template within a main image.
-	 * Both the template and the image are converted to grayscale before matching.
+	 * Finds the best match of a template inside the given region of a color or grayscale image.
+	 * The source image is only read, never released. Matches are recorded in the
+	 * {@link TemplateLocationIndex}.
 	 */
-	public static DTOImageSearchResult searchTemplateGrayscaleOptimized(byte[] image, String templateResourcePath,
-			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage) {
+	private static DTOImageSearchResult matchSingle(Mat source, boolean grayscale, String templateResourcePath,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage, MatchStrategy strategy,
+			boolean logMiss) {
 
-		Mat imagenPrincipal = null;
-		Mat imagenPrincipalGray = null;
-		Mat template = null;
 		Mat imagenROI = null;
 		Mat resultado = null;
 
@@ -473,35 +443,26 @@ public class ImageSearchUtil {
 				return new DTOImageSearchResult(false, null, 0.0);
 			}
 
-			// Decoding of main image (reusable)
-			MatOfByte matOfByte = new MatOfByte(image);
-			imagenPrincipal = Imgcodecs.imdecode(matOfByte, Imgcodecs.IMREAD_COLOR);
-
-			if (imagenPrincipal.empty()) {
+			if (source == null || source.empty()) {
 				return new DTOImageSearchResult(false, null, 0.0);
 			}
-			
-			// Convert main image to grayscale
-			imagenPrincipalGray = new Mat();
-			Imgproc.cvtColor(imagenPrincipal, imagenPrincipalGray, Imgproc.COLOR_BGR2GRAY);
-			imagenPrincipal.release();
-			imagenPrincipal = null;
-
-			// Load optimized grayscale template with cache
-			template = loadTemplateGrayscale(templateResourcePath);
-			if (template.empty()) {
+
+			// Shared template, read-only
+			TemplateEntry entry = templateStore.get(templateResourcePath);
+			if (entry == null) {
 				return new DTOImageSearchResult(false, null, 0.0);
 			}
+			Mat template = entry.get(grayscale);
 
 			// ROI vs image validation
-			if (roiX + roiWidth > imagenPrincipalGray.cols() || roiY + roiHeight > imagenPrincipalGray.rows()) {
+			if (roiX + roiWidth > source.cols() || roiY + roiHeight > source.rows()) {
 				logger.error(formatLogMessage("ROI exceeds image dimensions"));
 				return new DTOImageSearchResult(false, null, 0.0);
 			}
 
 			// Create ROI
 			Rect roi = new Rect(roiX, roiY, roiWidth, roiHeight);
-			imagenROI = new Mat(imagenPrincipalGray, roi);
+			imagenROI = new Mat(source, roi);
 
 			// Optimized size check
 			int resultCols = imagenROI.cols() - template.cols() + 1;
@@ -511,52 +472,63 @@ public class ImageSearchUtil {
 			}
 
 			// Template matching
-			resultado = new Mat(resultRows, resultCols, CvType.CV_32FC1);
-			Imgproc.matchTemplate(imagenROI, template, resultado, Imgproc.TM_CCOEFF_NORMED);
+			PyramidMatcher.Match best;
+			if (usePyramid(strategy, templateResourcePath, imagenROI, entry)) {
+				best = PyramidMatcher.findBest(imagenROI, template, entry.getCoarse(grayscale),
+						thresholdPercentage / 100.0);
+				if (best == null) {
+					return new DTOImageSearchResult(false, null, 0.0);
+				}
+			} else {
+				resultado = new Mat(resultRows, resultCols, CvType.CV_32FC1);
+				Imgproc.matchTemplate(imagenROI, template, resultado, Imgproc.TM_CCOEFF_NORMED);
 
-			// Search for the best match
-			Core.MinMaxLocResult mmr = Core.minMaxLoc(resultado);
-			double matchPercentage = mmr.maxVal * 100.0;
+				// Search for the best match
+				Core.MinMaxLocResult mmr = Core.minMaxLoc(resultado);
+				best = new PyramidMatcher.Match((int) mmr.maxLoc.x, (int) mmr.maxLoc.y, mmr.maxVal);
+			}
+			double matchPercentage = best.score() * 100.0;
+			String label = grayscale ? "Grayscale template " : "Template ";
 
 			if (matchPercentage < thresholdPercentage) {
-				logger.warn(formatLogMessage("Grayscale template " + templateResourcePath + " match percentage " + matchPercentage + " below threshold " + thresholdPercentage));
+				if (logMiss)
+					logger.warn(formatLogMessage(label + templateResourcePath + " match percentage " + matchPercentage + " below threshold " + thresholdPercentage));
 				return new DTOImageSearchResult(false, null, matchPercentage);
 			}
 
-			// Calculate center point of the match (taking ROI into account)
-			int centerX = (int) (mmr.maxLoc.x + (double) template.cols() / 2 + roiX);
-			int centerY = (int) (mmr.maxLoc.y + (double) template.rows() / 2 + roiY);
+			if (!grayscale) {
+				logger.info(formatLogMessage(label + templateResourcePath + " found with match percentage: " + matchPercentage));
+			}
+
+			// Calculate center coordinates
+			TemplateLocationIndex.getInstance().record(templateResourcePath, best.x() + roi.x,
+					best.y() + roi.y, template.cols(), template.rows());
+			double centerX = best.x() + roi.x + (template.cols() / 2.0);
+			double centerY = best.y() + roi.y + (template.rows() / 2.0);
 
-			return new DTOImageSearchResult(true, new DTOPoint(centerX, centerY), matchPercentage);
+			return new DTOImageSearchResult(true, new DTOPoint((int) centerX, (int) centerY), matchPercentage);
 
 		} catch (Exception e) {
-			logger.error(formatLogMessage("Exception during grayscale template search"), e);
+			logger.error(formatLogMessage(grayscale ? "Exception during grayscale template search" : "Exception during optimized template search"), e);
 			return new DTOImageSearchResult(false, null, 0.0);
 		} finally {
-			// Explicit memory release for all Mat objects
-			if (imagenPrincipal != null) imagenPrincipal.release();
-			if (imagenPrincipalGray != null) imagenPrincipalGray.release();
-			if (template != null) template.release();
+			// Explicit release of OpenCV memory (the source image belongs to the caller)
 			if (imagenROI != null) imagenROI.release();
 			if (resultado != null) resultado.release();
 		}
 	}
-	
+
 	/**
-	 * Performs a grayscale search for multiple matches of a template within a main image.
-	 * Both the template and the image are converted to grayscale before matching.
+	 * Finds up to {@code maxResults} matches of a template inside the given region of a color or
+	 * grayscale image. The source image is only read, never released.
 	 */
-	public static List<DTOImageSearchResult> searchTemplateGrayscaleMultipleOptimized(byte[] image,
-			String templateResourcePath, DTOPoint topLeftCorner, DTOPoint bottomRightCorner,
-			double thresholdPercentage, int maxResults) {
+	private static List<DTOImageSearchResult> matchMultiple(Mat source, boolean grayscale, String templateResourcePath,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage, int maxResults,
+			MatchStrategy strategy) {
 
 		List<DTOImageSearchResult> results = new ArrayList<>();
-		Mat mainImage = null;
-		Mat mainImageGray = null;
-		Mat template = null;
 		Mat imageROI = null;
 		Mat matchResult = null;
-		Mat resultCopy = null;
 
 		try {
 			// Quick ROI validation
@@ -569,34 +541,25 @@ public class ImageSearchUtil {
 				return results;
 			}
 
-			// Optimized decoding
-			MatOfByte matOfByte = new MatOfByte(image);
-			mainImage = Imgcodecs.imdecode(matOfByte, Imgcodecs.IMREAD_COLOR);
-
-			if (mainImage.empty()) {
+			if (source == null || source.empty()) {
 				return results;
 			}
-			
-			// Convert to grayscale
-			mainImageGray = new Mat();
-			Imgproc.cvtColor(mainImage, mainImageGray, Imgproc.COLOR_BGR2GRAY);
-			mainImage.release();
-			mainImage = null;
-
-			// Load grayscale template with cache
-			template = loadTemplateGrayscale(templateResourcePath);
-			if (template.empty()) {
+
+			// Shared template, read-only
+			TemplateEntry entry = templateStore.get(templateResourcePath);
+			if (entry == null) {
 				return results;
 			}
+			Mat template = entry.get(grayscale);
 
 			// Validations
-			if (roiX + roiWidth > mainImageGray.cols() || roiY + roiHeight > mainImageGray.rows()) {
+			if (roiX + roiWidth > source.cols() || roiY + roiHeight > source.rows()) {
 				return results;
 			}
 
 			// Create ROI
 			Rect roi = new Rect(roiX, roiY, roiWidth, roiHeight);
-			imageROI = new Mat(mainImageGray, roi);
+			imageROI = new Mat(source, roi);
 
 			int resultCols = imageROI.cols() - template.cols() + 1;
 			int resultRows = imageROI.rows() - template.rows() + 1;
@@ -604,80 +567,98 @@ public class ImageSearchUtil {
 				return results;
 			}
 
+			if (usePyramid(strategy, templateResourcePath, imageROI, entry)) {
+				for (PyramidMatcher.Match match : PyramidMatcher.findAll(imageROI, template,
+						entry.getCoarse(grayscale), thresholdPercentage / 100.0, maxResults)) {
+					results.add(new DTOImageSearchResult(true, new DTOPoint(match.x() + roi.x + template.cols() / 2,
+							match.y() + roi.y + template.rows() / 2), match.score() * 100.0));
+				}
+				return results;
+			}
+
 			// Template matching
 			matchResult = new Mat(resultRows, resultCols, CvType.CV_32FC1);
 			Imgproc.matchTemplate(imageROI, template, matchResult, Imgproc.TM_CCOEFF_NORMED);
 
-			// Optimized search for multiple matches
-			double thresholdDecimal = thresholdPercentage / 100.0;
-			resultCopy = matchResult.clone();
-			int templateWidth = template.cols();
-			int templateHeight = template.rows();
+			collectMatches(matchResult, roi, template.cols(), template.rows(), thresholdPercentage, maxResults, results);
 
-			// Pre-calculate for optimization
-			int halfTemplateWidth = templateWidth / 2;
-			int halfTemplateHeight = templateHeight / 2;
+		} catch (Exception e) {
+			logger.error(formatLogMessage(grayscale ? "Exception during optimized multiple grayscale template search"
+					: "Exception during optimized multiple template search"), e);
+		} finally {
+			// Explicit memory release (the source image belongs to the caller)
+			if (imageROI != null) imageROI.release();
+			if (matchResult != null) matchResult.release();
+		}
 
-			while (results.size() < maxResults || maxResults <= 0) {
-				Core.MinMaxLocResult mmr = Core.minMaxLoc(resultCopy);
-				double matchValue = mmr.maxVal;
+		return results;
+	}
 
-				if (matchValue < thresholdDecimal) {
-					break;
-				}
+	/**
+	 * Whether a search should use the coarse-to-fine matcher.
+	 */
+	private static boolean usePyramid(MatchStrategy strategy, String templateResourcePath, Mat image, TemplateEntry entry) {
+		return strategy == MatchStrategy.PYRAMID
+				&& entry.getCoarse(false) != null
+				&& entry.getGrayStdDev() >= PyramidMatcher.MIN_TEMPLATE_STDDEV
+				&& !pyramidOptOut.contains(templateResourcePath.replace("_CH.", "."))
+				&& PyramidMatcher.isApplicable(image, entry.getColor());
+	}
 
-				Point matchLoc = mmr.maxLoc;
-				double centerX = matchLoc.x + roi.x + halfTemplateWidth;
-				double centerY = matchLoc.y + roi.y + halfTemplateHeight;
+	/**
+	 * Extracts matches above the threshold from a TM_CCOEFF_NORMED result, suppressing the
+	 * neighbourhood of each accepted match. The result Mat is modified in place.
+	 */
+	private static void collectMatches(Mat matchResult, Rect roi, int templateWidth, int templateHeight,
+			double thresholdPercentage, int maxResults, List<DTOImageSearchResult> results) {
+		double thresholdDecimal = thresholdPercentage / 100.0;
 
-				results.add(new DTOImageSearchResult(true,
-					new DTOPoint((int) centerX, (int) centerY), matchValue * 100.0));
+		// Pre-calculate for optimization
+		int halfTemplateWidth = templateWidth / 2;
+		int halfTemplateHeight = templateHeight / 2;
 
-				// Optimized suppression
-				int suppressX = Math.max(0, (int)matchLoc.x - halfTemplateWidth);
-				int suppressY = Math.max(0, (int)matchLoc.y - halfTemplateHeight);
-				int suppressWidth = Math.min(templateWidth, resultCopy.cols() - suppressX);
-				int suppressHeight = Math.min(templateHeight, resultCopy.rows() - suppressY);
+		while (results.size() < maxResults || maxResults <= 0) {
+			Core.MinMaxLocResult mmr = Core.minMaxLoc(matchResult);
+			double matchValue = mmr.maxVal;
 
-				if (suppressWidth > 0 && suppressHeight > 0) {
-					Rect suppressRect = new Rect(suppressX, suppressY, suppressWidth, suppressHeight);
-					Mat suppressArea = new Mat(resultCopy, suppressRect);
-					suppressArea.setTo(new org.opencv.core.Scalar(0));
-					suppressArea.release();
-				}
+			if (matchValue < thresholdDecimal) {
+				break;
 			}
 
-		} catch (Exception e) {
-			logger.error(formatLogMessage("Exception during optimized multiple grayscale template search"), e);
-		} finally {
-			// Explicit memory release
-			if (mainImage != null) mainImage.release();
-			if (mainImageGray != null) mainImageGray.release();
-			if (template != null) template.release();
-			if (imageROI != null) imageROI.release();
-			if (matchResult != null) matchResult.release();
-			if (resultCopy != null) resultCopy.release();
+			Point matchLoc = mmr.maxLoc;
+			double centerX = matchLoc.x + roi.x + halfTemplateWidth;
+			double centerY = matchLoc.y + roi.y + halfTemplateHeight;
+
+			results.add(new DTOImageSearchResult(true,
+				new DTOPoint((int) centerX, (int) centerY), matchValue * 100.0));
+
+			// Optimized suppression
+			int suppressX = Math.max(0, (int)matchLoc.x - halfTemplateWidth);
+			int suppressY = Math.max(0, (int)matchLoc.y - halfTemplateHeight);
+			int suppressWidth = Math.min(templateWidth, matchResult.cols() - suppressX);
+			int suppressHeight = Math.min(templateHeight, matchResult.rows() - suppressY);
+
+			if (suppressWidth > 0 && suppressHeight > 0) {
+				Rect suppressRect = new Rect(suppressX, suppressY, suppressWidth, suppressHeight);
+				Mat suppressArea = new Mat(matchResult, suppressRect);
+				suppressArea.setTo(new org.opencv.core.Scalar(0));
+				suppressArea.release();
+			}
 		}
-
-		return results;
 	}
 
 	/**
 	 * Method for preloading common templates.
 	 */
 	public static void preloadTemplate(String templateResourcePath) {
-		openCVThreadPool.submit(() -> loadTemplateOptimized(templateResourcePath));
+		openCVThreadPool.submit(() -> templateStore.get(templateResourcePath));
 	}
 
 	/**
 	 * Method to clear cache manually.
 	 */
 	public static void clearCache() {
-		templateCache.values().forEach(Mat::release);
-		templateCache.clear();
-		grayscaleTemplateCache.values().forEach(Mat::release);
-		grayscaleTemplateCache.clear();
-		templateBytesCache.clear();
+		templateStore.clear();
 		cacheInitialized = false;
 	}
 
@@ -733,8 +714,8 @@ public class ImageSearchUtil {
 	 * Gets cache statistics.
 	 */
 	public static String getCacheStats() {
-		return String.format("Templates in cache: %d/%d, Bytes cache: %d",
-			templateCache.size(), EnumTemplates.values().length, templateBytesCache.size());
+		return String.format("Templates in cache: %d/%d",
+			templateStore.size(), EnumTemplates.values().length);
 	}
 
 	public static void loadNativeLibrary(String resourcePath) throws IOException {
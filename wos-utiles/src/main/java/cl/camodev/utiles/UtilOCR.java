@@ -1,6 +1,5 @@
 package cl.camodev.utiles;
 
-import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBufferByte;
@@ -14,10 +13,16 @@ import javax.imageio.ImageIO;
 
 import org.opencv.core.CvType;
 import org.opencv.core.Mat;
+import org.opencv.core.Rect;
 
+import cl.camodev.utiles.image.ScreenFrame;
+import cl.camodev.utiles.ocr.DigitRecognizer;
+import cl.camodev.utiles.ocr.OcrPreprocessor;
+import cl.camodev.utiles.ocr.OcrResultCache;
+import cl.camodev.utiles.ocr.TesseractEnginePool;
+import cl.camodev.utiles.ocr.TesseractEnginePool.EngineKey;
 import cl.camodev.wosbot.ot.DTOPoint;
 import cl.camodev.wosbot.ot.DTOTesseractSettings;
-import net.sourceforge.tess4j.Tesseract;
 import net.sourceforge.tess4j.TesseractException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,6 +31,22 @@ public class UtilOCR {
 
     private static final Logger log = LoggerFactory.getLogger(UtilOCR.class);
 
+    private static final TesseractEnginePool ENGINE_POOL = TesseractEnginePool.getInstance();
+
+    private static final OcrResultCache RESULT_CACHE = OcrResultCache.getInstance();
+
+    private static final DigitRecognizer DIGIT_RECOGNIZER = DigitRecognizer.getInstance();
+
+    /**
+     * Initializes the engine used by {@link #ocrFromRegion(BufferedImage, DTOPoint, DTOPoint, String)}
+     * ahead of the first read, so the first task does not pay for loading the traineddata.
+     *
+     * @param language Language code for Tesseract.
+     */
+    public static void prewarm(String language) {
+        ENGINE_POOL.prewarm(lineEngine(language), 1);
+    }
+
     /**
      * Performs OCR on a specified region of a BufferedImage using Tesseract.
      * 
@@ -45,52 +66,21 @@ public class UtilOCR {
             throw new IllegalArgumentException("Image cannot be null.");
         }
 
-        int x = (int) Math.min(p1.getX(), p2.getX());
-        int y = (int) Math.min(p1.getY(), p2.getY());
-        int width = (int) Math.abs(p1.getX() - p2.getX());
-        int height = (int) Math.abs(p1.getY() - p2.getY());
+        int x = Math.min(p1.getX(), p2.getX());
+        int y = Math.min(p1.getY(), p2.getY());
+        int width = Math.abs(p1.getX() - p2.getX());
+        int height = Math.abs(p1.getY() - p2.getY());
 
         if (x + width > image.getWidth() || y + height > image.getHeight()) {
             throw new IllegalArgumentException("Specified region exceeds image bounds.");
         }
 
-        BufferedImage subImage = image.getSubimage(x, y, width, height);
-
-        // Upscale x2 for clarity
-        BufferedImage resizedImage = new BufferedImage(width * 2, height * 2, subImage.getType());
-        Graphics2D g2d = resizedImage.createGraphics();
-        g2d.drawImage(subImage, 0, 0, width * 2, height * 2, null);
-        g2d.dispose();
-
-        //Optional: dump debug images to project temp directory
-//        try {
-//            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-//            ImageIO.write(resizedImage, "png", baos);
-//
-//            // Create temp directory in project root if it doesn't exist
-//            java.nio.file.Path projectRoot = java.nio.file.Paths.get(System.getProperty("user.dir"));
-//            java.nio.file.Path tempDir = projectRoot.resolve("temp");
-//            if (!java.nio.file.Files.exists(tempDir)) {
-//                java.nio.file.Files.createDirectories(tempDir);
-//            }
-//
-//            // Generate unique filename with timestamp
-//            String timestamp = String.valueOf(System.currentTimeMillis());
-//            java.nio.file.Path outputPath = tempDir.resolve("img_cut_resized-" + timestamp + ".png");
-//            java.nio.file.Files.write(outputPath, baos.toByteArray());
-//        } catch (IOException e) {
-//            e.printStackTrace();
-//        }
-
-        Tesseract tesseract = new Tesseract();
-        tesseract.setDatapath("lib/tesseract");
-        tesseract.setLanguage(language);
-
-        // Configurations to improve numeric OCR
-        tesseract.setPageSegMode(7); // single line
-        tesseract.setOcrEngineMode(1); // LSTM only
-
-        return tesseract.doOCR(resizedImage).replace("\n", "").replace("\r", "").trim();
+        Mat region = bufferedImageToMat(image.getSubimage(x, y, width, height));
+        try {
+            return ocrFromMat(region, lineEngine(language), null);
+        } finally {
+            region.release();
+        }
     }
 
     /**
@@ -111,147 +101,246 @@ public class UtilOCR {
             throw new IllegalArgumentException("Image cannot be null.");
         }
 
-        int x = (int) java.lang.Math.min(p1.getX(), p2.getX());
-        int y = (int) java.lang.Math.min(p1.getY(), p2.getY());
-        int width = (int) java.lang.Math.abs(p1.getX() - p2.getX());
-        int height = (int) java.lang.Math.abs(p1.getY() - p2.getY());
+        int x = Math.min(p1.getX(), p2.getX());
+        int y = Math.min(p1.getY(), p2.getY());
+        int width = Math.abs(p1.getX() - p2.getX());
+        int height = Math.abs(p1.getY() - p2.getY());
 
         if (x + width > image.getWidth() || y + height > image.getHeight()) {
             throw new IllegalArgumentException("Specified region exceeds image bounds.");
         }
 
-        // Stage 0: Raw captured region
-        BufferedImage rawImage = image.getSubimage(x, y, width, height);
+        Mat region = bufferedImageToMat(image.getSubimage(x, y, width, height));
+        try {
+            return ocrFromMat(region, settingsEngine(settings), settings);
+        } finally {
+            region.release();
+        }
+    }
 
-        // Stage 1: Cutted/Upscaled x2 for clarity
-        BufferedImage cuttedImage = new BufferedImage(width * 2, height * 2, rawImage.getType());
-        Graphics2D g2d = cuttedImage.createGraphics();
-        g2d.drawImage(rawImage, 0, 0, width * 2, height * 2, null);
-        g2d.dispose();
-
-        // Stage 2: Processed image (with background removal if requested)
-        BufferedImage processedImage = cuttedImage;
-        if (settings.isRemoveBackground()) {
-            processedImage = removeBackground(cuttedImage, settings.getTextColor());
+    /**
+     * Performs OCR on a region of an already captured frame.
+     *
+     * @param frame    Captured frame to read from.
+     * @param p1       Top-left point that defines the region.
+     * @param p2       Bottom-right point that defines the region.
+     * @param language Language code for Tesseract.
+     * @return Extracted text from the specified region.
+     * @throws TesseractException       If an error occurs during OCR processing.
+     * @throws IllegalArgumentException If the frame is null or the specified region
+     *                                  is invalid.
+     */
+    public static String ocrFromRegion(ScreenFrame frame, DTOPoint p1, DTOPoint p2, String language)
+            throws TesseractException {
+        Mat region = frameRegion(frame, p1, p2);
+        try {
+            return ocrFromMat(region, lineEngine(language), null);
+        } finally {
+            region.release();
         }
+    }
 
-        // Optional: dump debug images to project temp directory if debug flag is enabled
-        if (settings.isDebug()) {
-            try {
-                // Create temp directory in project root if it doesn't exist
-                Path projectRoot = Paths.get(System.getProperty("user.dir"));
-                Path tempDir = projectRoot.resolve("temp");
-                if (!Files.exists(tempDir)) {
-                    Files.createDirectories(tempDir);
-                }
-                
-                // Generate unique filename with timestamp
-                String timestamp = String.valueOf(System.currentTimeMillis());
-                
-                // Save stage 0: raw (complete original image without cropping)
-                ByteArrayOutputStream baos0 = new java.io.ByteArrayOutputStream();
-                ImageIO.write(image, "png", baos0);
-                Path outputPath0 = tempDir.resolve(timestamp + "_0_raw.png");
-                Files.write(outputPath0, baos0.toByteArray());
-                
-                // Save stage 1: cutted
-                ByteArrayOutputStream baos1 = new java.io.ByteArrayOutputStream();
-                ImageIO.write(cuttedImage, "png", baos1);
-                Path outputPath1 = tempDir.resolve(timestamp + "_1_cut.png");
-                Files.write(outputPath1, baos1.toByteArray());
-                
-                // Save stage 2: processed
-                ByteArrayOutputStream baos2 = new ByteArrayOutputStream();
-                ImageIO.write(processedImage, "png", baos2);
-                Path outputPath2 = tempDir.resolve(timestamp + "_2_processed.png");
-                Files.write(outputPath2, baos2.toByteArray());
-            } catch (IOException e) {
-                log.error("Failed to save debug images: {}", e.getMessage());
-            }
+    /**
+     * Performs OCR on a region of an already captured frame with custom settings.
+     *
+     * @param frame    Captured frame to read from.
+     * @param p1       Top-left point that defines the region.
+     * @param p2       Bottom-right point that defines the region.
+     * @param settings DTOTesseractSettings containing OCR configuration.
+     * @return Extracted text from the specified region.
+     * @throws TesseractException       If an error occurs during OCR processing.
+     * @throws IllegalArgumentException If the frame is null or the specified region
+     *                                  is invalid.
+     */
+    public static String ocrFromRegion(ScreenFrame frame, DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings)
+            throws TesseractException {
+        Mat region = frameRegion(frame, p1, p2);
+        try {
+            return ocrFromMat(region, settingsEngine(settings), settings);
+        } finally {
+            region.release();
         }
+    }
 
-        Tesseract tesseract = new Tesseract();
-        tesseract.setDatapath("lib/tesseract");
-        tesseract.setLanguage("eng");
+    /**
+     * Reads a numeric string (digits and {@code / : , .} separators) on a region of an already
+     * captured frame. The glyphs are matched against learned samples of the game font first;
+     * Tesseract is only used when that read is not confident, and its result then teaches the
+     * {@link DigitRecognizer}. A sample of the confident reads is also checked against Tesseract.
+     *
+     * @param frame    Captured frame to read from.
+     * @param p1       Top-left point that defines the region.
+     * @param p2       Bottom-right point that defines the region.
+     * @param settings DTOTesseractSettings containing OCR configuration (may be {@code null}).
+     * @param language Tesseract language used when {@code settings} is {@code null}.
+     * @return Extracted text from the specified region.
+     * @throws TesseractException       If an error occurs during OCR processing.
+     * @throws IllegalArgumentException If the frame is null or the specified region
+     *                                  is invalid.
+     */
+    public static String ocrDigitsFromRegion(ScreenFrame frame, DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings,
+            String language) throws TesseractException {
+        return ocrDigitsFromRegion(DIGIT_RECOGNIZER, frame, p1, p2, settings, language);
+    }
 
-        // Apply optional settings if provided
-        if (settings.hasPageSegMode()) {
-            tesseract.setPageSegMode(settings.getPageSegMode());
+    /**
+     * Same as {@link #ocrDigitsFromRegion(ScreenFrame, DTOPoint, DTOPoint, DTOTesseractSettings, String)}
+     * with a given recognizer, e.g. one isolated from the shared samples.
+     */
+    public static String ocrDigitsFromRegion(DigitRecognizer recognizer, ScreenFrame frame, DTOPoint p1, DTOPoint p2,
+            DTOTesseractSettings settings, String language) throws TesseractException {
+        Mat region = frameRegion(frame, p1, p2);
+        try {
+            DigitRecognizer.Result result = recognizer.recognize(region, settings);
+            boolean crossCheck = result.isConfident() && recognizer.shouldCrossCheck();
+            if (result.isConfident() && !crossCheck) {
+                return result.text();
+            }
+
+            String text = settings != null ? ocrFromMat(region, settingsEngine(settings), settings)
+                    : ocrFromMat(region, lineEngine(language), null);
+            if (crossCheck) {
+                recognizer.crossCheck(region, settings, result, text);
+            } else {
+                recognizer.learn(region, settings, text);
+            }
+            return text;
+        } finally {
+            region.release();
         }
+    }
+
+    /**
+     * Returns the cache holding the text of recently read regions.
+     */
+    public static OcrResultCache getResultCache() {
+        return RESULT_CACHE;
+    }
+
+    // Single line, LSTM only: configurations to improve numeric OCR
+    private static EngineKey lineEngine(String language) {
+        return new EngineKey(language, 7, 1, null);
+    }
+
+    // Optional settings are applied when the pooled engine is created
+    private static EngineKey settingsEngine(DTOTesseractSettings settings) {
+        return new EngineKey("eng", settings.getPageSegMode(), settings.getOcrEngineMode(),
+                settings.hasAllowedChars() ? settings.getAllowedChars() : null);
+    }
 
-        if (settings.hasOcrEngineMode()) {
-            tesseract.setOcrEngineMode(settings.getOcrEngineMode());
+    /**
+     * Upscales and preprocesses a BGR region, then runs OCR on it. Regions whose pixels and
+     * configuration match a recent read are answered from the result cache.
+     *
+     * @param settings Preprocessing settings, or {@code null} for a plain upscale
+     */
+    private static String ocrFromMat(Mat region, EngineKey engine, DTOTesseractSettings settings) throws TesseractException {
+        boolean debug = settings != null && settings.isDebug();
+        OcrResultCache.Key cacheKey = null;
+        if (!debug) {
+            cacheKey = OcrResultCache.key(regionBytes(region), region.cols(), region.rows(),
+                    settings != null ? engine.language() + "|" + settings : engine.toString());
+            String cached = RESULT_CACHE.get(cacheKey);
+            if (cached != null) {
+                return cached;
+            }
         }
 
-        // Apply allowed characters whitelist if provided
-        if (settings.hasAllowedChars()) {
-            tesseract.setVariable("tessedit_char_whitelist", settings.getAllowedChars());
+        // Stage 1: Cutted/Upscaled x2 for clarity
+        Mat cutted = OcrPreprocessor.upscale(region);
+
+        // Stage 2: Processed image (background removal and preprocessing stages, if requested)
+        Mat processed = settings != null ? OcrPreprocessor.process(cutted, settings) : cutted;
+        try {
+            BufferedImage processedImage = matToBufferedImage(processed);
+
+            // Optional: dump debug images to project temp directory if debug flag is enabled
+            if (debug) {
+                saveDebugImages(matToBufferedImage(region), matToBufferedImage(cutted), processedImage);
+            }
+
+            String text = ENGINE_POOL.recognize(engine, processedImage).replace("\n", "").replace("\r", "").trim();
+            if (cacheKey != null) {
+                RESULT_CACHE.put(cacheKey, text);
+            }
+            return text;
+        } finally {
+            if (processed != cutted) {
+                processed.release();
+            }
+            cutted.release();
         }
+    }
 
-        return tesseract.doOCR(processedImage).replace("\n", "").replace("\r", "").trim();
+    /**
+     * Returns a view of a frame region; the pixels are only copied by the upscale.
+     */
+    private static Mat frameRegion(ScreenFrame frame, DTOPoint p1, DTOPoint p2) {
+        if (frame == null) {
+            throw new IllegalArgumentException("Image cannot be null.");
+        }
+        int x = Math.min(p1.getX(), p2.getX());
+        int y = Math.min(p1.getY(), p2.getY());
+        DTOPoint size = regionSize(p1, p2);
+        if (x < 0 || y < 0 || x + size.getX() > frame.getWidth() || y + size.getY() > frame.getHeight()) {
+            throw new IllegalArgumentException("Specified region exceeds image bounds.");
+        }
+        return frame.getMat().submat(new Rect(x, y, size.getX(), size.getY()));
     }
 
     /**
-     * Removes background from an image using OpenCV.
-     * Converts pixels matching the target color to black, and everything else to white.
-     * 
-     * @param image     Image to process.
-     * @param textColor Target text color (java.awt.Color with RGB values).
-     * @return Processed image with target color converted to black and background to white.
+     * Copies the pixels of a (possibly non continuous) Mat, row major without padding.
      */
-    private static BufferedImage removeBackground(BufferedImage image, Color textColor) {
-        if (textColor == null) {
-            return image;
+    private static byte[] regionBytes(Mat region) {
+        int rowLength = region.cols() * (int) region.elemSize();
+        byte[] data = new byte[rowLength * region.rows()];
+        if (region.isContinuous()) {
+            region.get(0, 0, data);
+        } else {
+            byte[] row = new byte[rowLength];
+            for (int r = 0; r < region.rows(); r++) {
+                region.get(r, 0, row);
+                System.arraycopy(row, 0, data, r * rowLength, rowLength);
+            }
         }
+        return data;
+    }
 
+    private static void saveDebugImages(BufferedImage raw, BufferedImage cutted, BufferedImage processed) {
         try {
-            // Convert BufferedImage to OpenCV Mat
-            Mat src = bufferedImageToMat(image);
-            
-            // Extract RGB values from the Color object
-            int targetR = textColor.getRed();
-            int targetG = textColor.getGreen();
-            int targetB = textColor.getBlue();
-            
-            // Create a result Mat (BGR format for OpenCV)
-            Mat result = new Mat(src.rows(), src.cols(), CvType.CV_8UC3);
-            
-            // Threshold for color similarity (adjust as needed)
-            int threshold = 45;
-            
-            // Process each pixel
-            for (int y = 0; y < src.rows(); y++) {
-                for (int x = 0; x < src.cols(); x++) {
-                    double[] pixel = src.get(y, x);
-                    
-                    // OpenCV uses BGR format, so we need to convert
-                    int b = (int) pixel[0];
-                    int g = (int) pixel[1];
-                    int r = (int) pixel[2];
-                    
-                    // Calculate color distance
-                    int distance = Math.abs(r - targetR) + Math.abs(g - targetG) + Math.abs(b - targetB);
-                    
-                    if (distance < threshold) {
-                        // This pixel matches the target color - convert to BLACK
-                        result.put(y, x, new double[]{0, 0, 0});
-                    } else {
-                        // This pixel is background - convert to WHITE
-                        result.put(y, x, new double[]{255, 255, 255});
-                    }
-                }
+            // Create temp directory in project root if it doesn't exist
+            Path projectRoot = Paths.get(System.getProperty("user.dir"));
+            Path tempDir = projectRoot.resolve("temp");
+            if (!Files.exists(tempDir)) {
+                Files.createDirectories(tempDir);
             }
-            
-            // Convert Mat back to BufferedImage
-            return matToBufferedImage(result);
-            
-        } catch (Exception e) {
-            // If processing fails, return original image
-            e.printStackTrace();
-            return image;
+
+            // Generate unique filename with timestamp
+            String timestamp = String.valueOf(System.currentTimeMillis());
+
+            // Save stage 0: raw captured region
+            ByteArrayOutputStream baos0 = new ByteArrayOutputStream();
+            ImageIO.write(raw, "png", baos0);
+            Files.write(tempDir.resolve(timestamp + "_0_raw.png"), baos0.toByteArray());
+
+            // Save stage 1: cutted
+            ByteArrayOutputStream baos1 = new ByteArrayOutputStream();
+            ImageIO.write(cutted, "png", baos1);
+            Files.write(tempDir.resolve(timestamp + "_1_cut.png"), baos1.toByteArray());
+
+            // Save stage 2: processed
+            ByteArrayOutputStream baos2 = new ByteArrayOutputStream();
+            ImageIO.write(processed, "png", baos2);
+            Files.write(tempDir.resolve(timestamp + "_2_processed.png"), baos2.toByteArray());
+        } catch (IOException e) {
+            log.error("Failed to save debug images: {}", e.getMessage());
         }
     }
-    
+
+    private static DTOPoint regionSize(DTOPoint p1, DTOPoint p2) {
+        return new DTOPoint(Math.abs(p1.getX() - p2.getX()), Math.abs(p1.getY() - p2.getY()));
+    }
+
     /**
      * Converts a BufferedImage to an OpenCV Mat.
      * 
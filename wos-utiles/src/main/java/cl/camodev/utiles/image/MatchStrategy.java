@@ -0,0 +1,17 @@
+package cl.camodev.utiles.image;
+
+/**
+ * How a template is matched against a search region.
+ */
+public enum MatchStrategy {
+
+	/** Single TM_CCOEFF_NORMED pass over the region at full resolution. */
+	FULL_RESOLUTION,
+
+	/**
+	 * Coarse pass on a half resolution copy of the region and template, then a full resolution
+	 * refinement of the best candidate windows only. Templates too small to survive the
+	 * downscale, or opted out, are matched at full resolution.
+	 */
+	PYRAMID
+}
@@ -0,0 +1,70 @@
+package cl.camodev.utiles.image;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * 256 bit difference hash (dHash) of an image.
+ * <p>
+ * The image is shrunk to 17x16 gray cells and each bit tells whether a cell is darker than its
+ * right neighbour. Unchanged screens hash identically, small animations flip only a few bits,
+ * and a different screen or a dialog on top flips many, so the Hamming distance between two
+ * hashes is a cheap "did the screen change" test.
+ */
+public final class PerceptualHash {
+
+	private static final int HASH_SIZE = 16;
+
+	private final long[] bits;
+
+	private PerceptualHash(long[] bits) {
+		this.bits = bits;
+	}
+
+	/**
+	 * Hashes a grayscale image.
+	 */
+	public static PerceptualHash of(Mat gray) {
+		Mat small = new Mat();
+		try {
+			Imgproc.resize(gray, small, new Size(HASH_SIZE + 1, HASH_SIZE), 0, 0, Imgproc.INTER_AREA);
+			byte[] cells = new byte[(HASH_SIZE + 1) * HASH_SIZE];
+			small.get(0, 0, cells);
+
+			long[] bits = new long[HASH_SIZE * HASH_SIZE / 64];
+			int bit = 0;
+			for (int row = 0; row < HASH_SIZE; row++) {
+				int rowStart = row * (HASH_SIZE + 1);
+				for (int col = 0; col < HASH_SIZE; col++, bit++) {
+					if ((cells[rowStart + col] & 0xFF) < (cells[rowStart + col + 1] & 0xFF)) {
+						bits[bit >>> 6] |= 1L << (bit & 63);
+					}
+				}
+			}
+			return new PerceptualHash(bits);
+		} finally {
+			small.release();
+		}
+	}
+
+	/**
+	 * @return number of differing bits (0-256)
+	 */
+	public int distance(PerceptualHash other) {
+		int distance = 0;
+		for (int i = 0; i < bits.length; i++) {
+			distance += Long.bitCount(bits[i] ^ other.bits[i]);
+		}
+		return distance;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder hex = new StringBuilder();
+		for (long word : bits) {
+			hex.append(String.format("%016x", word));
+		}
+		return hex.toString();
+	}
+}
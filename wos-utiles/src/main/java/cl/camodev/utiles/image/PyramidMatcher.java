@@ -0,0 +1,210 @@
+package cl.camodev.utiles.image;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Coarse-to-fine template matching.
+ * <p>
+ * The region and the template are matched at half resolution first. Only the best coarse
+ * candidates are then matched again at full resolution, in a window a few pixels larger than
+ * the template, so the scores returned are full resolution TM_CCOEFF_NORMED scores.
+ */
+public final class PyramidMatcher {
+
+	/** Templates with a side shorter than this lose too much detail when downscaled. */
+	public static final int MIN_TEMPLATE_SIDE = 24;
+
+	/** Templates with a lower grayscale deviation are too flat for the coarse scores to rank candidates. */
+	public static final double MIN_TEMPLATE_STDDEV = 20.0;
+
+	// How far below the requested threshold a coarse score may be and still be refined
+	private static final double COARSE_SLACK = 0.15;
+
+	// Candidates refined when looking for a single match
+	private static final int SINGLE_CANDIDATES = 3;
+
+	// Upper bound of candidates refined when looking for every match
+	private static final int MAX_CANDIDATES = 64;
+
+	// Extra pixels around a candidate refined at full resolution
+	private static final int REFINE_PADDING = 4;
+
+	/**
+	 * A match position (top-left corner, relative to the searched image) and its score (0-1).
+	 */
+	public record Match(int x, int y, double score) {
+	}
+
+	private PyramidMatcher() {
+	}
+
+	/**
+	 * Whether a template is big enough, relative to the region too, for a coarse pass to help.
+	 */
+	public static boolean isApplicable(Mat image, Mat template) {
+		return template.cols() >= MIN_TEMPLATE_SIDE && template.rows() >= MIN_TEMPLATE_SIDE
+				&& image.cols() >= template.cols() * 2 && image.rows() >= template.rows() * 2;
+	}
+
+	/**
+	 * Downscales an image to the coarse level.
+	 */
+	public static Mat downscale(Mat image) {
+		Mat coarse = new Mat();
+		Imgproc.pyrDown(image, coarse);
+		return coarse;
+	}
+
+	/**
+	 * Finds the best match of the template in the image.
+	 *
+	 * @param coarseTemplate Template already downscaled with {@link #downscale(Mat)}
+	 * @param threshold      Score (0-1) the caller will accept, used to discard coarse candidates
+	 * @return The best refined match, a full resolution match of the whole image if candidates
+	 *         were worth refining but none could be, or {@code null} if no candidate came close
+	 *         to the threshold
+	 */
+	public static Match findBest(Mat image, Mat template, Mat coarseTemplate, double threshold) {
+		List<Match> candidates = coarseCandidates(image, coarseTemplate, threshold, SINGLE_CANDIDATES);
+		if (candidates.isEmpty()) {
+			return null;
+		}
+
+		Match best = null;
+		boolean refinable = false;
+		for (Match candidate : candidates) {
+			if (candidate.score() < threshold - COARSE_SLACK) {
+				continue;
+			}
+			refinable = true;
+			Match refined = refine(image, template, candidate);
+			if (refined != null && (best == null || refined.score() > best.score())) {
+				best = refined;
+			}
+		}
+		if (best == null && refinable) {
+			// Coarse positions are approximate, never return one as a match
+			return matchFull(image, template);
+		}
+		return best;
+	}
+
+	/**
+	 * Finds up to {@code maxResults} non-overlapping matches scoring at least {@code threshold},
+	 * best first.
+	 */
+	public static List<Match> findAll(Mat image, Mat template, Mat coarseTemplate, double threshold, int maxResults) {
+		int limit = maxResults <= 0 ? MAX_CANDIDATES : Math.min(maxResults * 2, MAX_CANDIDATES);
+		List<Match> refined = new ArrayList<>();
+		for (Match candidate : coarseCandidates(image, coarseTemplate, threshold, limit)) {
+			if (candidate.score() < threshold - COARSE_SLACK) {
+				break;
+			}
+			Match match = refine(image, template, candidate);
+			if (match != null && match.score() >= threshold) {
+				refined.add(match);
+			}
+		}
+		refined.sort(Comparator.comparingDouble(Match::score).reversed());
+
+		// Two coarse candidates can refine to the same spot
+		List<Match> results = new ArrayList<>();
+		for (Match match : refined) {
+			boolean overlaps = results.stream().anyMatch(kept -> Math.abs(kept.x() - match.x()) < template.cols() / 2
+					&& Math.abs(kept.y() - match.y()) < template.rows() / 2);
+			if (!overlaps) {
+				results.add(match);
+				if (maxResults > 0 && results.size() >= maxResults) {
+					break;
+				}
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Best coarse candidates, in full resolution coordinates, best first.
+	 */
+	private static List<Match> coarseCandidates(Mat image, Mat coarseTemplate, double threshold, int limit) {
+		List<Match> candidates = new ArrayList<>();
+		Mat coarseImage = downscale(image);
+		Mat result = new Mat();
+		try {
+			if (coarseImage.cols() < coarseTemplate.cols() || coarseImage.rows() < coarseTemplate.rows()) {
+				return candidates;
+			}
+			Imgproc.matchTemplate(coarseImage, coarseTemplate, result, Imgproc.TM_CCOEFF_NORMED);
+
+			int halfWidth = coarseTemplate.cols() / 2;
+			int halfHeight = coarseTemplate.rows() / 2;
+			while (candidates.size() < limit) {
+				Core.MinMaxLocResult mmr = Core.minMaxLoc(result);
+				candidates.add(new Match((int) mmr.maxLoc.x * 2, (int) mmr.maxLoc.y * 2, mmr.maxVal));
+				if (mmr.maxVal < threshold - COARSE_SLACK) {
+					break;
+				}
+
+				int suppressX = Math.max(0, (int) mmr.maxLoc.x - halfWidth);
+				int suppressY = Math.max(0, (int) mmr.maxLoc.y - halfHeight);
+				int suppressWidth = Math.min(coarseTemplate.cols(), result.cols() - suppressX);
+				int suppressHeight = Math.min(coarseTemplate.rows(), result.rows() - suppressY);
+				if (suppressWidth <= 0 || suppressHeight <= 0) {
+					break;
+				}
+				Mat suppressArea = result.submat(new Rect(suppressX, suppressY, suppressWidth, suppressHeight));
+				suppressArea.setTo(new Scalar(-1));
+				suppressArea.release();
+			}
+		} finally {
+			coarseImage.release();
+			result.release();
+		}
+		return candidates;
+	}
+
+	/**
+	 * Matches the template over the whole image at full resolution.
+	 */
+	private static Match matchFull(Mat image, Mat template) {
+		Mat result = new Mat();
+		try {
+			Imgproc.matchTemplate(image, template, result, Imgproc.TM_CCOEFF_NORMED);
+			Core.MinMaxLocResult mmr = Core.minMaxLoc(result);
+			return new Match((int) mmr.maxLoc.x, (int) mmr.maxLoc.y, mmr.maxVal);
+		} finally {
+			result.release();
+		}
+	}
+
+	/**
+	 * Matches the template at full resolution around a coarse candidate.
+	 */
+	private static Match refine(Mat image, Mat template, Match candidate) {
+		int x1 = Math.max(0, candidate.x() - REFINE_PADDING);
+		int y1 = Math.max(0, candidate.y() - REFINE_PADDING);
+		int x2 = Math.min(image.cols(), candidate.x() + template.cols() + REFINE_PADDING);
+		int y2 = Math.min(image.rows(), candidate.y() + template.rows() + REFINE_PADDING);
+		if (x2 - x1 < template.cols() || y2 - y1 < template.rows()) {
+			return null;
+		}
+
+		Mat window = image.submat(new Rect(x1, y1, x2 - x1, y2 - y1));
+		Mat result = new Mat();
+		try {
+			Imgproc.matchTemplate(window, template, result, Imgproc.TM_CCOEFF_NORMED);
+			Core.MinMaxLocResult mmr = Core.minMaxLoc(result);
+			return new Match(x1 + (int) mmr.maxLoc.x, y1 + (int) mmr.maxLoc.y, mmr.maxVal);
+		} finally {
+			window.release();
+			result.release();
+		}
+	}
+}
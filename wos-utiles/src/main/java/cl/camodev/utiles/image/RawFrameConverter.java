@@ -0,0 +1,137 @@
+package cl.camodev.utiles.image;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Converts raw framebuffer pixels, as reported by ddmlib's {@code RawImage}, into a tightly
+ * packed BGR buffer that can be handed to OpenCV.
+ * <p>
+ * The usual layouts get dedicated loops working on primitives only: 32 bpp with byte aligned
+ * 8 bit channels (RGBA8888, BGRA8888...) reads each pixel as a single little endian int, and
+ * 16 bpp RGB565 expands the 5/6 bit channels to 8 bits. Any other layout goes through a generic
+ * bit extraction loop.
+ */
+public final class RawFrameConverter {
+
+	private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+	/**
+	 * Pixel layout of a raw framebuffer. Offsets and lengths are in bits, as in ddmlib's
+	 * {@code RawImage}; an offset of -1 or a length of 0 means the channel is absent.
+	 */
+	public record Layout(int bpp, int redOffset, int redLength, int greenOffset, int greenLength, int blueOffset,
+			int blueLength) {
+
+		/** Layout of RGBA8888 framebuffers (the default on most emulators). */
+		public static final Layout RGBA_8888 = new Layout(32, 0, 8, 8, 8, 16, 8);
+
+		/** Layout of RGB565 framebuffers. */
+		public static final Layout RGB_565 = new Layout(16, 11, 5, 5, 6, 0, 5);
+
+		private boolean isByteAligned() {
+			return isByteChannel(redOffset, redLength) && isByteChannel(greenOffset, greenLength)
+					&& isByteChannel(blueOffset, blueLength);
+		}
+
+		private static boolean isByteChannel(int offset, int length) {
+			return offset >= 0 && length == 8 && offset % 8 == 0;
+		}
+	}
+
+	private RawFrameConverter() {
+	}
+
+	/**
+	 * Converts {@code width * height} pixels of {@code data} into {@code bgr}.
+	 *
+	 * @param bgr Destination, at least {@code width * height * 3} bytes; it can be reused
+	 *            between frames
+	 */
+	public static void toBgr(byte[] data, int width, int height, Layout layout, byte[] bgr) {
+		int pixelCount = width * height;
+		int bytesPerPixel = layout.bpp() / 8;
+		if (data.length < pixelCount * bytesPerPixel || bgr.length < pixelCount * 3) {
+			throw new IllegalArgumentException("Buffers do not match frame dimensions " + width + "x" + height);
+		}
+
+		if (layout.bpp() == 32 && layout.isByteAligned()) {
+			convert32(data, pixelCount, layout, bgr);
+		} else if (layout.bpp() == 16 && layout.equals(Layout.RGB_565)) {
+			convert565(data, pixelCount, bgr);
+		} else if (layout.bpp() == 24 && layout.isByteAligned()) {
+			convert24(data, pixelCount, layout, bgr);
+		} else {
+			convertGeneric(data, pixelCount, layout, bgr);
+		}
+	}
+
+	private static void convert32(byte[] data, int pixelCount, Layout layout, byte[] bgr) {
+		int redShift = layout.redOffset();
+		int greenShift = layout.greenOffset();
+		int blueShift = layout.blueOffset();
+		for (int in = 0, out = 0, end = pixelCount * 4; in < end; in += 4, out += 3) {
+			int pixel = (int) INT_LE.get(data, in);
+			bgr[out] = (byte) (pixel >>> blueShift);
+			bgr[out + 1] = (byte) (pixel >>> greenShift);
+			bgr[out + 2] = (byte) (pixel >>> redShift);
+		}
+	}
+
+	private static void convert24(byte[] data, int pixelCount, Layout layout, byte[] bgr) {
+		int red = layout.redOffset() / 8;
+		int green = layout.greenOffset() / 8;
+		int blue = layout.blueOffset() / 8;
+		for (int in = 0, out = 0, end = pixelCount * 3; in < end; in += 3, out += 3) {
+			bgr[out] = data[in + blue];
+			bgr[out + 1] = data[in + green];
+			bgr[out + 2] = data[in + red];
+		}
+	}
+
+	private static void convert565(byte[] data, int pixelCount, byte[] bgr) {
+		for (int in = 0, out = 0, end = pixelCount * 2; in < end; in += 2, out += 3) {
+			int pixel = (data[in] & 0xFF) | (data[in + 1] & 0xFF) << 8;
+			int r = pixel >>> 11;
+			int g = (pixel >>> 5) & 0x3F;
+			int b = pixel & 0x1F;
+			bgr[out] = (byte) (b << 3 | b >>> 2);
+			bgr[out + 1] = (byte) (g << 2 | g >>> 4);
+			bgr[out + 2] = (byte) (r << 3 | r >>> 2);
+		}
+	}
+
+	private static void convertGeneric(byte[] data, int pixelCount, Layout layout, byte[] bgr) {
+		int bytesPerPixel = layout.bpp() / 8;
+		for (int index = 0, out = 0; index < pixelCount; index++, out += 3) {
+			int offset = index * bytesPerPixel;
+			long pixel = 0;
+			for (int i = 0; i < bytesPerPixel; i++) {
+				pixel |= (long) (data[offset + i] & 0xFF) << (8 * i);
+			}
+			bgr[out] = channel(pixel, layout.blueOffset(), layout.blueLength());
+			bgr[out + 1] = channel(pixel, layout.greenOffset(), layout.greenLength());
+			bgr[out + 2] = channel(pixel, layout.redOffset(), layout.redLength());
+		}
+	}
+
+	/**
+	 * Extracts a channel and scales it to 8 bits.
+	 */
+	private static byte channel(long pixel, int offset, int length) {
+		if (offset < 0 || length <= 0) {
+			return 0;
+		}
+		int value = (int) ((pixel >>> offset) & ((1L << length) - 1));
+		if (length >= 8) {
+			return (byte) (value >>> (length - 8));
+		}
+		// Replicate the high bits into the low ones so full intensity maps to 255
+		int scaled = value << (8 - length);
+		if (2 * length > 8) {
+			scaled |= value >>> (2 * length - 8);
+		}
+		return (byte) scaled;
+	}
+}
@@ -0,0 +1,216 @@
+package cl.camodev.utiles.image;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.Rect;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * A single captured emulator frame held as a native OpenCV {@link Mat} in BGR order.
+ * <p>
+ * Frames are produced straight from the raw framebuffer, so template matching, OCR and
+ * color analysis can all work on the same pixels without a PNG encode/decode round trip.
+ * The PNG helpers ({@link #fromPng(byte[])} and {@link #toPng()}) are only kept as a
+ * compatibility and debugging adapter.
+ * <p>
+ * The backing {@link Mat} is shared with every consumer and must be treated as read-only.
+ * Frames are reference counted: a new frame starts with one reference, every additional
+ * holder calls {@link #retain()}, and native memory is freed when the last holder calls
+ * {@link #release()} (or by the OpenCV finalizer if nobody does).
+ */
+public final class ScreenFrame {
+
+	private final Mat bgr;
+	private final int width;
+	private final int height;
+	private final long capturedAt;
+	private Mat gray;
+	private PerceptualHash perceptualHash;
+	private int references = 1;
+
+	private ScreenFrame(Mat bgr) {
+		this.bgr = bgr;
+		this.width = bgr.cols();
+		this.height = bgr.rows();
+		this.capturedAt = System.currentTimeMillis();
+	}
+
+	/**
+	 * Creates a frame from a tightly packed BGR buffer ({@code width * height * 3} bytes).
+	 * The buffer is copied, so callers may reuse it for the next capture.
+	 */
+	public static ScreenFrame fromBgr(byte[] bgrPixels, int width, int height) {
+		if (bgrPixels == null || bgrPixels.length < width * height * 3) {
+			throw new IllegalArgumentException("BGR buffer does not match frame dimensions " + width + "x" + height);
+		}
+		Mat mat = new Mat(height, width, CvType.CV_8UC3);
+		mat.put(0, 0, bgrPixels);
+		return new ScreenFrame(mat);
+	}
+
+	/**
+	 * Compatibility adapter: decodes an encoded image (PNG, JPEG...) into a frame.
+	 *
+	 * @return the decoded frame, or {@code null} if the bytes could not be decoded
+	 */
+	public static ScreenFrame fromPng(byte[] encoded) {
+		if (encoded == null || encoded.length == 0) {
+			return null;
+		}
+		MatOfByte matOfByte = new MatOfByte(encoded);
+		Mat decoded = Imgcodecs.imdecode(matOfByte, Imgcodecs.IMREAD_COLOR);
+		matOfByte.release();
+		if (decoded.empty()) {
+			decoded.release();
+			return null;
+		}
+		return new ScreenFrame(decoded);
+	}
+
+	/**
+	 * Wraps an existing BGR {@link Mat}. The frame takes ownership of the Mat.
+	 */
+	public static ScreenFrame wrap(Mat bgrMat) {
+		if (bgrMat == null || bgrMat.empty() || bgrMat.type() != CvType.CV_8UC3) {
+			throw new IllegalArgumentException("Frame Mat must be a non-empty CV_8UC3 image");
+		}
+		return new ScreenFrame(bgrMat);
+	}
+
+	/**
+	 * Debug/compatibility adapter: encodes the frame as PNG.
+	 */
+	public byte[] toPng() {
+		MatOfByte buffer = new MatOfByte();
+		try {
+			Imgcodecs.imencode(".png", bgr, buffer);
+			return buffer.toArray();
+		} finally {
+			buffer.release();
+		}
+	}
+
+	/**
+	 * Returns the shared BGR Mat. Do not modify or release it.
+	 */
+	public Mat getMat() {
+		return bgr;
+	}
+
+	/**
+	 * Returns the shared grayscale version of this frame, converting it on first use.
+	 * Do not modify or release it.
+	 */
+	public synchronized Mat getGrayMat() {
+		if (gray == null) {
+			gray = new Mat();
+			Imgproc.cvtColor(bgr, gray, Imgproc.COLOR_BGR2GRAY);
+		}
+		return gray;
+	}
+
+	/**
+	 * Returns the perceptual hash of this frame, computing it on first use.
+	 */
+	public synchronized PerceptualHash getPerceptualHash() {
+		if (perceptualHash == null) {
+			perceptualHash = PerceptualHash.of(getGrayMat());
+		}
+		return perceptualHash;
+	}
+
+	/**
+	 * Copies the BGR bytes of a region into a new array ({@code w * h * 3} bytes, row major).
+	 */
+	public byte[] getRegionBgr(int x, int y, int w, int h) {
+		checkRegion(x, y, w, h);
+		byte[] data = new byte[w * h * 3];
+		Mat region = bgr.submat(new Rect(x, y, w, h));
+		try {
+			if (region.isContinuous()) {
+				region.get(0, 0, data);
+			} else {
+				byte[] row = new byte[w * 3];
+				for (int r = 0; r < h; r++) {
+					region.get(r, 0, row);
+					System.arraycopy(row, 0, data, r * row.length, row.length);
+				}
+			}
+		} finally {
+			region.release();
+		}
+		return data;
+	}
+
+	/**
+	 * Returns a region of the frame as a {@link BufferedImage#TYPE_3BYTE_BGR} image.
+	 */
+	public BufferedImage toBufferedImage(int x, int y, int w, int h) {
+		byte[] data = getRegionBgr(x, y, w, h);
+		BufferedImage image = new BufferedImage(w, h, BufferedImage.TYPE_3BYTE_BGR);
+		byte[] target = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+		System.arraycopy(data, 0, target, 0, data.length);
+		return image;
+	}
+
+	/**
+	 * Returns the whole frame as a {@link BufferedImage#TYPE_3BYTE_BGR} image.
+	 */
+	public BufferedImage toBufferedImage() {
+		return toBufferedImage(0, 0, width, height);
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * @return capture time in epoch milliseconds
+	 */
+	public long getCapturedAt() {
+		return capturedAt;
+	}
+
+	/**
+	 * Adds a reference to this frame. Every call must be paired with a {@link #release()}.
+	 *
+	 * @return this frame
+	 * @throws IllegalStateException if the frame was already released
+	 */
+	public synchronized ScreenFrame retain() {
+		if (references <= 0) {
+			throw new IllegalStateException("Frame already released");
+		}
+		references++;
+		return this;
+	}
+
+	/**
+	 * Drops a reference, releasing the native memory once no holder is left.
+	 */
+	public synchronized void release() {
+		if (references <= 0 || --references > 0) {
+			return;
+		}
+		bgr.release();
+		if (gray != null) {
+			gray.release();
+			gray = null;
+		}
+	}
+
+	private void checkRegion(int x, int y, int w, int h) {
+		if (x < 0 || y < 0 || w <= 0 || h <= 0 || x + w > width || y + h > height) {
+			throw new IllegalArgumentException("Specified region exceeds image bounds.");
+		}
+	}
+}
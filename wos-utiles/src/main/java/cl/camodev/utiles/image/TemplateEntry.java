@@ -0,0 +1,114 @@
+package cl.camodev.utiles.image;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfDouble;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * A loaded template with everything a search needs precomputed: the color and grayscale
+ * images, their half resolution versions for the pyramid strategy, and their contrast.
+ * <p>
+ * Entries are shared by every search on every thread and are never cloned, so the Mats must
+ * be treated as read-only (matchTemplate only reads them) and must not be released by callers.
+ */
+public final class TemplateEntry {
+
+	private final String path;
+	private final Mat color;
+	private final Mat gray;
+	private final Mat coarseColor;
+	private final Mat coarseGray;
+	private final double grayStdDev;
+	// Keeps the memory the Mats point into (e.g. a mapped template pack) alive with the entry
+	private final Object storage;
+
+	/**
+	 * Builds an entry from a decoded color template. The entry takes ownership of the Mat.
+	 */
+	public TemplateEntry(String path, Mat color) {
+		this(path, color, toGray(color));
+	}
+
+	/**
+	 * Builds an entry from already available color and grayscale planes. The entry takes
+	 * ownership of both Mats.
+	 */
+	public TemplateEntry(String path, Mat color, Mat gray) {
+		this(path, color, gray, null);
+	}
+
+	/**
+	 * Builds an entry whose planes wrap memory owned by {@code storage}, which the entry keeps
+	 * reachable for as long as it is itself.
+	 */
+	public TemplateEntry(String path, Mat color, Mat gray, Object storage) {
+		this.path = path;
+		this.storage = storage;
+		this.color = color;
+		this.gray = gray;
+
+		boolean coarse = color.cols() >= PyramidMatcher.MIN_TEMPLATE_SIDE && color.rows() >= PyramidMatcher.MIN_TEMPLATE_SIDE;
+		this.coarseColor = coarse ? PyramidMatcher.downscale(color) : null;
+		this.coarseGray = coarse ? PyramidMatcher.downscale(gray) : null;
+
+		MatOfDouble mean = new MatOfDouble();
+		MatOfDouble stdDev = new MatOfDouble();
+		Core.meanStdDev(gray, mean, stdDev);
+		this.grayStdDev = stdDev.get(0, 0)[0];
+		mean.release();
+		stdDev.release();
+	}
+
+	private static Mat toGray(Mat color) {
+		Mat gray = new Mat();
+		Imgproc.cvtColor(color, gray, Imgproc.COLOR_BGR2GRAY);
+		return gray;
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	/**
+	 * @return the shared BGR template (read-only)
+	 */
+	public Mat getColor() {
+		return color;
+	}
+
+	/**
+	 * @return the shared grayscale template (read-only)
+	 */
+	public Mat getGray() {
+		return gray;
+	}
+
+	/**
+	 * @return the shared half resolution template, or {@code null} if the template is too small
+	 *         for the pyramid strategy
+	 */
+	public Mat getCoarse(boolean grayscale) {
+		return grayscale ? coarseGray : coarseColor;
+	}
+
+	public Mat get(boolean grayscale) {
+		return grayscale ? gray : color;
+	}
+
+	public int getWidth() {
+		return color.cols();
+	}
+
+	public int getHeight() {
+		return color.rows();
+	}
+
+	/**
+	 * A (near) zero deviation means a flat template, for which normalized correlation is
+	 * meaningless, and a low one a template whose few details do not survive downscaling.
+	 */
+	public double getGrayStdDev() {
+		return grayStdDev;
+	}
+}
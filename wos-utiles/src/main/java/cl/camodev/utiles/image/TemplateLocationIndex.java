@@ -0,0 +1,293 @@
+package cl.camodev.utiles.image;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import cl.camodev.wosbot.ot.DTOArea;
+import cl.camodev.wosbot.ot.DTOPoint;
+
+/**
+ * Learned screen locations of templates.
+ * <p>
+ * Every successful match records the rectangle where the template was found. Searches over the
+ * whole screen can then probe the (slightly expanded) union of those rectangles first, which is
+ * a small fraction of the screen for fixed buttons, and only fall back to the full search on a
+ * miss. Entries are keyed by template resource path, so the _CH variants learn separately.
+ * <p>
+ * The learned area decays: it is the union of the matches of the current and the previous
+ * period of {@value #PERIOD_MATCHES} matches, so places where a template stopped appearing
+ * drop out instead of widening the probe forever.
+ * <p>
+ * The index is persisted to {@value #INDEX_FILE} by a background thread a few seconds after it
+ * changes, and reloaded on the next start.
+ */
+public final class TemplateLocationIndex {
+
+	private static final Logger logger = LoggerFactory.getLogger(TemplateLocationIndex.class);
+
+	private static final String INDEX_FILE = "cache/template-locations.properties";
+
+	// Pixels added around the learned area to absorb small layout shifts
+	private static final int MARGIN = 24;
+
+	// A learned area covering more than this fraction of the search area is not worth probing
+	private static final double MAX_AREA_FRACTION = 0.25;
+
+	private static final long SAVE_DELAY_MS = 5000;
+
+	// Matches of a template per decay period
+	static final int PERIOD_MATCHES = 200;
+
+	// One probe hit in this many is verified with a search of the whole requested region
+	private static final int VERIFY_INTERVAL = 50;
+
+	private static final ScheduledExecutorService saver = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "TemplateLocationIndex-save");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private static final TemplateLocationIndex instance = new TemplateLocationIndex(Paths.get(INDEX_FILE), true);
+
+	private final Path file;
+	private final Map<String, Bounds> locations = new ConcurrentHashMap<>();
+	private final AtomicLong priorHits = new AtomicLong();
+	private final AtomicLong priorMisses = new AtomicLong();
+	private final AtomicLong verifications = new AtomicLong();
+	private final AtomicLong verificationMismatches = new AtomicLong();
+	private final AtomicBoolean saveScheduled = new AtomicBoolean();
+	private volatile boolean dirty;
+
+	private TemplateLocationIndex(Path file, boolean saveOnExit) {
+		this.file = file;
+		load();
+		if (saveOnExit) {
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				if (dirty) {
+					save();
+				}
+			}));
+		}
+	}
+
+	public static TemplateLocationIndex getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Creates an index stored in {@code file}, independent of the shared one.
+	 */
+	public static TemplateLocationIndex create(Path file) {
+		return new TemplateLocationIndex(file, false);
+	}
+
+	/**
+	 * Records a match of a template at the given rectangle (in screen coordinates). The index is
+	 * saved later on a background thread, so searches never wait for the disk.
+	 */
+	public void record(String templatePath, int x, int y, int width, int height) {
+		Bounds bounds = locations.computeIfAbsent(templatePath, key -> new Bounds());
+		if (bounds.include(x, y, x + width, y + height)) {
+			dirty = true;
+			if (saveScheduled.compareAndSet(false, true)) {
+				saver.schedule(() -> {
+					saveScheduled.set(false);
+					save();
+				}, SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+			}
+		}
+	}
+
+	/**
+	 * Returns the region to probe first for a template searched inside the given area, or
+	 * {@code null} if nothing useful was learned yet.
+	 */
+	public DTOArea getSearchArea(String templatePath, DTOPoint topLeft, DTOPoint bottomRight) {
+		Bounds bounds = locations.get(templatePath);
+		if (bounds == null) {
+			return null;
+		}
+
+		int[] learned = bounds.union();
+		if (learned == null) {
+			return null;
+		}
+		int x1 = Math.max(topLeft.getX(), learned[0] - MARGIN);
+		int y1 = Math.max(topLeft.getY(), learned[1] - MARGIN);
+		int x2 = Math.min(bottomRight.getX(), learned[2] + MARGIN);
+		int y2 = Math.min(bottomRight.getY(), learned[3] + MARGIN);
+		if (x2 <= x1 || y2 <= y1) {
+			return null;
+		}
+
+		long searchArea = (long) (bottomRight.getX() - topLeft.getX()) * (bottomRight.getY() - topLeft.getY());
+		if ((long) (x2 - x1) * (y2 - y1) > searchArea * MAX_AREA_FRACTION) {
+			return null;
+		}
+		return new DTOArea(new DTOPoint(x1, y1), new DTOPoint(x2, y2));
+	}
+
+	/**
+	 * Counts the outcome of a probe of a learned area.
+	 *
+	 * @return true if this hit should be verified with a search of the whole requested region
+	 */
+	public boolean recordProbe(boolean found) {
+		if (!found) {
+			priorMisses.incrementAndGet();
+			return false;
+		}
+		return priorHits.incrementAndGet() % VERIFY_INTERVAL == 0;
+	}
+
+	/**
+	 * Counts a verification of a probe hit, and whether the whole region search found a
+	 * different or better match.
+	 */
+	public void recordVerification(boolean mismatch) {
+		verifications.incrementAndGet();
+		if (mismatch) {
+			verificationMismatches.incrementAndGet();
+		}
+	}
+
+	public long getPriorHits() {
+		return priorHits.get();
+	}
+
+	public long getPriorMisses() {
+		return priorMisses.get();
+	}
+
+	public String getStats() {
+		return String.format("Learned locations: %d, probe hits: %d, probe misses: %d, verified hits: %d (%d mismatches)",
+				locations.size(), priorHits.get(), priorMisses.get(), verifications.get(), verificationMismatches.get());
+	}
+
+	/**
+	 * Forgets every learned location.
+	 */
+	public void clear() {
+		locations.clear();
+		dirty = true;
+		save();
+	}
+
+	private void load() {
+		if (!Files.exists(file)) {
+			return;
+		}
+		Properties properties = new Properties();
+		try (InputStream in = Files.newInputStream(file)) {
+			properties.load(in);
+		} catch (IOException e) {
+			logger.warn("Could not read template location index {}: {}", file, e.getMessage());
+			return;
+		}
+
+		for (String templatePath : properties.stringPropertyNames()) {
+			String[] parts = properties.getProperty(templatePath).split(",");
+			try {
+				Bounds bounds = new Bounds();
+				bounds.include(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()),
+						Integer.parseInt(parts[2].trim()), Integer.parseInt(parts[3].trim()));
+				locations.put(templatePath, bounds);
+			} catch (RuntimeException e) {
+				logger.warn("Ignoring malformed template location for {}", templatePath);
+			}
+		}
+		logger.info("Loaded {} learned template locations", locations.size());
+	}
+
+	private synchronized void save() {
+		Properties properties = new Properties();
+		dirty = false;
+		locations.forEach((templatePath, bounds) -> {
+			String value = bounds.toString();
+			if (value != null) {
+				properties.setProperty(templatePath, value);
+			}
+		});
+
+		try {
+			if (file.getParent() != null) {
+				Files.createDirectories(file.getParent());
+			}
+			Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+			try (OutputStream out = Files.newOutputStream(tmp)) {
+				properties.store(out, "Learned template locations (minX,minY,maxX,maxY)");
+			}
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			logger.warn("Could not save template location index {}: {}", file, e.getMessage());
+		}
+	}
+
+	/**
+	 * Union of the matches of the current period and of the previous one.
+	 */
+	private static final class Bounds {
+		// {minX, minY, maxX, maxY}, or null when the period has no match
+		private int[] current;
+		private int[] previous;
+		private int matches;
+
+		/**
+		 * Adds a match, starting a new period every {@value TemplateLocationIndex#PERIOD_MATCHES} matches.
+		 *
+		 * @return true if the learned area changed
+		 */
+		private synchronized boolean include(int x1, int y1, int x2, int y2) {
+			if (++matches > PERIOD_MATCHES) {
+				previous = current;
+				current = null;
+				matches = 1;
+			}
+			int[] match = { x1, y1, x2, y2 };
+			if (current == null) {
+				current = match;
+				return true;
+			}
+			if (contains(current, match)) {
+				return false;
+			}
+			current = new int[] { Math.min(current[0], x1), Math.min(current[1], y1), Math.max(current[2], x2),
+					Math.max(current[3], y2) };
+			return true;
+		}
+
+		private synchronized int[] union() {
+			if (current == null || previous == null) {
+				return current != null ? current.clone() : previous != null ? previous.clone() : null;
+			}
+			return new int[] { Math.min(current[0], previous[0]), Math.min(current[1], previous[1]),
+					Math.max(current[2], previous[2]), Math.max(current[3], previous[3]) };
+		}
+
+		private static boolean contains(int[] outer, int[] inner) {
+			return inner[0] >= outer[0] && inner[1] >= outer[1] && inner[2] <= outer[2] && inner[3] <= outer[3];
+		}
+
+		@Override
+		public String toString() {
+			int[] union = union();
+			return union == null ? null : union[0] + "," + union[1] + "," + union[2] + "," + union[3];
+		}
+	}
+}
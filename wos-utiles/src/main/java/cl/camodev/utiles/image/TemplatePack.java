@@ -0,0 +1,296 @@
+package cl.camodev.utiles.image;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import cl.camodev.wosbot.console.enumerable.EnumTemplates;
+
+/**
+ * Single binary file holding every template as raw BGR and grayscale planes.
+ * <p>
+ * The pack is memory-mapped at startup and its planes are wrapped as {@link Mat}s in place, so
+ * no PNG has to be decoded. It covers every {@link EnumTemplates} resource plus the existing
+ * _CH regional variants, and stores the CRC32 of each source PNG: when a template is added,
+ * removed or changed the pack is considered stale and rebuilt from the PNGs, under a new
+ * versioned file name.
+ * <p>
+ * Layout (big endian): magic, version, entry count, data offset, then one index record per
+ * template (path, crc, width, height, color offset, gray offset; offsets relative to the data
+ * offset), then the planes.
+ */
+public final class TemplatePack {
+
+	private static final Logger logger = LoggerFactory.getLogger(TemplatePack.class);
+
+	public static final String DEFAULT_PACK_FILE = "cache/templates.pack";
+
+	private static final byte[] MAGIC = "WOSTPACK".getBytes(StandardCharsets.US_ASCII);
+
+	private static final int VERSION = 1;
+
+	private static final int HEADER_SIZE = 8 + 4 + 4 + 8;
+
+	// Larger indexes are corrupt, not read into memory
+	private static final int MAX_INDEX_SIZE = 16 << 20;
+
+	private TemplatePack() {
+	}
+
+	/**
+	 * Loads the pack into the store if it is up to date with the template resources.
+	 * <p>
+	 * The header and index are read and checked with plain reads; the file is only mapped once
+	 * it is known to be valid, and the mapping stays alive exactly as long as the entries built on
+	 * it, so a reload does not keep earlier mappings.
+	 *
+	 * @param packFile Base pack file; the pack of the current resources is its versioned sibling
+	 * @return true if the pack was valid and loaded, false if it is missing or stale
+	 */
+	public static boolean load(Path packFile, TemplateStore store) {
+		Map<String, Long> expected = resourceChecksums();
+		Path versioned = versionedFile(packFile, expected);
+		if (!Files.isRegularFile(versioned)) {
+			return false;
+		}
+
+		try (FileChannel channel = FileChannel.open(versioned, StandardOpenOption.READ)) {
+			ByteBuffer header = read(channel, 0, HEADER_SIZE);
+			byte[] magic = new byte[MAGIC.length];
+			header.get(magic);
+			if (!Arrays.equals(magic, MAGIC) || header.getInt() != VERSION) {
+				logger.info("Template pack {} has an unknown format", versioned);
+				return false;
+			}
+
+			int count = header.getInt();
+			long dataOffset = header.getLong();
+			if (count != expected.size()) {
+				logger.info("Template pack {} is stale ({} templates, {} expected)", versioned, count, expected.size());
+				return false;
+			}
+			if (dataOffset < HEADER_SIZE || dataOffset - HEADER_SIZE > MAX_INDEX_SIZE) {
+				logger.info("Template pack {} has a corrupt index", versioned);
+				return false;
+			}
+
+			ByteBuffer index = read(channel, HEADER_SIZE, (int) (dataOffset - HEADER_SIZE));
+			List<IndexRecord> records = new ArrayList<>(count);
+			long dataEnd = dataOffset;
+			for (int i = 0; i < count; i++) {
+				byte[] pathBytes = new byte[index.getShort()];
+				index.get(pathBytes);
+				IndexRecord record = new IndexRecord(new String(pathBytes, StandardCharsets.UTF_8), index.getLong(),
+						index.getInt(), index.getInt(), dataOffset + index.getLong(), dataOffset + index.getLong());
+
+				Long expectedCrc = expected.get(record.path());
+				if (expectedCrc == null || expectedCrc != record.crc()) {
+					logger.info("Template pack {} is stale ({} changed)", versioned, record.path());
+					return false;
+				}
+				dataEnd = Math.max(dataEnd, Math.max(record.colorOffset() + record.pixels() * 3,
+						record.grayOffset() + record.pixels()));
+				records.add(record);
+			}
+			if (channel.size() < dataEnd || dataEnd > Integer.MAX_VALUE) {
+				logger.info("Template pack {} is truncated", versioned);
+				return false;
+			}
+
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, dataEnd);
+			List<TemplateEntry> entries = new ArrayList<>(count);
+			for (IndexRecord record : records) {
+				int pixels = (int) record.pixels();
+				Mat color = new Mat(record.height(), record.width(), CvType.CV_8UC3,
+						buffer.slice((int) record.colorOffset(), pixels * 3));
+				Mat gray = new Mat(record.height(), record.width(), CvType.CV_8UC1,
+						buffer.slice((int) record.grayOffset(), pixels));
+				entries.add(new TemplateEntry(record.path(), color, gray, buffer));
+			}
+
+			entries.forEach(store::put);
+			logger.info("Loaded {} templates from pack {}", entries.size(), versioned);
+			return true;
+		} catch (IOException | RuntimeException e) {
+			logger.warn("Could not load template pack {}: {}", versioned, e.getMessage());
+			return false;
+		}
+	}
+
+	private record IndexRecord(String path, long crc, int width, int height, long colorOffset, long grayOffset) {
+
+		long pixels() {
+			return (long) width * height;
+		}
+	}
+
+	private static ByteBuffer read(FileChannel channel, long position, int size) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(size);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new EOFException("Template pack ends at " + (position + buffer.position()));
+			}
+		}
+		return buffer.flip();
+	}
+
+	/**
+	 * Decodes every template resource (through the store) and writes a new pack.
+	 */
+	public static void build(Path packFile, TemplateStore store) throws IOException {
+		Map<String, Long> checksums = resourceChecksums();
+
+		List<TemplateEntry> entries = new ArrayList<>();
+		for (String path : checksums.keySet()) {
+			TemplateEntry entry = store.get(path);
+			if (entry != null) {
+				entries.add(entry);
+			}
+		}
+
+		ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+		DataOutputStream index = new DataOutputStream(indexBytes);
+		long offset = 0;
+		for (TemplateEntry entry : entries) {
+			byte[] pathBytes = entry.getPath().getBytes(StandardCharsets.UTF_8);
+			long colorSize = (long) entry.getWidth() * entry.getHeight() * 3;
+			index.writeShort(pathBytes.length);
+			index.write(pathBytes);
+			index.writeLong(checksums.get(entry.getPath()));
+			index.writeInt(entry.getWidth());
+			index.writeInt(entry.getHeight());
+			index.writeLong(offset);
+			index.writeLong(offset + colorSize);
+			offset += colorSize + (long) entry.getWidth() * entry.getHeight();
+		}
+		index.flush();
+
+		Path versioned = versionedFile(packFile, checksums);
+		if (versioned.getParent() != null) {
+			Files.createDirectories(versioned.getParent());
+		}
+		Path tmp = versioned.resolveSibling(versioned.getFileName() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tmp))) {
+			out.write(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(entries.size());
+			out.writeLong(HEADER_SIZE + indexBytes.size());
+			indexBytes.writeTo(out);
+			for (TemplateEntry entry : entries) {
+				writePlane(out, entry.getColor());
+				writePlane(out, entry.getGray());
+			}
+		}
+		// A pack that failed to load was never mapped, so replacing it works on Windows too
+		Files.move(tmp, versioned, StandardCopyOption.REPLACE_EXISTING);
+		logger.info("Template pack {} built with {} templates", versioned, entries.size());
+		deleteOtherVersions(packFile, versioned);
+	}
+
+	/**
+	 * Pack file for a set of resources: the base name followed by a fingerprint of their checksums,
+	 * e.g. {@code templates-1a2b3c4d.pack}. Changed templates get a new file instead of
+	 * overwriting a pack that may still be mapped.
+	 */
+	static Path versionedFile(Path packFile, Map<String, Long> checksums) {
+		CRC32 fingerprint = new CRC32();
+		checksums.forEach((path, crc) -> {
+			fingerprint.update(path.getBytes(StandardCharsets.UTF_8));
+			fingerprint.update(ByteBuffer.allocate(Long.BYTES).putLong(0, crc));
+		});
+		String name = packFile.getFileName().toString();
+		int dot = name.lastIndexOf('.');
+		String base = dot > 0 ? name.substring(0, dot) : name;
+		String extension = dot > 0 ? name.substring(dot) : "";
+		return packFile.resolveSibling(String.format("%s-%08x%s", base, fingerprint.getValue(), extension));
+	}
+
+	/**
+	 * Deletes the packs of earlier resources. A pack still mapped (on Windows) is left for the next build.
+	 */
+	private static void deleteOtherVersions(Path packFile, Path current) {
+		Path dir = current.toAbsolutePath().getParent();
+		String name = packFile.getFileName().toString();
+		int dot = name.lastIndexOf('.');
+		String glob = (dot > 0 ? name.substring(0, dot) : name) + "*" + (dot > 0 ? name.substring(dot) : "");
+		try (DirectoryStream<Path> packs = Files.newDirectoryStream(dir, glob)) {
+			for (Path pack : packs) {
+				if (!pack.getFileName().equals(current.getFileName())) {
+					try {
+						Files.delete(pack);
+					} catch (IOException e) {
+						logger.debug("Could not delete old template pack {}: {}", pack, e.getMessage());
+					}
+				}
+			}
+		} catch (IOException e) {
+			logger.debug("Could not list old template packs in {}: {}", dir, e.getMessage());
+		}
+	}
+
+	/**
+	 * Every template resource (enum paths plus existing _CH variants) with the CRC32 of its PNG.
+	 */
+	private static Map<String, Long> resourceChecksums() {
+		Map<String, Long> checksums = new LinkedHashMap<>();
+		for (EnumTemplates template : EnumTemplates.values()) {
+			String path = template.getTemplate();
+			addChecksum(checksums, path);
+
+			int lastDotIndex = path.lastIndexOf('.');
+			if (lastDotIndex > 0) {
+				addChecksum(checksums, path.substring(0, lastDotIndex) + "_CH" + path.substring(lastDotIndex));
+			}
+		}
+		return checksums;
+	}
+
+	private static void addChecksum(Map<String, Long> checksums, String path) {
+		if (checksums.containsKey(path)) {
+			return;
+		}
+		try (InputStream is = TemplatePack.class.getResourceAsStream(path)) {
+			if (is == null) {
+				return;
+			}
+			CRC32 crc = new CRC32();
+			crc.update(is.readAllBytes());
+			checksums.put(path, crc.getValue());
+		} catch (IOException e) {
+			logger.warn("Could not read template {}: {}", path, e.getMessage());
+		}
+	}
+
+	private static void writePlane(OutputStream out, Mat plane) throws IOException {
+		Mat continuous = plane.isContinuous() ? plane : plane.clone();
+		byte[] data = new byte[(int) (continuous.total() * continuous.channels())];
+		continuous.get(0, 0, data);
+		out.write(data);
+		if (continuous != plane) {
+			continuous.release();
+		}
+	}
+}
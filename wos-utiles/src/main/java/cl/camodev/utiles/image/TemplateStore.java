@@ -0,0 +1,130 @@
+package cl.camodev.utiles.image;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Read-only registry of loaded templates, keyed by resource path.
+ * <p>
+ * Each template is decoded once and handed out as a shared {@link TemplateEntry}; searches read
+ * the entry's Mats directly instead of working on a private copy. When a {@link TemplatePack} is
+ * configured, it is mapped on first use so no PNG needs decoding.
+ */
+public final class TemplateStore {
+
+	private static final Logger logger = LoggerFactory.getLogger(TemplateStore.class);
+
+	private static final TemplateStore instance = new TemplateStore();
+
+	private volatile Map<String, TemplateEntry> entries = new ConcurrentHashMap<>();
+
+	private volatile Path packFile;
+
+	// null until the pack has been tried
+	private volatile Boolean packLoaded;
+
+	private TemplateStore() {
+	}
+
+	public static TemplateStore getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Returns the entry of a template, loading it on first use.
+	 *
+	 * @return the shared entry, or {@code null} if the resource is missing or cannot be decoded
+	 */
+	public TemplateEntry get(String templateResourcePath) {
+		TemplateEntry entry = entries.get(templateResourcePath);
+		if (entry != null) {
+			return entry;
+		}
+		if (packLoaded == null && packFile != null && loadPack()) {
+			entry = entries.get(templateResourcePath);
+			if (entry != null) {
+				return entry;
+			}
+		}
+		return entries.computeIfAbsent(templateResourcePath, this::load);
+	}
+
+	/**
+	 * Sets the template pack mapped on first use.
+	 */
+	public void setPackFile(Path packFile) {
+		this.packFile = packFile;
+		this.packLoaded = null;
+	}
+
+	/**
+	 * Maps the configured pack into the store, once.
+	 *
+	 * @return true if the pack is loaded, false if there is none or it is stale
+	 */
+	public synchronized boolean loadPack() {
+		if (packLoaded == null) {
+			packLoaded = packFile != null && TemplatePack.load(packFile, this);
+		}
+		return packLoaded;
+	}
+
+	/**
+	 * Adds an entry built elsewhere (e.g. from a precompiled pack), replacing any loaded one.
+	 */
+	public void put(TemplateEntry entry) {
+		entries.put(entry.getPath(), entry);
+	}
+
+	public boolean contains(String templateResourcePath) {
+		return entries.containsKey(templateResourcePath);
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Forgets every loaded template. The old entries are not released because searches running
+	 * concurrently may still be reading them; their native memory is freed once they are
+	 * garbage collected.
+	 */
+	public void clear() {
+		entries = new ConcurrentHashMap<>();
+		packLoaded = null;
+	}
+
+	private TemplateEntry load(String templateResourcePath) {
+		byte[] templateBytes;
+		try (InputStream is = TemplateStore.class.getResourceAsStream(templateResourcePath)) {
+			if (is == null) {
+				logger.error("Template resource not found: {}", templateResourcePath);
+				return null;
+			}
+			templateBytes = is.readAllBytes();
+		} catch (IOException e) {
+			logger.error("Error loading template bytes for: {}", templateResourcePath, e);
+			return null;
+		}
+
+		MatOfByte encoded = new MatOfByte(templateBytes);
+		Mat color = Imgcodecs.imdecode(encoded, Imgcodecs.IMREAD_COLOR);
+		encoded.release();
+		if (color.empty()) {
+			logger.error("Template could not be decoded: {}", templateResourcePath);
+			color.release();
+			return null;
+		}
+		return new TemplateEntry(templateResourcePath, color);
+	}
+}
@@ -0,0 +1,565 @@
+package cl.camodev.utiles.ocr;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import cl.camodev.wosbot.ot.DTOTesseractSettings;
+
+/**
+ * Reads short numeric strings (stamina {@code x/y}, counters, {@code HH:mm:ss} timers) by
+ * matching each glyph against learned samples of the game font, without calling Tesseract.
+ * <p>
+ * The crop is binarized and split into glyphs on empty columns. Each glyph is normalized to a
+ * small bitmap and compared with the samples of every character of {@link #ALPHABET}, also
+ * taking its aspect ratio and vertical position within the line into account (so {@code ,}
+ * and {@code .} or {@code :} do not look alike). The weakest glyph gives the confidence of the
+ * whole read.
+ * <p>
+ * Samples are learned from Tesseract: when a read falls back to Tesseract and the text has one
+ * character of the alphabet per glyph, each glyph is stored as a sample of its character. They
+ * are persisted to {@value #GLYPH_FILE} and reloaded on the next start.
+ * <p>
+ * A read only matches the characters the settings allow, and is only attempted once every one
+ * of them has samples: otherwise an unseen glyph would be read, confidently, as the closest known
+ * character. One confident read in {@value #CROSS_CHECK_INTERVAL} is also read by Tesseract;
+ * when the two disagree, the samples that caused the misread are replaced.
+ */
+public final class DigitRecognizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(DigitRecognizer.class);
+
+    public static final String ALPHABET = "0123456789/:,.";
+
+    /**
+     * Reads below this confidence should fall back to Tesseract.
+     */
+    public static final double MIN_CONFIDENCE = 0.8;
+
+    private static final String GLYPH_FILE = "cache/digit-glyphs.properties";
+
+    private static final int GLYPH_WIDTH = 12;
+    private static final int GLYPH_HEIGHT = 16;
+
+    // Best and second best characters closer than this make a glyph ambiguous
+    private static final double MIN_MARGIN = 0.05;
+
+    private static final int MAX_SAMPLES_PER_CHAR = 4;
+
+    // A new sample this similar to an existing one adds nothing
+    private static final double DUPLICATE_SIMILARITY = 0.97;
+
+    // Column runs with fewer text pixels are noise
+    private static final int MIN_GLYPH_PIXELS = 3;
+
+    // Gaps wider than this fraction of the line height are read as a space
+    private static final double SPACE_GAP = 0.6;
+
+    private static final long SAVE_INTERVAL_MS = 5000;
+
+    private static final int CROSS_CHECK_INTERVAL = 20;
+
+    private static final DigitRecognizer instance = new DigitRecognizer(Paths.get(GLYPH_FILE), true);
+
+    /**
+     * Result of a read.
+     *
+     * @param text       recognized text, or {@code null} if nothing could be read
+     * @param confidence 0 to 1, the similarity of the weakest glyph
+     */
+    public record Result(String text, double confidence) {
+
+        public boolean isConfident() {
+            return text != null && !text.isEmpty() && confidence >= MIN_CONFIDENCE;
+        }
+    }
+
+    private static final Result NO_RESULT = new Result(null, 0);
+
+    private final Path file;
+    private final Map<Character, List<Glyph>> samples = new ConcurrentHashMap<>();
+    private final AtomicLong confidentReads = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private final AtomicLong crossChecks = new AtomicLong();
+    private final AtomicLong mismatches = new AtomicLong();
+    private volatile boolean dirty;
+    private volatile long lastSave;
+
+    private DigitRecognizer(Path file, boolean saveOnExit) {
+        this.file = file;
+        load();
+        if (saveOnExit) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                if (dirty) {
+                    save();
+                }
+            }));
+        }
+    }
+
+    /**
+     * Shared recognizer, whose samples persist in {@value #GLYPH_FILE}.
+     */
+    public static DigitRecognizer getInstance() {
+        return instance;
+    }
+
+    /**
+     * Creates a recognizer with its own samples, stored in {@code file}, e.g. for a benchmark
+     * or a test that must not depend on what the shared recognizer learned.
+     */
+    public static DigitRecognizer create(Path file) {
+        return new DigitRecognizer(file, false);
+    }
+
+    /**
+     * Reads a BGR crop.
+     *
+     * @param settings used to find the text pixels: the text color when background removal is
+     *                 enabled, otherwise an automatic threshold, and the allowed characters
+     *                 (may be {@code null})
+     * @return the read, not confident when some allowed character has no sample yet
+     */
+    public Result recognize(Mat region, DTOTesseractSettings settings) {
+        String allowed = allowedChars(settings);
+        Result result = NO_RESULT;
+        if (isLearned(allowed)) {
+            List<Glyph> glyphs = segment(region, settings);
+            if (!glyphs.isEmpty()) {
+                result = match(glyphs, allowed);
+            }
+        }
+        (result.isConfident() ? confidentReads : fallbacks).incrementAndGet();
+        return result;
+    }
+
+    /**
+     * Tells whether a confident read should still be compared with Tesseract, which is the case
+     * for one read in {@value #CROSS_CHECK_INTERVAL}.
+     */
+    public boolean shouldCrossCheck() {
+        return crossChecks.incrementAndGet() % CROSS_CHECK_INTERVAL == 0;
+    }
+
+    /**
+     * Compares a confident read with the text Tesseract read on the same crop. When they differ,
+     * the samples that matched the misread glyphs are dropped and the glyphs are learned as the
+     * characters Tesseract read.
+     *
+     * @return true if both reads agree
+     */
+    public boolean crossCheck(Mat region, DTOTesseractSettings settings, Result read, String text) {
+        String chars = text == null ? "" : text.replaceAll("\\s", "");
+        String readChars = read.text() == null ? "" : read.text().replace(" ", "");
+        if (chars.equals(readChars)) {
+            return true;
+        }
+        mismatches.incrementAndGet();
+        List<Glyph> glyphs = segment(region, settings);
+        if (!isLearnable(chars) || glyphs.size() != chars.length() || readChars.length() != chars.length()) {
+            logger.debug("Glyphs read as '{}', Tesseract read '{}'", readChars, chars);
+            return false;
+        }
+
+        logger.info("Glyphs read as '{}' but Tesseract read '{}', relearning", readChars, chars);
+        for (int i = 0; i < glyphs.size(); i++) {
+            char misread = readChars.charAt(i);
+            if (misread == chars.charAt(i)) {
+                continue;
+            }
+            Glyph glyph = glyphs.get(i);
+            List<Glyph> misreadSamples = samples.get(misread);
+            if (misreadSamples != null) {
+                synchronized (misreadSamples) {
+                    misreadSamples.removeIf(sample -> sample.similarity(glyph) >= MIN_CONFIDENCE);
+                }
+            }
+        }
+        samples.values().removeIf(List::isEmpty);
+        dirty = true;
+        addSamples(glyphs, chars);
+        return false;
+    }
+
+    /**
+     * Learns the glyphs of a crop from the text Tesseract read on it. Texts with characters
+     * outside of {@link #ALPHABET}, or whose length does not match the glyphs found, are ignored.
+     */
+    public void learn(Mat region, DTOTesseractSettings settings, String text) {
+        if (text == null) {
+            return;
+        }
+        String chars = text.replaceAll("\\s", "");
+        if (!isLearnable(chars)) {
+            return;
+        }
+        List<Glyph> glyphs = segment(region, settings);
+        if (glyphs.size() != chars.length()) {
+            return;
+        }
+
+        // Do not learn a read that confidently disagrees with what is already known
+        String allowed = allowedChars(settings);
+        if (isLearned(allowed)) {
+            Result known = match(glyphs, allowed);
+            if (known.isConfident() && !known.text().replace(" ", "").equals(chars)) {
+                logger.debug("Not learning '{}', glyphs read as '{}'", chars, known.text());
+                return;
+            }
+        }
+        addSamples(glyphs, chars);
+    }
+
+    private void addSamples(List<Glyph> glyphs, String chars) {
+        boolean changed = false;
+        for (int i = 0; i < glyphs.size(); i++) {
+            char c = chars.charAt(i);
+            Glyph glyph = glyphs.get(i);
+            List<Glyph> charSamples = samples.computeIfAbsent(c, k -> new CopyOnWriteArrayList<>());
+            synchronized (charSamples) {
+                if (charSamples.size() >= MAX_SAMPLES_PER_CHAR
+                        || charSamples.stream().anyMatch(s -> s.similarity(glyph) >= DUPLICATE_SIMILARITY)) {
+                    continue;
+                }
+                charSamples.add(glyph);
+                changed = true;
+            }
+        }
+
+        if (changed || dirty) {
+            dirty = true;
+            if (System.currentTimeMillis() - lastSave > SAVE_INTERVAL_MS) {
+                save();
+            }
+        }
+    }
+
+    public long getConfidentReads() {
+        return confidentReads.get();
+    }
+
+    public long getFallbacks() {
+        return fallbacks.get();
+    }
+
+    public long getMismatches() {
+        return mismatches.get();
+    }
+
+    public String getStats() {
+        int sampleCount = samples.values().stream().mapToInt(List::size).sum();
+        return String.format("Digit recognizer: %d samples of %d characters, %d confident reads, %d fallbacks, %d cross-check mismatches",
+                sampleCount, samples.size(), confidentReads.get(), fallbacks.get(), mismatches.get());
+    }
+
+    /**
+     * Forgets every learned sample.
+     */
+    public void clear() {
+        samples.clear();
+        dirty = true;
+        save();
+    }
+
+    /**
+     * Characters a read may contain: those of the settings' whitelist, or the whole alphabet.
+     * A whitelist with characters outside of the alphabet gives {@code null}, as such text
+     * cannot be read from glyphs.
+     */
+    private static String allowedChars(DTOTesseractSettings settings) {
+        if (settings == null || !settings.hasAllowedChars()) {
+            return ALPHABET;
+        }
+        String allowed = settings.getAllowedChars();
+        return allowed.chars().allMatch(c -> ALPHABET.indexOf(c) >= 0) ? allowed : null;
+    }
+
+    /**
+     * Whether every allowed character has samples, so that the best match of a glyph is
+     * compared with all the characters it could be.
+     */
+    private boolean isLearned(String allowed) {
+        if (allowed == null || allowed.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < allowed.length(); i++) {
+            List<Glyph> charSamples = samples.get(allowed.charAt(i));
+            if (charSamples == null || charSamples.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLearnable(String chars) {
+        return !chars.isEmpty() && chars.chars().allMatch(c -> ALPHABET.indexOf(c) >= 0);
+    }
+
+    private Result match(List<Glyph> glyphs, String allowed) {
+        StringBuilder text = new StringBuilder();
+        double confidence = 1;
+        for (int i = 0; i < glyphs.size(); i++) {
+            Glyph glyph = glyphs.get(i);
+            char bestChar = 0;
+            double best = 0;
+            double second = 0;
+            for (int c = 0; c < allowed.length(); c++) {
+                char candidate = allowed.charAt(c);
+                List<Glyph> charSamples = samples.get(candidate);
+                if (charSamples == null) {
+                    continue;
+                }
+                double score = 0;
+                for (Glyph sample : charSamples) {
+                    score = Math.max(score, sample.similarity(glyph));
+                }
+                if (score > best) {
+                    second = best;
+                    best = score;
+                    bestChar = candidate;
+                } else if (score > second) {
+                    second = score;
+                }
+            }
+            if (bestChar == 0) {
+                return NO_RESULT;
+            }
+
+            confidence = Math.min(confidence, best - second < MIN_MARGIN ? Math.min(best, MIN_CONFIDENCE / 2) : best);
+            if (i > 0 && glyph.gapBefore > SPACE_GAP * glyph.lineHeight) {
+                text.append(' ');
+            }
+            text.append(bestChar);
+        }
+        return new Result(text.toString(), confidence);
+    }
+
+    /**
+     * Splits a crop into glyphs on columns without text pixels.
+     */
+    private static List<Glyph> segment(Mat region, DTOTesseractSettings settings) {
+        Mat mask = textMask(region, settings);
+        try {
+            int width = mask.cols();
+            int height = mask.rows();
+            byte[] pixels = new byte[width * height];
+            mask.get(0, 0, pixels);
+
+            int[] columnCounts = new int[width];
+            for (int y = 0; y < height; y++) {
+                for (int x = 0, offset = y * width; x < width; x++) {
+                    if (pixels[offset + x] != 0) {
+                        columnCounts[x]++;
+                    }
+                }
+            }
+
+            // Column runs with text pixels: {x1, x2, top, bottom}
+            List<int[]> runs = new ArrayList<>();
+            for (int x = 0; x < width; x++) {
+                if (columnCounts[x] == 0) {
+                    continue;
+                }
+                int start = x;
+                int count = 0;
+                while (x < width && columnCounts[x] > 0) {
+                    count += columnCounts[x++];
+                }
+                if (count < MIN_GLYPH_PIXELS) {
+                    continue;
+                }
+                int top = height;
+                int bottom = -1;
+                for (int y = 0; y < height; y++) {
+                    for (int cx = start, offset = y * width; cx < x; cx++) {
+                        if (pixels[offset + cx] != 0) {
+                            top = Math.min(top, y);
+                            bottom = y;
+                            break;
+                        }
+                    }
+                }
+                runs.add(new int[] { start, x - 1, top, bottom });
+            }
+            if (runs.isEmpty()) {
+                return List.of();
+            }
+
+            int lineTop = runs.stream().mapToInt(r -> r[2]).min().getAsInt();
+            int lineBottom = runs.stream().mapToInt(r -> r[3]).max().getAsInt();
+            int lineHeight = lineBottom - lineTop + 1;
+
+            List<Glyph> glyphs = new ArrayList<>(runs.size());
+            int previousEnd = -1;
+            for (int[] run : runs) {
+                int glyphWidth = run[1] - run[0] + 1;
+                int glyphHeight = run[3] - run[2] + 1;
+                Mat cell = mask.submat(new Rect(run[0], run[2], glyphWidth, glyphHeight));
+                Mat normalized = new Mat();
+                Imgproc.resize(cell, normalized, new Size(GLYPH_WIDTH, GLYPH_HEIGHT), 0, 0, Imgproc.INTER_AREA);
+                byte[] bitmap = new byte[GLYPH_WIDTH * GLYPH_HEIGHT];
+                normalized.get(0, 0, bitmap);
+                cell.release();
+                normalized.release();
+
+                glyphs.add(new Glyph(bitmap, (double) glyphWidth / glyphHeight, (double) (run[2] - lineTop) / lineHeight,
+                        (double) (run[3] - lineTop + 1) / lineHeight, previousEnd < 0 ? 0 : run[0] - previousEnd - 1,
+                        lineHeight));
+                previousEnd = run[1];
+            }
+            return glyphs;
+        } finally {
+            mask.release();
+        }
+    }
+
+    /**
+     * Single channel mask of the crop where text pixels are 255.
+     */
+    private static Mat textMask(Mat region, DTOTesseractSettings settings) {
+        Mat mask;
+        if (settings != null && settings.isRemoveBackground() && settings.getTextColor() != null && region.channels() == 3) {
+            mask = OcrPreprocessor.removeBackground(region, settings.getTextColor());
+            Core.bitwise_not(mask, mask);
+            return mask;
+        }
+
+        Mat gray = new Mat();
+        if (region.channels() == 3) {
+            Imgproc.cvtColor(region, gray, Imgproc.COLOR_BGR2GRAY);
+        } else {
+            region.copyTo(gray);
+        }
+        mask = new Mat();
+        Imgproc.threshold(gray, mask, 0, 255, Imgproc.THRESH_BINARY | Imgproc.THRESH_OTSU);
+        gray.release();
+        // Text covers less of the crop than the background
+        if (Core.countNonZero(mask) > mask.total() / 2) {
+            Core.bitwise_not(mask, mask);
+        }
+        return mask;
+    }
+
+    private void load() {
+        if (!Files.exists(file)) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            logger.warn("Could not read digit glyphs {}: {}", file, e.getMessage());
+            return;
+        }
+
+        for (String key : properties.stringPropertyNames()) {
+            try {
+                char c = (char) Integer.parseInt(key.split("\\.")[1]);
+                samples.computeIfAbsent(c, k -> new CopyOnWriteArrayList<>()).add(Glyph.parse(properties.getProperty(key)));
+            } catch (RuntimeException e) {
+                logger.warn("Ignoring malformed digit glyph {}", key);
+            }
+        }
+        logger.info("Loaded digit glyphs for {} characters", samples.size());
+    }
+
+    private synchronized void save() {
+        Properties properties = new Properties();
+        samples.forEach((c, charSamples) -> {
+            for (int i = 0; i < charSamples.size(); i++) {
+                properties.setProperty("glyph." + (int) c + "." + i, charSamples.get(i).toString());
+            }
+        });
+        dirty = false;
+        lastSave = System.currentTimeMillis();
+
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                properties.store(out, "Learned digit glyphs (aspect,top,bottom,bitmap)");
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.warn("Could not save digit glyphs {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Normalized glyph. Top and bottom are relative to the line height.
+     */
+    private static final class Glyph {
+        private final byte[] bitmap;
+        private final double aspect;
+        private final double top;
+        private final double bottom;
+        // Only meaningful while segmenting a read
+        private final int gapBefore;
+        private final int lineHeight;
+
+        private Glyph(byte[] bitmap, double aspect, double top, double bottom, int gapBefore, int lineHeight) {
+            this.bitmap = bitmap;
+            this.aspect = aspect;
+            this.top = top;
+            this.bottom = bottom;
+            this.gapBefore = gapBefore;
+            this.lineHeight = lineHeight;
+        }
+
+        /**
+         * 0 to 1: overlap of the bitmaps (sum of minimums over sum of maximums), scaled down by
+         * differences in shape and position.
+         */
+        private double similarity(Glyph other) {
+            long intersection = 0;
+            long union = 0;
+            for (int i = 0; i < bitmap.length; i++) {
+                int a = bitmap[i] & 0xFF;
+                int b = other.bitmap[i] & 0xFF;
+                intersection += Math.min(a, b);
+                union += Math.max(a, b);
+            }
+            double overlap = union == 0 ? 0 : (double) intersection / union;
+            double shape = Math.max(0, 1 - Math.abs(Math.log(aspect / other.aspect)));
+            double position = Math.max(0, 1 - Math.abs(top - other.top) - Math.abs(bottom - other.bottom));
+            return overlap * shape * position;
+        }
+
+        private static Glyph parse(String value) {
+            String[] parts = value.split(",");
+            byte[] bitmap = Base64.getDecoder().decode(parts[3]);
+            if (bitmap.length != GLYPH_WIDTH * GLYPH_HEIGHT) {
+                throw new IllegalArgumentException("Unexpected bitmap size " + bitmap.length);
+            }
+            return new Glyph(bitmap, Double.parseDouble(parts[0]), Double.parseDouble(parts[1]),
+                    Double.parseDouble(parts[2]), 0, 0);
+        }
+
+        @Override
+        public String toString() {
+            return aspect + "," + top + "," + bottom + "," + Base64.getEncoder().encodeToString(bitmap);
+        }
+    }
+}
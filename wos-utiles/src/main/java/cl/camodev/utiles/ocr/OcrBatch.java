@@ -0,0 +1,151 @@
+package cl.camodev.utiles.ocr;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import cl.camodev.utiles.image.ScreenFrame;
+import cl.camodev.wosbot.ot.DTOPoint;
+import cl.camodev.wosbot.ot.DTOTesseractSettings;
+import net.sourceforge.tess4j.TesseractException;
+
+/**
+ * Reads several regions of one frame in parallel on a dedicated OCR pool.
+ * <p>
+ * Results are returned in the order of the regions. With {@link Policy#FIRST_SUCCESS} the order
+ * is also the priority: the batch returns as soon as a region parses and every region before it
+ * has finished without parsing, and the reads that have not started yet are cancelled; their
+ * results are marked as not {@link OcrRegionResult#completed() completed}.
+ */
+public final class OcrBatch {
+
+    public enum Policy {
+        /** Wait for every region. */
+        ALL,
+        /** Return once the first region, in list order, that parses is known. */
+        FIRST_SUCCESS
+    }
+
+    /**
+     * Reads the text of one region of a frame.
+     */
+    @FunctionalInterface
+    public interface RegionReader {
+        String read(ScreenFrame frame, DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings) throws TesseractException;
+    }
+
+    // As many workers as engines a single configuration may use
+    private static final ExecutorService ocrPool = Executors.newFixedThreadPool(
+            TesseractEnginePool.getInstance().getMaxEnginesPerKey(), new OcrThreadFactory());
+
+    private OcrBatch() {
+    }
+
+    /**
+     * Reads the regions of a frame in parallel.
+     *
+     * @param frame   captured frame, owned by the caller; it is retained while reads run, so it
+     *                can be released as soon as this method returns
+     * @param regions regions to read
+     * @param policy  when to stop
+     * @param reader  reads one region
+     * @return one result per region, in the order of {@code regions}
+     */
+    public static <T> List<OcrRegionResult<T>> run(ScreenFrame frame, List<OcrRegion<T>> regions, Policy policy,
+            RegionReader reader) {
+        int count = regions.size();
+        AtomicReferenceArray<OcrRegionResult<T>> results = new AtomicReferenceArray<>(count);
+        if (count == 0) {
+            return List.of();
+        }
+
+        CompletionService<Integer> completion = new ExecutorCompletionService<>(ocrPool);
+        List<Future<Integer>> futures = new ArrayList<>(count);
+        List<AtomicBoolean> claims = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            OcrRegion<T> region = regions.get(i);
+            AtomicBoolean claimed = new AtomicBoolean();
+            claims.add(claimed);
+            frame.retain();
+            futures.add(completion.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return index;
+                }
+                try {
+                    results.set(index, read(frame, region, reader));
+                } finally {
+                    frame.release();
+                }
+                return index;
+            }));
+        }
+
+        try {
+            // Lowest index whose read has not finished or did not parse
+            int next = 0;
+            for (int done = 0; done < count; done++) {
+                completion.take().get();
+                if (policy != Policy.FIRST_SUCCESS) {
+                    continue;
+                }
+                while (next < count && results.get(next) != null && !results.get(next).isParsed()) {
+                    next++;
+                }
+                if (next < count && results.get(next) != null) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // read() does not throw; nothing else to report
+        } finally {
+            for (int i = 0; i < count; i++) {
+                futures.get(i).cancel(false);
+                // Reads that never started still hold their reference to the frame
+                if (claims.get(i).compareAndSet(false, true)) {
+                    frame.release();
+                }
+            }
+        }
+
+        // Snapshot: reads still running after a first success must not change what was returned
+        List<OcrRegionResult<T>> ordered = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            OcrRegionResult<T> result = results.get(i);
+            ordered.add(result != null ? result : OcrRegionResult.cancelled());
+        }
+        return ordered;
+    }
+
+    private static <T> OcrRegionResult<T> read(ScreenFrame frame, OcrRegion<T> region, RegionReader reader) {
+        String text = null;
+        try {
+            text = reader.read(frame, region.p1(), region.p2(), region.settings());
+            return new OcrRegionResult<>(text, text != null ? region.parser().apply(text) : null, null, true);
+        } catch (Exception e) {
+            return new OcrRegionResult<>(text, null, e, true);
+        }
+    }
+
+    private static final class OcrThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "ocr-batch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package cl.camodev.utiles.ocr;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+import cl.camodev.wosbot.ot.DTOPoint;
+import cl.camodev.wosbot.ot.DTOTesseractSettings;
+
+/**
+ * One region of a batch OCR read, with its own settings and parser.
+ *
+ * @param p1       top-left corner of the region
+ * @param p2       bottom-right corner of the region
+ * @param settings optional Tesseract settings (may be {@code null})
+ * @param parser   converts the recognized text; returns {@code null} when the text does not parse
+ * @param <T>      the parsed type
+ */
+public record OcrRegion<T>(DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings, Function<String, T> parser) {
+
+    public OcrRegion {
+        Objects.requireNonNull(p1, "p1");
+        Objects.requireNonNull(p2, "p2");
+        Objects.requireNonNull(parser, "parser");
+    }
+
+    /**
+     * A region whose result is the recognized text itself.
+     */
+    public static OcrRegion<String> text(DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings) {
+        return new OcrRegion<>(p1, p2, settings, Function.identity());
+    }
+}
@@ -0,0 +1,21 @@
+package cl.camodev.utiles.ocr;
+
+/**
+ * Outcome of one region of a batch OCR read.
+ *
+ * @param text      the recognized text, or {@code null} if the region was not read
+ * @param value     the parsed value, or {@code null} if the text did not parse
+ * @param error     the exception thrown while reading or parsing, if any
+ * @param completed false when the read was cancelled before it finished
+ * @param <T>       the parsed type
+ */
+public record OcrRegionResult<T>(String text, T value, Exception error, boolean completed) {
+
+    static <T> OcrRegionResult<T> cancelled() {
+        return new OcrRegionResult<>(null, null, null, false);
+    }
+
+    public boolean isParsed() {
+        return value != null;
+    }
+}
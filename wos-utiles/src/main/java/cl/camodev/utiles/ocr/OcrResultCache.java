@@ -0,0 +1,140 @@
+package cl.camodev.utiles.ocr;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small LRU cache of OCR results keyed by the content of the cropped region.
+ * <p>
+ * Polling loops often read a region whose pixels have not changed since the previous attempt
+ * (a counter that has not moved, a timer label that is still loading). The key is a 64 bit hash
+ * of the raw pixels plus the region size and the OCR configuration, so a byte-identical crop read
+ * with the same configuration returns the previous text without running Tesseract again.
+ */
+public final class OcrResultCache {
+
+    private static final OcrResultCache instance = new OcrResultCache();
+
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final int DEFAULT_MAX_ENTRIES = 256;
+
+    /**
+     * Cache key: content hash and size of the crop, plus everything that changes how it is read.
+     */
+    public record Key(long pixelHash, int width, int height, String config) {
+    }
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private volatile int maxEntries = DEFAULT_MAX_ENTRIES;
+
+    private final LinkedHashMap<Key, String> entries = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    private OcrResultCache() {
+    }
+
+    public static OcrResultCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Builds the key of a crop.
+     *
+     * @param pixels Raw pixels of the crop, row major without padding
+     * @param config Description of the OCR configuration (language, engine and preprocessing settings)
+     */
+    public static Key key(byte[] pixels, int width, int height, String config) {
+        return new Key(hash(pixels), width, height, config);
+    }
+
+    /**
+     * @return the cached text, or {@code null} on a miss
+     */
+    public String get(Key key) {
+        String text;
+        synchronized (entries) {
+            text = entries.get(key);
+        }
+        (text != null ? hits : misses).incrementAndGet();
+        return text;
+    }
+
+    public void put(Key key, String text) {
+        if (text == null) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, text);
+        }
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return fraction of lookups served from the cache (0 when nothing was looked up yet)
+     */
+    public double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    public String getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return String.format("OCR cache: %d entries, %d hits, %d misses (%.1f%% hit rate)", size, hits.get(),
+                misses.get(), getHitRate() * 100);
+    }
+
+    /**
+     * 64 bit multiply-xorshift hash, eight bytes at a time.
+     */
+    public static long hash(byte[] data) {
+        long h = 0x9E3779B97F4A7C15L ^ data.length;
+        int i = 0;
+        for (int end = data.length - 7; i < end; i += 8) {
+            h = mix(h ^ (long) LONG_LE.get(data, i));
+        }
+        long tail = 0;
+        for (int shift = 0; i < data.length; i++, shift += 8) {
+            tail |= (long) (data[i] & 0xFF) << shift;
+        }
+        return mix(h ^ tail);
+    }
+
+    private static long mix(long h) {
+        h *= 0xBF58476D1CE4E5B9L;
+        h ^= h >>> 31;
+        h *= 0x94D049BB133111EBL;
+        return h ^ (h >>> 29);
+    }
+}
@@ -0,0 +1,181 @@
+package cl.camodev.utiles.ocr;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+
+import net.sourceforge.tess4j.Tesseract;
+import net.sourceforge.tess4j.TesseractException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pool of initialized Tesseract engines.
+ * <p>
+ * {@link Tesseract#doOCR} creates a native engine and loads the traineddata on every call, which
+ * costs far more than recognizing a small region. Engines here are initialized once per
+ * configuration ({@link EngineKey}) and reused: a call checks one out, recognizes the image,
+ * clears the engine and returns it. Each configuration can have at most {@link #getMaxEnginesPerKey()}
+ * engines, derived from the CPU count; extra callers wait for one to be returned.
+ */
+public final class TesseractEnginePool {
+
+    private static final Logger logger = LoggerFactory.getLogger(TesseractEnginePool.class);
+
+    public static final String DATA_PATH = "lib/tesseract";
+
+    private static final TesseractEnginePool instance = new TesseractEnginePool();
+
+    /**
+     * Engine configuration. {@code null} page segmentation or engine modes keep Tesseract's
+     * defaults, a {@code null} whitelist allows every character.
+     */
+    public record EngineKey(String language, Integer pageSegMode, Integer ocrEngineMode, String whitelist) {
+
+        public EngineKey {
+            Objects.requireNonNull(language, "language");
+            if (whitelist != null && whitelist.isEmpty()) {
+                whitelist = null;
+            }
+        }
+    }
+
+    private final Map<EngineKey, Slot> slots = new ConcurrentHashMap<>();
+
+    private final int maxEnginesPerKey = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 4));
+
+    private TesseractEnginePool() {
+    }
+
+    public static TesseractEnginePool getInstance() {
+        return instance;
+    }
+
+    public int getMaxEnginesPerKey() {
+        return maxEnginesPerKey;
+    }
+
+    /**
+     * Recognizes the whole image with an engine of the given configuration.
+     *
+     * @return the raw recognized text
+     */
+    public String recognize(EngineKey key, BufferedImage image) throws TesseractException {
+        Slot slot = slots.computeIfAbsent(key, k -> new Slot());
+        try {
+            slot.permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TesseractException("Interrupted while waiting for an OCR engine");
+        }
+
+        PooledEngine engine = null;
+        boolean reusable = false;
+        try {
+            engine = slot.idle.pollFirst();
+            if (engine == null) {
+                engine = new PooledEngine(key);
+            }
+            String text = engine.recognize(image);
+            reusable = true;
+            return text;
+        } finally {
+            if (engine != null) {
+                if (reusable) {
+                    slot.idle.offerFirst(engine);
+                } else {
+                    // The native engine may be in an unknown state after a failure
+                    engine.close();
+                }
+            }
+            slot.permits.release();
+        }
+    }
+
+    /**
+     * Initializes engines for a configuration ahead of its first use.
+     */
+    public void prewarm(EngineKey key, int count) {
+        Slot slot = slots.computeIfAbsent(key, k -> new Slot());
+        int target = Math.min(count, maxEnginesPerKey);
+        while (slot.idle.size() < target && slot.permits.tryAcquire()) {
+            try {
+                slot.idle.offerLast(new PooledEngine(key));
+            } catch (RuntimeException | LinkageError e) {
+                logger.warn("Could not initialize OCR engine {}: {}", key, e.getMessage());
+                return;
+            } finally {
+                slot.permits.release();
+            }
+        }
+    }
+
+    /**
+     * Number of idle engines per configuration.
+     */
+    public String getStats() {
+        StringBuilder stats = new StringBuilder();
+        slots.forEach((key, slot) -> stats.append(key).append(": ").append(slot.idle.size()).append(" idle\n"));
+        return stats.toString();
+    }
+
+    /**
+     * Frees every idle engine. Engines currently checked out are returned to the pool as usual.
+     */
+    public void clear() {
+        for (Slot slot : slots.values()) {
+            PooledEngine engine;
+            while ((engine = slot.idle.pollFirst()) != null) {
+                engine.close();
+            }
+        }
+    }
+
+    private final class Slot {
+        private final Semaphore permits = new Semaphore(maxEnginesPerKey, true);
+        private final ConcurrentLinkedDeque<PooledEngine> idle = new ConcurrentLinkedDeque<>();
+    }
+
+    /**
+     * Tesseract whose native engine stays initialized between calls.
+     */
+    private static final class PooledEngine extends Tesseract {
+
+        PooledEngine(EngineKey key) {
+            setDatapath(DATA_PATH);
+            setLanguage(key.language());
+            if (key.pageSegMode() != null) {
+                setPageSegMode(key.pageSegMode());
+            }
+            if (key.ocrEngineMode() != null) {
+                setOcrEngineMode(key.ocrEngineMode());
+            }
+            if (key.whitelist() != null) {
+                setVariable("tessedit_char_whitelist", key.whitelist());
+            }
+            init();
+            setVariables();
+            logger.debug("Initialized OCR engine {}", key);
+        }
+
+        String recognize(BufferedImage image) throws TesseractException {
+            try {
+                setImage(image);
+                return getOCRText(null, 0);
+            } catch (IOException e) {
+                throw new TesseractException(e);
+            } finally {
+                getAPI().TessBaseAPIClear(getHandle());
+                getAPI().TessBaseAPIClearAdaptiveClassifier(getHandle());
+            }
+        }
+
+        void close() {
+            dispose();
+        }
+    }
+}
@@ -16,12 +16,25 @@ public interface TextRecognitionProvider {
     /**
      * Performs OCR on the region defined by the given points using the provided settings.
      *
-     * @param p1      the first corner (top‑left) of the region to capture
-     * @param p2      the second corner (bottom‑right) of the region to capture
+     * @param p1      the first corner (top-left) of the region to capture
+     * @param p2      the second corner (bottom-right) of the region to capture
      * @param settings optional Tesseract configuration (may be {@code null})
      * @return the recognized text, or {@code null} if no text could be recognized
      * @throws IOException         if an image capture or file I/O error occurs
      * @throws TesseractException  if the underlying OCR engine fails
      */
     String ocrRegion(DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings) throws IOException, TesseractException;
+
+    /**
+     * Returns a fingerprint of the region's current pixels, used to skip retries while the
+     * region has not changed.
+     *
+     * @param p1 the first corner (top-left) of the region
+     * @param p2 the second corner (bottom-right) of the region
+     * @return a value equal to the previous one when the pixels are unchanged, or {@code null}
+     *         if the provider cannot tell (the default)
+     */
+    default Object regionFingerprint(DTOPoint p1, DTOPoint p2) {
+        return null;
+    }
 }
\ No newline at end of file
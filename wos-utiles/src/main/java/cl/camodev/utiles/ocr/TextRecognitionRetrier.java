@@ -1,5 +1,7 @@
 package cl.camodev.utiles.ocr;
 
+import cl.camodev.utiles.retry.RetryExecution;
+import cl.camodev.utiles.retry.RetryPolicy;
 import cl.camodev.wosbot.ot.DTOPoint;
 import cl.camodev.wosbot.ot.DTOTesseractSettings;
 
@@ -13,7 +15,7 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Generic helper class that performs OCR on a region with retry logic. It uses a supplied
- * {@link TextRecognitionProvider} to fetch text, tests the text with a user‑supplied predicate to
+ * {@link TextRecognitionProvider} to fetch text, tests the text with a user-supplied predicate to
  * determine success, and converts the text to an arbitrary return type on success.
  *
  * @param <T> the type the recognized text should be converted to upon success
@@ -40,8 +42,8 @@ public class TextRecognitionRetrier<T> {
      * for the recognized text, the text is passed through {@code converter} and returned.
      * If no attempt succeeds, {@code null} is returned.
      *
-     * @param p1              top‑left corner of the region to capture
-     * @param p2              bottom‑right corner of the region to capture
+     * @param p1              top-left corner of the region to capture
+     * @param p2              bottom-right corner of the region to capture
      * @param maxRetries      maximum number of OCR attempts
      * @param delayMs         delay in milliseconds between attempts
      * @param settings        optional Tesseract settings for the OCR engine
@@ -57,26 +59,62 @@ public class TextRecognitionRetrier<T> {
                      DTOTesseractSettings settings,
                      Predicate<String> successPredicate,
                      Function<String, T> converter) {
+        return execute(p1, p2, RetryPolicy.fixed(maxRetries, delayMs), settings, successPredicate, converter);
+    }
+
+    /**
+     * Attempts to read text from the region defined by {@code p1} and {@code p2}, retrying as
+     * dictated by {@code policy}: backoff between attempts, overall deadline, and, when the
+     * policy only retries on change, no new OCR while the region's pixels are unchanged. The
+     * call is reported to the {@link cl.camodev.utiles.retry.RetryMetricsRegistry}.
+     *
+     * @param p1              top-left corner of the region to capture
+     * @param p2              bottom-right corner of the region to capture
+     * @param policy          retry policy
+     * @param settings        optional Tesseract settings for the OCR engine
+     * @param successPredicate predicate to determine whether the recognized text
+     *                        constitutes a successful read
+     * @param converter       function to convert the recognized text into the return type {@code T}
+     * @return the converted value on success, or {@code null} if all attempts fail
+     */
+    public T execute(DTOPoint p1,
+                     DTOPoint p2,
+                     RetryPolicy policy,
+                     DTOTesseractSettings settings,
+                     Predicate<String> successPredicate,
+                     Function<String, T> converter) {
+        RetryExecution run = policy.start("ocr");
         String raw = null;
-        for (int attempt = 0; attempt < maxRetries; attempt++) {
-            logger.debug("Performing OCR (attempt {} of {})", attempt + 1, maxRetries);
+        while (run.nextAttempt()) {
+            int attempt = run.getAttempts();
+            logger.debug("Performing OCR (attempt {} of {})", attempt, policy.getMaxAttempts());
             try {
-                raw = textRecognitionProvider.ocrRegion(p1, p2, settings);
-                if (raw != null && successPredicate.test(raw)) {
-                    return converter.apply(raw);
+                if (policy.isOnlyOnChange() && run.isUnchanged(textRecognitionProvider.regionFingerprint(p1, p2))) {
+                    logger.debug("Region unchanged since the previous attempt, skipping OCR");
+                } else {
+                    raw = textRecognitionProvider.ocrRegion(p1, p2, settings);
+                    if (raw != null && successPredicate.test(raw)) {
+                        T value = converter.apply(raw);
+                        run.succeeded();
+                        return value;
+                    }
                 }
             } catch (IOException | TesseractException e) {
-                logger.warn("OCR attempt {} threw an exception: {}", attempt + 1, e.getMessage());
+                logger.warn("OCR attempt {} threw an exception: {}", attempt, e.getMessage());
             } catch (RuntimeException e) {
-                logger.warn("OCR attempt {} threw a runtime exception: {}", attempt + 1, e.getMessage());
+                logger.warn("OCR attempt {} threw a runtime exception: {}", attempt, e.getMessage());
+            }
+            if (!run.hasNext()) {
+                break;
             }
             try {
-                Thread.sleep(delayMs);
+                Thread.sleep(run.nextDelayMs());
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 break;
             }
         }
+        run.failed();
         return null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package cl.camodev.utiles.retry;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * State of one call retried under a {@link RetryPolicy}. Typical use:
+ *
+ * <pre>
+ * RetryExecution run = policy.start("operation");
+ * while (run.nextAttempt()) {
+ *     if (!run.isUnchanged(fingerprint()) &amp;&amp; tryOnce()) {
+ *         run.succeeded();
+ *         return;
+ *     }
+ *     if (run.hasNext()) {
+ *         sleep(run.nextDelayMs());
+ *     }
+ * }
+ * run.failed();
+ * </pre>
+ */
+public final class RetryExecution {
+
+    private final RetryPolicy policy;
+    private final String operation;
+    private final long startedAt = System.currentTimeMillis();
+    private int attempts;
+    private int skipped;
+    private Object lastFingerprint;
+    private boolean finished;
+
+    RetryExecution(RetryPolicy policy, String operation) {
+        this.policy = policy;
+        this.operation = operation;
+    }
+
+    /**
+     * Starts the next attempt.
+     *
+     * @return false when the attempts or the deadline are exhausted
+     */
+    public boolean nextAttempt() {
+        if (!hasNext()) {
+            return false;
+        }
+        attempts++;
+        return true;
+    }
+
+    /**
+     * @return true if another attempt is allowed after the current one
+     */
+    public boolean hasNext() {
+        return attempts < policy.getMaxAttempts() && remainingMs() > 0;
+    }
+
+    /**
+     * Delay to wait before the next attempt: backoff with jitter, clipped to the deadline.
+     */
+    public long nextDelayMs() {
+        long delay = policy.baseDelayMs(attempts);
+        if (policy.getJitter() > 0 && delay > 0) {
+            double spread = policy.getJitter() * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+            delay = Math.round(delay * (1 + spread));
+        }
+        return Math.max(0, Math.min(delay, remainingMs()));
+    }
+
+    /**
+     * Records the fingerprint of what the current attempt observes (e.g. a hash of the region's
+     * pixels) and tells whether the attempt can be skipped.
+     *
+     * @param fingerprint {@code null} when unknown, which never skips
+     * @return true if the policy only retries on change and nothing changed since the previous attempt
+     */
+    public boolean isUnchanged(Object fingerprint) {
+        boolean unchanged = policy.isOnlyOnChange() && attempts > 1 && fingerprint != null
+                && Objects.equals(fingerprint, lastFingerprint);
+        lastFingerprint = fingerprint;
+        if (unchanged) {
+            skipped++;
+        }
+        return unchanged;
+    }
+
+    public void succeeded() {
+        finish(true);
+    }
+
+    public void failed() {
+        finish(false);
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Attempts skipped because nothing changed.
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public long getElapsedMs() {
+        return System.currentTimeMillis() - startedAt;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    private long remainingMs() {
+        if (policy.getDeadlineMs() <= 0) {
+            return Long.MAX_VALUE;
+        }
+        return policy.getDeadlineMs() - getElapsedMs();
+    }
+
+    private void finish(boolean success) {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        RetryMetricsRegistry.getInstance().record(operation, attempts, skipped, getElapsedMs(), success);
+    }
+}
@@ -0,0 +1,99 @@
+package cl.camodev.utiles.retry;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Central registry of retried calls, aggregated per operation: calls, successes, attempts,
+ * attempts skipped because nothing changed, and time to success.
+ */
+public final class RetryMetricsRegistry {
+
+    private static final RetryMetricsRegistry instance = new RetryMetricsRegistry();
+
+    private final Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+
+    private RetryMetricsRegistry() {
+    }
+
+    public static RetryMetricsRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * Records a finished call.
+     */
+    public void record(String operation, int attempts, int skipped, long elapsedMs, boolean success) {
+        operations.computeIfAbsent(operation, k -> new OperationStats()).record(attempts, skipped, elapsedMs, success);
+    }
+
+    /**
+     * @return the statistics of an operation, or {@code null} if it was never recorded
+     */
+    public OperationStats get(String operation) {
+        return operations.get(operation);
+    }
+
+    public void clear() {
+        operations.clear();
+    }
+
+    /**
+     * One line per operation, sorted by name.
+     */
+    public String getStats() {
+        StringBuilder stats = new StringBuilder();
+        new TreeMap<>(operations).forEach((operation, s) -> stats.append(operation).append(": ").append(s).append('\n'));
+        return stats.toString();
+    }
+
+    /**
+     * Aggregated statistics of one operation.
+     */
+    public static final class OperationStats {
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong successes = new AtomicLong();
+        private final AtomicLong attempts = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong timeToSuccessMs = new AtomicLong();
+        private final AtomicLong maxTimeToSuccessMs = new AtomicLong();
+
+        private void record(int callAttempts, int callSkipped, long elapsedMs, boolean success) {
+            calls.incrementAndGet();
+            attempts.addAndGet(callAttempts);
+            skipped.addAndGet(callSkipped);
+            if (success) {
+                successes.incrementAndGet();
+                timeToSuccessMs.addAndGet(elapsedMs);
+                maxTimeToSuccessMs.accumulateAndGet(elapsedMs, Math::max);
+            }
+        }
+
+        public long getCalls() {
+            return calls.get();
+        }
+
+        public long getSuccesses() {
+            return successes.get();
+        }
+
+        public double getAverageAttempts() {
+            long c = calls.get();
+            return c == 0 ? 0 : (double) attempts.get() / c;
+        }
+
+        public double getAverageTimeToSuccessMs() {
+            long s = successes.get();
+            return s == 0 ? 0 : (double) timeToSuccessMs.get() / s;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d calls, %d succeeded, %.2f attempts/call, %d skipped unchanged, %.0f ms avg / %d ms max to success",
+                    calls.get(), successes.get(), getAverageAttempts(), skipped.get(), getAverageTimeToSuccessMs(),
+                    maxTimeToSuccessMs.get());
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package cl.camodev.utiles.retry;
+
+/**
+ * How an operation is retried: number of attempts, delay between them (fixed, or exponential
+ * with jitter), an optional overall deadline, and whether attempts are skipped while the
+ * observed screen has not changed since the previous one.
+ * <p>
+ * Policies are immutable and can be shared; each call gets its own {@link RetryExecution}.
+ */
+public final class RetryPolicy {
+
+    private static final int BACKOFF_MAX_FACTOR = 8;
+    private static final double BACKOFF_JITTER = 0.2;
+
+    private final String name;
+    private final int maxAttempts;
+    private final long initialDelayMs;
+    private final double multiplier;
+    private final long maxDelayMs;
+    private final double jitter;
+    private final long deadlineMs;
+    private final boolean onlyOnChange;
+
+    private RetryPolicy(Builder builder) {
+        this.name = builder.name;
+        this.maxAttempts = builder.maxAttempts;
+        this.initialDelayMs = builder.initialDelayMs;
+        this.multiplier = builder.multiplier;
+        this.maxDelayMs = builder.maxDelayMs;
+        this.jitter = builder.jitter;
+        this.deadlineMs = builder.deadlineMs;
+        this.onlyOnChange = builder.onlyOnChange;
+    }
+
+    /**
+     * Fixed delay between a fixed number of attempts.
+     */
+    public static RetryPolicy fixed(int maxAttempts, long delayMs) {
+        return builder().maxAttempts(maxAttempts).initialDelayMs(delayMs).build();
+    }
+
+    /**
+     * Exponential backoff: the delay starts at {@code initialDelayMs}, doubles after every retry up
+     * to {@value #BACKOFF_MAX_FACTOR} times the initial delay, and is spread by
+     * +/-{@value #BACKOFF_JITTER} so concurrent callers do not retry in lockstep.
+     */
+    public static RetryPolicy backoff(int maxAttempts, long initialDelayMs) {
+        return builder().maxAttempts(maxAttempts).initialDelayMs(initialDelayMs).multiplier(2)
+                .maxDelayMs(initialDelayMs * BACKOFF_MAX_FACTOR).jitter(BACKOFF_JITTER).build();
+    }
+
+    /**
+     * Starts tracking one call under the policy name, or {@code defaultOperation} if it has none.
+     */
+    public RetryExecution start(String defaultOperation) {
+        return new RetryExecution(this, name != null ? name : defaultOperation);
+    }
+
+    /**
+     * Delay before the given retry (1 for the first retry), before jitter.
+     */
+    long baseDelayMs(int retry) {
+        double delay = initialDelayMs * Math.pow(multiplier, retry - 1);
+        return (long) Math.min(delay, maxDelayMs);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public double getJitter() {
+        return jitter;
+    }
+
+    public long getDeadlineMs() {
+        return deadlineMs;
+    }
+
+    public boolean isOnlyOnChange() {
+        return onlyOnChange;
+    }
+
+    /**
+     * Copy of this policy whose calls are reported under {@code name}.
+     */
+    public RetryPolicy named(String name) {
+        return toBuilder().name(name).build();
+    }
+
+    public Builder toBuilder() {
+        return builder().name(name).maxAttempts(maxAttempts).initialDelayMs(initialDelayMs).multiplier(multiplier)
+                .maxDelayMs(maxDelayMs).jitter(jitter).deadlineMs(deadlineMs).onlyOnChange(onlyOnChange);
+    }
+
+    @Override
+    public String toString() {
+        return "RetryPolicy [name=" + name + ", maxAttempts=" + maxAttempts + ", initialDelayMs=" + initialDelayMs
+                + ", multiplier=" + multiplier + ", maxDelayMs=" + maxDelayMs + ", jitter=" + jitter + ", deadlineMs="
+                + deadlineMs + ", onlyOnChange=" + onlyOnChange + "]";
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private String name;
+        private int maxAttempts = 5;
+        private long initialDelayMs = 200;
+        private double multiplier = 1;
+        private long maxDelayMs = Long.MAX_VALUE;
+        private double jitter;
+        private long deadlineMs;
+        private boolean onlyOnChange;
+
+        /**
+         * Name the calls are reported under in the {@link RetryMetricsRegistry}.
+         */
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Builder maxAttempts(int maxAttempts) {
+            this.maxAttempts = Math.max(1, maxAttempts);
+            return this;
+        }
+
+        public Builder initialDelayMs(long initialDelayMs) {
+            this.initialDelayMs = Math.max(0, initialDelayMs);
+            return this;
+        }
+
+        /**
+         * Factor applied to the delay after every retry; 1 keeps it fixed.
+         */
+        public Builder multiplier(double multiplier) {
+            this.multiplier = Math.max(1, multiplier);
+            return this;
+        }
+
+        public Builder maxDelayMs(long maxDelayMs) {
+            this.maxDelayMs = Math.max(0, maxDelayMs);
+            return this;
+        }
+
+        /**
+         * Random spread of each delay, as a fraction of it (0.2 gives +/-20%).
+         */
+        public Builder jitter(double jitter) {
+            this.jitter = Math.min(1, Math.max(0, jitter));
+            return this;
+        }
+
+        /**
+         * Overall time budget of a call, first attempt included; 0 means none.
+         */
+        public Builder deadlineMs(long deadlineMs) {
+            this.deadlineMs = Math.max(0, deadlineMs);
+            return this;
+        }
+
+        /**
+         * Skips the work of an attempt while the observed screen is unchanged since the previous
+         * attempt: an identical screen would give the same result.
+         */
+        public Builder onlyOnChange(boolean onlyOnChange) {
+            this.onlyOnChange = onlyOnChange;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package cl.camodev.utiles.image;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cl.camodev.wosbot.ot.DTOArea;
+import cl.camodev.wosbot.ot.DTOPoint;
+
+class TemplateLocationIndexTest {
+
+	private static final String TEMPLATE = "/templates/test.png";
+	private static final DTOPoint SCREEN_TOP_LEFT = new DTOPoint(0, 0);
+	private static final DTOPoint SCREEN_BOTTOM_RIGHT = new DTOPoint(720, 1280);
+
+	@TempDir
+	Path dir;
+
+	private TemplateLocationIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = TemplateLocationIndex.create(dir.resolve("locations.properties"));
+	}
+
+	@Test
+	void unknownTemplateHasNoSearchArea() {
+		assertNull(index.getSearchArea(TEMPLATE, SCREEN_TOP_LEFT, SCREEN_BOTTOM_RIGHT));
+	}
+
+	@Test
+	void searchAreaIsTheLearnedAreaWithAMargin() {
+		index.record(TEMPLATE, 100, 200, 50, 40);
+		index.record(TEMPLATE, 110, 210, 50, 40);
+
+		DTOArea area = index.getSearchArea(TEMPLATE, SCREEN_TOP_LEFT, SCREEN_BOTTOM_RIGHT);
+
+		assertNotNull(area);
+		assertEquals(76, area.topLeft().getX());
+		assertEquals(176, area.topLeft().getY());
+		assertEquals(184, area.bottomRight().getX());
+		assertEquals(274, area.bottomRight().getY());
+	}
+
+	@Test
+	void searchAreaIsClippedToTheRequestedRegion() {
+		index.record(TEMPLATE, 10, 10, 50, 40);
+
+		DTOArea area = index.getSearchArea(TEMPLATE, new DTOPoint(0, 0), new DTOPoint(400, 400));
+
+		assertNotNull(area);
+		assertEquals(0, area.topLeft().getX());
+		assertEquals(0, area.topLeft().getY());
+	}
+
+	@Test
+	void areaTooLargeForTheRegionIsNotProbed() {
+		index.record(TEMPLATE, 0, 0, 50, 40);
+		index.record(TEMPLATE, 600, 1200, 50, 40);
+
+		assertNull(index.getSearchArea(TEMPLATE, SCREEN_TOP_LEFT, SCREEN_BOTTOM_RIGHT));
+	}
+
+	@Test
+	void areaOutsideTheRequestedRegionIsNotProbed() {
+		index.record(TEMPLATE, 600, 1200, 50, 40);
+
+		assertNull(index.getSearchArea(TEMPLATE, new DTOPoint(0, 0), new DTOPoint(300, 300)));
+	}
+
+	@Test
+	void oldLocationsDecayAfterTwoPeriods() {
+		index.record(TEMPLATE, 10, 10, 50, 40);
+		for (int i = 0; i < TemplateLocationIndex.PERIOD_MATCHES; i++) {
+			index.record(TEMPLATE, 300, 600, 50, 40);
+		}
+		// The first location is still part of the previous period
+		assertNull(index.getSearchArea(TEMPLATE, SCREEN_TOP_LEFT, SCREEN_BOTTOM_RIGHT));
+
+		for (int i = 0; i < TemplateLocationIndex.PERIOD_MATCHES; i++) {
+			index.record(TEMPLATE, 300, 600, 50, 40);
+		}
+		DTOArea area = index.getSearchArea(TEMPLATE, SCREEN_TOP_LEFT, SCREEN_BOTTOM_RIGHT);
+		assertNotNull(area);
+		assertEquals(276, area.topLeft().getX());
+		assertEquals(576, area.topLeft().getY());
+	}
+
+	@Test
+	void everyFiftiethProbeHitIsVerified() {
+		int verified = 0;
+		for (int i = 0; i < 100; i++) {
+			if (index.recordProbe(true)) {
+				verified++;
+			}
+		}
+
+		assertEquals(2, verified);
+		assertFalse(index.recordProbe(false));
+		assertEquals(100, index.getPriorHits());
+		assertEquals(1, index.getPriorMisses());
+	}
+
+	@Test
+	void learnedLocationsAreReloaded() throws IOException {
+		Path file = dir.resolve("saved.properties");
+		Files.writeString(file, TEMPLATE + "=100,200,150,240\n");
+
+		DTOArea area = TemplateLocationIndex.create(file).getSearchArea(TEMPLATE, SCREEN_TOP_LEFT,
+				SCREEN_BOTTOM_RIGHT);
+
+		assertNotNull(area);
+		assertEquals(76, area.topLeft().getX());
+		assertEquals(174, area.bottomRight().getX());
+	}
+
+	@Test
+	void clearForgetsLocations() {
+		index.record(TEMPLATE, 100, 200, 50, 40);
+		index.clear();
+
+		assertNull(index.getSearchArea(TEMPLATE, SCREEN_TOP_LEFT, SCREEN_BOTTOM_RIGHT));
+		assertTrue(Files.exists(dir.resolve("locations.properties")));
+	}
+}
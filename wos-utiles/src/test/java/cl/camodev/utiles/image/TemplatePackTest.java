@@ -0,0 +1,137 @@
+package cl.camodev.utiles.image;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opencv.core.Mat;
+
+class TemplatePackTest {
+
+	// Copies of two game templates under src/test/resources
+	private static final String LANCER = "/templates/shortcuts/lancer.png";
+	private static final String INFANTRY = "/templates/shortcuts/infantry.png";
+
+	@TempDir
+	Path dir;
+
+	private final TemplateStore store = TemplateStore.getInstance();
+
+	@BeforeAll
+	static void loadOpenCv() {
+		nu.pattern.OpenCV.loadLocally();
+	}
+
+	@AfterEach
+	void clearStore() {
+		store.setPackFile(null);
+		store.clear();
+	}
+
+	@Test
+	void missingPackIsNotLoaded() {
+		assertFalse(TemplatePack.load(dir.resolve("templates.pack"), store));
+	}
+
+	@Test
+	void builtPackLoadsTheSamePixels() throws IOException {
+		Path packFile = dir.resolve("templates.pack");
+		store.clear();
+		TemplateEntry lancer = store.get(LANCER);
+		TemplateEntry infantry = store.get(INFANTRY);
+		assertNotNull(lancer);
+		assertNotNull(infantry);
+		byte[] lancerColor = pixels(lancer.getColor());
+		byte[] lancerGray = pixels(lancer.getGray());
+		byte[] infantryColor = pixels(infantry.getColor());
+
+		TemplatePack.build(packFile, store);
+		store.clear();
+
+		assertTrue(TemplatePack.load(packFile, store));
+		assertEquals(2, store.size());
+		TemplateEntry loaded = store.get(LANCER);
+		assertEquals(lancer.getWidth(), loaded.getWidth());
+		assertEquals(lancer.getHeight(), loaded.getHeight());
+		assertArrayEquals(lancerColor, pixels(loaded.getColor()));
+		assertArrayEquals(lancerGray, pixels(loaded.getGray()));
+		assertArrayEquals(infantryColor, pixels(store.get(INFANTRY).getColor()));
+	}
+
+	@Test
+	void storeMapsTheConfiguredPackOnFirstUse() throws IOException {
+		Path packFile = dir.resolve("templates.pack");
+		store.clear();
+		TemplatePack.build(packFile, store);
+		store.clear();
+
+		store.setPackFile(packFile);
+		store.get(LANCER);
+
+		assertTrue(store.loadPack());
+		assertTrue(store.contains(INFANTRY));
+	}
+
+	@Test
+	void buildDeletesOtherVersions() throws IOException {
+		Path packFile = dir.resolve("templates.pack");
+		Path old = Files.createFile(dir.resolve("templates-00000000.pack"));
+
+		TemplatePack.build(packFile, store);
+
+		assertFalse(Files.exists(old));
+		assertEquals(1, packs().size());
+	}
+
+	@Test
+	void corruptPackIsNotLoaded() throws IOException {
+		Path packFile = dir.resolve("templates.pack");
+		TemplatePack.build(packFile, store);
+		Path versioned = packs().get(0);
+		byte[] bytes = Files.readAllBytes(versioned);
+		bytes[0] ^= 0x7f;
+		Files.write(versioned, bytes);
+		store.clear();
+
+		assertFalse(TemplatePack.load(packFile, store));
+		assertEquals(0, store.size());
+	}
+
+	@Test
+	void truncatedPackIsNotLoaded() throws IOException {
+		Path packFile = dir.resolve("templates.pack");
+		TemplatePack.build(packFile, store);
+		Path versioned = packs().get(0);
+		byte[] bytes = Files.readAllBytes(versioned);
+		Files.write(versioned, Arrays.copyOf(bytes, bytes.length - 1));
+		store.clear();
+
+		assertFalse(TemplatePack.load(packFile, store));
+	}
+
+	private List<Path> packs() throws IOException {
+		try (Stream<Path> files = Files.list(dir)) {
+			return files.filter(file -> file.getFileName().toString().endsWith(".pack")).toList();
+		}
+	}
+
+	private static byte[] pixels(Mat mat) {
+		Mat continuous = mat.isContinuous() ? mat : mat.clone();
+		byte[] data = new byte[(int) (continuous.total() * continuous.channels())];
+		continuous.get(0, 0, data);
+		return data;
+	}
+}
@@ -0,0 +1,139 @@
+package cl.camodev.utiles.ocr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+import cl.camodev.wosbot.ot.DTOTesseractSettings;
+
+class DigitRecognizerTest {
+
+    private static final DTOTesseractSettings DIGITS = DTOTesseractSettings.builder()
+            .setAllowedChars("0123456789")
+            .build();
+
+    @TempDir
+    Path dir;
+
+    private DigitRecognizer recognizer;
+
+    @BeforeAll
+    static void loadOpenCv() {
+        nu.pattern.OpenCV.loadLocally();
+    }
+
+    @BeforeEach
+    void setUp() {
+        recognizer = DigitRecognizer.create(dir.resolve("glyphs.properties"));
+    }
+
+    @Test
+    void nothingIsReadBeforeLearning() {
+        DigitRecognizer.Result result = recognizer.recognize(render("42"), DIGITS);
+
+        assertFalse(result.isConfident());
+        assertEquals(1, recognizer.getFallbacks());
+    }
+
+    @Test
+    void unseenCharacterIsNotReadConfidently() {
+        recognizer.learn(render("10"), DIGITS, "10");
+
+        assertFalse(recognizer.recognize(render("18"), DIGITS).isConfident());
+    }
+
+    @Test
+    void learnedDigitsAreRead() {
+        learnDigits(recognizer);
+
+        DigitRecognizer.Result result = recognizer.recognize(render("1834"), DIGITS);
+
+        assertTrue(result.isConfident());
+        assertEquals("1834", result.text());
+        assertEquals(1, recognizer.getConfidentReads());
+    }
+
+    @Test
+    void textThatDoesNotMatchTheGlyphsIsNotLearned() {
+        recognizer.learn(render("10"), DIGITS, "1");
+        recognizer.learn(render("10"), DIGITS, "IO");
+
+        assertFalse(recognizer.recognize(render("10"), DTOTesseractSettings.builder().setAllowedChars("01").build())
+                .isConfident());
+    }
+
+    @Test
+    void samplesAreReloaded() {
+        Path file = dir.resolve("saved.properties");
+        DigitRecognizer.create(file).learn(render("10"), DIGITS, "10");
+
+        DigitRecognizer.Result result = DigitRecognizer.create(file)
+                .recognize(render("01"), DTOTesseractSettings.builder().setAllowedChars("01").build());
+
+        assertTrue(result.isConfident());
+        assertEquals("01", result.text());
+    }
+
+    @Test
+    void oneReadInTwentyIsCrossChecked() {
+        int checks = 0;
+        for (int i = 1; i <= 40; i++) {
+            if (recognizer.shouldCrossCheck()) {
+                checks++;
+                assertEquals(0, i % 20);
+            }
+        }
+
+        assertEquals(2, checks);
+    }
+
+    @Test
+    void agreeingCrossCheckKeepsTheSamples() {
+        learnDigits(recognizer);
+        Mat region = render("1834");
+        DigitRecognizer.Result read = recognizer.recognize(region, DIGITS);
+
+        assertTrue(recognizer.crossCheck(region, DIGITS, read, "18 34"));
+        assertEquals(0, recognizer.getMismatches());
+    }
+
+    @Test
+    void disagreeingCrossCheckRelearnsTheMisreadGlyphs() {
+        learnDigits(recognizer);
+        Mat region = render("18");
+        DigitRecognizer.Result read = recognizer.recognize(region, DIGITS);
+
+        assertFalse(recognizer.crossCheck(region, DIGITS, read, "13"));
+        assertEquals(1, recognizer.getMismatches());
+
+        // The only sample of 8 matched the misread glyph, so 8 is unknown again
+        assertFalse(recognizer.recognize(region, DIGITS).isConfident());
+    }
+
+    private static void learnDigits(DigitRecognizer recognizer) {
+        for (String text : new String[] { "10", "23", "45", "67", "89" }) {
+            recognizer.learn(render(text), DIGITS, text);
+        }
+    }
+
+    /**
+     * White digits on black, like the game's counters.
+     */
+    private static Mat render(String text) {
+        Mat image = new Mat(40, 20 * text.length() + 20, CvType.CV_8UC3, new Scalar(0, 0, 0));
+        Imgproc.putText(image, text, new Point(5, 30), Imgproc.FONT_HERSHEY_SIMPLEX, 1.0, new Scalar(255, 255, 255), 2);
+        return image;
+    }
+}
@@ -0,0 +1,160 @@
+package cl.camodev.utiles.ocr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import cl.camodev.utiles.image.ScreenFrame;
+import cl.camodev.wosbot.ot.DTOPoint;
+import net.sourceforge.tess4j.TesseractException;
+
+class OcrBatchTest {
+
+    private ScreenFrame frame;
+
+    @BeforeAll
+    static void loadOpenCv() {
+        nu.pattern.OpenCV.loadLocally();
+    }
+
+    @BeforeEach
+    void setUp() {
+        frame = ScreenFrame.fromBgr(new byte[10 * 10 * 3], 10, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        frame.release();
+    }
+
+    @Test
+    void allReturnsEveryResultInRegionOrder() {
+        // The first region finishes last
+        OcrBatch.RegionReader reader = reader(Map.of(0, "12", 1, "abc", 2, "34"), Map.of(0, 200L));
+
+        List<OcrRegionResult<Integer>> results = OcrBatch.run(frame, regions(3), OcrBatch.Policy.ALL, reader);
+
+        assertEquals(3, results.size());
+        assertEquals(12, results.get(0).value());
+        assertEquals("abc", results.get(1).text());
+        assertFalse(results.get(1).isParsed());
+        assertEquals(34, results.get(2).value());
+        assertTrue(results.stream().allMatch(OcrRegionResult::completed));
+    }
+
+    @Test
+    void readErrorsAreReportedPerRegion() {
+        OcrBatch.RegionReader reader = (f, p1, p2, settings) -> {
+            if (p1.getX() == 1) {
+                throw new TesseractException("unreadable");
+            }
+            return "7";
+        };
+
+        List<OcrRegionResult<Integer>> results = OcrBatch.run(frame, regions(2), OcrBatch.Policy.ALL, reader);
+
+        assertEquals(7, results.get(0).value());
+        assertInstanceOf(TesseractException.class, results.get(1).error());
+        assertNull(results.get(1).value());
+        assertTrue(results.get(1).completed());
+    }
+
+    @Test
+    void emptyBatchReadsNothing() {
+        assertTrue(OcrBatch.run(frame, List.<OcrRegion<Integer>>of(), OcrBatch.Policy.ALL, reader(Map.of(), Map.of()))
+                .isEmpty());
+    }
+
+    @Test
+    void firstSuccessPrefersTheEarliestRegionThatParses() {
+        // The second region parses first, but the first one also parses once it finishes
+        OcrBatch.RegionReader reader = reader(Map.of(0, "1", 1, "2"), Map.of(0, 200L));
+
+        List<OcrRegionResult<Integer>> results = OcrBatch.run(frame, regions(2), OcrBatch.Policy.FIRST_SUCCESS, reader);
+
+        assertEquals(1, results.get(0).value());
+    }
+
+    @Test
+    void firstSuccessSkipsRegionsThatDoNotParse() {
+        OcrBatch.RegionReader reader = reader(Map.of(0, "abc", 1, "2", 2, "3"), Map.of(0, 100L));
+
+        List<OcrRegionResult<Integer>> results = OcrBatch.run(frame, regions(3), OcrBatch.Policy.FIRST_SUCCESS, reader);
+
+        assertTrue(results.get(0).completed());
+        assertFalse(results.get(0).isParsed());
+        assertEquals(2, results.get(1).value());
+    }
+
+    @Test
+    void firstSuccessCancelsReadsThatHaveNotStarted() {
+        Map<Integer, Long> delays = new HashMap<>();
+        for (int i = 1; i < 20; i++) {
+            delays.put(i, 100L);
+        }
+        OcrBatch.RegionReader reader = reader(Map.of(0, "1"), delays);
+
+        List<OcrRegionResult<Integer>> results = OcrBatch.run(frame, regions(20), OcrBatch.Policy.FIRST_SUCCESS, reader);
+
+        assertEquals(20, results.size());
+        assertEquals(1, results.get(0).value());
+        List<OcrRegionResult<Integer>> cancelled = results.stream().filter(result -> !result.completed()).toList();
+        assertFalse(cancelled.isEmpty());
+        assertTrue(cancelled.stream().allMatch(result -> result.text() == null && !result.isParsed()));
+    }
+
+    @Test
+    void frameIsReleasedOnceTheReadsAreDone() {
+        OcrBatch.run(frame, regions(3), OcrBatch.Policy.ALL, reader(Map.of(0, "1"), Map.of()));
+
+        frame.release();
+        assertThrows(IllegalStateException.class, frame::retain);
+        frame = ScreenFrame.fromBgr(new byte[3], 1, 1);
+    }
+
+    /**
+     * Regions numbered by the x coordinate of their top-left corner, parsed as integers.
+     */
+    private static List<OcrRegion<Integer>> regions(int count) {
+        List<OcrRegion<Integer>> regions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            regions.add(new OcrRegion<>(new DTOPoint(i, 0), new DTOPoint(i + 1, 1), null, OcrBatchTest::parse));
+        }
+        return regions;
+    }
+
+    private static Integer parse(String text) {
+        try {
+            return Integer.valueOf(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the text of each region after its delay; regions without text read as empty.
+     */
+    private static OcrBatch.RegionReader reader(Map<Integer, String> texts, Map<Integer, Long> delaysMs) {
+        return (f, p1, p2, settings) -> {
+            try {
+                Thread.sleep(delaysMs.getOrDefault(p1.getX(), 0L));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return texts.getOrDefault(p1.getX(), "");
+        };
+    }
+}
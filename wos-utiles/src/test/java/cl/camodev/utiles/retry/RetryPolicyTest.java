@@ -0,0 +1,124 @@
+package cl.camodev.utiles.retry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class RetryPolicyTest {
+
+    @Test
+    void fixedPolicyKeepsTheSameDelay() {
+        RetryPolicy policy = RetryPolicy.fixed(3, 300);
+
+        assertEquals(300, policy.baseDelayMs(1));
+        assertEquals(300, policy.baseDelayMs(2));
+        RetryExecution run = policy.start("fixed");
+        run.nextAttempt();
+        assertEquals(300, run.nextDelayMs());
+    }
+
+    @Test
+    void backoffDoublesUpToEightTimesTheInitialDelay() {
+        RetryPolicy policy = RetryPolicy.backoff(10, 100);
+
+        assertEquals(100, policy.baseDelayMs(1));
+        assertEquals(200, policy.baseDelayMs(2));
+        assertEquals(400, policy.baseDelayMs(3));
+        assertEquals(800, policy.baseDelayMs(4));
+        assertEquals(800, policy.baseDelayMs(5));
+        assertEquals(800, policy.baseDelayMs(9));
+    }
+
+    @Test
+    void jitterStaysWithinItsSpread() {
+        RetryPolicy policy = RetryPolicy.backoff(10, 100);
+        boolean spread = false;
+        for (int i = 0; i < 200; i++) {
+            RetryExecution run = policy.start("jitter");
+            run.nextAttempt();
+            run.nextAttempt();
+            long delay = run.nextDelayMs();
+            assertTrue(delay >= 160 && delay <= 240, "delay " + delay);
+            spread |= delay != 200;
+        }
+        assertTrue(spread);
+    }
+
+    @Test
+    void attemptsStopAtTheMaximum() {
+        RetryExecution run = RetryPolicy.fixed(3, 0).start("attempts");
+
+        assertTrue(run.nextAttempt());
+        assertTrue(run.nextAttempt());
+        assertTrue(run.hasNext());
+        assertTrue(run.nextAttempt());
+        assertFalse(run.hasNext());
+        assertFalse(run.nextAttempt());
+        assertEquals(3, run.getAttempts());
+    }
+
+    @Test
+    void deadlineStopsAttemptsAndClipsTheDelay() throws InterruptedException {
+        RetryPolicy policy = RetryPolicy.builder().maxAttempts(100).initialDelayMs(10_000).deadlineMs(150).build();
+        RetryExecution run = policy.start("deadline");
+
+        assertTrue(run.nextAttempt());
+        assertTrue(run.nextDelayMs() <= 150);
+        Thread.sleep(200);
+        assertFalse(run.hasNext());
+        assertFalse(run.nextAttempt());
+        assertEquals(0, run.nextDelayMs());
+    }
+
+    @Test
+    void onlyOnChangeSkipsAttemptsOnAnUnchangedScreen() {
+        RetryExecution run = RetryPolicy.builder().maxAttempts(5).onlyOnChange(true).build().start("onlyOnChange");
+
+        run.nextAttempt();
+        assertFalse(run.isUnchanged("a"));
+        run.nextAttempt();
+        assertTrue(run.isUnchanged("a"));
+        run.nextAttempt();
+        assertFalse(run.isUnchanged("b"));
+        run.nextAttempt();
+        assertFalse(run.isUnchanged(null));
+        run.nextAttempt();
+        assertFalse(run.isUnchanged(null));
+        assertEquals(1, run.getSkipped());
+    }
+
+    @Test
+    void unchangedScreenIsRetriedWithoutOnlyOnChange() {
+        RetryExecution run = RetryPolicy.fixed(3, 0).start("always");
+
+        run.nextAttempt();
+        run.isUnchanged("a");
+        run.nextAttempt();
+
+        assertFalse(run.isUnchanged("a"));
+        assertEquals(0, run.getSkipped());
+    }
+
+    @Test
+    void callsAreRecordedOnceUnderThePolicyName() {
+        RetryPolicy policy = RetryPolicy.fixed(3, 0).named("RetryPolicyTest.metrics");
+
+        RetryExecution failed = policy.start("ignored");
+        while (failed.nextAttempt()) {
+            // every attempt fails
+        }
+        failed.failed();
+        failed.failed();
+
+        RetryExecution succeeded = policy.start("ignored");
+        succeeded.nextAttempt();
+        succeeded.succeeded();
+
+        RetryMetricsRegistry.OperationStats stats = RetryMetricsRegistry.getInstance().get("RetryPolicyTest.metrics");
+        assertEquals(2, stats.getCalls());
+        assertEquals(1, stats.getSuccesses());
+        assertEquals(2.0, stats.getAverageAttempts());
+    }
+}